@@ -0,0 +1,76 @@
+package com.example.main.cache;
+
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hibernate second-level cache kept in this process, one {@link LocalStorageAccess} per
+ * region. Selected with {@code hibernate.cache.region.factory_class}.
+ * <p>
+ * Each region reads its limits from {@code hibernate.cache.local.<region>.max-entries} and
+ * {@code .ttl-seconds}, falling back to {@code hibernate.cache.local.default.*}. The update
+ * timestamps region is never bounded: losing an entry there would let a stale query
+ * result be served.
+ */
+public class LocalRegionFactory extends RegionFactoryTemplate {
+
+    static final String PREFIX = "hibernate.cache.local.";
+    private static final int DEFAULT_MAX_ENTRIES = 10_000;
+    private static final long DEFAULT_TTL_SECONDS = 600;
+
+    private final Map<String, LocalStorageAccess> regions = new ConcurrentHashMap<>();
+    private Map<String, Object> settings = Map.of();
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions options, Map<String, Object> configValues) {
+        settings = configValues;
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        regions.values().forEach(LocalStorageAccess::release);
+        regions.clear();
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                    DomainDataRegionBuildingContext buildingContext) {
+        return bounded(regionConfig.getRegionName());
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return bounded(regionName);
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        LocalStorageAccess storage = new LocalStorageAccess(0, 0);
+        regions.put(regionName, storage);
+        return storage;
+    }
+
+    private LocalStorageAccess bounded(String regionName) {
+        int maxEntries = (int) setting(regionName, "max-entries", DEFAULT_MAX_ENTRIES);
+        long ttlSeconds = setting(regionName, "ttl-seconds", DEFAULT_TTL_SECONDS);
+        LocalStorageAccess storage = new LocalStorageAccess(maxEntries, ttlSeconds * 1000);
+        regions.put(regionName, storage);
+        return storage;
+    }
+
+    private long setting(String regionName, String name, long defaultValue) {
+        Object value = settings.get(PREFIX + regionName + "." + name);
+        if (value == null) {
+            value = settings.get(PREFIX + "default." + name);
+        }
+        return value == null ? defaultValue : Long.parseLong(value.toString().trim());
+    }
+}
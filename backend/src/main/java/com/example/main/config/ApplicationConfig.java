@@ -4,12 +4,14 @@ import com.example.main.utils.PasswordHashingService;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
 
 import java.util.Properties;
 
 @Configuration
+@EnableAsync
 public class ApplicationConfig {
     @Value("${spring.mail.host}")
     private String mailHost;
@@ -29,9 +31,19 @@ public class ApplicationConfig {
     @Value("${spring.mail.properties.mail.smtp.starttls.enable}")
     private String mailStartTls;
 
-    @Bean
+    @Value("${auth.password.bcrypt-cost:12}")
+    private int bcryptCost;
+
+    @Value("${auth.password.threads:0}")
+    private int hashingThreads;
+
+    @Value("${auth.password.queue-size:64}")
+    private int hashingQueueSize;
+
+    @Bean(destroyMethod = "shutdown")
     public PasswordHashingService passwordHashingService(){
-        return new PasswordHashingService();
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        return new PasswordHashingService(bcryptCost, threads, hashingQueueSize);
     }
 
     @Bean
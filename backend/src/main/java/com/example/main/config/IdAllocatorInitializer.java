@@ -0,0 +1,55 @@
+package com.example.main.config;
+
+import com.example.main.repository.AnswerRepository;
+import com.example.main.repository.VoteRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Keeps the pooled id allocator ahead of ids already in use. Votes and answers moved from
+ * IDENTITY columns to the {@code id_allocator} table, so on a database that predates the
+ * switch the allocator would start at 1 and collide with existing rows.
+ */
+@Component
+public class IdAllocatorInitializer {
+    private static final Logger log = LoggerFactory.getLogger(IdAllocatorInitializer.class);
+
+    // Must match allocationSize on the entities' @TableGenerator
+    static final int ALLOCATION_SIZE = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private VoteRepository voteRepository;
+
+    @Autowired
+    private AnswerRepository answerRepository;
+
+    @PostConstruct
+    void alignAllocators() {
+        align("votes", voteRepository.findMaxId());
+        align("answer", answerRepository.findMaxId());
+    }
+
+    private void align(String entity, long maxId) {
+        // The pooled optimizer may hand out up to a full block below the stored value
+        long floor = maxId + ALLOCATION_SIZE + 1;
+        List<Long> current = jdbcTemplate.queryForList(
+                "SELECT next_id FROM id_allocator WHERE entity = ?", Long.class, entity);
+        if (current.isEmpty()) {
+            jdbcTemplate.update("INSERT INTO id_allocator (entity, next_id) VALUES (?, ?)", entity, floor);
+        } else if (current.get(0) < floor) {
+            jdbcTemplate.update("UPDATE id_allocator SET next_id = ? WHERE entity = ?", floor, entity);
+        } else {
+            return;
+        }
+        log.info("Moved the {} id allocator past existing id {}", entity, maxId);
+    }
+}
@@ -1,8 +1,10 @@
 package com.example.main.controller;
 
 import com.example.main.dto.AnswerDto;
+import com.example.main.dto.AnswerSummaryDto;
+import com.example.main.dto.CursorPageDto;
 import com.example.main.model.Question;
-import com.example.main.model.User;
+import com.example.main.security.AccessPolicy;
 import com.example.main.service.AnswerService;
 import com.example.main.service.QuestionService;
 import com.example.main.service.UserService;
@@ -26,6 +28,8 @@ public class AnswerController {
     private UserService userService;
     @Autowired
     private QuestionService questionService;
+    @Autowired
+    private AccessPolicy accessPolicy;
 
     @GetMapping("/all")
     public ResponseEntity<List<AnswerDto>> getAllAnswers(){
@@ -50,7 +54,10 @@ public class AnswerController {
     }
 
     @GetMapping("/question/{questionId}")
-    public ResponseEntity<List<AnswerDto>> getAnswersByQuestion(@PathVariable String questionId){
+    public ResponseEntity<List<AnswerDto>> getAnswersByQuestion(@PathVariable String questionId,
+                                                                @RequestParam(required = false) String sort,
+                                                                @RequestParam(required = false) Integer page,
+                                                                @RequestParam(required = false) Integer size){
         // Check for undefined or invalid ID
         if (questionId == null || questionId.equals("undefined") || questionId.equals("null")) {
             return ResponseEntity.badRequest().build();
@@ -58,8 +65,9 @@ public class AnswerController {
         
         try {
             Long qId = Long.valueOf(questionId);
-            return ResponseEntity.ok(answerService.getAnswersByQuestion(qId));
-        } catch (NumberFormatException e) {
+            return ResponseEntity.ok(answerService.getAnswersByQuestion(qId, sort, page, size));
+        } catch (IllegalArgumentException e) {
+            // also a non-numeric id, or an unknown sort
             return ResponseEntity.badRequest().build();
         }
     }
@@ -79,6 +87,23 @@ public class AnswerController {
         }
     }
 
+    @GetMapping("/author/{authorId}/summary")
+    public ResponseEntity<CursorPageDto<AnswerSummaryDto>> getAnswerSummariesByAuthor(@PathVariable String authorId,
+                                                                                     @RequestParam(required = false) String cursor,
+                                                                                     @RequestParam(required = false) Integer size){
+        // Check for undefined or invalid ID
+        if (authorId == null || authorId.equals("undefined") || authorId.equals("null")) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            Long aId = Long.valueOf(authorId);
+            return ResponseEntity.ok(answerService.getAnswerSummariesByAuthor(aId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PostMapping("/create")
     public ResponseEntity<?> createAnswer(@RequestBody Map<String, Object> body){
         try {
@@ -157,8 +182,7 @@ public class AnswerController {
             }
             
             // Check if user exists
-            User user = userService.findUserEntityById(authorId);
-            if (user == null) {
+            if (userService.findAuthorSummary(authorId).isEmpty()) {
                 return ResponseEntity.badRequest().body(Map.of("error", "User not found with ID: " + authorId));
             }
             
@@ -179,7 +203,7 @@ public class AnswerController {
 
     @PutMapping("/update/{id}")
     public ResponseEntity<AnswerDto> updateAnswer(@PathVariable Long id, @RequestBody Map<String, String> body, @RequestParam Long userId){
-        if(!isAuthorOrModerator(id, userId)){
+        if(!accessPolicy.isAuthorOrModerator(userId, () -> answerService.findAuthorId(id))){
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         String text = body.get("text");
@@ -192,7 +216,7 @@ public class AnswerController {
 
     @DeleteMapping("/delete/{id}")
     public ResponseEntity<Void> deleteAnswer(@PathVariable Long id, @RequestParam Long userId){
-        if(!isAuthorOrModerator(id,userId)){
+        if(!accessPolicy.isAuthorOrModerator(userId, () -> answerService.findAuthorId(id))){
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -235,8 +259,7 @@ public class AnswerController {
             if (authorIdValid) {
                 try {
                     Long authorId = Long.valueOf(authorIdStr);
-                    User author = userService.findUserEntityById(authorId);
-                    userExists = author != null;
+                    userExists = userService.findAuthorSummary(authorId).isPresent();
                 } catch (NumberFormatException e) {
                     authorIdValid = false;
                 }
@@ -305,8 +328,7 @@ public class AnswerController {
         }
         
         // Check if user exists
-        User user = userService.findUserEntityById(authorId);
-        if (user == null) {
+        if (userService.findAuthorSummary(authorId).isEmpty()) {
             return ResponseEntity.badRequest().body(Map.of("error", "User not found with ID: " + authorId));
         }
         
@@ -324,11 +346,5 @@ public class AnswerController {
                     .body(Map.of("error", "Exception occurred: " + e.getMessage()));
         }
     }
-
-    private boolean isAuthorOrModerator(Long answerId, Long userId) {
-        return answerService.getAnswerById(answerId)
-                .map(a -> a.getAuthorId().equals(userId) || userService.isModerator(userService.getUserById(userId).get().getUsername()))
-                .orElse(false);
-    }
 }
 
@@ -0,0 +1,21 @@
+package com.example.main.controller;
+
+import com.example.main.dto.CacheStatsDto;
+import com.example.main.service.CacheStatisticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/cache")
+public class CacheController {
+    @Autowired
+    private CacheStatisticsService cacheStatisticsService;
+
+    @GetMapping("/stats")
+    public ResponseEntity<CacheStatsDto> getStatistics() {
+        return ResponseEntity.ok(cacheStatisticsService.getStatistics());
+    }
+}
@@ -2,9 +2,9 @@ package com.example.main.controller;
 
 import com.example.main.dto.AnswerDto;
 import com.example.main.dto.QuestionDto;
+import com.example.main.security.AccessPolicy;
 import com.example.main.service.AnswerService;
 import com.example.main.service.QuestionService;
-import com.example.main.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -17,7 +17,7 @@ import java.util.Objects;
 @RequestMapping("/moderator")
 public class ModeratorController {
     @Autowired
-    private UserService userService;
+    private AccessPolicy accessPolicy;
 
     @Autowired
     private QuestionService questionService;
@@ -27,7 +27,7 @@ public class ModeratorController {
 
     @PutMapping("/questions/{id}")
     public ResponseEntity<QuestionDto> editQuestion(@PathVariable Long id, @RequestBody Map<String, String> body, @RequestParam Long moderatorId){
-        if(!userService.isModerator(userService.findUserEntityById(moderatorId).getUsername())){
+        if(!accessPolicy.isModerator(moderatorId)){
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -44,7 +44,7 @@ public class ModeratorController {
 
     @DeleteMapping("/questions/{id}")
     public ResponseEntity<Void> deleteQuestion(@PathVariable Long id, @RequestParam Long moderatorId){
-        if(!userService.isModerator(userService.findUserEntityById(moderatorId).getUsername())){
+        if(!accessPolicy.isModerator(moderatorId)){
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -57,7 +57,7 @@ public class ModeratorController {
 
     @PutMapping("/answers/{id}")
     public ResponseEntity<AnswerDto> editAnswer(@PathVariable Long id, @RequestBody Map<String,String> body, @RequestParam Long moderatorId){
-        if(!userService.isModerator(userService.findUserEntityById(moderatorId).getUsername())){
+        if(!accessPolicy.isModerator(moderatorId)){
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -71,7 +71,7 @@ public class ModeratorController {
 
     @DeleteMapping("/answers/{id}")
     public ResponseEntity<Void> deleteAnswer(@PathVariable Long id, @RequestParam Long moderatorId){
-        if(!userService.isModerator(userService.findUserEntityById(moderatorId).getUsername())){
+        if(!accessPolicy.isModerator(moderatorId)){
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -1,8 +1,12 @@
 package com.example.main.controller;
 
+import com.example.main.dto.CursorPageDto;
 import com.example.main.dto.QuestionDto;
-import com.example.main.model.User;
+import com.example.main.dto.QuestionSummaryDto;
+import com.example.main.dto.TitleSuggestionDto;
+import com.example.main.security.AccessPolicy;
 import com.example.main.service.QuestionService;
+import com.example.main.service.QuestionThreadService;
 import com.example.main.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -11,6 +15,8 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 
 @RestController
 @RequestMapping("/questions")
@@ -18,14 +24,40 @@ public class QuestionController {
     @Autowired
     private QuestionService questionService;
 
+    @Autowired
+    private QuestionThreadService questionThreadService;
+
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private AccessPolicy accessPolicy;
+
     @GetMapping("/all")
     public ResponseEntity<List<QuestionDto>> getAllQuestions(){
         return ResponseEntity.ok(questionService.getAllQuestions());
     }
 
+    @GetMapping("/all/summary")
+    public ResponseEntity<CursorPageDto<QuestionSummaryDto>> getQuestionSummaries(@RequestParam(required = false) String cursor,
+                                                                                  @RequestParam(required = false) Integer size){
+        try {
+            return ResponseEntity.ok(questionService.getQuestionSummaries(cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/feed")
+    public ResponseEntity<CursorPageDto<QuestionDto>> getQuestionFeed(@RequestParam(required = false) String cursor,
+                                                                      @RequestParam(required = false) Integer size){
+        try {
+            return ResponseEntity.ok(questionService.getQuestionFeed(cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/find/{id}")
     public ResponseEntity<QuestionDto> getQuestionById(@PathVariable String id){
         // Check for undefined or invalid ID
@@ -36,13 +68,38 @@ public class QuestionController {
         try {
             Long questionId = Long.valueOf(id);
             return questionService.getQuestionById(questionId)
-                    .map(ResponseEntity::ok)
+                    .map(question -> {
+                        questionService.recordView(questionId);
+                        return ResponseEntity.ok(question);
+                    })
                     .orElse(ResponseEntity.notFound().build());
         } catch (NumberFormatException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    /**
+     * The question with its answers, their authors and the caller's own votes, loaded in parallel.
+     * Answers or votes that could not be loaded in time are left out and listed as incomplete.
+     */
+    @GetMapping("/{id}/thread")
+    public ResponseEntity<?> getQuestionThread(@PathVariable Long id, @RequestParam(required = false) Long userId){
+        try {
+            return questionThreadService.getThread(id, accessPolicy.actsAs(userId) ? userId : null)
+                    .<ResponseEntity<?>>map(thread -> {
+                        questionService.recordView(id);
+                        return ResponseEntity.ok(thread);
+                    })
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+            }
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Error loading question: " + e.getCause().getMessage()));
+        }
+    }
+
     @GetMapping("/author/{authorId}")
     public ResponseEntity<List<QuestionDto>> getQuestionsByAuthor(@PathVariable String authorId){
         // Check for undefined or invalid ID
@@ -58,23 +115,101 @@ public class QuestionController {
         }
     }
 
+    @GetMapping("/author/{authorId}/feed")
+    public ResponseEntity<CursorPageDto<QuestionDto>> getQuestionFeedByAuthor(@PathVariable String authorId,
+                                                                              @RequestParam(required = false) String cursor,
+                                                                              @RequestParam(required = false) Integer size){
+        // Check for undefined or invalid ID
+        if (authorId == null || authorId.equals("undefined") || authorId.equals("null")) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            Long userId = Long.valueOf(authorId);
+            return ResponseEntity.ok(questionService.getQuestionFeedByAuthor(userId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/tag/{tagName}")
     public ResponseEntity<List<QuestionDto>> getQuestionsByTag(@PathVariable String tagName){
         return ResponseEntity.ok(questionService.getQuestionsByTag(tagName));
     }
 
+    @GetMapping("/tag/{tagName}/summary")
+    public ResponseEntity<CursorPageDto<QuestionSummaryDto>> getQuestionSummariesByTag(@PathVariable String tagName,
+                                                                                       @RequestParam(required = false) String cursor,
+                                                                                       @RequestParam(required = false) Integer size){
+        try {
+            return ResponseEntity.ok(questionService.getQuestionSummariesByTag(tagName, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/tagged")
+    public ResponseEntity<CursorPageDto<QuestionSummaryDto>> getQuestionSummariesByTagExpression(@RequestParam String q,
+                                                                                                 @RequestParam(required = false) String cursor,
+                                                                                                 @RequestParam(required = false) Integer size){
+        try {
+            return ResponseEntity.ok(questionService.getQuestionSummariesByTagExpression(q, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/status/{status}")
     public ResponseEntity<List<QuestionDto>> getQuestionsByStatus(@PathVariable String status){
         return ResponseEntity.ok(questionService.getQuestionsByStatus(status));
     }
 
+    @GetMapping("/status/{status}/summary")
+    public ResponseEntity<CursorPageDto<QuestionSummaryDto>> getQuestionSummariesByStatus(@PathVariable String status,
+                                                                                          @RequestParam(required = false) String cursor,
+                                                                                          @RequestParam(required = false) Integer size){
+        try {
+            return ResponseEntity.ok(questionService.getQuestionSummariesByStatus(status, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/status/{status}/feed")
+    public ResponseEntity<CursorPageDto<QuestionDto>> getQuestionFeedByStatus(@PathVariable String status,
+                                                                              @RequestParam(required = false) String cursor,
+                                                                              @RequestParam(required = false) Integer size){
+        try {
+            return ResponseEntity.ok(questionService.getQuestionFeedByStatus(status, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/hot")
+    public ResponseEntity<List<QuestionSummaryDto>> getHotQuestions(@RequestParam(defaultValue = "0") int page,
+                                                                    @RequestParam(required = false) Integer size){
+        return ResponseEntity.ok(questionService.getHotQuestions(page, size));
+    }
+
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<TitleSuggestionDto>> autocompleteTitles(@RequestParam String prefix,
+                                                                       @RequestParam(required = false) Integer limit){
+        if (prefix == null || prefix.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(questionService.autocompleteTitles(prefix, limit));
+    }
+
     @GetMapping("/search")
-    public ResponseEntity<List<QuestionDto>> searchQuestions(@RequestParam String keyword){
+    public ResponseEntity<List<QuestionDto>> searchQuestions(@RequestParam String keyword,
+                                                             @RequestParam(defaultValue = "0") int page,
+                                                             @RequestParam(required = false) Integer size){
         if (keyword == null || keyword.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
         
-        List<QuestionDto> questions = questionService.searchQuestions(keyword);
+        List<QuestionDto> questions = questionService.searchQuestions(keyword, page, size);
         return ResponseEntity.ok(questions);
     }
 
@@ -115,8 +250,7 @@ public class QuestionController {
             }
 
             // Check if user exists
-            User user = userService.findUserEntityById(authorId);
-            if (user == null) {
+            if (userService.findAuthorSummary(authorId).isEmpty()) {
                 return ResponseEntity.badRequest().body(Map.of("error", "User not found with ID: " + authorId));
             }
 
@@ -149,7 +283,7 @@ public class QuestionController {
             Long questionId = Long.valueOf(id);
             Long userIdLong = Long.valueOf(userId);
             
-            if(!isAuthorOrModerator(questionId, userIdLong)){
+            if(!accessPolicy.isAuthorOrModerator(userIdLong, () -> questionService.findAuthorId(questionId))){
                 return ResponseEntity.badRequest().build();
             }
             
@@ -199,7 +333,7 @@ public class QuestionController {
             Long questionId = Long.valueOf(id);
             Long userIdLong = Long.valueOf(userId);
             
-            if(!isAuthorOrModerator(questionId, userIdLong)){
+            if(!accessPolicy.isAuthorOrModerator(userIdLong, () -> questionService.findAuthorId(questionId))){
                 return ResponseEntity.badRequest().build();
             }
             
@@ -209,19 +343,4 @@ public class QuestionController {
             return ResponseEntity.badRequest().build();
         }
     }
-
-    private boolean isAuthorOrModerator(Long questionId, Long userId){
-        if (questionId == null || userId == null) {
-            return false;
-        }
-        
-        User user = userService.findUserEntityById(userId);
-        if (user == null) {
-            return false;
-        }
-        
-        return questionService.getQuestionById(questionId)
-                .map(question -> question.getAuthorId().equals(userId) || userService.isModerator(user.getUsername()))
-                .orElse(false);
-    }
 }
@@ -1,6 +1,9 @@
 package com.example.main.controller;
 
+import com.example.main.dto.RelatedTagDto;
 import com.example.main.dto.TagDto;
+import com.example.main.dto.TagStatsDto;
+import com.example.main.dto.TrendingTagDto;
 import com.example.main.model.Tag;
 import com.example.main.service.TagService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,6 +25,38 @@ public class TagController {
         return ResponseEntity.ok(tagService.getAllTags());
     }
 
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<TagDto>> autocompleteTags(@RequestParam String prefix,
+                                                         @RequestParam(required = false) Integer limit) {
+        if (prefix == null || prefix.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(tagService.autocompleteTags(prefix, limit));
+    }
+
+    @GetMapping("/popular")
+    public ResponseEntity<List<TagStatsDto>> getPopularTags(@RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(tagService.getPopularTags(limit));
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingTagDto>> getTrendingTags(@RequestParam(defaultValue = "24h") String window,
+                                                                @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(tagService.getTrendingTags(window, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{name}/related")
+    public ResponseEntity<List<RelatedTagDto>> getRelatedTags(@PathVariable String name,
+                                                              @RequestParam(required = false) Integer limit) {
+        return tagService.getRelatedTags(name, limit)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/id/{id}")
     public ResponseEntity<TagDto> getTagById(@PathVariable Long id) {
         return tagService.getTagById(id)
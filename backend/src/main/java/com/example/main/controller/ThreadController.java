@@ -0,0 +1,32 @@
+package com.example.main.controller;
+
+import com.example.main.service.ThreadPinningMonitor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/threads")
+public class ThreadController {
+    @Autowired
+    private ThreadPinningMonitor threadPinningMonitor;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStatistics(@RequestParam(defaultValue = "10") int sites) {
+        return ResponseEntity.ok(Map.of(
+                "virtualThreads", virtualThreads,
+                "pinningMonitor", threadPinningMonitor.isRunning(),
+                "pinned", threadPinningMonitor.getPinnedTimes(),
+                "pinnedSites", threadPinningMonitor.getSites(Math.max(sites, 1))
+        ));
+    }
+}
@@ -1,8 +1,18 @@
 package com.example.main.controller;
 
+import com.example.main.dto.LeaderboardEntryDto;
 import com.example.main.dto.UserDto;
+import com.example.main.security.AccessToken;
+import com.example.main.security.AccessTokenFilter;
+import com.example.main.security.AccessTokenService;
+import com.example.main.service.AuthorSummary;
+import com.example.main.service.LeaderboardService;
+import com.example.main.service.LoginResult;
 import com.example.main.service.UserService;
+import com.example.main.utils.PasswordHashingService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -12,6 +22,9 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/users")
@@ -19,21 +32,58 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private AccessTokenService accessTokenService;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
     @GetMapping("/all")
     public ResponseEntity<List<UserDto>> getAllUsers(){
         return ResponseEntity.ok(userService.getAllUsers());
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<UserDto>> searchUsers(@RequestParam String keyword) {
+    public ResponseEntity<List<UserDto>> searchUsers(@RequestParam String keyword,
+                                                     @RequestParam(defaultValue = "20") int limit,
+                                                     @RequestParam(defaultValue = "0") int offset) {
         if (keyword == null || keyword.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
         
-        List<UserDto> users = userService.searchUsers(keyword);
+        List<UserDto> users = userService.searchUsers(keyword, limit, offset);
         return ResponseEntity.ok(users);
     }
 
+    @GetMapping("/leaderboard")
+    public ResponseEntity<List<LeaderboardEntryDto>> getLeaderboard(@RequestParam(required = false) String tag,
+                                                                    @RequestParam(required = false) Integer offset,
+                                                                    @RequestParam(required = false) Integer limit) {
+        return leaderboardService.getLeaderboard(tag, offset, limit)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/rank")
+    public ResponseEntity<LeaderboardEntryDto> getRank(@PathVariable Long id,
+                                                       @RequestParam(required = false) String tag) {
+        return leaderboardService.getRank(id, tag)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/neighbours")
+    public ResponseEntity<List<LeaderboardEntryDto>> getNeighbours(@PathVariable Long id,
+                                                                   @RequestParam(required = false) String tag,
+                                                                   @RequestParam(required = false) Integer radius) {
+        return leaderboardService.getNeighbours(id, tag, radius)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/id/{id}")
     public ResponseEntity<UserDto> getUserById(@PathVariable String id){
         // Check for undefined or invalid ID
@@ -73,8 +123,12 @@ public class UserController {
             return ResponseEntity.badRequest().build();
         }
 
-        UserDto userDto = userService.createUser(username,email,password,phoneNumber);
-        return ResponseEntity.status(HttpStatus.CREATED).body(userDto);
+        try {
+            UserDto userDto = userService.createUser(username,email,password,phoneNumber);
+            return ResponseEntity.status(HttpStatus.CREATED).body(userDto);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
     }
 
     @PutMapping("/{id}")
@@ -145,6 +199,8 @@ public class UserController {
             }
         } catch (NumberFormatException e) {
             return ResponseEntity.badRequest().body(Map.of("error", "Invalid user ID format"));
+        } catch (RejectedExecutionException e) {
+            return tooBusy();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Failed to change password", "message", e.getMessage()));
@@ -239,34 +295,79 @@ public class UserController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> authenticateUser(@RequestBody Map<String,String> body){
+    public CompletableFuture<ResponseEntity<?>> authenticateUser(@RequestBody Map<String,String> body){
         String username = body.get("username");
         String password = body.get("password");
 
         if(username == null || password == null){
-            return ResponseEntity.badRequest().build();
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
 
-        if(userService.isBanned(username)){
-            String reason = userService.getBanReason(username);
-            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+        try {
+            // completes on the hashing pool, so the request thread is free meanwhile
+            return userService.login(username, password).thenApply(this::loginResponse);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(tooBusy());
+        }
+    }
+
+    private ResponseEntity<?> loginResponse(LoginResult result){
+        return switch (result.status()) {
+            case BANNED -> ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(Map.of("message", "Your account has been banned",
-                                 "reason", reason != null ? reason : "No reason provided"
+                                 "reason", result.banReason() != null ? result.banReason() : "No reason provided"
                     ));
-        }
+            case INVALID -> ResponseEntity.ok(Map.of("authenticated", false));
+            case AUTHENTICATED -> ResponseEntity.ok(Map.of(
+                    "authenticated", true,
+                    "user", result.user(),
+                    "accessToken", accessTokenService.issue(result.user().getId(), result.user().isModerator(), false),
+                    "expiresIn", accessTokenService.getTtlSeconds()
+            ));
+        };
+    }
+
+    private static ResponseEntity<Map<String, String>> tooBusy(){
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", "Too many password checks in progress, please retry"));
+    }
+
+    /**
+     * Hash and verify times of the password hashing pool, and how long tasks waited for it
+     */
+    @GetMapping("/password-hashing/stats")
+    public ResponseEntity<Map<String, Object>> getPasswordHashingStats(){
+        return ResponseEntity.ok(Map.of(
+                "queueDepth", passwordHashingService.getQueueDepth(),
+                "hash", passwordHashingService.getHashTimes(),
+                "verify", passwordHashingService.getVerifyTimes(),
+                "queueWait", passwordHashingService.getQueueTimes()
+        ));
+    }
 
-        boolean authenticated = userService.authenticate(username, password);
-        if (authenticated) {
-            // Return user information on successful login
-            return userService.getUserByUsername(username)
-                    .map(user -> ResponseEntity.ok(Map.of(
-                            "authenticated", true,
-                            "user", user
-                    )))
-                    .orElse(ResponseEntity.ok(Map.of("authenticated", true)));
-        } else {
-            return ResponseEntity.ok(Map.of("authenticated", false));
+    /**
+     * Exchanges a recently expired token, or one revoked for a change of flags, for a new one
+     * carrying the user's current moderator and ban flags. Tokens revoked by a password change
+     * or deletion have to log in again.
+     */
+    @PostMapping("/token/refresh")
+    public ResponseEntity<?> refreshToken(HttpServletRequest request){
+        Optional<AccessToken> claims = accessTokenService.verifyForRefresh(AccessTokenFilter.bearerToken(request));
+        if(claims.isEmpty()){
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        Optional<AuthorSummary> user = userService.findAuthorSummary(claims.get().userId());
+        if(user.isEmpty()){
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if(user.get().banned()){
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", "Your account has been banned"));
         }
+        return ResponseEntity.ok(Map.of(
+                "accessToken", accessTokenService.issue(user.get().id(), user.get().moderator(), false),
+                "expiresIn", accessTokenService.getTtlSeconds()
+        ));
     }
 
     @GetMapping("/debug-id/{id}")
@@ -1,8 +1,11 @@
 package com.example.main.controller;
 
 import com.example.main.dto.VoteDto;
+import com.example.main.security.AccessPolicy;
+import com.example.main.service.VotePipeline;
 import com.example.main.service.VoteService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -14,6 +17,10 @@ import java.util.Map;
 public class VoteController {
     @Autowired
     private VoteService voteService;
+    @Autowired
+    private VotePipeline votePipeline;
+    @Autowired
+    private AccessPolicy accessPolicy;
 
     @GetMapping("/all")
     public ResponseEntity<List<VoteDto>> getAllVotes(){
@@ -33,7 +40,7 @@ public class VoteController {
     }
 
     @PostMapping("/question")
-    public ResponseEntity<VoteDto> voteOnQuestion(@RequestBody Map<String,Object> body){
+    public ResponseEntity<?> voteOnQuestion(@RequestBody Map<String,Object> body){
         Long userId = Long.valueOf(body.get("userId").toString());
         Long questionId = Long.valueOf(body.get("questionId").toString());
         String voteType = (String) body.get("voteType");
@@ -41,6 +48,16 @@ public class VoteController {
         if(userId == null || questionId == null || voteType == null){
             return ResponseEntity.noContent().build();
         }
+        if(!VoteService.isVoteType(voteType)){
+            return ResponseEntity.badRequest().body(Map.of("error", "voteType must be upvote or downvote"));
+        }
+        if(!accessPolicy.actsAs(userId)){
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        if(votePipeline.isEnabled()){
+            return queued(votePipeline.submit(userId, false, questionId, voteType));
+        }
 
         VoteDto vote = voteService.voteOnQuestion(userId, questionId, voteType);
         if(vote == null){
@@ -50,7 +67,7 @@ public class VoteController {
     }
 
     @PostMapping("/answer")
-    public ResponseEntity<VoteDto> voteOnAnswer(@RequestBody Map<String, Object> body){
+    public ResponseEntity<?> voteOnAnswer(@RequestBody Map<String, Object> body){
         Long userId = Long.valueOf(body.get("userId").toString());
         Long answerId = Long.valueOf(body.get("answerId").toString());
         String voteType = (String) body.get("voteType");
@@ -58,6 +75,16 @@ public class VoteController {
         if(userId == null || answerId == null || voteType == null){
             return ResponseEntity.noContent().build();
         }
+        if(!VoteService.isVoteType(voteType)){
+            return ResponseEntity.badRequest().body(Map.of("error", "voteType must be upvote or downvote"));
+        }
+        if(!accessPolicy.actsAs(userId)){
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        if(votePipeline.isEnabled()){
+            return queued(votePipeline.submit(userId, true, answerId, voteType));
+        }
 
         VoteDto vote = voteService.voteOnAnswer(userId, answerId, voteType);
         if(vote == null){
@@ -74,4 +101,13 @@ public class VoteController {
             return ResponseEntity.notFound().build();
         }
     }
+
+    //the vote is applied on the next flush, so there is no VoteDto to return yet
+    private ResponseEntity<?> queued(VotePipeline.Outcome outcome){
+        if(outcome == VotePipeline.Outcome.QUEUED){
+            return ResponseEntity.accepted().body(Map.of("status", "queued"));
+        }
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .body(Map.of("error", "Too many pending votes, please retry"));
+    }
 }
@@ -0,0 +1,97 @@
+package com.example.main.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight answer row for list endpoints; filled straight from a JPQL constructor expression.
+ */
+public class AnswerSummaryDto {
+    private Long answerId;
+    private Long questionId;
+    private String excerpt;
+    private Long authorId;
+    private String authorUsername;
+    private int upvotes;
+    private int downvotes;
+    private LocalDateTime createdAt;
+
+    public AnswerSummaryDto() {
+    }
+
+    // Argument order is fixed by the SELECT NEW expressions in AnswerRepository
+    public AnswerSummaryDto(Long answerId, Long questionId, String excerpt, Long authorId,
+                            String authorUsername, int upvotes, int downvotes, LocalDateTime createdAt) {
+        this.answerId = answerId;
+        this.questionId = questionId;
+        this.excerpt = excerpt;
+        this.authorId = authorId;
+        this.authorUsername = authorUsername;
+        this.upvotes = upvotes;
+        this.downvotes = downvotes;
+        this.createdAt = createdAt;
+    }
+
+    public Long getAnswerId() {
+        return answerId;
+    }
+
+    public void setAnswerId(Long answerId) {
+        this.answerId = answerId;
+    }
+
+    public Long getQuestionId() {
+        return questionId;
+    }
+
+    public void setQuestionId(Long questionId) {
+        this.questionId = questionId;
+    }
+
+    public String getExcerpt() {
+        return excerpt;
+    }
+
+    public void setExcerpt(String excerpt) {
+        this.excerpt = excerpt;
+    }
+
+    public Long getAuthorId() {
+        return authorId;
+    }
+
+    public void setAuthorId(Long authorId) {
+        this.authorId = authorId;
+    }
+
+    public String getAuthorUsername() {
+        return authorUsername;
+    }
+
+    public void setAuthorUsername(String authorUsername) {
+        this.authorUsername = authorUsername;
+    }
+
+    public int getUpvotes() {
+        return upvotes;
+    }
+
+    public void setUpvotes(int upvotes) {
+        this.upvotes = upvotes;
+    }
+
+    public int getDownvotes() {
+        return downvotes;
+    }
+
+    public void setDownvotes(int downvotes) {
+        this.downvotes = downvotes;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.main.dto;
+
+import java.util.List;
+
+public class CacheStatsDto {
+    private boolean enabled;
+    private double hitRatio;
+    private long queryCacheHits;
+    private long queryCacheMisses;
+    private long preparedStatements;
+    private List<CacheRegionStatsDto> regions;
+
+    public CacheStatsDto() {
+    }
+
+    public CacheStatsDto(boolean enabled, double hitRatio, long queryCacheHits, long queryCacheMisses,
+                         long preparedStatements, List<CacheRegionStatsDto> regions) {
+        this.enabled = enabled;
+        this.hitRatio = hitRatio;
+        this.queryCacheHits = queryCacheHits;
+        this.queryCacheMisses = queryCacheMisses;
+        this.preparedStatements = preparedStatements;
+        this.regions = regions;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getHitRatio() {
+        return hitRatio;
+    }
+
+    public void setHitRatio(double hitRatio) {
+        this.hitRatio = hitRatio;
+    }
+
+    public long getQueryCacheHits() {
+        return queryCacheHits;
+    }
+
+    public void setQueryCacheHits(long queryCacheHits) {
+        this.queryCacheHits = queryCacheHits;
+    }
+
+    public long getQueryCacheMisses() {
+        return queryCacheMisses;
+    }
+
+    public void setQueryCacheMisses(long queryCacheMisses) {
+        this.queryCacheMisses = queryCacheMisses;
+    }
+
+    public long getPreparedStatements() {
+        return preparedStatements;
+    }
+
+    public void setPreparedStatements(long preparedStatements) {
+        this.preparedStatements = preparedStatements;
+    }
+
+    public List<CacheRegionStatsDto> getRegions() {
+        return regions;
+    }
+
+    public void setRegions(List<CacheRegionStatsDto> regions) {
+        this.regions = regions;
+    }
+}
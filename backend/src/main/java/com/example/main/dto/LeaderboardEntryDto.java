@@ -0,0 +1,50 @@
+package com.example.main.dto;
+
+public class LeaderboardEntryDto {
+    private Long userId;
+    private String username;
+    private double score;
+    private int rank;
+
+    public LeaderboardEntryDto() {
+    }
+
+    public LeaderboardEntryDto(Long userId, String username, double score, int rank) {
+        this.userId = userId;
+        this.username = username;
+        this.score = score;
+        this.rank = rank;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public void setRank(int rank) {
+        this.rank = rank;
+    }
+}
@@ -1,7 +1,5 @@
 package com.example.main.dto;
 
-import com.example.main.model.Tag;
-
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -17,6 +15,7 @@ public class QuestionDto {
     private LocalDateTime createdAt;
     private int upvotes;
     private int downvotes;
+    private int answerCount;
     private Long acceptedAnswerId;
 
     public String getText() {
@@ -99,6 +98,14 @@ public class QuestionDto {
         this.downvotes = downvotes;
     }
 
+    public int getAnswerCount() {
+        return answerCount;
+    }
+
+    public void setAnswerCount(int answerCount) {
+        this.answerCount = answerCount;
+    }
+
     public Long getAcceptedAnswerId() {
         return acceptedAnswerId;
     }
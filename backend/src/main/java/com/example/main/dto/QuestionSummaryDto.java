@@ -0,0 +1,117 @@
+package com.example.main.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight question row for list endpoints; filled straight from a JPQL constructor expression.
+ */
+public class QuestionSummaryDto {
+    private Long questionId;
+    private String title;
+    private String excerpt;
+    private Long authorId;
+    private String authorUsername;
+    private String status;
+    private int upvotes;
+    private int downvotes;
+    private int answerCount;
+    private LocalDateTime createdAt;
+
+    public QuestionSummaryDto() {
+    }
+
+    // Argument order is fixed by the SELECT NEW expressions in QuestionRepository
+    public QuestionSummaryDto(Long questionId, String title, String excerpt, Long authorId, String authorUsername,
+                              String status, int upvotes, int downvotes, int answerCount, LocalDateTime createdAt) {
+        this.questionId = questionId;
+        this.title = title;
+        this.excerpt = excerpt;
+        this.authorId = authorId;
+        this.authorUsername = authorUsername;
+        this.status = status;
+        this.upvotes = upvotes;
+        this.downvotes = downvotes;
+        this.answerCount = answerCount;
+        this.createdAt = createdAt;
+    }
+
+    public Long getQuestionId() {
+        return questionId;
+    }
+
+    public void setQuestionId(Long questionId) {
+        this.questionId = questionId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getExcerpt() {
+        return excerpt;
+    }
+
+    public void setExcerpt(String excerpt) {
+        this.excerpt = excerpt;
+    }
+
+    public Long getAuthorId() {
+        return authorId;
+    }
+
+    public void setAuthorId(Long authorId) {
+        this.authorId = authorId;
+    }
+
+    public String getAuthorUsername() {
+        return authorUsername;
+    }
+
+    public void setAuthorUsername(String authorUsername) {
+        this.authorUsername = authorUsername;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getUpvotes() {
+        return upvotes;
+    }
+
+    public void setUpvotes(int upvotes) {
+        this.upvotes = upvotes;
+    }
+
+    public int getDownvotes() {
+        return downvotes;
+    }
+
+    public void setDownvotes(int downvotes) {
+        this.downvotes = downvotes;
+    }
+
+    public int getAnswerCount() {
+        return answerCount;
+    }
+
+    public void setAnswerCount(int answerCount) {
+        this.answerCount = answerCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.main.dto;
+
+import com.example.main.service.AuthorSummary;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything the question page shows, loaded in one request. Parts that could not be
+ * loaded in time are null and named in {@code incomplete}.
+ */
+public class QuestionThreadDto {
+    private QuestionDto question;
+    private List<AnswerDto> answers;
+    private Map<Long, AuthorSummary> authors;
+    private String questionVote;
+    private Map<Long, String> answerVotes;
+    private List<String> incomplete;
+
+    public QuestionThreadDto() {
+    }
+
+    public QuestionThreadDto(QuestionDto question, List<AnswerDto> answers, Map<Long, AuthorSummary> authors,
+                             String questionVote, Map<Long, String> answerVotes, List<String> incomplete) {
+        this.question = question;
+        this.answers = answers;
+        this.authors = authors;
+        this.questionVote = questionVote;
+        this.answerVotes = answerVotes;
+        this.incomplete = incomplete;
+    }
+
+    public QuestionDto getQuestion() {
+        return question;
+    }
+
+    public void setQuestion(QuestionDto question) {
+        this.question = question;
+    }
+
+    public List<AnswerDto> getAnswers() {
+        return answers;
+    }
+
+    public void setAnswers(List<AnswerDto> answers) {
+        this.answers = answers;
+    }
+
+    public Map<Long, AuthorSummary> getAuthors() {
+        return authors;
+    }
+
+    public void setAuthors(Map<Long, AuthorSummary> authors) {
+        this.authors = authors;
+    }
+
+    public String getQuestionVote() {
+        return questionVote;
+    }
+
+    public void setQuestionVote(String questionVote) {
+        this.questionVote = questionVote;
+    }
+
+    public Map<Long, String> getAnswerVotes() {
+        return answerVotes;
+    }
+
+    public void setAnswerVotes(Map<Long, String> answerVotes) {
+        this.answerVotes = answerVotes;
+    }
+
+    public List<String> getIncomplete() {
+        return incomplete;
+    }
+
+    public void setIncomplete(List<String> incomplete) {
+        this.incomplete = incomplete;
+    }
+}
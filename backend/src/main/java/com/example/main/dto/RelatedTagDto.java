@@ -0,0 +1,40 @@
+package com.example.main.dto;
+
+public class RelatedTagDto {
+    private Long tagId;
+    private String name;
+    private int sharedQuestions;
+
+    public RelatedTagDto() {
+    }
+
+    public RelatedTagDto(Long tagId, String name, int sharedQuestions) {
+        this.tagId = tagId;
+        this.name = name;
+        this.sharedQuestions = sharedQuestions;
+    }
+
+    public Long getTagId() {
+        return tagId;
+    }
+
+    public void setTagId(Long tagId) {
+        this.tagId = tagId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getSharedQuestions() {
+        return sharedQuestions;
+    }
+
+    public void setSharedQuestions(int sharedQuestions) {
+        this.sharedQuestions = sharedQuestions;
+    }
+}
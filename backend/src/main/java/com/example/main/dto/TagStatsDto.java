@@ -0,0 +1,62 @@
+package com.example.main.dto;
+
+import java.time.LocalDateTime;
+
+public class TagStatsDto {
+    private Long tagId;
+    private String name;
+    private int questionCount;
+    private int unansweredCount;
+    private LocalDateTime lastActivity;
+
+    public TagStatsDto() {
+    }
+
+    public TagStatsDto(Long tagId, String name, int questionCount, int unansweredCount, LocalDateTime lastActivity) {
+        this.tagId = tagId;
+        this.name = name;
+        this.questionCount = questionCount;
+        this.unansweredCount = unansweredCount;
+        this.lastActivity = lastActivity;
+    }
+
+    public Long getTagId() {
+        return tagId;
+    }
+
+    public void setTagId(Long tagId) {
+        this.tagId = tagId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getQuestionCount() {
+        return questionCount;
+    }
+
+    public void setQuestionCount(int questionCount) {
+        this.questionCount = questionCount;
+    }
+
+    public int getUnansweredCount() {
+        return unansweredCount;
+    }
+
+    public void setUnansweredCount(int unansweredCount) {
+        this.unansweredCount = unansweredCount;
+    }
+
+    public LocalDateTime getLastActivity() {
+        return lastActivity;
+    }
+
+    public void setLastActivity(LocalDateTime lastActivity) {
+        this.lastActivity = lastActivity;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.main.dto;
+
+public class TitleSuggestionDto {
+    private Long questionId;
+    private String title;
+
+    public TitleSuggestionDto() {
+    }
+
+    public TitleSuggestionDto(Long questionId, String title) {
+        this.questionId = questionId;
+        this.title = title;
+    }
+
+    public Long getQuestionId() {
+        return questionId;
+    }
+
+    public void setQuestionId(Long questionId) {
+        this.questionId = questionId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.main.dto;
+
+public class TrendingTagDto {
+    private Long tagId;
+    private String name;
+    private int activity;
+
+    public TrendingTagDto() {
+    }
+
+    public TrendingTagDto(Long tagId, String name, int activity) {
+        this.tagId = tagId;
+        this.name = name;
+        this.activity = activity;
+    }
+
+    public Long getTagId() {
+        return tagId;
+    }
+
+    public void setTagId(Long tagId) {
+        this.tagId = tagId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getActivity() {
+        return activity;
+    }
+
+    public void setActivity(int activity) {
+        this.activity = activity;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.main.job;
+
+import com.example.main.repository.AnswerRepository;
+import com.example.main.repository.QuestionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-off job that recomputes the denormalized vote and answer counters from the
+ * votes and answer tables, and the answer rank scores from the new counters. Enable it for a single start with
+ * {@code --counters.backfill.enabled=true}; it walks the id space in chunks so
+ * no statement holds locks on the whole table.
+ */
+@Component
+@ConditionalOnProperty(name = "counters.backfill.enabled", havingValue = "true")
+public class CounterBackfillJob implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(CounterBackfillJob.class);
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private AnswerRepository answerRepository;
+
+    @Value("${counters.backfill.chunk-size:1000}")
+    private int chunkSize;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long started = System.currentTimeMillis();
+
+        long maxQuestionId = questionRepository.findMaxId();
+        int questions = 0;
+        for (long from = 1; from <= maxQuestionId; from += chunkSize) {
+            questions += questionRepository.backfillCounters(from, from + chunkSize - 1);
+        }
+
+        long maxAnswerId = answerRepository.findMaxId();
+        int answers = 0;
+        for (long from = 1; from <= maxAnswerId; from += chunkSize) {
+            answers += answerRepository.backfillCounters(from, from + chunkSize - 1);
+            answerRepository.backfillRankScores(from, from + chunkSize - 1);
+        }
+
+        log.info("Counter backfill updated {} questions and {} answers in {} ms",
+                questions, answers, System.currentTimeMillis() - started);
+    }
+}
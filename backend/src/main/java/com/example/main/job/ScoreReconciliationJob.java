@@ -0,0 +1,200 @@
+package com.example.main.job;
+
+import com.example.main.repository.UserRepository;
+import com.example.main.repository.UserScoreView;
+import com.example.main.repository.VoteRepository;
+import com.example.main.repository.VoteScoreView;
+import com.example.main.service.LeaderboardService;
+import com.example.main.service.UserSearchService;
+import com.example.main.service.VoteService;
+import com.example.main.stats.LongDoubleHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * One-off job that recomputes every user's score from the votes table and corrects the
+ * users whose stored score has drifted from it. Enable it for a single start with
+ * {@code --scores.reconcile.enabled=true}; it only reports unless
+ * {@code scores.reconcile.dry-run=false}.
+ * <p>
+ * Votes are read in id-range chunks split across a fork/join pool. Each leaf sums the
+ * scores its chunk gives voters and authors into its own primitive map, and the maps are
+ * merged as the tasks join. Corrections are applied as batched increments, so they should
+ * run while no votes are being cast: a vote landing between the two reads is corrected
+ * away until the next run.
+ */
+@Component
+@ConditionalOnProperty(name = "scores.reconcile.enabled", havingValue = "true")
+public class ScoreReconciliationJob implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(ScoreReconciliationJob.class);
+
+    // Every vote weight is a multiple of 0.5, so anything smaller is float rounding
+    private static final double TOLERANCE = 0.01;
+
+    /**
+     * @param expected Score recomputed from the votes
+     * @param actual Score stored on the user
+     */
+    public record Drift(long userId, String username, double expected, double actual) {
+        public double difference() {
+            return expected - actual;
+        }
+    }
+
+    public record Report(long votes, int users, List<Drift> drifted, int corrected, long elapsedMs) {
+        public double votesPerSecond() {
+            return elapsedMs == 0 ? votes : votes * 1000.0 / elapsedMs;
+        }
+    }
+
+    @Autowired
+    private VoteRepository voteRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserSearchService userSearchService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${scores.reconcile.dry-run:true}")
+    private boolean dryRun;
+
+    @Value("${scores.reconcile.chunk-size:10000}")
+    private int chunkSize;
+
+    @Value("${scores.reconcile.parallelism:4}")
+    private int parallelism;
+
+    @Value("${scores.reconcile.report-limit:20}")
+    private int reportLimit;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Report report = reconcile(dryRun);
+        log.info("Score reconciliation read {} votes in {} ms ({} rows/s) and checked {} users; {} had drifted, {} corrected{}",
+                report.votes(), report.elapsedMs(), Math.round(report.votesPerSecond()), report.users(),
+                report.drifted().size(), report.corrected(), dryRun ? " (dry run)" : "");
+        report.drifted().stream()
+                .sorted(Comparator.comparingDouble((Drift drift) -> Math.abs(drift.difference())).reversed())
+                .limit(reportLimit)
+                .forEach(drift -> log.info("  user {} ({}): stored {}, votes give {} ({}{})", drift.userId(),
+                        drift.username(), drift.actual(), drift.expected(), drift.difference() > 0 ? "+" : "",
+                        drift.difference()));
+    }
+
+    /**
+     * Recomputes the scores and, unless {@code dryRun}, writes the differences back.
+     */
+    public Report reconcile(boolean dryRun) {
+        long started = System.currentTimeMillis();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        Totals totals;
+        try {
+            totals = pool.invoke(new ChunkTask(1, voteRepository.findMaxId()));
+        } finally {
+            pool.shutdown();
+        }
+
+        List<Drift> drifted = new ArrayList<>();
+        int users = 0;
+        long maxUserId = userRepository.findMaxId();
+        for (long from = 1; from <= maxUserId; from += chunkSize) {
+            for (UserScoreView user : userRepository.findScoresBetween(from, from + chunkSize - 1)) {
+                double actual = user.getScore() == null ? 0 : user.getScore();
+                double expected = totals.scores.get(user.getId());
+                if (Math.abs(expected - actual) > TOLERANCE) {
+                    drifted.add(new Drift(user.getId(), user.getUsername(), expected, actual));
+                }
+                users++;
+            }
+        }
+
+        int corrected = 0;
+        if (!dryRun && !drifted.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE users SET score = score + ? WHERE id = ?", drifted, chunkSize,
+                    (statement, drift) -> {
+                        statement.setFloat(1, (float) drift.difference());
+                        statement.setLong(2, drift.userId());
+                    });
+            for (Drift drift : drifted) {
+                // written behind Hibernate's back, so the cached users are stale
+                userRepository.evictCached(drift.userId());
+                userSearchService.scoreChanged(drift.userId());
+                leaderboardService.scoreChanged(drift.userId());
+            }
+            corrected = drifted.size();
+        }
+        return new Report(totals.votes, users, drifted, corrected, System.currentTimeMillis() - started);
+    }
+
+    private static final class Totals {
+        final LongDoubleHashMap scores = new LongDoubleHashMap();
+        long votes;
+
+        Totals merge(Totals other) {
+            scores.merge(other.scores);
+            votes += other.votes;
+            return this;
+        }
+    }
+
+    // Sums the votes with ids in [from, to], splitting the range until it fits in one chunk
+    private final class ChunkTask extends RecursiveTask<Totals> {
+        private final long from;
+        private final long to;
+
+        ChunkTask(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Totals compute() {
+            if (to - from < chunkSize) {
+                return load();
+            }
+            long middle = from + (to - from) / 2;
+            ChunkTask left = new ChunkTask(from, middle);
+            left.fork();
+            Totals right = new ChunkTask(middle + 1, to).compute();
+            Totals joined = left.join();
+            // fold the smaller map into the larger
+            return joined.scores.size() >= right.scores.size() ? joined.merge(right) : right.merge(joined);
+        }
+
+        private Totals load() {
+            Totals totals = new Totals();
+            if (from > to) {
+                return totals;
+            }
+            for (VoteScoreView vote : voteRepository.findScoreRowsBetween(from, to)) {
+                Long author = vote.getAnswerAuthorId() != null ? vote.getAnswerAuthorId() : vote.getQuestionAuthorId();
+                if (author != null) {
+                    totals.scores.add(author, VoteService.authorScore(vote.getAnswerAuthorId() != null, vote.getVoteType()));
+                }
+                totals.scores.add(vote.getVoterId(), VoteService.voterScore(vote.getVoteType()));
+                totals.votes++;
+            }
+            return totals;
+        }
+    }
+}
@@ -7,16 +7,24 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_answer_author_created_at_id", columnList = "author_id, created_at, id"),
+        @Index(name = "idx_answer_question_rank_id", columnList = "question_id, rank_score, id"),
+        @Index(name = "idx_answer_question_created_at_id", columnList = "question_id, created_at, id")
+})
 public class Answer {
+    // Pooled table ids instead of IDENTITY, so Hibernate can batch inserts of this entity
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "answer_ids")
+    @TableGenerator(name = "answer_ids", table = "id_allocator", pkColumnName = "entity",
+            valueColumnName = "next_id", pkColumnValue = "answer", allocationSize = 50)
     private Long id;
 
     @ManyToOne
     @JoinColumn(name = "question_id", nullable = false)
     private Question question;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id", nullable = false)
     private User author;
 
@@ -29,6 +37,17 @@ public class Answer {
     @Column
     private LocalDateTime createdAt;
 
+    // Denormalized counters, maintained by the atomic UPDATE statements in AnswerRepository
+    @Column(name = "upvote_count", columnDefinition = "integer default 0", updatable = false)
+    private int upvoteCount;
+
+    @Column(name = "downvote_count", columnDefinition = "integer default 0", updatable = false)
+    private int downvoteCount;
+
+    // Wilson lower bound of the vote ratio, plus 2 while accepted; see AnswerRepository.RANK_SCORE
+    @Column(name = "rank_score", columnDefinition = "double default 0", updatable = false)
+    private double rankScore;
+
     @OneToMany(mappedBy = "answer", cascade = CascadeType.ALL)
     private List<Vote> votes = new ArrayList<>();
 
@@ -92,4 +111,28 @@ public class Answer {
     public Long getId() {
         return id;
     }
+
+    public int getUpvoteCount() {
+        return upvoteCount;
+    }
+
+    public void setUpvoteCount(int upvoteCount) {
+        this.upvoteCount = upvoteCount;
+    }
+
+    public int getDownvoteCount() {
+        return downvoteCount;
+    }
+
+    public void setDownvoteCount(int downvoteCount) {
+        this.downvoteCount = downvoteCount;
+    }
+
+    public double getRankScore() {
+        return rankScore;
+    }
+
+    public void setRankScore(double rankScore) {
+        this.rankScore = rankScore;
+    }
 }
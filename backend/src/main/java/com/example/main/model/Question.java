@@ -1,19 +1,25 @@
 package com.example.main.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "questions")
+@Table(name = "questions", indexes = {
+        @Index(name = "idx_questions_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_questions_status_created_at_id", columnList = "status, created_at, id"),
+        @Index(name = "idx_questions_author_created_at_id", columnList = "author_id, created_at, id")
+})
 public class Question {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    // Lazy: DTOs need only the author id and take the username from the author summary cache
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id", nullable = false)
     private User author;
 
@@ -32,7 +38,9 @@ public class Question {
     @Column(columnDefinition = "varchar(255) default 'received'")
     private String status;
 
+    // Feeds touch the tags of every question on the page; fetch them in batches instead of one query per question
     @ManyToMany
+    @BatchSize(size = 50)
     @JoinTable(
             name = "question_tags",
             joinColumns = @JoinColumn(name = "question_id"),
@@ -49,6 +57,17 @@ public class Question {
     @Column
     private Long acceptedAnswerId;
 
+    // Denormalized counters. Only ever changed through the atomic UPDATE statements in
+    // QuestionRepository, so they are excluded from entity updates to avoid lost increments.
+    @Column(name = "upvote_count", columnDefinition = "integer default 0", updatable = false)
+    private int upvoteCount;
+
+    @Column(name = "downvote_count", columnDefinition = "integer default 0", updatable = false)
+    private int downvoteCount;
+
+    @Column(name = "answer_count", columnDefinition = "integer default 0", updatable = false)
+    private int answerCount;
+
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
@@ -142,4 +161,28 @@ public class Question {
     public void setTags(List<Tag> tags) {
         this.tags = tags;
     }
+
+    public int getUpvoteCount() {
+        return upvoteCount;
+    }
+
+    public void setUpvoteCount(int upvoteCount) {
+        this.upvoteCount = upvoteCount;
+    }
+
+    public int getDownvoteCount() {
+        return downvoteCount;
+    }
+
+    public void setDownvoteCount(int downvoteCount) {
+        this.downvoteCount = downvoteCount;
+    }
+
+    public int getAnswerCount() {
+        return answerCount;
+    }
+
+    public void setAnswerCount(int answerCount) {
+        this.answerCount = answerCount;
+    }
 }
@@ -3,6 +3,10 @@ package com.example.main.model;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -10,6 +14,9 @@ import java.util.List;
 
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@NaturalIdCache(region = "users-by-username")
 @AllArgsConstructor
 @NoArgsConstructor
 public class User {
@@ -17,6 +24,7 @@ public class User {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @NaturalId(mutable = true)
     @Column(unique = true, nullable = false)
     private String username;
 
@@ -26,7 +34,9 @@ public class User {
     @Column(nullable = false)
     private String passwordHash;
 
-    @Column(columnDefinition = "float default 0")
+    // score and reputation only change through the atomic increments in UserRepository;
+    // keeping them out of entity updates stops a profile save from overwriting a concurrent vote
+    @Column(columnDefinition = "float default 0", updatable = false)
     private float score;
 
     @Column(columnDefinition = "boolean default false")
@@ -63,7 +73,7 @@ public class User {
     @Column
     private String twitter;
 
-    @Column(name = "reputation", columnDefinition = "integer default 0")
+    @Column(name = "reputation", columnDefinition = "integer default 0", updatable = false)
     private Integer reputation = 0;
 
     @Column(name = "badges", columnDefinition = "TEXT")
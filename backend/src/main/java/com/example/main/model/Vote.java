@@ -8,11 +8,14 @@ import java.time.LocalDateTime;
 @Table(name = "votes")
 public class Vote {
 
+    // Pooled table ids instead of IDENTITY, so Hibernate can batch inserts of this entity
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "vote_ids")
+    @TableGenerator(name = "vote_ids", table = "id_allocator", pkColumnName = "entity",
+            valueColumnName = "next_id", pkColumnValue = "votes", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
@@ -1,16 +1,104 @@
 package com.example.main.repository;
 
+import com.example.main.dto.AnswerSummaryDto;
 import com.example.main.model.Question;
 import com.example.main.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import com.example.main.model.Answer;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface AnswerRepository extends JpaRepository<Answer, Long>{
     public List<Answer> findByQuestion(Question question);
     public List<Answer> findByAuthor(User author);
+
+    // Summary rows read straight into DTOs; see QuestionRepository.QUESTION_SUMMARY
+    String ANSWER_SUMMARY = "SELECT NEW com.example.main.dto.AnswerSummaryDto(a.id, a.question.id, SUBSTRING(a.text, 1, 200), " +
+            "u.id, u.username, a.upvoteCount, a.downvoteCount, a.createdAt) " +
+            "FROM Answer a JOIN a.author u ";
+
+    @Query(ANSWER_SUMMARY + "WHERE u.id = :authorId ORDER BY a.createdAt DESC, a.id DESC")
+    List<AnswerSummaryDto> findSummaryFeedByAuthor(@Param("authorId") Long authorId, Pageable pageable);
+
+    @Query(ANSWER_SUMMARY + "WHERE u.id = :authorId AND a.createdAt <= :createdAt AND " +
+           "(a.createdAt < :createdAt OR a.id < :id) ORDER BY a.createdAt DESC, a.id DESC")
+    List<AnswerSummaryDto> findSummaryFeedByAuthorAfter(@Param("authorId") Long authorId,
+                                                        @Param("createdAt") LocalDateTime createdAt,
+                                                        @Param("id") Long id, Pageable pageable);
+
+    // Answers of one question with the question fetched alongside; authors come from the summary cache.
+    // Callers pass the ordering
+    @Query("SELECT a FROM Answer a JOIN FETCH a.question WHERE a.question.id = :questionId")
+    List<Answer> findPageByQuestionId(@Param("questionId") Long questionId, Pageable pageable);
+
+    // Lower bound of the 95% Wilson interval for the share of upvotes, 0 with no votes, plus 2
+    // while the answer is accepted so it stays above every other answer of its question. The
+    // pin looks the question up by primary key; accepted_answer_id has no index of its own
+    String RANK_SCORE = "(CASE WHEN upvote_count + downvote_count = 0 THEN 0 ELSE " +
+            "((upvote_count + 1.9208) / (upvote_count + downvote_count) - 1.96 * " +
+            "SQRT(1.0 * upvote_count * downvote_count / (upvote_count + downvote_count) + 0.9604) / (upvote_count + downvote_count)) " +
+            "/ (1 + 3.8416 / (upvote_count + downvote_count)) END) + " +
+            "(CASE WHEN EXISTS (SELECT 1 FROM questions q WHERE q.id = answer.question_id AND q.accepted_answer_id = answer.id) THEN 2 ELSE 0 END)";
+
+    // Run after the counters change, in the same transaction, so the row lock keeps them consistent
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "answer"))
+    @Query(value = "UPDATE answer SET rank_score = " + RANK_SCORE + " WHERE id IN :ids", nativeQuery = true)
+    int refreshRankScores(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "answer"))
+    @Query(value = "UPDATE answer SET rank_score = " + RANK_SCORE + " WHERE id BETWEEN :fromId AND :toId", nativeQuery = true)
+    int backfillRankScores(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "answer"))
+    @Query(value = "UPDATE answer SET upvote_count = upvote_count + :upvotes, " +
+                   "downvote_count = downvote_count + :downvotes WHERE id = :id", nativeQuery = true)
+    int adjustVoteCounts(@Param("id") Long id, @Param("upvotes") int upvotes, @Param("downvotes") int downvotes);
+
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "answer"))
+    @Query(value = "UPDATE answer SET " +
+                   "upvote_count = (SELECT COUNT(*) FROM votes v WHERE v.answer_id = answer.id AND v.vote_type = 'upvote'), " +
+                   "downvote_count = (SELECT COUNT(*) FROM votes v WHERE v.answer_id = answer.id AND v.vote_type <> 'upvote') " +
+                   "WHERE id BETWEEN :fromId AND :toId", nativeQuery = true)
+    int backfillCounters(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    @Query("SELECT COALESCE(MAX(a.id), 0) FROM Answer a")
+    long findMaxId();
+
+    @Query("SELECT a.id AS id, a.author.id AS authorId FROM Answer a WHERE a.id IN :ids")
+    List<TargetAuthorView> findAuthorIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT a.question.id AS questionId, a.text AS value FROM Answer a WHERE a.question.id IN :questionIds")
+    List<QuestionFieldView> findTextsByQuestionIdIn(@Param("questionIds") Collection<Long> questionIds);
+
+    @Query("SELECT a.question.id FROM Answer a WHERE a.id = :id")
+    Optional<Long> findQuestionIdById(@Param("id") Long id);
+
+    @Query("SELECT a.question.id AS questionId, a.createdAt AS createdAt FROM Answer a WHERE a.createdAt >= :since")
+    List<QuestionEventView> findAnswerEventsSince(@Param("since") LocalDateTime since);
+
+    @Query("SELECT t.tagId AS tagId, a.createdAt AS createdAt FROM Answer a JOIN a.question q JOIN q.tags t " +
+           "WHERE a.createdAt >= :since")
+    List<TagEventView> findTagEventsSince(@Param("since") LocalDateTime since);
 }
@@ -0,0 +1,12 @@
+package com.example.main.repository;
+
+/**
+ * The user fields kept in the author summary cache.
+ */
+public interface AuthorSummaryView {
+    Long getId();
+    String getUsername();
+    Boolean getModerator();
+    Boolean getBanned();
+    Float getScore();
+}
@@ -0,0 +1,13 @@
+package com.example.main.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Whether a question has answers and when it last saw activity.
+ */
+public interface QuestionActivityView {
+    Long getId();
+    Integer getAnswerCount();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getLastAnswerAt();
+}
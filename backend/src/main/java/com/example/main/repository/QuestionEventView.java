@@ -0,0 +1,11 @@
+package com.example.main.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Something that happened to a question at a given time, for replaying recent activity.
+ */
+public interface QuestionEventView {
+    Long getQuestionId();
+    LocalDateTime getCreatedAt();
+}
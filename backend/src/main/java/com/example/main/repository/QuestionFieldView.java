@@ -0,0 +1,9 @@
+package com.example.main.repository;
+
+/**
+ * One text value attached to a question, such as a tag name or an answer body.
+ */
+public interface QuestionFieldView {
+    Long getQuestionId();
+    String getValue();
+}
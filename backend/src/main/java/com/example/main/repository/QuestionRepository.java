@@ -1,19 +1,98 @@
 package com.example.main.repository;
 
+import com.example.main.dto.QuestionSummaryDto;
 import com.example.main.model.Question;
 import com.example.main.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface QuestionRepository extends JpaRepository<Question,Long> {
     List<Question> findByAuthor(User author);
     List<Question> findByStatus(String status);
+
+    List<Question> findAllByOrderByCreatedAtDescIdDesc();
+    List<Question> findByAuthorOrderByCreatedAtDescIdDesc(User author);
+    List<Question> findByStatusOrderByCreatedAtDescIdDesc(String status);
+
+    // Keyset feeds: served from the (created_at, id) indexes, so the cost of a page
+    // does not depend on how deep into the feed the client is
+    @Query("SELECT q FROM Question q ORDER BY q.createdAt DESC, q.id DESC")
+    List<Question> findFeed(Pageable pageable);
+
+    @Query("SELECT q FROM Question q WHERE q.createdAt <= :createdAt AND " +
+           "(q.createdAt < :createdAt OR q.id < :id) " +
+           "ORDER BY q.createdAt DESC, q.id DESC")
+    List<Question> findFeedAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT q FROM Question q WHERE q.status = :status ORDER BY q.createdAt DESC, q.id DESC")
+    List<Question> findFeedByStatus(@Param("status") String status, Pageable pageable);
+
+    @Query("SELECT q FROM Question q WHERE q.status = :status AND q.createdAt <= :createdAt AND " +
+           "(q.createdAt < :createdAt OR q.id < :id) " +
+           "ORDER BY q.createdAt DESC, q.id DESC")
+    List<Question> findFeedByStatusAfter(@Param("status") String status, @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT q FROM Question q WHERE q.author.id = :authorId ORDER BY q.createdAt DESC, q.id DESC")
+    List<Question> findFeedByAuthor(@Param("authorId") Long authorId, Pageable pageable);
+
+    @Query("SELECT q FROM Question q WHERE q.author.id = :authorId AND q.createdAt <= :createdAt AND " +
+           "(q.createdAt < :createdAt OR q.id < :id) " +
+           "ORDER BY q.createdAt DESC, q.id DESC")
+    List<Question> findFeedByAuthorAfter(@Param("authorId") Long authorId, @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id, Pageable pageable);
     
+    // Summary feeds: only the columns a list row shows, read straight into DTOs, so neither
+    // the question body nor the author entity is ever loaded
+    String QUESTION_SUMMARY = "SELECT NEW com.example.main.dto.QuestionSummaryDto(q.id, q.title, SUBSTRING(q.text, 1, 200), " +
+            "u.id, u.username, q.status, q.upvoteCount, q.downvoteCount, q.answerCount, q.createdAt) " +
+            "FROM Question q JOIN q.author u ";
+
+    @Query(QUESTION_SUMMARY + "ORDER BY q.createdAt DESC, q.id DESC")
+    List<QuestionSummaryDto> findSummaryFeed(Pageable pageable);
+
+    @Query(QUESTION_SUMMARY + "WHERE q.createdAt <= :createdAt AND (q.createdAt < :createdAt OR q.id < :id) " +
+           "ORDER BY q.createdAt DESC, q.id DESC")
+    List<QuestionSummaryDto> findSummaryFeedAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                                  Pageable pageable);
+
+    @Query(QUESTION_SUMMARY + "WHERE q.status = :status ORDER BY q.createdAt DESC, q.id DESC")
+    List<QuestionSummaryDto> findSummaryFeedByStatus(@Param("status") String status, Pageable pageable);
+
+    @Query(QUESTION_SUMMARY + "WHERE q.status = :status AND q.createdAt <= :createdAt AND " +
+           "(q.createdAt < :createdAt OR q.id < :id) ORDER BY q.createdAt DESC, q.id DESC")
+    List<QuestionSummaryDto> findSummaryFeedByStatusAfter(@Param("status") String status,
+                                                          @Param("createdAt") LocalDateTime createdAt,
+                                                          @Param("id") Long id, Pageable pageable);
+
+    @Query(QUESTION_SUMMARY + "JOIN q.tags t WHERE t.name = :tagName ORDER BY q.createdAt DESC, q.id DESC")
+    List<QuestionSummaryDto> findSummaryFeedByTag(@Param("tagName") String tagName, Pageable pageable);
+
+    @Query(QUESTION_SUMMARY + "JOIN q.tags t WHERE t.name = :tagName AND q.createdAt <= :createdAt AND " +
+           "(q.createdAt < :createdAt OR q.id < :id) ORDER BY q.createdAt DESC, q.id DESC")
+    List<QuestionSummaryDto> findSummaryFeedByTagAfter(@Param("tagName") String tagName,
+                                                       @Param("createdAt") LocalDateTime createdAt,
+                                                       @Param("id") Long id, Pageable pageable);
+
+    @Query(QUESTION_SUMMARY + "WHERE q.id IN :ids ORDER BY q.createdAt DESC, q.id DESC")
+    List<QuestionSummaryDto> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT q FROM Question q JOIN q.tags t WHERE t.name = :tagName ORDER BY q.createdAt DESC, q.id DESC")
+    List<Question> findByTagName(@Param("tagName") String tagName);
+
     // Replace simple findByTitleOrText with a more robust search using LIKE
     @Query("SELECT q FROM Question q WHERE " +
            "LOWER(q.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
@@ -22,4 +101,85 @@ public interface QuestionRepository extends JpaRepository<Question,Long> {
     
     // Keep the original method for backward compatibility
     List<Question> findByTitleOrText(String title, String text);
+
+    // Counter maintenance: single-statement increments so concurrent writers never lose updates.
+    // Native updates name their table, or Hibernate would clear every second-level cache region.
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "questions"))
+    @Query(value = "UPDATE questions SET upvote_count = upvote_count + :upvotes, " +
+                   "downvote_count = downvote_count + :downvotes WHERE id = :id", nativeQuery = true)
+    int adjustVoteCounts(@Param("id") Long id, @Param("upvotes") int upvotes, @Param("downvotes") int downvotes);
+
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "questions"))
+    @Query(value = "UPDATE questions SET answer_count = answer_count + :delta WHERE id = :id", nativeQuery = true)
+    int adjustAnswerCount(@Param("id") Long id, @Param("delta") int delta);
+
+    // Recomputes the counters of an id range from the votes and answer tables
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "questions"))
+    @Query(value = "UPDATE questions SET " +
+                   "upvote_count = (SELECT COUNT(*) FROM votes v WHERE v.question_id = questions.id AND v.vote_type = 'upvote'), " +
+                   "downvote_count = (SELECT COUNT(*) FROM votes v WHERE v.question_id = questions.id AND v.vote_type <> 'upvote'), " +
+                   "answer_count = (SELECT COUNT(*) FROM answer a WHERE a.question_id = questions.id) " +
+                   "WHERE id BETWEEN :fromId AND :toId", nativeQuery = true)
+    int backfillCounters(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    @Query("SELECT COALESCE(MAX(q.id), 0) FROM Question q")
+    long findMaxId();
+
+    @Query("SELECT q.id AS id, q.author.id AS authorId FROM Question q WHERE q.id IN :ids")
+    List<TargetAuthorView> findAuthorIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Search indexing reads
+    @Query("SELECT q.id FROM Question q WHERE q.id > :afterId ORDER BY q.id")
+    List<Long> findIdsAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("SELECT q.id AS id, q.title AS title, q.text AS text FROM Question q WHERE q.id IN :ids")
+    List<QuestionTextView> findTextsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT q.id AS questionId, t.name AS value FROM Question q JOIN q.tags t WHERE q.id IN :ids")
+    List<QuestionFieldView> findTagNamesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT q.id FROM Question q JOIN q.tags t WHERE t.id = :tagId")
+    List<Long> findIdsByTagId(@Param("tagId") Long tagId);
+
+    @Query("SELECT t.tagId FROM Question q JOIN q.tags t WHERE q.id = :id")
+    List<Long> findTagIdsById(@Param("id") Long id);
+
+    // Hot ranking replay
+    @Query("SELECT q.id AS questionId, q.createdAt AS createdAt FROM Question q WHERE q.createdAt >= :since")
+    List<QuestionEventView> findCreatedSince(@Param("since") LocalDateTime since);
+
+    // Trending replay: one row per tag of each question asked since the given time
+    @Query("SELECT t.tagId AS tagId, q.createdAt AS createdAt FROM Question q JOIN q.tags t WHERE q.createdAt >= :since")
+    List<TagEventView> findTagEventsSince(@Param("since") LocalDateTime since);
+
+    // Tag bitmap index reads
+    @Query("SELECT q.id AS questionId, t.tagId AS tagId FROM Question q LEFT JOIN q.tags t WHERE q.id IN :ids")
+    List<QuestionTagView> findTagIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT q.id FROM Question q")
+    List<Long> findAllIds();
+
+    @Query("SELECT q.id AS id, q.answerCount AS answerCount, q.createdAt AS createdAt, " +
+           "(SELECT MAX(a.createdAt) FROM Answer a WHERE a.question = q) AS lastAnswerAt " +
+           "FROM Question q WHERE q.id IN :ids")
+    List<QuestionActivityView> findActivityByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Autocomplete reads
+    String QUESTION_TITLE = "SELECT q.id AS id, q.title AS title, q.upvoteCount AS upvoteCount, " +
+            "q.downvoteCount AS downvoteCount, q.createdAt AS createdAt FROM Question q ";
+
+    @Query(QUESTION_TITLE + "WHERE q.id > :afterId ORDER BY q.id")
+    List<QuestionTitleView> findTitlesAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query(QUESTION_TITLE + "WHERE q.id IN :ids")
+    List<QuestionTitleView> findTitlesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(QUESTION_TITLE + "WHERE LOWER(q.title) LIKE CONCAT(LOWER(:prefix), '%') ORDER BY q.createdAt DESC, q.id DESC")
+    List<QuestionTitleView> findTitlesByPrefix(@Param("prefix") String prefix, Pageable pageable);
 }
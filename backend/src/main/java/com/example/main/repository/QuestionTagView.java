@@ -0,0 +1,9 @@
+package com.example.main.repository;
+
+/**
+ * One tag of a question; the tag id is null for a question without tags.
+ */
+public interface QuestionTagView {
+    Long getQuestionId();
+    Long getTagId();
+}
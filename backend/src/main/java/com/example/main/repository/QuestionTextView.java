@@ -0,0 +1,10 @@
+package com.example.main.repository;
+
+/**
+ * The searchable text of a question, without its author or collections.
+ */
+public interface QuestionTextView {
+    Long getId();
+    String getTitle();
+    String getText();
+}
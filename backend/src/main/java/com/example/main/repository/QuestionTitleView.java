@@ -0,0 +1,14 @@
+package com.example.main.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * The title of a question and the figures its autocomplete weight is derived from.
+ */
+public interface QuestionTitleView {
+    Long getId();
+    String getTitle();
+    Integer getUpvoteCount();
+    Integer getDownvoteCount();
+    LocalDateTime getCreatedAt();
+}
@@ -0,0 +1,11 @@
+package com.example.main.repository;
+
+/**
+ * Votes on one author's answers to questions with one tag.
+ */
+public interface TagAuthorVotesView {
+    Long getTagId();
+    Long getUserId();
+    Long getVotes();
+    Long getUpvotes();
+}
@@ -0,0 +1,10 @@
+package com.example.main.repository;
+
+/**
+ * A tag with the number of questions carrying it.
+ */
+public interface TagCountView {
+    Long getId();
+    String getName();
+    Long getQuestionCount();
+}
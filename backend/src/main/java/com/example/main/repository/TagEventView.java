@@ -0,0 +1,11 @@
+package com.example.main.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * One tag of a question that saw activity at a given time, for replaying recent trends.
+ */
+public interface TagEventView {
+    Long getTagId();
+    LocalDateTime getCreatedAt();
+}
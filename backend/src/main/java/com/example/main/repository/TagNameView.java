@@ -0,0 +1,9 @@
+package com.example.main.repository;
+
+/**
+ * The id and name of a tag, without its questions.
+ */
+public interface TagNameView {
+    Long getId();
+    String getName();
+}
@@ -1,13 +1,66 @@
 package com.example.main.repository;
 
 import com.example.main.model.Tag;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
-public interface TagRepository extends JpaRepository<Tag,Long> {
-    Optional<Tag> findByName(String name);
+public interface TagRepository extends JpaRepository<Tag,Long>, TagRepositoryCustom {
     boolean existsByName(String name);
+
+    // Served from the query cache; any write through Hibernate to tags invalidates it
+    @Override
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "tag-queries")})
+    List<Tag> findAll();
+
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "tag-queries")})
+    List<Tag> findByNameIn(Collection<String> names);
+
+    // A locking read, so it also sees tags that another transaction committed after this
+    // one took its snapshot, such as a concurrent insert of the same name
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Transactional
+    @Query("SELECT t FROM Tag t WHERE t.name IN :names")
+    List<Tag> findCommittedByNameIn(@Param("names") Collection<String> names);
+
+    @Query("SELECT t.tagId AS id, t.name AS name FROM Tag t")
+    List<TagNameView> findAllNames();
+
+    // Autocomplete reads
+    @Query("SELECT t.tagId AS id, t.name AS name, COUNT(q.id) AS questionCount FROM Tag t LEFT JOIN t.questions q " +
+           "GROUP BY t.tagId, t.name")
+    List<TagCountView> findAllWithQuestionCounts();
+
+    @Query("SELECT t.tagId AS id, t.name AS name, COUNT(q.id) AS questionCount FROM Tag t LEFT JOIN t.questions q " +
+           "WHERE t.tagId IN :ids GROUP BY t.tagId, t.name")
+    List<TagCountView> findWithQuestionCountsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT t.tagId AS id, t.name AS name FROM Tag t WHERE t.tagId IN :ids")
+    List<TagNameView> findNamesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Tags sharing questions with a tag, most shared first; questionCount is the number shared
+    @Query("SELECT other.tagId AS id, other.name AS name, COUNT(q.id) AS questionCount FROM Question q " +
+           "JOIN q.tags t JOIN q.tags other WHERE t.tagId = :tagId AND other.tagId <> :tagId " +
+           "GROUP BY other.tagId, other.name ORDER BY COUNT(q.id) DESC")
+    List<TagCountView> findRelated(@Param("tagId") Long tagId, Pageable pageable);
+
+    @Query("SELECT t FROM Tag t WHERE LOWER(t.name) LIKE CONCAT(LOWER(:prefix), '%') ORDER BY t.name")
+    List<Tag> findByNamePrefix(@Param("prefix") String prefix, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(t.tagId), 0) FROM Tag t")
+    long findMaxId();
 }
@@ -0,0 +1,21 @@
+package com.example.main.repository;
+
+import com.example.main.model.Tag;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Optional;
+
+public interface TagRepositoryCustom {
+    /**
+     * Loads a tag by its natural id, so repeat lookups are answered from the second-level cache
+     */
+    @Transactional(readOnly = true)
+    Optional<Tag> findByName(String name);
+
+    /**
+     * Inserts the named tags in one statement, skipping names that already exist
+     */
+    @Transactional
+    void insertIgnoringDuplicates(Collection<String> names);
+}
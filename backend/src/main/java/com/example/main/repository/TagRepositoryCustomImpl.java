@@ -0,0 +1,43 @@
+package com.example.main.repository;
+
+import com.example.main.model.Tag;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+public class TagRepositoryCustomImpl implements TagRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Tag> findByName(String name) {
+        if (name == null) {
+            return Optional.empty();
+        }
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(Tag.class).loadOptional(name);
+    }
+
+    @Override
+    public void insertIgnoringDuplicates(Collection<String> names) {
+        if (names.isEmpty()) {
+            return;
+        }
+        List<String> values = List.copyOf(names);
+        String rows = String.join(", ", Collections.nCopies(values.size(), "(?)"));
+        // Going through Hibernate rather than JDBC invalidates the cached tag queries
+        NativeQuery<?> insert = entityManager.createNativeQuery(
+                        "INSERT INTO tags (name) VALUES " + rows + " ON DUPLICATE KEY UPDATE tag_id = tag_id")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(Tag.class);
+        for (int i = 0; i < values.size(); i++) {
+            insert.setParameter(i + 1, values.get(i));
+        }
+        insert.executeUpdate();
+    }
+}
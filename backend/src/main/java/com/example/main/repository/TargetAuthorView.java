@@ -0,0 +1,9 @@
+package com.example.main.repository;
+
+/**
+ * Id and author id of a question or answer, without loading either entity.
+ */
+public interface TargetAuthorView {
+    Long getId();
+    Long getAuthorId();
+}
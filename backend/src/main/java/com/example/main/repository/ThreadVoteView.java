@@ -0,0 +1,10 @@
+package com.example.main.repository;
+
+/**
+ * A user's stored vote on a question or on one of its answers; exactly one id is set.
+ */
+public interface ThreadVoteView {
+    Long getQuestionId();
+    Long getAnswerId();
+    String getVoteType();
+}
@@ -1,20 +1,22 @@
 package com.example.main.repository;
 
 import com.example.main.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User,Long> {
-    Optional<User> findByUsername(String username);
+public interface UserRepository extends JpaRepository<User,Long>, UserRepositoryCustom {
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+    boolean existsByIsModeratorTrue();
     
     // Add search methods
     @Query("SELECT u FROM User u WHERE " +
@@ -23,4 +25,38 @@ public interface UserRepository extends JpaRepository<User,Long> {
            "(u.bio IS NOT NULL AND LOWER(u.bio) LIKE LOWER(CONCAT('%', :keyword, '%'))) OR " +
            "(u.location IS NOT NULL AND LOWER(u.location) LIKE LOWER(CONCAT('%', :keyword, '%')))")
     List<User> searchUsers(@Param("keyword") String keyword);
+
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Search indexing reads
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email, u.location AS location, " +
+           "u.bio AS bio, u.score AS score FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<UserSearchView> findSearchViewsAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email, u.location AS location, " +
+           "u.bio AS bio, u.score AS score FROM User u WHERE u.id IN :ids")
+    List<UserSearchView> findSearchViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT u.id AS id, u.username AS username, u.isModerator AS moderator, u.isBanned AS banned, " +
+           "u.score AS score FROM User u WHERE u.id IN :ids")
+    List<AuthorSummaryView> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Leaderboard reads
+    String USER_SCORE = "SELECT u.id AS id, u.username AS username, u.score AS score FROM User u ";
+
+    @Query(USER_SCORE + "WHERE u.id BETWEEN :fromId AND :toId")
+    List<UserScoreView> findScoresBetween(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    @Query(USER_SCORE + "WHERE u.id IN :ids")
+    List<UserScoreView> findScoresByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(USER_SCORE + "ORDER BY u.score DESC, u.id ASC")
+    List<UserScoreView> findLeaderboard(Pageable pageable);
+
+    @Query("SELECT COUNT(u) FROM User u WHERE u.score > :score OR (u.score = :score AND u.id < :id)")
+    long countRankedAbove(@Param("score") float score, @Param("id") Long id);
+
+    @Query("SELECT COALESCE(MAX(u.id), 0) FROM User u")
+    long findMaxId();
 }
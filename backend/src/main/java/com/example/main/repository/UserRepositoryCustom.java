@@ -0,0 +1,29 @@
+package com.example.main.repository;
+
+import com.example.main.model.User;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+    /**
+     * Loads a user by their natural id, so repeat lookups are answered from the second-level cache
+     */
+    @Transactional(readOnly = true)
+    Optional<User> findByUsername(String username);
+
+    /**
+     * Atomically adds to a user's score and drops just that user from the second-level cache
+     * @return Number of rows updated
+     */
+    @Transactional
+    int incrementScore(Long id, float delta);
+
+    @Transactional
+    int incrementReputation(Long id, int delta);
+
+    /**
+     * Drops a user from the second-level cache now and again once the current transaction commits
+     */
+    void evictCached(Long id);
+}
@@ -0,0 +1,61 @@
+package com.example.main.repository;
+
+import com.example.main.model.User;
+import com.example.main.utils.AfterCommit;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+
+import java.util.Optional;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+    // Query space of the counter updates. Naming the users table instead would make Hibernate
+    // flush the whole users region on every vote; only the updated user is evicted instead.
+    private static final String COUNTERS_SPACE = "user_counters";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<User> findByUsername(String username) {
+        if (username == null) {
+            return Optional.empty();
+        }
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(User.class).loadOptional(username);
+    }
+
+    @Override
+    public int incrementScore(Long id, float delta) {
+        return incrementCounter("UPDATE users SET score = score + :delta WHERE id = :id", id, delta);
+    }
+
+    @Override
+    public int incrementReputation(Long id, int delta) {
+        return incrementCounter("UPDATE users SET reputation = COALESCE(reputation, 0) + :delta WHERE id = :id", id, delta);
+    }
+
+    @Override
+    public void evictCached(Long id) {
+        if (id == null) {
+            return;
+        }
+        // a reader between this update and the commit could cache the old row again
+        AfterCommit.runNowAndAgain(() -> evict(id));
+    }
+
+    private int incrementCounter(String sql, Long id, Number delta) {
+        int updated = entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(COUNTERS_SPACE)
+                .setParameter("id", id)
+                .setParameter("delta", delta)
+                .executeUpdate();
+        evictCached(id);
+        return updated;
+    }
+
+    private void evict(Long id) {
+        entityManager.getEntityManagerFactory().getCache().evict(User.class, id);
+    }
+}
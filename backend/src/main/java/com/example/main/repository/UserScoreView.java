@@ -0,0 +1,10 @@
+package com.example.main.repository;
+
+/**
+ * A user's name and score, for the leaderboards.
+ */
+public interface UserScoreView {
+    Long getId();
+    String getUsername();
+    Float getScore();
+}
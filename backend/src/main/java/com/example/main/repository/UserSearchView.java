@@ -0,0 +1,13 @@
+package com.example.main.repository;
+
+/**
+ * The searchable profile fields of a user.
+ */
+public interface UserSearchView {
+    Long getId();
+    String getUsername();
+    String getEmail();
+    String getLocation();
+    String getBio();
+    Float getScore();
+}
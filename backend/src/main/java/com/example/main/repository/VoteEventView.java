@@ -0,0 +1,8 @@
+package com.example.main.repository;
+
+/**
+ * A vote cast on a question, for replaying recent activity.
+ */
+public interface VoteEventView extends QuestionEventView {
+    String getVoteType();
+}
@@ -5,8 +5,14 @@ import com.example.main.model.Question;
 import com.example.main.model.User;
 import com.example.main.model.Vote;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,4 +23,61 @@ public interface VoteRepository extends JpaRepository<Vote, Long> {
     List<Vote> findByAnswer(Answer answer);
     Optional<Vote> findByUserAndQuestion(User user, Question question);
     Optional<Vote> findByUserAndAnswer(User user, Answer answer);
+
+    // Stored votes for a batch of (user, target) pairs; callers filter the cross product down to the pairs they need
+    @Query("SELECT v.id AS id, v.user.id AS userId, v.question.id AS targetId, v.voteType AS voteType " +
+           "FROM Vote v WHERE v.question.id IN :targetIds AND v.user.id IN :userIds")
+    List<VoteStateView> findQuestionVoteStates(@Param("targetIds") Collection<Long> targetIds,
+                                               @Param("userIds") Collection<Long> userIds);
+
+    @Query("SELECT v.id AS id, v.user.id AS userId, v.answer.id AS targetId, v.voteType AS voteType " +
+           "FROM Vote v WHERE v.answer.id IN :targetIds AND v.user.id IN :userIds")
+    List<VoteStateView> findAnswerVoteStates(@Param("targetIds") Collection<Long> targetIds,
+                                             @Param("userIds") Collection<Long> userIds);
+
+    // One user's votes on a question and all of its answers
+    @Query("SELECT v.question.id AS questionId, v.answer.id AS answerId, v.voteType AS voteType " +
+           "FROM Vote v LEFT JOIN v.answer a WHERE v.user.id = :userId " +
+           "AND (v.question.id = :questionId OR a.question.id = :questionId)")
+    List<ThreadVoteView> findThreadVotes(@Param("userId") Long userId, @Param("questionId") Long questionId);
+
+    // Hot ranking replay
+    @Query("SELECT v.question.id AS questionId, v.createdAt AS createdAt, v.voteType AS voteType FROM Vote v " +
+           "WHERE v.question IS NOT NULL AND v.createdAt >= :since")
+    List<VoteEventView> findQuestionVoteEventsSince(@Param("since") LocalDateTime since);
+
+    // Trending replay: one row per tag of the question each vote lands on
+    @Query("SELECT t.tagId AS tagId, v.createdAt AS createdAt FROM Vote v JOIN v.question q JOIN q.tags t " +
+           "WHERE v.createdAt >= :since")
+    List<TagEventView> findQuestionVoteTagEventsSince(@Param("since") LocalDateTime since);
+
+    @Query("SELECT t.tagId AS tagId, v.createdAt AS createdAt FROM Vote v JOIN v.answer a JOIN a.question q JOIN q.tags t " +
+           "WHERE v.createdAt >= :since")
+    List<TagEventView> findAnswerVoteTagEventsSince(@Param("since") LocalDateTime since);
+
+    // Per-tag leaderboards: votes on each author's answers, grouped by the tags of the questions answered
+    String ANSWER_VOTE_TOTALS = "SELECT t.tagId AS tagId, a.author.id AS userId, COUNT(v) AS votes, " +
+            "SUM(CASE WHEN v.voteType = 'upvote' THEN 1 ELSE 0 END) AS upvotes " +
+            "FROM Vote v JOIN v.answer a JOIN a.question q JOIN q.tags t ";
+
+    @Query(ANSWER_VOTE_TOTALS + "WHERE t.tagId BETWEEN :fromTagId AND :toTagId GROUP BY t.tagId, a.author.id")
+    List<TagAuthorVotesView> findAnswerVoteTotalsByTagBetween(@Param("fromTagId") long fromTagId,
+                                                              @Param("toTagId") long toTagId);
+
+    @Query(ANSWER_VOTE_TOTALS + "WHERE a.author.id IN :userIds GROUP BY t.tagId, a.author.id")
+    List<TagAuthorVotesView> findAnswerVoteTotalsByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    @Query("SELECT v.user.id AS voterId, v.voteType AS voteType, q.author.id AS questionAuthorId, " +
+           "a.author.id AS answerAuthorId FROM Vote v LEFT JOIN v.question q LEFT JOIN v.answer a " +
+           "WHERE v.id BETWEEN :fromId AND :toId")
+    List<VoteScoreView> findScoreRowsBetween(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    @Query("SELECT COALESCE(MAX(v.id), 0) FROM Vote v")
+    long findMaxId();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Vote v SET v.voteType = :voteType WHERE v.id IN :ids")
+    int updateVoteTypes(@Param("ids") Collection<Long> ids, @Param("voteType") String voteType);
+
 }
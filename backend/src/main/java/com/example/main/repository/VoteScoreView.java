@@ -0,0 +1,11 @@
+package com.example.main.repository;
+
+/**
+ * A vote with its voter and the author of what it was cast on, for recomputing scores.
+ */
+public interface VoteScoreView {
+    Long getVoterId();
+    String getVoteType();
+    Long getQuestionAuthorId();
+    Long getAnswerAuthorId();
+}
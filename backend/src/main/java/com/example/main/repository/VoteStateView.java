@@ -0,0 +1,11 @@
+package com.example.main.repository;
+
+/**
+ * The stored vote of one user on one question or answer.
+ */
+public interface VoteStateView {
+    Long getId();
+    Long getUserId();
+    Long getTargetId();
+    String getVoteType();
+}
@@ -0,0 +1,425 @@
+package com.example.main.search;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Positional inverted index over question documents, ranked with BM25.
+ * <p>
+ * A document is a question's title, tags, body and answers. Each field is analyzed into
+ * one position space, with a gap between fields so phrases never run across two of them.
+ * Term frequencies are weighted by field, so a title hit counts for more than a body hit.
+ * <p>
+ * A query is a list of clauses that must all match: plain words, {@code "quoted phrases"}
+ * and {@code prefix*} words. Reads and writes are guarded by a read/write lock.
+ */
+public class InvertedIndex {
+    static final float TITLE_WEIGHT = 3f;
+    static final float TAG_WEIGHT = 2f;
+    static final float BODY_WEIGHT = 1f;
+    static final float ANSWER_WEIGHT = 1f;
+
+    private static final int FIELD_GAP = 100;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Map<Long, Posting>> postings = new TreeMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private double totalLength;
+
+    private record Posting(float weight, int[] positions) {
+    }
+
+    private record Document(float length, String[] terms) {
+    }
+
+    public record Hit(long id, double score) {
+    }
+
+    /**
+     * One page of hits, best first, and the number of documents that matched.
+     */
+    public record Result(List<Hit> hits, int total) {
+    }
+
+    /**
+     * Adds a document, replacing any previous version with the same id.
+     */
+    public void put(long id, String title, String body, Collection<String> tags, Collection<String> answers) {
+        Map<String, PostingBuilder> terms = new HashMap<>();
+        int next = addField(terms, title, 0, TITLE_WEIGHT);
+        for (String tag : tags) {
+            next = addField(terms, tag, next, TAG_WEIGHT);
+        }
+        next = addField(terms, body, next, BODY_WEIGHT);
+        for (String answer : answers) {
+            next = addField(terms, answer, next, ANSWER_WEIGHT);
+        }
+
+        Map<String, Posting> built = new HashMap<>();
+        terms.forEach((term, builder) -> built.put(term, builder.build()));
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            insertLocked(id, built);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            clearLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Result search(String query, int offset, int limit) {
+        List<Clause> clauses = parse(query);
+        if (clauses.isEmpty()) {
+            return new Result(List.of(), 0);
+        }
+
+        List<Hit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (Clause clause : clauses) {
+                Map<Long, Double> matched = match(clause, scores);
+                if (scores == null) {
+                    scores = matched;
+                } else {
+                    Map<Long, Double> combined = scores;
+                    combined.keySet().retainAll(matched.keySet());
+                    matched.forEach((id, score) -> combined.computeIfPresent(id, (k, s) -> s + score));
+                }
+                if (scores.isEmpty()) {
+                    return new Result(List.of(), 0);
+                }
+            }
+            scores.forEach((id, score) -> hits.add(new Hit(id, score)));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Ties go to the newer question
+        hits.sort(Comparator.comparingDouble(Hit::score).reversed().thenComparing(Comparator.comparingLong(Hit::id).reversed()));
+        int from = Math.min(offset, hits.size());
+        int to = Math.min(from + limit, hits.size());
+        return new Result(new ArrayList<>(hits.subList(from, to)), hits.size());
+    }
+
+    /**
+     * Writes every document with its analyzed postings, so loading needs no re-analysis.
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        lock.readLock().lock();
+        try {
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(documents.size());
+            for (Map.Entry<Long, Document> entry : documents.entrySet()) {
+                long id = entry.getKey();
+                String[] terms = entry.getValue().terms();
+                out.writeLong(id);
+                out.writeInt(terms.length);
+                for (String term : terms) {
+                    Posting posting = postings.get(term).get(id);
+                    out.writeUTF(term);
+                    out.writeFloat(posting.weight());
+                    out.writeInt(posting.positions().length);
+                    for (int position : posting.positions()) {
+                        out.writeInt(position);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the contents of this index with a snapshot written by {@link #writeTo}.
+     */
+    public void readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != SNAPSHOT_VERSION) {
+            throw new IOException("Unsupported search index snapshot version");
+        }
+        lock.writeLock().lock();
+        try {
+            clearLocked();
+            int documentCount = in.readInt();
+            for (int d = 0; d < documentCount; d++) {
+                long id = in.readLong();
+                int termCount = in.readInt();
+                Map<String, Posting> terms = new HashMap<>(termCount * 2);
+                for (int t = 0; t < termCount; t++) {
+                    String term = in.readUTF();
+                    float weight = in.readFloat();
+                    int[] positions = new int[in.readInt()];
+                    for (int p = 0; p < positions.length; p++) {
+                        positions[p] = in.readInt();
+                    }
+                    terms.put(term, new Posting(weight, positions));
+                }
+                insertLocked(id, terms);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void clearLocked() {
+        postings.clear();
+        documents.clear();
+        totalLength = 0;
+    }
+
+    private void insertLocked(long id, Map<String, Posting> terms) {
+        float length = 0;
+        for (Map.Entry<String, Posting> entry : terms.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), t -> new HashMap<>()).put(id, entry.getValue());
+            length += entry.getValue().weight();
+        }
+        documents.put(id, new Document(length, terms.keySet().toArray(new String[0])));
+        totalLength += length;
+    }
+
+    private void removeLocked(long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms()) {
+            Map<Long, Posting> docs = postings.get(term);
+            docs.remove(id);
+            if (docs.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= document.length();
+    }
+
+    private static int addField(Map<String, PostingBuilder> terms, String text, int firstPosition, float weight) {
+        List<TextAnalyzer.Token> tokens = TextAnalyzer.analyze(text, firstPosition);
+        for (TextAnalyzer.Token token : tokens) {
+            terms.computeIfAbsent(token.term(), t -> new PostingBuilder()).add(token.position(), weight);
+        }
+        int last = tokens.isEmpty() ? firstPosition : tokens.get(tokens.size() - 1).position();
+        return last + FIELD_GAP;
+    }
+
+    // Query clauses: a phrase is a list of terms with their offsets, a prefix has no terms
+    private record Clause(String[] terms, int[] offsets, String prefix) {
+    }
+
+    private static List<Clause> parse(String query) {
+        List<Clause> clauses = new ArrayList<>();
+        if (query == null) {
+            return clauses;
+        }
+        int i = 0;
+        while (i < query.length()) {
+            char c = query.charAt(i);
+            if (c == '"') {
+                int end = query.indexOf('"', i + 1);
+                if (end < 0) {
+                    end = query.length();
+                }
+                addPhrase(clauses, query.substring(i + 1, end));
+                i = end + 1;
+            } else if (Character.isWhitespace(c)) {
+                i++;
+            } else {
+                int end = i;
+                while (end < query.length() && !Character.isWhitespace(query.charAt(end)) && query.charAt(end) != '"') {
+                    end++;
+                }
+                addWord(clauses, query.substring(i, end));
+                i = end;
+            }
+        }
+        return clauses;
+    }
+
+    private static void addPhrase(List<Clause> clauses, String phrase) {
+        List<TextAnalyzer.Token> tokens = TextAnalyzer.analyze(phrase, 0);
+        if (tokens.size() == 1) {
+            clauses.add(new Clause(new String[]{tokens.get(0).term()}, new int[]{0}, null));
+        } else if (!tokens.isEmpty()) {
+            String[] terms = new String[tokens.size()];
+            int[] offsets = new int[tokens.size()];
+            for (int t = 0; t < tokens.size(); t++) {
+                terms[t] = tokens.get(t).term();
+                offsets[t] = tokens.get(t).position();
+            }
+            clauses.add(new Clause(terms, offsets, null));
+        }
+    }
+
+    private static void addWord(List<Clause> clauses, String word) {
+        if (word.endsWith("*")) {
+            List<String> parts = TextAnalyzer.split(word);
+            if (!parts.isEmpty()) {
+                for (int p = 0; p < parts.size() - 1; p++) {
+                    addPhrase(clauses, parts.get(p));
+                }
+                clauses.add(new Clause(new String[0], new int[0], parts.get(parts.size() - 1)));
+            }
+            return;
+        }
+        for (TextAnalyzer.Token token : TextAnalyzer.analyze(word, 0)) {
+            clauses.add(new Clause(new String[]{token.term()}, new int[]{0}, null));
+        }
+    }
+
+    // Documents matching one clause with that clause's score; `within` narrows the work when set
+    private Map<Long, Double> match(Clause clause, Map<Long, Double> within) {
+        Map<Long, Double> matched = new HashMap<>();
+        if (clause.prefix() != null) {
+            NavigableMap<String, Map<Long, Posting>> expansions =
+                    postings.subMap(clause.prefix(), true, clause.prefix() + Character.MAX_VALUE, false);
+            int expanded = 0;
+            for (Map<Long, Posting> docs : expansions.values()) {
+                if (expanded++ == MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+                double idf = idf(docs.size());
+                docs.forEach((id, posting) -> {
+                    if (within == null || within.containsKey(id)) {
+                        matched.merge(id, score(idf, posting, id), Double::sum);
+                    }
+                });
+            }
+            return matched;
+        }
+
+        Map<Long, Posting>[] termDocs = lookup(clause.terms());
+        if (termDocs == null) {
+            return matched;
+        }
+        // Drive the intersection from the rarest term
+        int rarest = 0;
+        for (int t = 1; t < termDocs.length; t++) {
+            if (termDocs[t].size() < termDocs[rarest].size()) {
+                rarest = t;
+            }
+        }
+        double[] idfs = new double[termDocs.length];
+        for (int t = 0; t < termDocs.length; t++) {
+            idfs[t] = idf(termDocs[t].size());
+        }
+
+        for (Map.Entry<Long, Posting> candidate : termDocs[rarest].entrySet()) {
+            long id = candidate.getKey();
+            if (within != null && !within.containsKey(id)) {
+                continue;
+            }
+            Posting[] found = new Posting[termDocs.length];
+            boolean all = true;
+            for (int t = 0; t < termDocs.length && all; t++) {
+                found[t] = termDocs[t].get(id);
+                all = found[t] != null;
+            }
+            if (!all || (found.length > 1 && !adjacent(found, clause.offsets()))) {
+                continue;
+            }
+            double score = 0;
+            for (int t = 0; t < found.length; t++) {
+                score += score(idfs[t], found[t], id);
+            }
+            matched.put(id, score);
+        }
+        return matched;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, Posting>[] lookup(String[] terms) {
+        Map<Long, Posting>[] termDocs = new Map[terms.length];
+        for (int t = 0; t < terms.length; t++) {
+            termDocs[t] = postings.get(terms[t]);
+            if (termDocs[t] == null) {
+                return null;
+            }
+        }
+        return termDocs;
+    }
+
+    // True if some occurrence of the first term is followed by the others at the phrase offsets
+    private static boolean adjacent(Posting[] found, int[] offsets) {
+        for (int start : found[0].positions()) {
+            boolean all = true;
+            for (int t = 1; t < found.length && all; t++) {
+                all = Arrays.binarySearch(found[t].positions(), start + offsets[t] - offsets[0]) >= 0;
+            }
+            if (all) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private double idf(int documentFrequency) {
+        int n = documents.size();
+        return Math.log(1 + (n - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private double score(double idf, Posting posting, long id) {
+        double averageLength = documents.isEmpty() ? 1 : totalLength / documents.size();
+        double norm = K1 * (1 - B + B * documents.get(id).length() / averageLength);
+        double tf = posting.weight();
+        return idf * tf * (K1 + 1) / (tf + norm);
+    }
+
+    private static final class PostingBuilder {
+        private float weight;
+        private int[] positions = new int[4];
+        private int count;
+
+        void add(int position, float fieldWeight) {
+            weight += fieldWeight;
+            if (count == positions.length) {
+                positions = Arrays.copyOf(positions, count * 2);
+            }
+            positions[count++] = position;
+        }
+
+        Posting build() {
+            return new Posting(weight, Arrays.copyOf(positions, count));
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.example.main.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Weighted prefix index for typeahead.
+ * <p>
+ * Keys are stored in a radix tree: runs of single-child nodes are collapsed into one edge
+ * label, and children sit in small sorted arrays instead of maps. Each key carries one or
+ * more entries (an id, the text to show and a weight). Every node also records the highest
+ * weight anywhere below it. A lookup walks down to the prefix and then expands nodes best
+ * first by that bound. It can stop after k entries without visiting the rest of the
+ * subtree, however many keys share the prefix.
+ * <p>
+ * The same id may be stored under several keys, for example once per word of a title.
+ * Lookups return each id only once, with its best entry.
+ */
+public class RadixTrie {
+
+    public record Suggestion(long id, String text, double weight) {
+    }
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node("");
+    private int entries;
+
+    private record Entry(long id, String text, double weight) {
+    }
+
+    // A subtree still to expand, or an entry ready to emit
+    private record Pending(double bound, Node node, Entry entry) {
+    }
+
+    private static final class Node {
+        String edge;
+        char[] labels = new char[0];
+        Node[] children = NO_CHILDREN;
+        Entry[] entries = NO_ENTRIES;
+        double max = Double.NEGATIVE_INFINITY;
+
+        Node(String edge) {
+            this.edge = edge;
+        }
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(labels, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        void putChild(Node child) {
+            char c = child.edge.charAt(0);
+            int i = Arrays.binarySearch(labels, c);
+            if (i >= 0) {
+                children[i] = child;
+                return;
+            }
+            int at = -i - 1;
+            labels = insertAt(labels, at, c);
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, at);
+            grown[at] = child;
+            System.arraycopy(children, at, grown, at + 1, children.length - at);
+            children = grown;
+        }
+
+        void removeChild(char c) {
+            int i = Arrays.binarySearch(labels, c);
+            if (i < 0) {
+                return;
+            }
+            char[] fewerLabels = new char[labels.length - 1];
+            System.arraycopy(labels, 0, fewerLabels, 0, i);
+            System.arraycopy(labels, i + 1, fewerLabels, i, labels.length - i - 1);
+            Node[] fewer = new Node[children.length - 1];
+            System.arraycopy(children, 0, fewer, 0, i);
+            System.arraycopy(children, i + 1, fewer, i, children.length - i - 1);
+            labels = fewerLabels;
+            children = fewer;
+        }
+
+        void recomputeMax() {
+            double best = Double.NEGATIVE_INFINITY;
+            for (Entry entry : entries) {
+                best = Math.max(best, entry.weight);
+            }
+            for (Node child : children) {
+                best = Math.max(best, child.max);
+            }
+            max = best;
+        }
+    }
+
+    /**
+     * Stores an entry under a key, replacing the entry with the same id under that key.
+     */
+    public void put(String key, long id, String text, double weight) {
+        String normalized = normalize(key);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            List<Node> path = new ArrayList<>();
+            Node node = root;
+            path.add(node);
+            int i = 0;
+            while (i < normalized.length()) {
+                Node child = node.child(normalized.charAt(i));
+                if (child == null) {
+                    child = new Node(normalized.substring(i));
+                    node.putChild(child);
+                    node = child;
+                    path.add(node);
+                    break;
+                }
+                int common = commonPrefix(child.edge, normalized, i);
+                if (common < child.edge.length()) {
+                    // Split the edge where the new key leaves it
+                    Node middle = new Node(child.edge.substring(0, common));
+                    child.edge = child.edge.substring(common);
+                    middle.putChild(child);
+                    middle.max = child.max;
+                    node.putChild(middle);
+                    child = middle;
+                }
+                node = child;
+                path.add(node);
+                i += common;
+            }
+
+            Entry entry = new Entry(id, text, weight);
+            int existing = indexOf(node.entries, id);
+            if (existing >= 0) {
+                node.entries[existing] = entry;
+            } else {
+                node.entries = Arrays.copyOf(node.entries, node.entries.length + 1);
+                node.entries[node.entries.length - 1] = entry;
+                entries++;
+            }
+            recomputePath(path);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the entry with the given id from a key, if present.
+     */
+    public void remove(String key, long id) {
+        String normalized = normalize(key);
+        lock.writeLock().lock();
+        try {
+            List<Node> path = new ArrayList<>();
+            Node node = root;
+            path.add(node);
+            int i = 0;
+            while (i < normalized.length()) {
+                Node child = node.child(normalized.charAt(i));
+                if (child == null || !normalized.startsWith(child.edge, i)) {
+                    return;
+                }
+                node = child;
+                path.add(node);
+                i += child.edge.length();
+            }
+            int existing = indexOf(node.entries, id);
+            if (existing < 0) {
+                return;
+            }
+            Entry[] fewer = new Entry[node.entries.length - 1];
+            System.arraycopy(node.entries, 0, fewer, 0, existing);
+            System.arraycopy(node.entries, existing + 1, fewer, existing, node.entries.length - existing - 1);
+            node.entries = fewer;
+            entries--;
+            prune(path);
+            recomputePath(path);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Number of stored entries, counting an id once per key it is stored under.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The k heaviest entries whose key starts with the prefix, heaviest first, one per id.
+     */
+    public List<Suggestion> top(String prefix, int k) {
+        String normalized = normalize(prefix);
+        List<Suggestion> result = new ArrayList<>();
+        if (normalized.isEmpty() || k <= 0) {
+            return result;
+        }
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int i = 0;
+            while (i < normalized.length()) {
+                Node child = node.child(normalized.charAt(i));
+                if (child == null) {
+                    return result;
+                }
+                int common = commonPrefix(child.edge, normalized, i);
+                // The prefix may end part way along an edge; the whole child subtree still matches
+                if (common < child.edge.length() && i + common < normalized.length()) {
+                    return result;
+                }
+                node = child;
+                i += common;
+            }
+
+            // Nodes are queued by the best weight below them and entries by their own weight,
+            // so entries leave the queue in descending weight order
+            PriorityQueue<Pending> queue = new PriorityQueue<>((a, b) -> Double.compare(b.bound, a.bound));
+            queue.add(new Pending(node.max, node, null));
+            Set<Long> seen = new HashSet<>();
+            while (!queue.isEmpty() && result.size() < k) {
+                Pending next = queue.poll();
+                if (next.entry != null) {
+                    if (seen.add(next.entry.id)) {
+                        result.add(new Suggestion(next.entry.id, next.entry.text, next.entry.weight));
+                    }
+                    continue;
+                }
+                for (Entry entry : next.node.entries) {
+                    queue.add(new Pending(entry.weight, null, entry));
+                }
+                for (Node child : next.node.children) {
+                    queue.add(new Pending(child.max, child, null));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    // Drops a node left without entries or children, and merges a node left with a single child
+    private static void prune(List<Node> path) {
+        for (int p = path.size() - 1; p > 0; p--) {
+            Node node = path.get(p);
+            Node parent = path.get(p - 1);
+            if (node.entries.length > 0) {
+                return;
+            }
+            if (node.children.length == 0) {
+                parent.removeChild(node.edge.charAt(0));
+                path.remove(p);
+                continue;
+            }
+            if (node.children.length == 1) {
+                Node only = node.children[0];
+                only.edge = node.edge + only.edge;
+                parent.putChild(only);
+                path.set(p, only);
+            }
+            return;
+        }
+    }
+
+    private static void recomputePath(List<Node> path) {
+        for (int p = path.size() - 1; p >= 0; p--) {
+            path.get(p).recomputeMax();
+        }
+    }
+
+    private static int commonPrefix(String edge, String key, int from) {
+        int n = Math.min(edge.length(), key.length() - from);
+        int i = 0;
+        while (i < n && edge.charAt(i) == key.charAt(from + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int indexOf(Entry[] entries, long id) {
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i].id == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static char[] insertAt(char[] values, int at, char value) {
+        char[] grown = new char[values.length + 1];
+        System.arraycopy(values, 0, grown, 0, at);
+        grown[at] = value;
+        System.arraycopy(values, at, grown, at + 1, values.length - at);
+        return grown;
+    }
+}
@@ -0,0 +1,462 @@
+package com.example.main.search;
+
+import java.util.Arrays;
+
+/**
+ * Compressed set of non-negative ints in the Roaring layout.
+ * <p>
+ * Values are split by their high 16 bits into chunks of 65536. Each chunk that holds any
+ * values gets a container. A sparse chunk, with at most 4096 values, keeps them in a sorted
+ * {@code char[]}. A dense chunk uses a fixed 8 KB bit array. Set operations work chunk by
+ * chunk. Chunks present in only one operand are copied or skipped without looking inside,
+ * and dense chunks are combined a 64-bit word at a time.
+ * <p>
+ * Not thread-safe; callers guard shared instances.
+ */
+public class RoaringBitmap {
+    private static final int ARRAY_LIMIT = 4096;
+
+    private char[] keys = new char[0];
+    private Container[] containers = new Container[0];
+    private int chunks;
+
+    public void add(int value) {
+        char high = (char) (value >>> 16);
+        int i = find(high);
+        if (i >= 0) {
+            containers[i] = containers[i].add((char) value);
+            return;
+        }
+        insertChunk(-i - 1, high, new ArrayContainer().add((char) value));
+    }
+
+    public void remove(int value) {
+        int i = find((char) (value >>> 16));
+        if (i < 0) {
+            return;
+        }
+        containers[i] = containers[i].remove((char) value);
+        if (containers[i].cardinality() == 0) {
+            removeChunk(i);
+        }
+    }
+
+    public boolean contains(int value) {
+        int i = find((char) (value >>> 16));
+        return i >= 0 && containers[i].contains((char) value);
+    }
+
+    public int cardinality() {
+        int total = 0;
+        for (int i = 0; i < chunks; i++) {
+            total += containers[i].cardinality();
+        }
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return chunks == 0;
+    }
+
+    public RoaringBitmap copy() {
+        RoaringBitmap copy = new RoaringBitmap();
+        copy.keys = Arrays.copyOf(keys, chunks);
+        copy.containers = new Container[chunks];
+        for (int i = 0; i < chunks; i++) {
+            copy.containers[i] = containers[i].copy();
+        }
+        copy.chunks = chunks;
+        return copy;
+    }
+
+    public static RoaringBitmap and(RoaringBitmap a, RoaringBitmap b) {
+        RoaringBitmap result = new RoaringBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.chunks && j < b.chunks) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                result.append(a.keys[i], a.containers[i].and(b.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    public static RoaringBitmap or(RoaringBitmap a, RoaringBitmap b) {
+        RoaringBitmap result = new RoaringBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.chunks || j < b.chunks) {
+            if (j == b.chunks || (i < a.chunks && a.keys[i] < b.keys[j])) {
+                result.append(a.keys[i], a.containers[i].copy());
+                i++;
+            } else if (i == a.chunks || a.keys[i] > b.keys[j]) {
+                result.append(b.keys[j], b.containers[j].copy());
+                j++;
+            } else {
+                result.append(a.keys[i], a.containers[i].or(b.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Values of {@code a} that are not in {@code b}.
+     */
+    public static RoaringBitmap andNot(RoaringBitmap a, RoaringBitmap b) {
+        RoaringBitmap result = new RoaringBitmap();
+        int j = 0;
+        for (int i = 0; i < a.chunks; i++) {
+            while (j < b.chunks && b.keys[j] < a.keys[i]) {
+                j++;
+            }
+            if (j < b.chunks && b.keys[j] == a.keys[i]) {
+                result.append(a.keys[i], a.containers[i].andNot(b.containers[j]));
+            } else {
+                result.append(a.keys[i], a.containers[i].copy());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Up to {@code limit} values below {@code below}, largest first.
+     */
+    public int[] descendingBelow(int below, int limit) {
+        int[] out = new int[Math.max(0, limit)];
+        int n = 0;
+        if (below <= 0) {
+            return out;
+        }
+        int last = below - 1;
+        for (int i = chunks - 1; i >= 0 && n < limit; i--) {
+            int high = keys[i];
+            if (high > (last >>> 16)) {
+                continue;
+            }
+            int from = high == (last >>> 16) ? (last & 0xFFFF) : 0xFFFF;
+            n = containers[i].descending(from, high << 16, out, n, limit);
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private int find(char high) {
+        return Arrays.binarySearch(keys, 0, chunks, high);
+    }
+
+    // Used by the set operations, which produce chunks in ascending key order
+    private void append(char high, Container container) {
+        if (container.cardinality() > 0) {
+            insertChunk(chunks, high, container);
+        }
+    }
+
+    private void insertChunk(int at, char high, Container container) {
+        if (chunks == keys.length) {
+            int capacity = Math.max(4, chunks * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+        }
+        System.arraycopy(keys, at, keys, at + 1, chunks - at);
+        System.arraycopy(containers, at, containers, at + 1, chunks - at);
+        keys[at] = high;
+        containers[at] = container;
+        chunks++;
+    }
+
+    private void removeChunk(int at) {
+        System.arraycopy(keys, at + 1, keys, at, chunks - at - 1);
+        System.arraycopy(containers, at + 1, containers, at, chunks - at - 1);
+        chunks--;
+        containers[chunks] = null;
+    }
+
+    private interface Container {
+        Container add(char value);
+
+        Container remove(char value);
+
+        boolean contains(char value);
+
+        int cardinality();
+
+        Container copy();
+
+        Container and(Container other);
+
+        Container or(Container other);
+
+        Container andNot(Container other);
+
+        // Writes values at or below {@code from}, largest first, as {@code base | value}
+        int descending(int from, int base, int[] out, int n, int limit);
+
+        BitmapContainer toBitmap();
+    }
+
+    private static final class ArrayContainer implements Container {
+        char[] values;
+        int size;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        public Container add(char value) {
+            int i = Arrays.binarySearch(values, 0, size, value);
+            if (i >= 0) {
+                return this;
+            }
+            if (size == ARRAY_LIMIT) {
+                return toBitmap().add(value);
+            }
+            int at = -i - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, size * 2));
+            }
+            System.arraycopy(values, at, values, at + 1, size - at);
+            values[at] = value;
+            size++;
+            return this;
+        }
+
+        @Override
+        public Container remove(char value) {
+            int i = Arrays.binarySearch(values, 0, size, value);
+            if (i >= 0) {
+                System.arraycopy(values, i + 1, values, i, size - i - 1);
+                size--;
+            }
+            return this;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return size;
+        }
+
+        @Override
+        public Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(size, 1)), size);
+        }
+
+        @Override
+        public Container and(Container other) {
+            char[] out = new char[size];
+            int n = 0;
+            if (other instanceof ArrayContainer array) {
+                int i = 0;
+                int j = 0;
+                while (i < size && j < array.size) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    } else if (values[i] > array.values[j]) {
+                        j++;
+                    } else {
+                        out[n++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < size; i++) {
+                    if (other.contains(values[i])) {
+                        out[n++] = values[i];
+                    }
+                }
+            }
+            return new ArrayContainer(out, n);
+        }
+
+        @Override
+        public Container or(Container other) {
+            if (other instanceof BitmapContainer bitmap) {
+                return bitmap.or(this);
+            }
+            ArrayContainer array = (ArrayContainer) other;
+            char[] out = new char[size + array.size];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (i < size || j < array.size) {
+                if (j == array.size || (i < size && values[i] < array.values[j])) {
+                    out[n++] = values[i++];
+                } else if (i == size || values[i] > array.values[j]) {
+                    out[n++] = array.values[j++];
+                } else {
+                    out[n++] = values[i];
+                    i++;
+                    j++;
+                }
+            }
+            ArrayContainer union = new ArrayContainer(out, n);
+            return n > ARRAY_LIMIT ? union.toBitmap() : union;
+        }
+
+        @Override
+        public Container andNot(Container other) {
+            char[] out = new char[size];
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                if (!other.contains(values[i])) {
+                    out[n++] = values[i];
+                }
+            }
+            return new ArrayContainer(out, n);
+        }
+
+        @Override
+        public int descending(int from, int base, int[] out, int n, int limit) {
+            int i = Arrays.binarySearch(values, 0, size, (char) from);
+            i = i >= 0 ? i : -i - 2;
+            for (; i >= 0 && n < limit; i--) {
+                out[n++] = base | values[i];
+            }
+            return n;
+        }
+
+        @Override
+        public BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < size; i++) {
+                bitmap.words[values[i] >>> 6] |= 1L << values[i];
+            }
+            bitmap.cardinality = size;
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapContainer implements Container {
+        final long[] words = new long[1024];
+        int cardinality;
+
+        @Override
+        public Container add(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) == 0) {
+                words[value >>> 6] |= bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        public Container remove(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) != 0) {
+                words[value >>> 6] &= ~bit;
+                cardinality--;
+            }
+            return cardinality <= ARRAY_LIMIT ? toArray() : this;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public Container copy() {
+            BitmapContainer copy = new BitmapContainer();
+            System.arraycopy(words, 0, copy.words, 0, words.length);
+            copy.cardinality = cardinality;
+            return copy;
+        }
+
+        @Override
+        public Container and(Container other) {
+            if (other instanceof ArrayContainer array) {
+                return array.and(this);
+            }
+            BitmapContainer bitmap = (BitmapContainer) other;
+            BitmapContainer result = new BitmapContainer();
+            for (int w = 0; w < words.length; w++) {
+                result.words[w] = words[w] & bitmap.words[w];
+                result.cardinality += Long.bitCount(result.words[w]);
+            }
+            return result.cardinality <= ARRAY_LIMIT ? result.toArray() : result;
+        }
+
+        @Override
+        public Container or(Container other) {
+            BitmapContainer bitmap = other.toBitmap();
+            BitmapContainer result = new BitmapContainer();
+            for (int w = 0; w < words.length; w++) {
+                result.words[w] = words[w] | bitmap.words[w];
+                result.cardinality += Long.bitCount(result.words[w]);
+            }
+            return result;
+        }
+
+        @Override
+        public Container andNot(Container other) {
+            BitmapContainer bitmap = other.toBitmap();
+            BitmapContainer result = new BitmapContainer();
+            for (int w = 0; w < words.length; w++) {
+                result.words[w] = words[w] & ~bitmap.words[w];
+                result.cardinality += Long.bitCount(result.words[w]);
+            }
+            return result.cardinality <= ARRAY_LIMIT ? result.toArray() : result;
+        }
+
+        @Override
+        public int descending(int from, int base, int[] out, int n, int limit) {
+            int w = from >>> 6;
+            // Keep only the bits at or below from in its word
+            long word = words[w] & (-1L >>> (63 - (from & 63)));
+            while (n < limit) {
+                while (word != 0 && n < limit) {
+                    int bit = 63 - Long.numberOfLeadingZeros(word);
+                    out[n++] = base | (w << 6) | bit;
+                    word &= ~(1L << bit);
+                }
+                if (--w < 0) {
+                    break;
+                }
+                word = words[w];
+            }
+            return n;
+        }
+
+        @Override
+        public BitmapContainer toBitmap() {
+            return this;
+        }
+
+        ArrayContainer toArray() {
+            char[] values = new char[Math.max(cardinality, 1)];
+            int n = 0;
+            for (int w = 0; w < words.length; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    values[n++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, n);
+        }
+    }
+}
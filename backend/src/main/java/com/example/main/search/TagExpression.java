@@ -0,0 +1,183 @@
+package com.example.main.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Boolean expression over tag names, such as {@code java AND (spring OR jakarta) NOT hibernate}.
+ * <p>
+ * NOT binds tightest, then AND, then OR. Parentheses group terms. Two terms written next to
+ * each other are ANDed, so {@code java NOT hibernate} means java AND NOT hibernate.
+ * Operators are case-insensitive. Anything else up to whitespace or a parenthesis is a tag
+ * name, which lets names like {@code c++} or {@code spring-boot} through.
+ */
+public final class TagExpression {
+
+    private sealed interface Node permits Tag, Not, And, Or {
+    }
+
+    private record Tag(String name) implements Node {
+    }
+
+    private record Not(Node operand) implements Node {
+    }
+
+    private record And(Node left, Node right) implements Node {
+    }
+
+    private record Or(Node left, Node right) implements Node {
+    }
+
+    private final Node root;
+    private final Set<String> tagNames;
+
+    private TagExpression(Node root, Set<String> tagNames) {
+        this.root = root;
+        this.tagNames = tagNames;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the expression is empty or malformed
+     */
+    public static TagExpression parse(String expression) {
+        Parser parser = new Parser(tokenize(expression == null ? "" : expression));
+        if (parser.atEnd()) {
+            throw new IllegalArgumentException("Empty tag expression");
+        }
+        Node root = parser.or();
+        if (!parser.atEnd()) {
+            throw new IllegalArgumentException("Unexpected '" + parser.peek() + "' in tag expression");
+        }
+        return new TagExpression(root, parser.names);
+    }
+
+    /**
+     * Tag names the expression mentions, in order of appearance.
+     */
+    public Set<String> tagNames() {
+        return tagNames;
+    }
+
+    /**
+     * @param tagged Questions carrying a tag; never modified
+     * @param universe Every question, only asked for when the expression negates a term
+     * @return A new bitmap, or for a lone tag the one {@code tagged} returned
+     */
+    public RoaringBitmap evaluate(Function<String, RoaringBitmap> tagged, Supplier<RoaringBitmap> universe) {
+        return evaluate(root, tagged, universe);
+    }
+
+    private static RoaringBitmap evaluate(Node node, Function<String, RoaringBitmap> tagged, Supplier<RoaringBitmap> universe) {
+        if (node instanceof Tag tag) {
+            return tagged.apply(tag.name());
+        }
+        if (node instanceof Not not) {
+            return RoaringBitmap.andNot(universe.get(), evaluate(not.operand(), tagged, universe));
+        }
+        if (node instanceof And and) {
+            // a AND NOT b is a difference; no need to build the complement of b
+            if (and.right() instanceof Not not) {
+                return RoaringBitmap.andNot(evaluate(and.left(), tagged, universe), evaluate(not.operand(), tagged, universe));
+            }
+            if (and.left() instanceof Not not) {
+                return RoaringBitmap.andNot(evaluate(and.right(), tagged, universe), evaluate(not.operand(), tagged, universe));
+            }
+            return RoaringBitmap.and(evaluate(and.left(), tagged, universe), evaluate(and.right(), tagged, universe));
+        }
+        Or or = (Or) node;
+        return RoaringBitmap.or(evaluate(or.left(), tagged, universe), evaluate(or.right(), tagged, universe));
+    }
+
+    private static List<String> tokenize(String expression) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (char c : expression.toCharArray()) {
+            if (Character.isWhitespace(c) || c == '(' || c == ')') {
+                if (word.length() > 0) {
+                    tokens.add(word.toString());
+                    word.setLength(0);
+                }
+                if (c == '(' || c == ')') {
+                    tokens.add(String.valueOf(c));
+                }
+            } else {
+                word.append(c);
+            }
+        }
+        if (word.length() > 0) {
+            tokens.add(word.toString());
+        }
+        return tokens;
+    }
+
+    private static final class Parser {
+        private final List<String> tokens;
+        private final Set<String> names = new LinkedHashSet<>();
+        private int position;
+
+        Parser(List<String> tokens) {
+            this.tokens = tokens;
+        }
+
+        boolean atEnd() {
+            return position == tokens.size();
+        }
+
+        String peek() {
+            return tokens.get(position);
+        }
+
+        boolean accept(String keyword) {
+            if (!atEnd() && peek().equalsIgnoreCase(keyword)) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        Node or() {
+            Node left = and();
+            while (accept("OR")) {
+                left = new Or(left, and());
+            }
+            return left;
+        }
+
+        Node and() {
+            Node left = not();
+            while (!atEnd() && !peek().equals(")") && !peek().equalsIgnoreCase("OR")) {
+                accept("AND");
+                left = new And(left, not());
+            }
+            return left;
+        }
+
+        Node not() {
+            if (accept("NOT")) {
+                return new Not(not());
+            }
+            if (accept("(")) {
+                Node inner = or();
+                if (!accept(")")) {
+                    throw new IllegalArgumentException("Missing ')' in tag expression");
+                }
+                return inner;
+            }
+            if (atEnd() || peek().equals(")") || isOperator(peek())) {
+                throw new IllegalArgumentException("Expected a tag name in tag expression");
+            }
+            String name = tokens.get(position++).toLowerCase(Locale.ROOT);
+            names.add(name);
+            return new Tag(name);
+        }
+
+        private static boolean isOperator(String token) {
+            return token.equalsIgnoreCase("AND") || token.equalsIgnoreCase("OR") || token.equalsIgnoreCase("NOT");
+        }
+    }
+}
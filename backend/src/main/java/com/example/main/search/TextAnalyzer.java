@@ -0,0 +1,112 @@
+package com.example.main.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits text into lower-cased, stemmed terms for the search index.
+ * <p>
+ * Tokens are runs of letters and digits; a trailing run of '+' or '#' is kept so that
+ * "c++" and "c#" stay searchable. Stop words are dropped but still take a position, so a
+ * phrase query only matches words that were adjacent in the original text.
+ */
+public final class TextAnalyzer {
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "if", "in", "into", "is", "it",
+            "no", "not", "of", "on", "or", "such", "that", "the", "their", "then", "there", "these",
+            "they", "this", "to", "was", "will", "with");
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * A term and its position in the token stream.
+     */
+    public record Token(String term, int position) {
+    }
+
+    /**
+     * Tokenizes, drops stop words and stems. Positions start at {@code firstPosition}.
+     */
+    public static List<Token> analyze(String text, int firstPosition) {
+        List<Token> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int position = firstPosition;
+        for (String word : split(text)) {
+            if (!STOP_WORDS.contains(word)) {
+                tokens.add(new Token(stem(word), position));
+            }
+            position++;
+        }
+        return tokens;
+    }
+
+    /**
+     * Lower-cased raw words, neither stemmed nor filtered.
+     */
+    public static List<String> split(String text) {
+        List<String> words = new ArrayList<>();
+        String lower = text.toLowerCase(Locale.ROOT);
+        int length = lower.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(lower.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(lower.charAt(i))) {
+                i++;
+            }
+            while (i < length && (lower.charAt(i) == '+' || lower.charAt(i) == '#')) {
+                i++;
+            }
+            if (i > start) {
+                words.add(lower.substring(start, i));
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Light English suffix stripping: plurals, -ing and -ed. It only has to map the
+     * common inflections of a word onto the same term; the stems are never shown.
+     */
+    public static String stem(String word) {
+        int length = word.length();
+        if (length <= 3 || !Character.isLetter(word.charAt(length - 1))) {
+            return word;
+        }
+        if (word.endsWith("ies") && length > 4) {
+            return word.substring(0, length - 3) + "y";
+        }
+        if (word.endsWith("sses") || word.endsWith("xes") || word.endsWith("ches") || word.endsWith("shes")) {
+            return word.substring(0, length - 2);
+        }
+        if (word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us") && !word.endsWith("is")) {
+            return word.substring(0, length - 1);
+        }
+        if (word.endsWith("ing") && length > 5) {
+            return undouble(word.substring(0, length - 3));
+        }
+        if (word.endsWith("ed") && length > 4) {
+            return undouble(word.substring(0, length - 2));
+        }
+        return word;
+    }
+
+    // "running" -> "runn" -> "run", but leave "ll", "ss" and "zz" alone ("installed" -> "install")
+    private static String undouble(String stem) {
+        int length = stem.length();
+        if (length >= 3 && stem.charAt(length - 1) == stem.charAt(length - 2)) {
+            char c = stem.charAt(length - 1);
+            if (c != 'l' && c != 's' && c != 'z') {
+                return stem.substring(0, length - 1);
+            }
+        }
+        return stem;
+    }
+}
@@ -0,0 +1,319 @@
+package com.example.main.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Substring index over user profiles, the in-memory replacement for
+ * {@code LOWER(field) LIKE '%keyword%'} across username, email, location and bio.
+ * <p>
+ * Every field is broken into trigrams. Each trigram maps to a sorted list of internal
+ * document numbers. A query intersects the lists of its own trigrams, starting from the
+ * shortest, and then checks each candidate with a real substring test. Keywords of one or
+ * two characters have no trigram, so they match the start of a field instead, through the
+ * field's leading one- and two-character grams.
+ * <p>
+ * Document numbers only grow. Replacing a user appends a new number and marks the old
+ * one dead, so posting lists stay sorted without being rewritten. Dead entries are
+ * compacted away once they make up a quarter of the index.
+ */
+public class TrigramIndex {
+    /**
+     * Where the keyword matched, best first.
+     */
+    public enum Match { USERNAME_EXACT, USERNAME_PREFIX, USERNAME, EMAIL, LOCATION, BIO }
+
+    public record Hit(long userId, Match match, float score) {
+    }
+
+    public record Result(List<Hit> hits, int total) {
+    }
+
+    private static final long PREFIX_GRAM = 1L << 62;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IntList> postings = new HashMap<>();
+    private final Map<Long, Integer> docByUser = new HashMap<>();
+    private final List<Doc> docs = new ArrayList<>();
+    private int deadDocs;
+
+    private static final class Doc {
+        final long userId;
+        final String username;
+        final String email;
+        final String location;
+        final String bio;
+        float score;
+        boolean dead;
+
+        Doc(long userId, String username, String email, String location, String bio, float score) {
+            this.userId = userId;
+            this.username = username;
+            this.email = email;
+            this.location = location;
+            this.bio = bio;
+            this.score = score;
+        }
+    }
+
+    /**
+     * Adds a user, replacing any previous version.
+     */
+    public void put(long userId, String username, String email, String location, String bio, float score) {
+        Doc doc = new Doc(userId, lower(username), lower(email), lower(location), lower(bio), score);
+        Set<Long> grams = new HashSet<>();
+        for (String field : new String[]{doc.username, doc.email, doc.location, doc.bio}) {
+            addGrams(field, grams);
+        }
+
+        lock.writeLock().lock();
+        try {
+            killLocked(userId);
+            int docNo = docs.size();
+            docs.add(doc);
+            docByUser.put(userId, docNo);
+            for (long gram : grams) {
+                postings.computeIfAbsent(gram, g -> new IntList()).add(docNo);
+            }
+            compactIfNeededLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long userId) {
+        lock.writeLock().lock();
+        try {
+            killLocked(userId);
+            compactIfNeededLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Shifts the ranking score of an indexed user; unknown users are ignored.
+     */
+    public void adjustScore(long userId, float delta) {
+        lock.writeLock().lock();
+        try {
+            Integer docNo = docByUser.get(userId);
+            if (docNo != null) {
+                docs.get(docNo).score += delta;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docByUser.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Users whose username, email, location or bio contain the keyword, ranked by where
+     * it matched and then by score.
+     */
+    public Result search(String keyword, int offset, int limit) {
+        String needle = lower(keyword).trim();
+        if (needle.isEmpty()) {
+            return new Result(List.of(), 0);
+        }
+        List<Hit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            int[] candidates = candidates(needle);
+            for (int docNo : candidates) {
+                Doc doc = docs.get(docNo);
+                if (doc.dead) {
+                    continue;
+                }
+                Match match = verify(doc, needle);
+                if (match != null) {
+                    hits.add(new Hit(doc.userId, match, doc.score));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        hits.sort(Comparator.comparing(Hit::match)
+                .thenComparing(Comparator.comparingDouble(Hit::score).reversed())
+                .thenComparingLong(Hit::userId));
+        int from = Math.min(offset, hits.size());
+        int to = Math.min(from + limit, hits.size());
+        return new Result(new ArrayList<>(hits.subList(from, to)), hits.size());
+    }
+
+    private int[] candidates(String needle) {
+        if (needle.length() < 3) {
+            IntList list = postings.get(prefixGram(needle));
+            return list == null ? new int[0] : list.toArray();
+        }
+        List<IntList> lists = new ArrayList<>();
+        for (int i = 0; i + 3 <= needle.length(); i++) {
+            IntList list = postings.get(trigram(needle, i));
+            if (list == null) {
+                return new int[0];
+            }
+            if (!lists.contains(list)) {
+                lists.add(list);
+            }
+        }
+        lists.sort(Comparator.comparingInt(IntList::size));
+        int[] result = lists.get(0).toArray();
+        for (int l = 1; l < lists.size() && result.length > 0; l++) {
+            result = intersect(result, lists.get(l));
+        }
+        return result;
+    }
+
+    private static Match verify(Doc doc, String needle) {
+        boolean shortNeedle = needle.length() < 3;
+        if (doc.username.equals(needle)) {
+            return Match.USERNAME_EXACT;
+        }
+        if (doc.username.startsWith(needle)) {
+            return Match.USERNAME_PREFIX;
+        }
+        if (!shortNeedle && doc.username.contains(needle)) {
+            return Match.USERNAME;
+        }
+        if (shortNeedle ? doc.email.startsWith(needle) : doc.email.contains(needle)) {
+            return Match.EMAIL;
+        }
+        if (shortNeedle ? doc.location.startsWith(needle) : doc.location.contains(needle)) {
+            return Match.LOCATION;
+        }
+        if (shortNeedle ? doc.bio.startsWith(needle) : doc.bio.contains(needle)) {
+            return Match.BIO;
+        }
+        return null;
+    }
+
+    // Merge of a sorted array with a sorted posting list
+    private static int[] intersect(int[] left, IntList right) {
+        int[] out = new int[Math.min(left.length, right.size())];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.size()) {
+            int a = left[i];
+            int b = right.get(j);
+            if (a == b) {
+                out[n++] = a;
+                i++;
+                j++;
+            } else if (a < b) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private void killLocked(long userId) {
+        Integer previous = docByUser.remove(userId);
+        if (previous != null) {
+            docs.get(previous).dead = true;
+            deadDocs++;
+        }
+    }
+
+    // Renumbers live documents and rebuilds the postings once dead entries dominate
+    private void compactIfNeededLocked() {
+        if (deadDocs < 1024 || deadDocs * 4 < docs.size()) {
+            return;
+        }
+        List<Doc> live = new ArrayList<>(docByUser.size());
+        for (Doc doc : docs) {
+            if (!doc.dead) {
+                live.add(doc);
+            }
+        }
+        docs.clear();
+        docByUser.clear();
+        postings.clear();
+        deadDocs = 0;
+        Set<Long> grams = new HashSet<>();
+        for (Doc doc : live) {
+            int docNo = docs.size();
+            docs.add(doc);
+            docByUser.put(doc.userId, docNo);
+            grams.clear();
+            for (String field : new String[]{doc.username, doc.email, doc.location, doc.bio}) {
+                addGrams(field, grams);
+            }
+            for (long gram : grams) {
+                postings.computeIfAbsent(gram, g -> new IntList()).add(docNo);
+            }
+        }
+    }
+
+    private static void addGrams(String field, Set<Long> grams) {
+        if (field.isEmpty()) {
+            return;
+        }
+        grams.add(prefixGram(field.substring(0, 1)));
+        if (field.length() >= 2) {
+            grams.add(prefixGram(field.substring(0, 2)));
+        }
+        for (int i = 0; i + 3 <= field.length(); i++) {
+            grams.add(trigram(field, i));
+        }
+    }
+
+    private static long trigram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    private static long prefixGram(String s) {
+        long gram = PREFIX_GRAM | ((long) s.length() << 48);
+        for (int i = 0; i < s.length(); i++) {
+            gram |= (long) s.charAt(i) << (16 * (1 - i));
+        }
+        return gram;
+    }
+
+    private static String lower(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
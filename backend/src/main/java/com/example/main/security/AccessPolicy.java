@@ -0,0 +1,76 @@
+package com.example.main.security;
+
+import com.example.main.service.AuthorSummaryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Authorization checks for controllers and services, about the user the current request
+ * acts as. With a verified access token they are decided from its claims alone. Without one
+ * they fall back to trusting the user id the client sent, as before tokens existed, unless
+ * {@code auth.tokens.required} is set; that user is then looked up once per request.
+ */
+@Component
+public class AccessPolicy {
+    @Autowired
+    private AuthorSummaryService authorSummaryService;
+
+    @Value("${auth.tokens.required:false}")
+    private boolean tokensRequired;
+
+    /**
+     * The caller, if the current request may act as the given user
+     */
+    public Optional<Principal> actingAs(Long userId) {
+        if (userId == null) {
+            return Optional.empty();
+        }
+        Optional<RequestIdentity> identity = RequestIdentity.current();
+        Optional<AccessToken> token = identity.flatMap(RequestIdentity::token);
+        if (token.isPresent()) {
+            AccessToken claims = token.get();
+            return claims.userId() == userId
+                    ? Optional.of(new Principal(claims.userId(), claims.moderator(), claims.banned()))
+                    : Optional.empty();
+        }
+        if (tokensRequired) {
+            return Optional.empty();
+        }
+        return identity.isPresent() ? identity.get().resolve(userId, this::load) : load(userId);
+    }
+
+    /**
+     * Whether the caller is the given user and is not banned
+     */
+    public boolean actsAs(Long userId) {
+        return actingAs(userId).filter(principal -> !principal.banned()).isPresent();
+    }
+
+    /**
+     * Whether the caller is the given user and a moderator
+     */
+    public boolean isModerator(Long userId) {
+        return actingAs(userId).filter(principal -> principal.moderator() && !principal.banned()).isPresent();
+    }
+
+    /**
+     * Whether the caller is the given user and either a moderator or the content's author.
+     * The author is only looked up when the caller is not a moderator.
+     */
+    public boolean isAuthorOrModerator(Long userId, Supplier<Optional<Long>> authorId) {
+        Optional<Principal> principal = actingAs(userId).filter(caller -> !caller.banned());
+        if (principal.isEmpty()) {
+            return false;
+        }
+        return principal.get().moderator() || authorId.get().map(userId::equals).orElse(false);
+    }
+
+    private Optional<Principal> load(Long userId) {
+        return authorSummaryService.find(userId)
+                .map(user -> new Principal(user.id(), user.moderator(), user.banned()));
+    }
+}
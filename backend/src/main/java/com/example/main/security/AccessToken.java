@@ -0,0 +1,12 @@
+package com.example.main.security;
+
+/**
+ * Claims of a verified access token: who the caller is and what they may do, as of
+ * {@code issuedAt}. Times are epoch milliseconds.
+ */
+public record AccessToken(long userId, boolean moderator, boolean banned, long issuedAt, long expiresAt) {
+
+    public boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.main.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Verifies the {@code Authorization: Bearer} token of each request and binds a
+ * {@link RequestIdentity} carrying its claims while the request is handled. Requests without
+ * a valid token go through unchanged; whether they may proceed is up to {@link AccessPolicy}.
+ */
+@Component
+public class AccessTokenFilter extends OncePerRequestFilter {
+    private static final String BEARER = "Bearer ";
+
+    @Autowired
+    private AccessTokenService accessTokenService;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String token = bearerToken(request);
+        AccessToken claims = token == null ? null : accessTokenService.verify(token).orElse(null);
+        RequestIdentity previous = RequestIdentity.bind(new RequestIdentity(claims));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestIdentity.restore(previous);
+        }
+    }
+
+    public static String bearerToken(HttpServletRequest request) {
+        String header = request.getHeader("Authorization");
+        if (header == null || !header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            return null;
+        }
+        return header.substring(BEARER.length()).trim();
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.main.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Issues and verifies HMAC-SHA256 signed access tokens of the form
+ * {@code v1.<userId>.<flags>.<issuedAt>.<expiresAt>.<signature>}.
+ * <p>
+ * Verifying a token needs only the shared secret and the in-memory revocation list, so any
+ * node holding {@code auth.tokens.secret} can check a caller without touching the database.
+ * Without a configured secret a random one is generated, and tokens then only work on this
+ * node until it restarts.
+ */
+@Service
+public class AccessTokenService {
+    private static final Logger log = LoggerFactory.getLogger(AccessTokenService.class);
+
+    private static final String VERSION = "v1";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MODERATOR = 1;
+    private static final int BANNED = 2;
+
+    @Autowired
+    private TokenRevocationList revocationList;
+
+    @Value("${auth.tokens.secret:}")
+    private String secret;
+
+    @Value("${auth.tokens.ttl-seconds:900}")
+    private long ttlSeconds;
+
+    @Value("${auth.tokens.refresh-window-seconds:86400}")
+    private long refreshWindowSeconds;
+
+    private volatile SecretKeySpec key;
+
+    // Mac is not thread-safe; one per thread is cheaper than a new one per request
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(() -> {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key());
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    public String issue(long userId, boolean moderator, boolean banned) {
+        long now = System.currentTimeMillis();
+        int flags = (moderator ? MODERATOR : 0) | (banned ? BANNED : 0);
+        String payload = VERSION + "." + userId + "." + flags + "." + now + "." + (now + ttlSeconds * 1000);
+        return payload + "." + sign(payload);
+    }
+
+    /**
+     * The claims of a well-signed token that has neither expired nor been revoked
+     */
+    public Optional<AccessToken> verify(String token) {
+        long now = System.currentTimeMillis();
+        return parse(token).filter(claims -> !claims.isExpired(now) && !revocationList.isRevoked(claims));
+    }
+
+    /**
+     * The claims of a well-signed token that may be exchanged for a new one: expired tokens,
+     * and tokens revoked for a change of flags, are accepted until the refresh window after
+     * their expiry, since the caller's flags are read again before a new token is issued.
+     * Tokens whose session was ended by a password change or deletion are not.
+     */
+    public Optional<AccessToken> verifyForRefresh(String token) {
+        long now = System.currentTimeMillis();
+        return parse(token).filter(claims -> now < claims.expiresAt() + refreshWindowSeconds * 1000
+                && !revocationList.isEnded(claims));
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    private Optional<AccessToken> parse(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        int signatureStart = token.lastIndexOf('.');
+        if (signatureStart < 0) {
+            return Optional.empty();
+        }
+        String payload = token.substring(0, signatureStart);
+        byte[] expected = sign(payload).getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = token.substring(signatureStart + 1).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            return Optional.empty();
+        }
+
+        String[] parts = payload.split("\\.");
+        if (parts.length != 5 || !VERSION.equals(parts[0])) {
+            return Optional.empty();
+        }
+        try {
+            int flags = Integer.parseInt(parts[2]);
+            return Optional.of(new AccessToken(Long.parseLong(parts[1]), (flags & MODERATOR) != 0,
+                    (flags & BANNED) != 0, Long.parseLong(parts[3]), Long.parseLong(parts[4])));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    private String sign(String payload) {
+        byte[] signature = macs.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+
+    private SecretKeySpec key() {
+        if (key == null) {
+            synchronized (this) {
+                if (key == null) {
+                    byte[] bytes;
+                    if (secret == null || secret.isBlank()) {
+                        log.warn("auth.tokens.secret is not set; access tokens will only be valid on this node until it restarts");
+                        bytes = new byte[32];
+                        new SecureRandom().nextBytes(bytes);
+                    } else {
+                        bytes = secret.getBytes(StandardCharsets.UTF_8);
+                    }
+                    key = new SecretKeySpec(bytes, ALGORITHM);
+                }
+            }
+        }
+        return key;
+    }
+}
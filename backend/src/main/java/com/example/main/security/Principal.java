@@ -0,0 +1,7 @@
+package com.example.main.security;
+
+/**
+ * The user a request acts as, with the role flags authorization depends on
+ */
+public record Principal(long userId, boolean moderator, boolean banned) {
+}
@@ -0,0 +1,60 @@
+package com.example.main.security;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Who the current request acts as, bound to the request's thread by {@link AccessTokenFilter}
+ * for the duration of the request, in the manner of a {@code ScopedValue}: bindings nest and
+ * the previous one is restored when a binding ends.
+ * <p>
+ * It carries the verified access token, if any, and remembers every user looked up to
+ * authorize the request, so controllers and services asking about the same user again in
+ * that request are answered without another lookup.
+ */
+public final class RequestIdentity {
+    private static final ThreadLocal<RequestIdentity> CURRENT = new ThreadLocal<>();
+
+    private final AccessToken token;
+    // Confined to the request's thread
+    private final Map<Long, Optional<Principal>> resolved = new HashMap<>();
+
+    public RequestIdentity(AccessToken token) {
+        this.token = token;
+    }
+
+    public static Optional<RequestIdentity> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * Binds an identity to this thread
+     * @return The binding it replaces, to hand back to {@link #restore}
+     */
+    public static RequestIdentity bind(RequestIdentity identity) {
+        RequestIdentity previous = CURRENT.get();
+        CURRENT.set(identity);
+        return previous;
+    }
+
+    public static void restore(RequestIdentity previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    public Optional<AccessToken> token() {
+        return Optional.ofNullable(token);
+    }
+
+    /**
+     * The user with this id, loaded at most once per request
+     */
+    public Optional<Principal> resolve(long userId, Function<Long, Optional<Principal>> loader) {
+        return resolved.computeIfAbsent(userId, loader);
+    }
+}
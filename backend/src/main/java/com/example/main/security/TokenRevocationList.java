@@ -0,0 +1,81 @@
+package com.example.main.security;
+
+import com.example.main.utils.AfterCommit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Users whose access tokens issued before some moment must no longer be accepted, for
+ * instance because they were banned or lost moderator rights. A token revoked for such a
+ * flag change can still be refreshed, since refreshing reads the flags again, but one revoked
+ * because the password changed or the account was deleted cannot: its holder has to log in.
+ * An entry is dropped once every token it could reject has expired, or left the refresh
+ * window, anyway.
+ * <p>
+ * The list is kept per node: elsewhere a revoked token stays valid until it expires, which
+ * {@code auth.tokens.ttl-seconds} bounds.
+ */
+@Component
+public class TokenRevocationList {
+    public enum Reason {
+        /** Moderator or ban flags changed; a refresh picks up the new ones */
+        FLAGS_CHANGED,
+        /** Password changed or account deleted; every session has to log in again */
+        SESSIONS_ENDED
+    }
+
+    @Value("${auth.tokens.ttl-seconds:900}")
+    private long ttlSeconds;
+
+    @Value("${auth.tokens.refresh-window-seconds:86400}")
+    private long refreshWindowSeconds;
+
+    // user id -> time of the last revocation; tokens issued at or before it are rejected
+    private final Map<Long, Long> revokedAt = new ConcurrentHashMap<>();
+    // user id -> time of the last revocation that ended sessions; tokens issued at or before it are not refreshed
+    private final Map<Long, Long> endedAt = new ConcurrentHashMap<>();
+
+    /**
+     * Revokes the user's current tokens now and again once the current transaction commits,
+     * so a token refreshed from the old flags in between is revoked too
+     */
+    public void revoke(Long userId, Reason reason) {
+        if (userId == null) {
+            return;
+        }
+        AfterCommit.runNowAndAgain(() -> revokeNow(userId, reason));
+    }
+
+    public boolean isRevoked(AccessToken token) {
+        Long revoked = revokedAt.get(token.userId());
+        return revoked != null && token.issuedAt() <= revoked;
+    }
+
+    /**
+     * Whether the token's session was ended, so it may not be exchanged for a new one
+     */
+    public boolean isEnded(AccessToken token) {
+        Long ended = endedAt.get(token.userId());
+        return ended != null && token.issuedAt() <= ended;
+    }
+
+    public int size() {
+        return revokedAt.size();
+    }
+
+    private void revokeNow(Long userId, Reason reason) {
+        long now = System.currentTimeMillis();
+        revokedAt.put(userId, now);
+        if (reason == Reason.SESSIONS_ENDED) {
+            endedAt.put(userId, now);
+        }
+        long cutoff = now - ttlSeconds * 1000;
+        revokedAt.values().removeIf(revoked -> revoked < cutoff);
+        // a token can be refreshed until the refresh window after its expiry
+        long refreshCutoff = cutoff - refreshWindowSeconds * 1000;
+        endedAt.values().removeIf(ended -> ended < refreshCutoff);
+    }
+}
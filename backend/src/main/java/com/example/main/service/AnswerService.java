@@ -1,16 +1,24 @@
 package com.example.main.service;
 
 import com.example.main.dto.AnswerDto;
+import com.example.main.dto.AnswerSummaryDto;
+import com.example.main.dto.CursorPageDto;
 import com.example.main.model.Answer;
 import com.example.main.model.Question;
-import com.example.main.model.User;
-import com.example.main.model.Vote;
 import com.example.main.repository.AnswerRepository;
-import com.example.main.repository.VoteRepository;
+import com.example.main.repository.TargetAuthorView;
+import com.example.main.utils.FeedCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -26,60 +34,98 @@ public class AnswerService {
     private QuestionService questionService;
 
     @Autowired
-    private VoteRepository voteRepository;
+    private QuestionSearchService questionSearchService;
+
+    @Autowired
+    private TagTrendService tagTrendService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Value("${questions.feed.default-page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${questions.feed.max-page-size:100}")
+    private int maxPageSize;
 
     public List<AnswerDto> getAllAnswers() {
-        return answerRepository.findAll().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return convertToDtos(answerRepository.findAll());
     }
 
     public Optional<AnswerDto> getAnswerById(Long id){
         return answerRepository.findById(id).map(this::convertToDto);
     }
 
-    public List<AnswerDto> getAnswersByQuestion(Long questionId){
-        Question question = questionService.findQuestionEntityById(questionId);
-
-        if(question == null){
-            return List.of();
-        }
-
-        return answerRepository.findByQuestion(question).stream()
-                .sorted((a1,a2) -> {
-                    List<Vote> votes1 = voteRepository.findByAnswer(a1);
-                    List<Vote> votes2 = voteRepository.findByAnswer(a2);
+    /**
+     * Id of the answer's author, without loading the answer
+     */
+    public Optional<Long> findAuthorId(Long id){
+        return answerRepository.findAuthorIdsByIdIn(List.of(id)).stream()
+                .findFirst()
+                .map(TargetAuthorView::getAuthorId);
+    }
 
-                    int upvotes1 = (int) votes1.stream().filter(v -> "upvote".equals(v.getVoteType())).count();
-                    int downvotes1 = (int) votes1.stream().filter(v -> "downvote".equals(v.getVoteType())).count();
-                    int voteCount1 = upvotes1 - downvotes1;
+    public List<AnswerDto> getAnswersByQuestion(Long questionId){
+        return getAnswersByQuestion(questionId, null, null, null);
+    }
 
-                    int upvotes2 = (int) votes2.stream().filter(v -> "upvote".equals(v.getVoteType())).count();
-                    int downvotes2 = (int) votes2.stream().filter(v -> "downvote".equals(v.getVoteType())).count();
-                    int voteCount2 = upvotes2 - downvotes2;
+    /**
+     * Answers of a question ordered by the database: "votes" (the default) puts the accepted
+     * answer first and the rest by the stored Wilson rank score, "newest" and "oldest" go by date.
+     * @param page Zero-based page number; ignored without a size
+     * @param size Page size, capped like the feeds; all answers when absent
+     * @throws IllegalArgumentException for an unknown sort
+     */
+    public List<AnswerDto> getAnswersByQuestion(Long questionId, String sort, Integer page, Integer size){
+        Sort order = answerOrder(sort);
+        Pageable pageable = size == null
+                ? Pageable.unpaged(order)
+                : PageRequest.of(page == null ? 0 : Math.max(page, 0), size <= 0 ? defaultPageSize : Math.min(size, maxPageSize), order);
+        return convertToDtos(answerRepository.findPageByQuestionId(questionId, pageable));
+    }
 
-                    return Integer.compare(voteCount2, voteCount1);
-                })
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    private static Sort answerOrder(String sort){
+        if(sort == null || sort.isEmpty() || sort.equals("votes")){
+            return Sort.by(Sort.Order.desc("rankScore"), Sort.Order.asc("id"));
+        }
+        if(sort.equals("newest")){
+            return Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+        }
+        if(sort.equals("oldest")){
+            return Sort.by(Sort.Order.asc("createdAt"), Sort.Order.asc("id"));
+        }
+        throw new IllegalArgumentException("Unknown answer sort: " + sort);
     }
 
     public List<AnswerDto> getAnswersByAuthor(Long authorId){
-        User author = userService.findUserEntityById(authorId);
-        if(author == null){
+        if(userService.findAuthorSummary(authorId).isEmpty()){
             return List.of();
         }
 
-        return answerRepository.findByAuthor(author).stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return convertToDtos(answerRepository.findByAuthor(userService.getUserReference(authorId)));
+    }
+
+    /**
+     * Newest-first answers of one author as summary rows, using keyset pagination
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public CursorPageDto<AnswerSummaryDto> getAnswerSummariesByAuthor(Long authorId, String cursor, Integer size){
+        int pageSize = size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<AnswerSummaryDto> rows;
+        if(cursor == null || cursor.isEmpty()){
+            rows = answerRepository.findSummaryFeedByAuthor(authorId, limit);
+        } else {
+            FeedCursor after = FeedCursor.decode(cursor);
+            rows = answerRepository.findSummaryFeedByAuthorAfter(authorId, after.getCreatedAt(), after.getId(), limit);
+        }
+        return FeedCursor.page(rows, pageSize, a -> new FeedCursor(a.getCreatedAt(), a.getAnswerId()));
     }
 
+    @Transactional
     public AnswerDto createAnswer(Long questionId, Long authorId, String text, String image){
         Question question = questionService.findQuestionEntityById(questionId);
-        User author = userService.findUserEntityById(authorId);
-        
-        if(question == null || author == null){
+        if(question == null || userService.findAuthorSummary(authorId).isEmpty()){
             return null;
         }
 
@@ -91,14 +137,17 @@ public class AnswerService {
         try {
             Answer answer = new Answer();
             answer.setQuestion(question);
-            answer.setAuthor(author);
+            answer.setAuthor(userService.getUserReference(authorId));
             answer.setText(text);
             answer.setImage(image);
             
             Answer savedAnswer = answerRepository.save(answer);
+            questionSearchService.questionChanged(question.getId());
+            boolean firstAnswer = question.getAnswerCount() == 0;
+            questionService.adjustAnswerCount(question.getId(), 1);
             
             //update question status to "in progress" if this is the first answer
-            if(answerRepository.findByQuestion(question).size() == 1 && "received".equals(question.getStatus())){
+            if(firstAnswer && "received".equals(question.getStatus())){
                 question.setStatus("in progress");
                 questionService.updateQuestion(question.getId(), null, null, null, null, "in progress");
             }
@@ -120,25 +169,63 @@ public class AnswerService {
                     if (image != null) {
                         answer.setImage(image);
                     }
-                    return convertToDto(answerRepository.save(answer));
+                    Answer saved = answerRepository.save(answer);
+                    if (text != null) {
+                        questionSearchService.questionChanged(saved.getQuestion().getId());
+                    }
+                    return convertToDto(saved);
                 });
     }
 
+    @Transactional
     public boolean deleteAnswer(Long id) {
-        if (answerRepository.existsById(id)) {
-            answerRepository.deleteById(id);
+        Optional<Answer> answer = answerRepository.findById(id);
+        if (answer.isPresent()) {
+            Long questionId = answer.get().getQuestion().getId();
+            answerRepository.delete(answer.get());
+            questionService.adjustAnswerCount(questionId, -1);
+            questionSearchService.questionChanged(questionId);
+            leaderboardService.authorChanged(answer.get().getAuthor().getId());
             return true;
         }
         return false;
     }
 
+    /**
+     * Atomically shift the stored vote counters of an answer
+     */
+    public void adjustVoteCounts(Long answerId, int upvoteDelta, int downvoteDelta) {
+        if (upvoteDelta != 0 || downvoteDelta != 0) {
+            answerRepository.adjustVoteCounts(answerId, upvoteDelta, downvoteDelta);
+            answerRepository.refreshRankScores(List.of(answerId));
+            leaderboardService.answerVoted(answerId);
+            if (upvoteDelta > 0 || downvoteDelta > 0) {
+                tagTrendService.answerVoted(answerId);
+            }
+        }
+    }
+
+    // Resolves every author with one lookup instead of one per answer
+    private List<AnswerDto> convertToDtos(List<Answer> answers) {
+        Map<Long, AuthorSummary> authors = userService.findAuthorSummaries(answers.stream()
+                .map(answer -> answer.getAuthor().getId())
+                .collect(Collectors.toSet()));
+        return answers.stream()
+                .map(answer -> convertToDto(answer, authors.get(answer.getAuthor().getId())))
+                .collect(Collectors.toList());
+    }
+
     private AnswerDto convertToDto(Answer answer) {
+        return convertToDto(answer, userService.findAuthorSummary(answer.getAuthor().getId()).orElse(null));
+    }
+
+    private AnswerDto convertToDto(Answer answer, AuthorSummary author) {
         AnswerDto dto = new AnswerDto();
         dto.setAnswerId(answer.getId());
         dto.setId(answer.getId());
         dto.setQuestionId(answer.getQuestion().getId());
         dto.setAuthorId(answer.getAuthor().getId());
-        dto.setAuthorUsername(answer.getAuthor().getUsername());
+        dto.setAuthorUsername(author != null ? author.username() : answer.getAuthor().getUsername());
         dto.setText(answer.getText());
         dto.setImage(answer.getImage());
         dto.setCreatedAt(answer.getCreatedAt());
@@ -151,14 +238,27 @@ public class AnswerService {
             dto.setAccepted(false);
         }
 
-        // Count votes
-        List<Vote> votes = voteRepository.findByAnswer(answer);
-        dto.setUpvotes((int) votes.stream().filter(v -> "upvote".equals(v.getVoteType())).count());
-        dto.setDownvotes((int) votes.stream().filter(v -> "downvote".equals(v.getVoteType())).count());
+        dto.setUpvotes(answer.getUpvoteCount());
+        dto.setDownvotes(answer.getDownvoteCount());
 
         return dto;
     }
 
+    /**
+     * Author ids of the given answers, keyed by answer id; missing answers are absent
+     */
+    public Map<Long, Long> findAuthorIds(Collection<Long> answerIds) {
+        if (answerIds.isEmpty()) {
+            return Map.of();
+        }
+        return answerRepository.findAuthorIdsByIdIn(answerIds).stream()
+                .collect(Collectors.toMap(TargetAuthorView::getId, TargetAuthorView::getAuthorId));
+    }
+
+    public Answer getAnswerReference(Long id) {
+        return answerRepository.getReferenceById(id);
+    }
+
     public Answer findAnswerEntityById(Long id) {
         return answerRepository.findById(id).orElse(null);
     }
@@ -0,0 +1,10 @@
+package com.example.main.service;
+
+/**
+ * The few user fields that DTO converters and permission checks need, cached by
+ * {@link AuthorSummaryService} instead of loading the whole user row.
+ *
+ * @param score As of when the summary was loaded; votes do not evict it
+ */
+public record AuthorSummary(Long id, String username, boolean moderator, boolean banned, float score) {
+}
@@ -0,0 +1,112 @@
+package com.example.main.service;
+
+import com.example.main.repository.AuthorSummaryView;
+import com.example.main.repository.UserRepository;
+import com.example.main.utils.AfterCommit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A bounded cache of {@link AuthorSummary}s, evicting the least recently used once full.
+ * <p>
+ * Lookups take a batch of ids and load every miss with one query. Profile, ban and
+ * moderator changes evict the user right away and again once their transaction commits,
+ * so a reader that loaded the old row in between cannot put it back: loads that overlap an
+ * eviction are returned but not cached.
+ */
+@Service
+public class AuthorSummaryService {
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${users.summary-cache.max-size:10000}")
+    private int maxSize;
+
+    // Access-ordered, so the eldest entry is the least recently used; guarded by itself
+    private final LinkedHashMap<Long, AuthorSummary> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, AuthorSummary> eldest) {
+            return size() > maxSize;
+        }
+    };
+    // Bumped by every eviction, under the cache lock
+    private long generation;
+
+    public Optional<AuthorSummary> find(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(findAll(List.of(id)).get(id));
+    }
+
+    /**
+     * Summaries of the given users keyed by id; missing users are absent.
+     */
+    public Map<Long, AuthorSummary> findAll(Collection<Long> ids) {
+        Map<Long, AuthorSummary> found = new HashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        long seen;
+        synchronized (cache) {
+            for (Long id : ids) {
+                AuthorSummary summary = id == null ? null : cache.get(id);
+                if (summary != null) {
+                    found.put(id, summary);
+                } else if (id != null) {
+                    missing.add(id);
+                }
+            }
+            seen = generation;
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        List<AuthorSummaryView> rows = userRepository.findSummariesByIdIn(missing);
+        synchronized (cache) {
+            boolean current = generation == seen;
+            for (AuthorSummaryView row : rows) {
+                AuthorSummary summary = new AuthorSummary(row.getId(), row.getUsername(),
+                        Boolean.TRUE.equals(row.getModerator()), Boolean.TRUE.equals(row.getBanned()),
+                        row.getScore() == null ? 0 : row.getScore());
+                found.put(summary.id(), summary);
+                if (current) {
+                    cache.put(summary.id(), summary);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Drops a user's summary now and again once the current transaction commits.
+     */
+    public void invalidate(Long id) {
+        if (id == null) {
+            return;
+        }
+        AfterCommit.runNowAndAgain(() -> evict(id));
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private void evict(Long id) {
+        synchronized (cache) {
+            generation++;
+            cache.remove(id);
+        }
+    }
+}
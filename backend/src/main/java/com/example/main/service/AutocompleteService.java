@@ -0,0 +1,230 @@
+package com.example.main.service;
+
+import com.example.main.repository.QuestionRepository;
+import com.example.main.repository.QuestionTitleView;
+import com.example.main.repository.TagCountView;
+import com.example.main.repository.TagRepository;
+import com.example.main.search.RadixTrie;
+import com.example.main.utils.AfterCommit;
+import com.example.main.utils.ReindexQueue;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Typeahead over tag names and question titles, each held in a {@link RadixTrie}.
+ * <p>
+ * Tags are weighted by how many questions carry them. Titles are weighted by votes and age.
+ * The log of the net score is added to the creation time in units of 12.5 hours, so ten
+ * times the votes is worth as much as being half a day newer. A weight never changes on its
+ * own, so the tries only change when a row does. Writes report tag and question ids after
+ * commit, and a single thread re-reads them, as for the search indexes.
+ */
+@Service
+public class AutocompleteService {
+    private static final Logger log = LoggerFactory.getLogger(AutocompleteService.class);
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Value("${autocomplete.enabled:true}")
+    private boolean enabled;
+
+    @Value("${autocomplete.title-words:8}")
+    private int titleWords;
+
+    @Value("${autocomplete.batch-size:1000}")
+    private int batchSize;
+
+    private final RadixTrie tags = new RadixTrie();
+    private final RadixTrie titles = new RadixTrie();
+    // What each id is currently stored under, so a rename can remove the old keys
+    private final Map<Long, String> tagNames = new ConcurrentHashMap<>();
+    private final Map<Long, String> questionTitles = new ConcurrentHashMap<>();
+    private final ReindexQueue pendingTags = new ReindexQueue(this::drainPending);
+    private final ReindexQueue pendingQuestions = new ReindexQueue(this::drainPending);
+    private ExecutorService indexer;
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || indexer != null) {
+            return;
+        }
+        indexer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "autocomplete-indexer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        indexer.execute(this::build);
+    }
+
+    /**
+     * Top tag suggestions for a prefix, or empty while the tries are still building.
+     */
+    public Optional<List<RadixTrie.Suggestion>> suggestTags(String prefix, int limit) {
+        return ready ? Optional.of(tags.top(prefix, limit)) : Optional.empty();
+    }
+
+    public Optional<List<RadixTrie.Suggestion>> suggestTitles(String prefix, int limit) {
+        return ready ? Optional.of(titles.top(prefix, limit)) : Optional.empty();
+    }
+
+    /**
+     * Schedules tags for a refresh once the current transaction commits: a new or renamed
+     * tag, or a change in how many questions carry it.
+     */
+    public void tagsChanged(Collection<Long> tagIds) {
+        if (enabled && !tagIds.isEmpty()) {
+            AfterCommit.run(() -> pendingTags.add(tagIds));
+        }
+    }
+
+    public void questionChanged(Long questionId) {
+        if (enabled && questionId != null) {
+            AfterCommit.run(() -> pendingQuestions.add(questionId));
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (indexer != null) {
+            indexer.shutdownNow();
+        }
+    }
+
+    static double titleWeight(QuestionTitleView question) {
+        int upvotes = question.getUpvoteCount() != null ? question.getUpvoteCount() : 0;
+        int downvotes = question.getDownvoteCount() != null ? question.getDownvoteCount() : 0;
+        int score = upvotes - downvotes;
+        double votes = Math.signum(score) * Math.log10(Math.max(Math.abs(score), 1));
+        long created = question.getCreatedAt() != null ? question.getCreatedAt().toEpochSecond(ZoneOffset.UTC) : 0;
+        return votes + created / 45000.0;
+    }
+
+    private void build() {
+        long started = System.currentTimeMillis();
+        try {
+            tagRepository.findAllWithQuestionCounts().forEach(this::putTag);
+            long after = 0;
+            List<QuestionTitleView> questions;
+            while (!(questions = questionRepository.findTitlesAfter(after, PageRequest.of(0, batchSize))).isEmpty()) {
+                for (QuestionTitleView question : questions) {
+                    putTitle(question);
+                    after = question.getId();
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Autocomplete failed to build; suggestions fall back to the database", e);
+            return;
+        }
+        ready = true;
+        pendingTags.open(indexer);
+        pendingQuestions.open(indexer);
+        // Changes committed during the build were queued but not scheduled
+        drainPending();
+        log.info("Autocomplete ready with {} tags and {} questions in {} ms", tagNames.size(), questionTitles.size(),
+                System.currentTimeMillis() - started);
+    }
+
+    private void drainPending() {
+        try {
+            pendingTags.drain(batchSize, this::reindexTags);
+        } catch (RuntimeException e) {
+            log.error("Failed to update tag autocomplete, will retry", e);
+        }
+        try {
+            pendingQuestions.drain(batchSize, this::reindexTitles);
+        } catch (RuntimeException e) {
+            log.error("Failed to update title autocomplete, will retry", e);
+        }
+    }
+
+    private void reindexTags(List<Long> tagIds) {
+        Set<Long> found = new HashSet<>();
+        for (TagCountView tag : tagRepository.findWithQuestionCountsByIdIn(tagIds)) {
+            putTag(tag);
+            found.add(tag.getId());
+        }
+        tagIds.stream().filter(id -> !found.contains(id)).forEach(this::removeTag);
+    }
+
+    private void reindexTitles(List<Long> questionIds) {
+        Set<Long> found = new HashSet<>();
+        for (QuestionTitleView question : questionRepository.findTitlesByIdIn(questionIds)) {
+            putTitle(question);
+            found.add(question.getId());
+        }
+        questionIds.stream().filter(id -> !found.contains(id)).forEach(this::removeTitle);
+    }
+
+    private void putTag(TagCountView tag) {
+        String previous = tagNames.put(tag.getId(), tag.getName());
+        if (previous != null && !previous.equals(tag.getName())) {
+            tags.remove(previous, tag.getId());
+        }
+        tags.put(tag.getName(), tag.getId(), tag.getName(), tag.getQuestionCount() != null ? tag.getQuestionCount() : 0);
+    }
+
+    private void removeTag(Long tagId) {
+        String previous = tagNames.remove(tagId);
+        if (previous != null) {
+            tags.remove(previous, tagId);
+        }
+    }
+
+    private void putTitle(QuestionTitleView question) {
+        String previous = questionTitles.put(question.getId(), question.getTitle());
+        if (previous != null && !previous.equals(question.getTitle())) {
+            titleKeys(previous).forEach(key -> titles.remove(key, question.getId()));
+        }
+        double weight = titleWeight(question);
+        for (String key : titleKeys(question.getTitle())) {
+            titles.put(key, question.getId(), question.getTitle(), weight);
+        }
+    }
+
+    private void removeTitle(Long questionId) {
+        String previous = questionTitles.remove(questionId);
+        if (previous != null) {
+            titleKeys(previous).forEach(key -> titles.remove(key, questionId));
+        }
+    }
+
+    // A title is reachable from the start of each of its first few words
+    private List<String> titleKeys(String title) {
+        String normalized = RadixTrie.normalize(title);
+        List<String> keys = new ArrayList<>();
+        int start = 0;
+        while (start < normalized.length() && keys.size() < titleWords) {
+            keys.add(normalized.substring(start));
+            int space = normalized.indexOf(' ', start);
+            if (space < 0) {
+                break;
+            }
+            start = space + 1;
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.main.service;
+
+import com.example.main.dto.CacheRegionStatsDto;
+import com.example.main.dto.CacheStatsDto;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hit, miss and put counts of the Hibernate second-level cache regions since startup.
+ * The counts are only kept while {@code hibernate.generate_statistics} is on.
+ */
+@Service
+public class CacheStatisticsService {
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    public CacheStatsDto getStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<CacheRegionStatsDto> regions = new ArrayList<>();
+        String[] names = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(names);
+        for (String name : names) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+            if (region != null) {
+                regions.add(new CacheRegionStatsDto(name, region.getHitCount(), region.getMissCount(), region.getPutCount()));
+            }
+        }
+        long hits = statistics.getSecondLevelCacheHitCount();
+        long misses = statistics.getSecondLevelCacheMissCount();
+        return new CacheStatsDto(statistics.isStatisticsEnabled(), hits + misses == 0 ? 0 : (double) hits / (hits + misses),
+                statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount(),
+                statistics.getPrepareStatementCount(), regions);
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.main.service;
+
+import com.example.main.repository.AnswerRepository;
+import com.example.main.repository.QuestionEventView;
+import com.example.main.repository.QuestionRepository;
+import com.example.main.repository.VoteEventView;
+import com.example.main.repository.VoteRepository;
+import com.example.main.stats.ForwardDecayRanking;
+import com.example.main.utils.AfterCommit;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Questions ranked by recent activity: being asked, answered, voted on and viewed, with each
+ * event counting for half as much after every half-life.
+ * <p>
+ * Writes report after commit and update the ranking on the calling thread, which costs a
+ * couple of skip list operations. Views are not stored anywhere else and only feed this
+ * ranking. A background thread replays recent activity from the database on startup, then
+ * rebases the ranking on a fixed delay, dropping questions that have gone quiet.
+ */
+@Service
+public class HotQuestionService {
+    private static final Logger log = LoggerFactory.getLogger(HotQuestionService.class);
+
+    private static final double ASKED = 1;
+    private static final double ANSWERED = 2;
+    private static final double VOTED = 1;
+    private static final double VIEWED = 0.1;
+    // Scores below this are forgotten on rebase; a fresh question starts at ASKED
+    private static final double PRUNE_BELOW = 0.01;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private AnswerRepository answerRepository;
+
+    @Autowired
+    private VoteRepository voteRepository;
+
+    @Value("${questions.hot.enabled:true}")
+    private boolean enabled;
+
+    @Value("${questions.hot.half-life-ms:43200000}")
+    private long halfLifeMs;
+
+    @Value("${questions.hot.rebase-interval-ms:3600000}")
+    private long rebaseIntervalMs;
+
+    @Value("${questions.hot.max-results:1000}")
+    private int maxResults;
+
+    private volatile ForwardDecayRanking ranking;
+    private volatile boolean ready;
+    private ScheduledExecutorService rebaser;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || rebaser != null) {
+            return;
+        }
+        ranking = new ForwardDecayRanking(halfLifeMs, System.currentTimeMillis());
+        rebaser = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "hot-questions");
+            thread.setDaemon(true);
+            return thread;
+        });
+        rebaser.execute(this::replay);
+        rebaser.scheduleWithFixedDelay(this::rebase, rebaseIntervalMs, rebaseIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Ids of the hottest questions from {@code offset} on, or empty until the replay finishes.
+     * Nothing past {@code questions.hot.max-results} is served.
+     */
+    public Optional<List<Long>> top(int offset, int limit) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        int count = Math.min(limit, maxResults - offset);
+        if (count <= 0) {
+            return Optional.of(List.of());
+        }
+        return Optional.of(ranking.top(offset, count, System.currentTimeMillis()).stream()
+                .map(ForwardDecayRanking.Ranked::id)
+                .collect(Collectors.toList()));
+    }
+
+    public void questionAsked(Long questionId) {
+        record(questionId, ASKED);
+    }
+
+    /**
+     * @param delta Change in the answer count; a deleted answer takes its weight back off
+     */
+    public void questionAnswered(Long questionId, int delta) {
+        record(questionId, ANSWERED * delta);
+    }
+
+    /**
+     * @param netDelta Change in upvotes minus change in downvotes
+     */
+    public void questionVoted(Long questionId, int netDelta) {
+        if (netDelta != 0) {
+            record(questionId, VOTED * netDelta);
+        }
+    }
+
+    public void questionViewed(Long questionId) {
+        record(questionId, VIEWED);
+    }
+
+    public void questionDeleted(Long questionId) {
+        if (enabled && questionId != null) {
+            AfterCommit.run(() -> {
+                ForwardDecayRanking current = ranking;
+                if (current != null) {
+                    current.remove(questionId);
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (rebaser != null) {
+            rebaser.shutdownNow();
+        }
+    }
+
+    private void record(Long questionId, double weight) {
+        if (enabled && questionId != null) {
+            AfterCommit.run(() -> {
+                ForwardDecayRanking current = ranking;
+                if (current != null) {
+                    current.add(questionId, weight, System.currentTimeMillis());
+                }
+            });
+        }
+    }
+
+    // Events committed while this runs may be counted twice; the error fades with them
+    private void replay() {
+        long started = System.currentTimeMillis();
+        // Anything older has decayed below the prune threshold: 2^-7 < 0.01
+        LocalDateTime since = LocalDateTime.now().minusNanos(TimeUnit.MILLISECONDS.toNanos(7 * halfLifeMs));
+        int events = 0;
+        try {
+            events += replay(questionRepository.findCreatedSince(since), ASKED);
+            events += replay(answerRepository.findAnswerEventsSince(since), ANSWERED);
+            List<VoteEventView> votes = voteRepository.findQuestionVoteEventsSince(since);
+            ZoneId zone = ZoneId.systemDefault();
+            for (VoteEventView vote : votes) {
+                ranking.add(vote.getQuestionId(), "upvote".equals(vote.getVoteType()) ? VOTED : -VOTED,
+                        vote.getCreatedAt().atZone(zone).toInstant().toEpochMilli());
+            }
+            events += votes.size();
+        } catch (RuntimeException e) {
+            log.error("Hot question ranking failed to load; /questions/hot falls back to the newest questions", e);
+            return;
+        }
+        ready = true;
+        log.info("Hot question ranking replayed {} events into {} questions in {} ms", events, ranking.size(),
+                System.currentTimeMillis() - started);
+    }
+
+    private int replay(List<QuestionEventView> events, double weight) {
+        ZoneId zone = ZoneId.systemDefault();
+        for (QuestionEventView event : events) {
+            ranking.add(event.getQuestionId(), weight, event.getCreatedAt().atZone(zone).toInstant().toEpochMilli());
+        }
+        return events.size();
+    }
+
+    private void rebase() {
+        try {
+            int pruned = ranking.rebase(System.currentTimeMillis(), PRUNE_BELOW);
+            log.debug("Hot question ranking rebased; {} questions kept, {} dropped", ranking.size(), pruned);
+        } catch (RuntimeException e) {
+            log.error("Failed to rebase the hot question ranking", e);
+        }
+    }
+}
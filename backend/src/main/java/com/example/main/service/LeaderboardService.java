@@ -0,0 +1,374 @@
+package com.example.main.service;
+
+import com.example.main.dto.LeaderboardEntryDto;
+import com.example.main.repository.AnswerRepository;
+import com.example.main.repository.TagAuthorVotesView;
+import com.example.main.repository.TagRepository;
+import com.example.main.repository.TargetAuthorView;
+import com.example.main.repository.UserRepository;
+import com.example.main.repository.UserScoreView;
+import com.example.main.repository.VoteRepository;
+import com.example.main.stats.Leaderboard;
+import com.example.main.utils.AfterCommit;
+import com.example.main.utils.ReindexQueue;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Users ranked by score, overall and per tag, answering top-N, rank and neighbour queries
+ * in O(log n) from in-memory {@link Leaderboard}s.
+ * <p>
+ * A user's score on a tag comes from the votes on their answers to questions with that tag,
+ * weighted as {@link VoteService} weights them. The boards are loaded on startup by a small
+ * pool reading disjoint id ranges in parallel. After that, score changes and answer votes
+ * queue the users involved once their transaction commits, and a background thread re-reads
+ * those users' current totals, so the boards never drift from the database by more than
+ * the queue. Retagging a question does not re-read its answerers' tag scores; they are
+ * corrected the next time one of their answers is voted on, or on restart.
+ */
+@Service
+public class LeaderboardService {
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardService.class);
+
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 100;
+    private static final int DEFAULT_RADIUS = 5;
+    private static final int MAX_RADIUS = 50;
+    private static final Leaderboard EMPTY = new Leaderboard();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private VoteRepository voteRepository;
+
+    @Autowired
+    private AnswerRepository answerRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private TagService tagService;
+
+    @Value("${leaderboard.enabled:true}")
+    private boolean enabled;
+
+    @Value("${leaderboard.rebuild-threads:4}")
+    private int rebuildThreads;
+
+    @Value("${leaderboard.batch-size:5000}")
+    private int batchSize;
+
+    private volatile Leaderboard users = EMPTY;
+    private final Map<Long, Leaderboard> tags = new ConcurrentHashMap<>();
+    private final ReindexQueue pendingUsers = new ReindexQueue(this::drainPending);
+    private final ReindexQueue pendingAuthors = new ReindexQueue(this::drainPending);
+    private final ReindexQueue pendingAnswers = new ReindexQueue(this::drainPending);
+    private volatile boolean ready;
+    // Only touched on the indexer thread
+    private ExecutorService indexer;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || indexer != null) {
+            return;
+        }
+        indexer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "leaderboard");
+            thread.setDaemon(true);
+            return thread;
+        });
+        indexer.execute(this::build);
+    }
+
+    /**
+     * A page of the leaderboard, overall or for one tag, or empty if the tag does not exist.
+     * Until the boards are loaded the overall board is read from the database and a tag's
+     * board is computed for the request.
+     */
+    public Optional<List<LeaderboardEntryDto>> getLeaderboard(String tag, Integer offset, Integer limit) {
+        int from = offset == null ? 0 : Math.max(offset, 0);
+        int count = clamp(limit, DEFAULT_LIMIT, MAX_LIMIT);
+        if (tag != null) {
+            return tagBoard(tag).map(board -> toDtos(board.range(from, count)));
+        }
+        if (!ready) {
+            return Optional.of(loadRanks(from, count));
+        }
+        return Optional.of(toDtos(users.range(from, count)));
+    }
+
+    /**
+     * A user's score and rank, or empty if the tag does not exist or the user is not on
+     * its board.
+     */
+    public Optional<LeaderboardEntryDto> getRank(Long userId, String tag) {
+        if (tag != null) {
+            return tagBoard(tag).map(board -> board.get(userId))
+                    .flatMap(entry -> toDtos(List.of(entry)).stream().findFirst());
+        }
+        if (!ready) {
+            return loadRank(userId);
+        }
+        Leaderboard.Entry entry = users.get(userId);
+        return entry == null ? Optional.empty() : toDtos(List.of(entry)).stream().findFirst();
+    }
+
+    /**
+     * A user's entry with up to {@code radius} entries either side, or empty if the tag does
+     * not exist or the user is not on its board.
+     */
+    public Optional<List<LeaderboardEntryDto>> getNeighbours(Long userId, String tag, Integer radius) {
+        int around = radius == null ? DEFAULT_RADIUS : Math.min(Math.max(radius, 0), MAX_RADIUS);
+        if (tag != null) {
+            return tagBoard(tag).map(board -> board.around(userId, around))
+                    .filter(entries -> !entries.isEmpty())
+                    .map(this::toDtos);
+        }
+        if (!ready) {
+            return loadRank(userId).map(entry -> {
+                int from = Math.max(entry.getRank() - 1 - around, 0);
+                return loadRanks(from, entry.getRank() - from + around);
+            });
+        }
+        List<Leaderboard.Entry> entries = users.around(userId, around);
+        return entries.isEmpty() ? Optional.empty() : Optional.of(toDtos(entries));
+    }
+
+    /**
+     * Re-reads a user's score once the current transaction commits: new, re-scored or
+     * deleted users.
+     */
+    public void scoreChanged(Long userId) {
+        if (enabled && userId != null) {
+            AfterCommit.run(() -> pendingUsers.add(userId));
+        }
+    }
+
+    /**
+     * Re-reads the tag scores of an answer's author once the current transaction commits.
+     */
+    public void answerVoted(Long answerId) {
+        if (enabled && answerId != null) {
+            AfterCommit.run(() -> pendingAnswers.add(answerId));
+        }
+    }
+
+    /**
+     * Re-reads a user's tag scores once the current transaction commits, for changes that
+     * leave no answer to look the author up by, such as a deleted answer.
+     */
+    public void authorChanged(Long userId) {
+        if (enabled && userId != null) {
+            AfterCommit.run(() -> pendingAuthors.add(userId));
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (indexer != null) {
+            indexer.shutdownNow();
+        }
+    }
+
+    private static int clamp(Integer value, int defaultValue, int max) {
+        if (value == null || value <= 0) {
+            return defaultValue;
+        }
+        return Math.min(value, max);
+    }
+
+    private Optional<Leaderboard> tagBoard(String tag) {
+        return tagService.findTagId(tag).map(tagId -> ready ? tags.getOrDefault(tagId, EMPTY) : loadTagBoard(tagId));
+    }
+
+    private List<LeaderboardEntryDto> toDtos(List<Leaderboard.Entry> entries) {
+        if (entries.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, String> names = new HashMap<>();
+        for (UserScoreView user : userRepository.findScoresByIdIn(entries.stream().map(Leaderboard.Entry::id).toList())) {
+            names.put(user.getId(), user.getUsername());
+        }
+        // A user deleted since the entry was read is left out rather than shown without a name
+        return entries.stream()
+                .filter(entry -> names.containsKey(entry.id()))
+                .map(entry -> new LeaderboardEntryDto(entry.id(), names.get(entry.id()), entry.score(), entry.rank()))
+                .toList();
+    }
+
+    private List<LeaderboardEntryDto> loadRanks(int offset, int limit) {
+        List<UserScoreView> top = userRepository.findLeaderboard(PageRequest.of(0, offset + limit));
+        List<LeaderboardEntryDto> page = new ArrayList<>();
+        for (int i = offset; i < top.size(); i++) {
+            UserScoreView user = top.get(i);
+            page.add(new LeaderboardEntryDto(user.getId(), user.getUsername(), score(user), i + 1));
+        }
+        return page;
+    }
+
+    private Optional<LeaderboardEntryDto> loadRank(Long userId) {
+        return userRepository.findScoresByIdIn(List.of(userId)).stream().findFirst()
+                .map(user -> new LeaderboardEntryDto(user.getId(), user.getUsername(), score(user),
+                        (int) userRepository.countRankedAbove((float) score(user), user.getId()) + 1));
+    }
+
+    private Leaderboard loadTagBoard(long tagId) {
+        Leaderboard board = new Leaderboard();
+        for (TagAuthorVotesView row : voteRepository.findAnswerVoteTotalsByTagBetween(tagId, tagId)) {
+            board.put(row.getUserId(), tagScore(row));
+        }
+        return board;
+    }
+
+    private static double score(UserScoreView user) {
+        return user.getScore() == null ? 0 : user.getScore();
+    }
+
+    private static double tagScore(TagAuthorVotesView row) {
+        long upvotes = row.getUpvotes() == null ? 0 : row.getUpvotes();
+        return upvotes * VoteService.ANSWER_UPVOTE_SCORE + (row.getVotes() - upvotes) * VoteService.ANSWER_DOWNVOTE_SCORE;
+    }
+
+    private void build() {
+        long started = System.currentTimeMillis();
+        Leaderboard fresh = new Leaderboard();
+        Map<Long, Leaderboard> freshTags = new HashMap<>();
+        ExecutorService pool = Executors.newFixedThreadPool(rebuildThreads, r -> {
+            Thread thread = new Thread(r, "leaderboard-load");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<List<UserScoreView>>> userChunks = new ArrayList<>();
+            long maxUserId = userRepository.findMaxId();
+            for (long from = 1; from <= maxUserId; from += batchSize) {
+                long fromId = from;
+                long toId = Math.min(from + batchSize - 1, maxUserId);
+                userChunks.add(pool.submit(() -> userRepository.findScoresBetween(fromId, toId)));
+            }
+            // Tags are far fewer than users, so split them evenly over the pool instead
+            List<Future<Map<Long, Leaderboard>>> tagChunks = new ArrayList<>();
+            long maxTagId = tagRepository.findMaxId();
+            long tagsPerChunk = Math.max(maxTagId / rebuildThreads + 1, 1);
+            for (long from = 1; from <= maxTagId; from += tagsPerChunk) {
+                long fromId = from;
+                long toId = Math.min(from + tagsPerChunk - 1, maxTagId);
+                tagChunks.add(pool.submit(() -> loadTagBoards(fromId, toId)));
+            }
+            for (Future<List<UserScoreView>> chunk : userChunks) {
+                for (UserScoreView user : chunk.get()) {
+                    fresh.put(user.getId(), score(user));
+                }
+            }
+            for (Future<Map<Long, Leaderboard>> chunk : tagChunks) {
+                freshTags.putAll(chunk.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException | RuntimeException e) {
+            log.error("Leaderboards failed to load; the overall board is read from the database", e);
+            return;
+        } finally {
+            pool.shutdownNow();
+        }
+
+        users = fresh;
+        tags.putAll(freshTags);
+        ready = true;
+        pendingUsers.open(indexer);
+        pendingAuthors.open(indexer);
+        pendingAnswers.open(indexer);
+        // Changes committed while loading were queued; re-reading them again is harmless
+        drainPending();
+        log.info("Leaderboards loaded for {} users and {} tags in {} ms", fresh.size(), freshTags.size(),
+                System.currentTimeMillis() - started);
+    }
+
+    // Runs on the load pool; each board is only touched by the thread building it
+    private Map<Long, Leaderboard> loadTagBoards(long fromTagId, long toTagId) {
+        Map<Long, Leaderboard> boards = new HashMap<>();
+        for (TagAuthorVotesView row : voteRepository.findAnswerVoteTotalsByTagBetween(fromTagId, toTagId)) {
+            boards.computeIfAbsent(row.getTagId(), id -> new Leaderboard()).put(row.getUserId(), tagScore(row));
+        }
+        return boards;
+    }
+
+    private void drainPending() {
+        List<Long> userIds = pendingUsers.take();
+        List<Long> authorIds = pendingAuthors.take();
+        List<Long> answerIds = pendingAnswers.take();
+        if (userIds.isEmpty() && authorIds.isEmpty() && answerIds.isEmpty()) {
+            return;
+        }
+        try {
+            for (int from = 0; from < userIds.size(); from += batchSize) {
+                refreshScores(userIds.subList(from, Math.min(from + batchSize, userIds.size())));
+            }
+            Set<Long> authors = new HashSet<>(authorIds);
+            for (int from = 0; from < answerIds.size(); from += batchSize) {
+                List<Long> batch = answerIds.subList(from, Math.min(from + batchSize, answerIds.size()));
+                answerRepository.findAuthorIdsByIdIn(batch).stream().map(TargetAuthorView::getAuthorId).forEach(authors::add);
+            }
+            List<Long> authorList = new ArrayList<>(authors);
+            for (int from = 0; from < authorList.size(); from += batchSize) {
+                refreshTagScores(authorList.subList(from, Math.min(from + batchSize, authorList.size())));
+            }
+        } catch (RuntimeException e) {
+            pendingUsers.putBack(userIds);
+            pendingAuthors.putBack(authorIds);
+            pendingAnswers.putBack(answerIds);
+            log.error("Failed to update leaderboards, will retry", e);
+        }
+    }
+
+    private void refreshScores(List<Long> userIds) {
+        Set<Long> missing = new HashSet<>(userIds);
+        for (UserScoreView user : userRepository.findScoresByIdIn(userIds)) {
+            users.put(user.getId(), score(user));
+            missing.remove(user.getId());
+        }
+        for (Long id : missing) {
+            users.remove(id);
+            tags.values().forEach(board -> board.remove(id));
+        }
+    }
+
+    private void refreshTagScores(List<Long> userIds) {
+        Map<Long, Set<Long>> scored = new HashMap<>();
+        for (TagAuthorVotesView row : voteRepository.findAnswerVoteTotalsByUserIdIn(userIds)) {
+            tags.computeIfAbsent(row.getTagId(), id -> new Leaderboard()).put(row.getUserId(), tagScore(row));
+            scored.computeIfAbsent(row.getUserId(), id -> new HashSet<>()).add(row.getTagId());
+        }
+        // Votes gone from a tag, for instance with a deleted answer, take the user off its board
+        for (Map.Entry<Long, Leaderboard> board : tags.entrySet()) {
+            for (Long userId : userIds) {
+                if (!scored.getOrDefault(userId, Set.of()).contains(board.getKey())) {
+                    board.getValue().remove(userId);
+                }
+            }
+        }
+    }
+}
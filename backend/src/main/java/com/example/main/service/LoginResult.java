@@ -0,0 +1,25 @@
+package com.example.main.service;
+
+import com.example.main.dto.UserDto;
+
+/**
+ * Outcome of a login attempt
+ * @param user The logged in user, only when authenticated
+ * @param banReason Only when banned
+ */
+public record LoginResult(Status status, UserDto user, String banReason) {
+
+    public enum Status { AUTHENTICATED, INVALID, BANNED }
+
+    static LoginResult authenticated(UserDto user) {
+        return new LoginResult(Status.AUTHENTICATED, user, null);
+    }
+
+    static LoginResult invalid() {
+        return new LoginResult(Status.INVALID, null, null);
+    }
+
+    static LoginResult banned(String reason) {
+        return new LoginResult(Status.BANNED, null, reason);
+    }
+}
@@ -4,6 +4,7 @@ import com.example.main.model.User;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -11,6 +12,11 @@ public class NotificationService {
     @Autowired
     private JavaMailSender javaMailSender;
 
+    /**
+     * Sends on the task executor, so the request is not held up by an SMTP server that
+     * may take up to its 5 s timeout to answer
+     */
+    @Async
     public void sendBanNotification(User user, String reason){
         if(user.getEmail() != null && !user.getEmail().isEmpty()){
             sendEmailNotification(user, reason);
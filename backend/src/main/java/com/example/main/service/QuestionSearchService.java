@@ -0,0 +1,309 @@
+package com.example.main.service;
+
+import com.example.main.repository.AnswerRepository;
+import com.example.main.repository.QuestionFieldView;
+import com.example.main.repository.QuestionRepository;
+import com.example.main.repository.QuestionTextView;
+import com.example.main.search.InvertedIndex;
+import com.example.main.utils.AfterCommit;
+import com.example.main.utils.ReindexQueue;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the full-text {@link InvertedIndex} of questions in step with the database.
+ * <p>
+ * Writes report the question they touched once their transaction commits, and a single
+ * indexing thread re-reads those questions and replaces their documents. The index is
+ * snapshotted to {@code search.index.dir}; ids touched since the last snapshot are kept in
+ * a small log next to it, so a restart loads the snapshot and only re-reads those ids and
+ * questions created after it.
+ */
+@Service
+public class QuestionSearchService {
+    private static final Logger log = LoggerFactory.getLogger(QuestionSearchService.class);
+    private static final String SNAPSHOT_FILE = "questions.idx";
+    private static final String DIRTY_LOG_FILE = "dirty.log";
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private AnswerRepository answerRepository;
+
+    @Value("${search.index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${search.index.dir:data/search-index}")
+    private String indexDir;
+
+    @Value("${search.index.snapshot-interval-ms:300000}")
+    private long snapshotIntervalMs;
+
+    @Value("${search.index.batch-size:500}")
+    private int batchSize;
+
+    private final InvertedIndex index = new InvertedIndex();
+    private final ReindexQueue pending = new ReindexQueue(this::drainPending);
+    // Held across file writes, so a lock rather than a monitor, which would pin a virtual thread's carrier
+    private final ReentrantLock dirtyLogLock = new ReentrantLock();
+
+    // One thread does all index writes and snapshots, so a snapshot never sees a half-applied batch
+    private ScheduledExecutorService indexer;
+    private volatile boolean ready;
+    private volatile boolean changedSinceSnapshot;
+    private long maxIndexedId;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || indexer != null) {
+            return;
+        }
+        indexer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "question-search-indexer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        indexer.execute(this::load);
+        indexer.scheduleWithFixedDelay(this::snapshotIfChanged, snapshotIntervalMs, snapshotIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Ranked question ids for a query, or empty while the index is still loading.
+     */
+    public Optional<InvertedIndex.Result> search(String query, int offset, int limit) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        return Optional.of(index.search(query, offset, limit));
+    }
+
+    /**
+     * Schedules a question for re-indexing after the current transaction commits, or right
+     * away outside a transaction. Deleted questions are dropped from the index the same way.
+     */
+    public void questionChanged(Long questionId) {
+        if (questionId != null) {
+            questionsChanged(List.of(questionId));
+        }
+    }
+
+    /**
+     * Schedules questions for re-indexing like {@link #questionChanged(Long)}, with one
+     * dirty-log append for the whole collection.
+     */
+    public void questionsChanged(Collection<Long> questionIds) {
+        if (!enabled || questionIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(questionIds);
+        AfterCommit.run(() -> markPending(ids));
+    }
+
+    @PreDestroy
+    void stop() {
+        if (indexer == null) {
+            return;
+        }
+        indexer.shutdown();
+        try {
+            indexer.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (ready) {
+            drainPending();
+            snapshot();
+        }
+    }
+
+    private void markPending(Collection<Long> questionIds) {
+        dirtyLogLock.lock();
+        try {
+            appendDirtyLog(questionIds);
+            pending.add(questionIds);
+        } finally {
+            dirtyLogLock.unlock();
+        }
+    }
+
+    private void load() {
+        long started = System.currentTimeMillis();
+        Path snapshot = Paths.get(indexDir, SNAPSHOT_FILE);
+        boolean fromSnapshot = false;
+        if (Files.exists(snapshot)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+                maxIndexedId = in.readLong();
+                index.readFrom(in);
+                fromSnapshot = true;
+            } catch (IOException e) {
+                log.warn("Search index snapshot is unreadable, rebuilding from the database", e);
+                index.clear();
+                maxIndexedId = 0;
+            }
+        }
+        pending.add(readDirtyLog());
+
+        try {
+            // Questions created after the snapshot; on a rebuild this is every question
+            List<Long> ids;
+            while (!(ids = questionRepository.findIdsAfter(maxIndexedId, PageRequest.of(0, batchSize))).isEmpty()) {
+                reindex(ids);
+            }
+            drainPending();
+        } catch (RuntimeException e) {
+            log.error("Search index failed to load; searches fall back to the database", e);
+            return;
+        }
+
+        ready = true;
+        pending.open(indexer);
+        // Commits that landed while loading were queued but not scheduled
+        drainPending();
+        if (!fromSnapshot) {
+            snapshot();
+        }
+        log.info("Search index ready with {} questions in {} ms ({})", index.size(),
+                System.currentTimeMillis() - started, fromSnapshot ? "snapshot" : "rebuilt");
+    }
+
+    private void drainPending() {
+        try {
+            pending.drain(batchSize, this::reindex);
+        } catch (RuntimeException e) {
+            log.error("Failed to update the search index, will retry", e);
+        }
+    }
+
+    private void reindex(List<Long> ids) {
+        Map<Long, List<String>> tags = group(questionRepository.findTagNamesByIdIn(ids));
+        Map<Long, List<String>> answers = group(answerRepository.findTextsByQuestionIdIn(ids));
+        Set<Long> found = new HashSet<>();
+        for (QuestionTextView question : questionRepository.findTextsByIdIn(ids)) {
+            index.put(question.getId(), question.getTitle(), question.getText(),
+                    tags.getOrDefault(question.getId(), List.of()),
+                    answers.getOrDefault(question.getId(), List.of()));
+            found.add(question.getId());
+            maxIndexedId = Math.max(maxIndexedId, question.getId());
+        }
+        for (Long id : ids) {
+            if (!found.contains(id)) {
+                index.remove(id);
+            }
+        }
+        changedSinceSnapshot = true;
+    }
+
+    private static Map<Long, List<String>> group(List<QuestionFieldView> rows) {
+        Map<Long, List<String>> grouped = new HashMap<>();
+        for (QuestionFieldView row : rows) {
+            grouped.computeIfAbsent(row.getQuestionId(), id -> new ArrayList<>()).add(row.getValue());
+        }
+        return grouped;
+    }
+
+    private void snapshotIfChanged() {
+        if (ready && changedSinceSnapshot) {
+            snapshot();
+        }
+    }
+
+    private void snapshot() {
+        Path directory = Paths.get(indexDir);
+        Path target = directory.resolve(SNAPSHOT_FILE);
+        Path tmp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            changedSinceSnapshot = false;
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeLong(maxIndexedId);
+                index.writeTo(out);
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            // The snapshot covers everything drained so far; only ids still queued stay in the log
+            dirtyLogLock.lock();
+            try {
+                Files.write(directory.resolve(DIRTY_LOG_FILE), idLines(pending.ids()), StandardCharsets.UTF_8);
+            } finally {
+                dirtyLogLock.unlock();
+            }
+        } catch (IOException e) {
+            changedSinceSnapshot = true;
+            log.warn("Failed to write the search index snapshot", e);
+        }
+    }
+
+    private void appendDirtyLog(Collection<Long> questionIds) {
+        try {
+            Path directory = Paths.get(indexDir);
+            Files.createDirectories(directory);
+            Files.write(directory.resolve(DIRTY_LOG_FILE), idLines(questionIds), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            log.warn("Failed to record changed questions for the search index", e);
+        }
+    }
+
+    private Set<Long> readDirtyLog() {
+        Set<Long> ids = new HashSet<>();
+        Path file = Paths.get(indexDir, DIRTY_LOG_FILE);
+        if (!Files.exists(file)) {
+            return ids;
+        }
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                try {
+                    ids.add(Long.valueOf(line.trim()));
+                } catch (NumberFormatException e) {
+                    // torn last line from a crash
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to read the search index change log", e);
+        }
+        return ids;
+    }
+
+    private static List<String> idLines(Collection<Long> ids) {
+        List<String> lines = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            lines.add(id.toString());
+        }
+        return lines;
+    }
+}
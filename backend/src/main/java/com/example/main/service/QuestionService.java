@@ -1,18 +1,36 @@
 package com.example.main.service;
 
+import com.example.main.dto.CursorPageDto;
 import com.example.main.dto.QuestionDto;
+import com.example.main.dto.QuestionSummaryDto;
+import com.example.main.dto.TitleSuggestionDto;
 import com.example.main.model.Question;
 import com.example.main.model.Tag;
-import com.example.main.model.User;
+import com.example.main.repository.AnswerRepository;
 import com.example.main.repository.QuestionRepository;
+import com.example.main.repository.TargetAuthorView;
+import com.example.main.search.InvertedIndex;
+import com.example.main.search.RadixTrie;
+import com.example.main.search.TagExpression;
+import com.example.main.utils.FeedCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import javax.swing.text.html.Option;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,90 +38,288 @@ public class QuestionService {
     @Autowired
     private QuestionRepository questionRepository;
     @Autowired
+    private AnswerRepository answerRepository;
+    @Autowired
     private UserService userService;
     @Autowired
     private TagService tagService;
+    @Autowired
+    private QuestionSearchService questionSearchService;
+    @Autowired
+    private AutocompleteService autocompleteService;
+    @Autowired
+    private QuestionTagIndexService questionTagIndexService;
+    @Autowired
+    private TagStatisticsService tagStatisticsService;
+    @Autowired
+    private TagTrendService tagTrendService;
+    @Autowired
+    private HotQuestionService hotQuestionService;
+
+    private static final int DEFAULT_SUGGESTIONS = 10;
+    private static final int MAX_SUGGESTIONS = 50;
+
+    @Value("${questions.feed.default-page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${questions.feed.max-page-size:100}")
+    private int maxPageSize;
 
     public List<QuestionDto> getAllQuestions(){
-        return questionRepository.findAll().stream()
-                .sorted((q1,q2) -> q2.getCreatedAt().compareTo(q1.getCreatedAt()))
-                .map(this::convertToDto)
+        return convertToDtos(questionRepository.findAllByOrderByCreatedAtDescIdDesc());
+    }
+
+    /**
+     * Newest-first question feed using keyset pagination
+     * @param cursor The nextCursor of the previous page, or null for the first page
+     * @param size Requested page size, clamped to the configured maximum
+     * @return One page of questions and the cursor of the following page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public CursorPageDto<QuestionDto> getQuestionFeed(String cursor, Integer size){
+        int pageSize = resolvePageSize(size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        if(cursor == null || cursor.isEmpty()){
+            return toPage(questionRepository.findFeed(limit), pageSize);
+        }
+        FeedCursor after = FeedCursor.decode(cursor);
+        return toPage(questionRepository.findFeedAfter(after.getCreatedAt(), after.getId(), limit), pageSize);
+    }
+
+    public CursorPageDto<QuestionDto> getQuestionFeedByStatus(String status, String cursor, Integer size){
+        int pageSize = resolvePageSize(size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        if(cursor == null || cursor.isEmpty()){
+            return toPage(questionRepository.findFeedByStatus(status, limit), pageSize);
+        }
+        FeedCursor after = FeedCursor.decode(cursor);
+        return toPage(questionRepository.findFeedByStatusAfter(status, after.getCreatedAt(), after.getId(), limit), pageSize);
+    }
+
+    public CursorPageDto<QuestionDto> getQuestionFeedByAuthor(Long authorId, String cursor, Integer size){
+        int pageSize = resolvePageSize(size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        if(cursor == null || cursor.isEmpty()){
+            return toPage(questionRepository.findFeedByAuthor(authorId, limit), pageSize);
+        }
+        FeedCursor after = FeedCursor.decode(cursor);
+        return toPage(questionRepository.findFeedByAuthorAfter(authorId, after.getCreatedAt(), after.getId(), limit), pageSize);
+    }
+
+    private int resolvePageSize(Integer size){
+        if(size == null || size <= 0){
+            return defaultPageSize;
+        }
+        return Math.min(size, maxPageSize);
+    }
+
+    private CursorPageDto<QuestionDto> toPage(List<Question> rows, int pageSize){
+        CursorPageDto<Question> page = FeedCursor.page(rows, pageSize, q -> new FeedCursor(q.getCreatedAt(), q.getId()));
+        return new CursorPageDto<>(convertToDtos(page.getItems()), page.getNextCursor());
+    }
+
+    /**
+     * Summary variant of {@link #getQuestionFeed}: rows come from a projection query, so no
+     * question or author entity is loaded
+     */
+    public CursorPageDto<QuestionSummaryDto> getQuestionSummaries(String cursor, Integer size){
+        int pageSize = resolvePageSize(size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        if(cursor == null || cursor.isEmpty()){
+            return toSummaryPage(questionRepository.findSummaryFeed(limit), pageSize);
+        }
+        FeedCursor after = FeedCursor.decode(cursor);
+        return toSummaryPage(questionRepository.findSummaryFeedAfter(after.getCreatedAt(), after.getId(), limit), pageSize);
+    }
+
+    public CursorPageDto<QuestionSummaryDto> getQuestionSummariesByTag(String tagName, String cursor, Integer size){
+        int pageSize = resolvePageSize(size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        if(cursor == null || cursor.isEmpty()){
+            return toSummaryPage(questionRepository.findSummaryFeedByTag(tagName, limit), pageSize);
+        }
+        FeedCursor after = FeedCursor.decode(cursor);
+        return toSummaryPage(questionRepository.findSummaryFeedByTagAfter(tagName, after.getCreatedAt(), after.getId(), limit), pageSize);
+    }
+
+    /**
+     * Summaries of the questions matching a tag expression such as
+     * {@code java AND spring NOT hibernate}, evaluated over the tag bitmap index.
+     * The index is keyed by question id, so this feed is ordered and paged by id alone, newest first
+     * @throws IllegalArgumentException if the expression or the cursor is malformed
+     */
+    public CursorPageDto<QuestionSummaryDto> getQuestionSummariesByTagExpression(String expression, String cursor, Integer size){
+        int pageSize = resolvePageSize(size);
+        TagExpression parsed = TagExpression.parse(expression);
+        Map<String, Long> tagIds = new HashMap<>();
+        for(String name : parsed.tagNames()){
+            tagService.findTagId(name).ifPresent(id -> tagIds.put(name, id));
+        }
+        long beforeId = cursor == null || cursor.isEmpty() ? Long.MAX_VALUE : FeedCursor.decode(cursor).getId();
+
+        List<Long> ids = questionTagIndexService.findMatching(parsed, tagIds, beforeId, pageSize + 1);
+        if(ids.isEmpty()){
+            return new CursorPageDto<>(List.of(), null);
+        }
+        List<QuestionSummaryDto> rows = new ArrayList<>(questionRepository.findSummariesByIdIn(ids));
+        rows.sort(Comparator.comparing(QuestionSummaryDto::getQuestionId).reversed());
+        return toSummaryPage(rows, pageSize);
+    }
+
+    /**
+     * Summaries ranked by recent votes, answers and views, decayed by age. While the ranking
+     * is still loading, the newest questions are served instead.
+     * @param page Zero-based page number
+     * @param size Page size, clamped like the feeds
+     */
+    public List<QuestionSummaryDto> getHotQuestions(int page, Integer size){
+        int pageSize = resolvePageSize(size);
+        int offset = Math.max(page, 0) * pageSize;
+        Optional<List<Long>> ranked = hotQuestionService.top(offset, pageSize);
+        if(ranked.isEmpty()){
+            return questionRepository.findSummaryFeed(PageRequest.of(Math.max(page, 0), pageSize));
+        }
+        List<Long> ids = ranked.get();
+        if(ids.isEmpty()){
+            return List.of();
+        }
+        Map<Long, QuestionSummaryDto> summaries = questionRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(QuestionSummaryDto::getQuestionId, q -> q));
+        // Keep the ranking order; a question deleted since it was ranked is skipped
+        return ids.stream()
+                .map(summaries::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Counts a view of the question towards its hotness
+     */
+    public void recordView(Long questionId){
+        hotQuestionService.questionViewed(questionId);
+    }
+
+    public CursorPageDto<QuestionSummaryDto> getQuestionSummariesByStatus(String status, String cursor, Integer size){
+        int pageSize = resolvePageSize(size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        if(cursor == null || cursor.isEmpty()){
+            return toSummaryPage(questionRepository.findSummaryFeedByStatus(status, limit), pageSize);
+        }
+        FeedCursor after = FeedCursor.decode(cursor);
+        return toSummaryPage(questionRepository.findSummaryFeedByStatusAfter(status, after.getCreatedAt(), after.getId(), limit), pageSize);
+    }
+
+    private CursorPageDto<QuestionSummaryDto> toSummaryPage(List<QuestionSummaryDto> rows, int pageSize){
+        return FeedCursor.page(rows, pageSize, q -> new FeedCursor(q.getCreatedAt(), q.getQuestionId()));
+    }
+
     public Optional<QuestionDto> getQuestionById(Long id){
         return questionRepository.findById(id).map(this::convertToDto);
     }
 
+    /**
+     * Id of the question's author, without loading the question
+     */
+    public Optional<Long> findAuthorId(Long id){
+        return questionRepository.findAuthorIdsByIdIn(List.of(id)).stream()
+                .findFirst()
+                .map(TargetAuthorView::getAuthorId);
+    }
+
     public List<QuestionDto> getQuestionsByAuthor(Long authorId){
-        User author = userService.findUserEntityById(authorId);
-        if(author == null){
+        if(userService.findAuthorSummary(authorId).isEmpty()){
             return List.of();
         }
-        return questionRepository.findByAuthor(author).stream()
-                .sorted((q1,q2) -> q2.getCreatedAt().compareTo(q1.getCreatedAt()))
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return convertToDtos(questionRepository.findByAuthorOrderByCreatedAtDescIdDesc(userService.getUserReference(authorId)));
     }
 
     public List<QuestionDto> getQuestionsByTag(String tagName){
-        Optional<Tag> tag = tagService.findTagEntityByName(tagName);
-        if(tag.isEmpty()){
-            return List.of();
-        }
-        return tag.get().getQuestions().stream()
-                .sorted((q1,q2) -> q2.getCreatedAt().compareTo(q1.getCreatedAt()))
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return convertToDtos(questionRepository.findByTagName(tagName));
     }
 
     public List<QuestionDto> getQuestionsByStatus(String status) {
-        return questionRepository.findByStatus(status).stream()
-                .sorted((q1, q2) -> q2.getCreatedAt().compareTo(q1.getCreatedAt()))
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return convertToDtos(questionRepository.findByStatusOrderByCreatedAtDescIdDesc(status));
     }
 
     public List<QuestionDto> searchQuestions(String keyword) {
+        return searchQuestions(keyword, 0, null);
+    }
+
+    /**
+     * Full-text search ranked by relevance. Supports "quoted phrases" and prefix* words.
+     * While the search index is still loading, falls back to a LIKE scan ordered by date.
+     * @param page Zero-based page number
+     * @param size Page size, clamped like the feeds
+     */
+    public List<QuestionDto> searchQuestions(String keyword, int page, Integer size) {
         if (keyword == null || keyword.isEmpty()) {
             return new ArrayList<>();
         }
-        
-        // Use the improved search method
-        return questionRepository.searchByKeyword(keyword).stream()
+        int pageSize = resolvePageSize(size);
+        int offset = Math.max(page, 0) * pageSize;
+
+        Optional<InvertedIndex.Result> result = questionSearchService.search(keyword, offset, pageSize);
+        if (result.isPresent()) {
+            List<Long> ids = result.get().hits().stream().map(InvertedIndex.Hit::id).collect(Collectors.toList());
+            Map<Long, Question> questions = questionRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Question::getId, q -> q));
+            // Keep the ranking order; a hit deleted since it was indexed is skipped
+            return convertToDtos(ids.stream()
+                    .map(questions::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList()));
+        }
+
+        return convertToDtos(questionRepository.searchByKeyword(keyword).stream()
                 .sorted((q1, q2) -> q2.getCreatedAt().compareTo(q1.getCreatedAt()))
-                .map(this::convertToDto)
+                .skip(offset)
+                .limit(pageSize)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Question titles with a word starting with the prefix, weighted towards recent and well
+     * voted questions
+     * @param limit Maximum number of suggestions
+     */
+    public List<TitleSuggestionDto> autocompleteTitles(String prefix, Integer limit){
+        int count = limit == null || limit <= 0 ? DEFAULT_SUGGESTIONS : Math.min(limit, MAX_SUGGESTIONS);
+        Optional<List<RadixTrie.Suggestion>> suggestions = autocompleteService.suggestTitles(prefix, count);
+        if(suggestions.isPresent()){
+            return suggestions.get().stream()
+                    .map(suggestion -> new TitleSuggestionDto(suggestion.id(), suggestion.text()))
+                    .collect(Collectors.toList());
+        }
+        // Still building: newest titles starting with the prefix
+        return questionRepository.findTitlesByPrefix(prefix.trim(), PageRequest.of(0, count)).stream()
+                .map(question -> new TitleSuggestionDto(question.getId(), question.getTitle()))
                 .collect(Collectors.toList());
     }
 
     public QuestionDto createQuestion(Long authorId, String title, String text, String image, String tagName){
-        User author = userService.findUserEntityById(authorId);
-        if(author == null){
+        if(userService.findAuthorSummary(authorId).isEmpty()){
             return null;
         }
 
         Question question = new Question();
-        question.setAuthor(author);
+        question.setAuthor(userService.getUserReference(authorId));
         question.setTitle(title);
         question.setText(text);
         question.setImage(image);
         question.setStatus("received");
 
         if(tagName != null && !tagName.trim().isEmpty()){
-            List<String> tagNames = Arrays.asList(tagName.split(","));
-            List<Tag> tags = new ArrayList<>();
-
-            for(String name : tagNames){
-                String trimmedName = name.trim();
-                if(!trimmedName.isEmpty()){
-                    Tag tag = tagService.findOrCreateTag(trimmedName);
-                    tags.add(tag);
-                }
-            }
-            question.setTags(tags);
+            question.setTags(tagService.resolveTags(Arrays.asList(tagName.split(","))));
         }
 
         question = questionRepository.save(question);
+        questionSearchService.questionChanged(question.getId());
+        autocompleteService.questionChanged(question.getId());
+        questionTagIndexService.questionChanged(question.getId());
+        tagStatisticsService.questionChanged(question.getId());
+        autocompleteService.tagsChanged(tagIds(question.getTags()));
+        tagTrendService.questionAsked(tagIds(question.getTags()));
+        hotQuestionService.questionAsked(question.getId());
         return convertToDto(question);
     }
 
@@ -123,22 +339,20 @@ public class QuestionService {
                         question.setStatus(status);
                     }
 
+                    Set<Long> touchedTags = new HashSet<>();
                     if (tagName != null) {
-                        List<String> tagNames = Arrays.asList(tagName.split(","));
-                        List<Tag> tags = new ArrayList<>();
-
-                        for (String name : tagNames) {
-                            String trimmedName = name.trim();
-                            if (!trimmedName.isEmpty()) {
-                                Tag tag = tagService.findOrCreateTag(trimmedName);
-                                tags.add(tag);
-                            }
-                        }
-
+                        touchedTags.addAll(tagIds(question.getTags()));
+                        List<Tag> tags = tagService.resolveTags(Arrays.asList(tagName.split(",")));
                         question.setTags(tags);
+                        touchedTags.addAll(tagIds(tags));
                     }
 
                     question = questionRepository.save(question);
+                    questionSearchService.questionChanged(question.getId());
+                    autocompleteService.questionChanged(question.getId());
+                    questionTagIndexService.questionChanged(question.getId());
+                    tagStatisticsService.questionChanged(question.getId());
+                    autocompleteService.tagsChanged(touchedTags);
                     return convertToDto(question);
                 });
     }
@@ -146,34 +360,115 @@ public class QuestionService {
     public Optional<QuestionDto> acceptAnswer(Long questionId, Long answerId){
         return questionRepository.findById(questionId)
                 .map(question -> {
+                    Long previous = question.getAcceptedAnswerId();
                     question.setAcceptedAnswerId(answerId);
                     question.setStatus("solved");
-                    return convertToDto(questionRepository.save(question));
+                    // flushed first: the rank statement reads the accepted answer from the table
+                    Question saved = questionRepository.saveAndFlush(question);
+                    Set<Long> repinned = new HashSet<>();
+                    repinned.add(answerId);
+                    if(previous != null){
+                        repinned.add(previous);
+                    }
+                    answerRepository.refreshRankScores(repinned);
+                    return convertToDto(saved);
                 });
     }
 
+    /**
+     * Atomically shift the stored vote counters of a question
+     */
+    public void adjustVoteCounts(Long questionId, int upvoteDelta, int downvoteDelta){
+        if(upvoteDelta != 0 || downvoteDelta != 0){
+            questionRepository.adjustVoteCounts(questionId, upvoteDelta, downvoteDelta);
+            autocompleteService.questionChanged(questionId);
+            hotQuestionService.questionVoted(questionId, upvoteDelta - downvoteDelta);
+            if(upvoteDelta > 0 || downvoteDelta > 0){
+                tagTrendService.questionVoted(questionId);
+            }
+        }
+    }
+
+    public void adjustAnswerCount(Long questionId, int delta){
+        if(delta != 0){
+            questionRepository.adjustAnswerCount(questionId, delta);
+            tagStatisticsService.questionChanged(questionId);
+            hotQuestionService.questionAnswered(questionId, delta);
+            if(delta > 0){
+                tagTrendService.questionAnswered(questionId);
+            }
+        }
+    }
+
     public boolean deleteQuestion(Long id){
         if(questionRepository.existsById(id)){
+            List<Long> tagIds = questionRepository.findTagIdsById(id);
             questionRepository.deleteById(id);
+            questionSearchService.questionChanged(id);
+            autocompleteService.questionChanged(id);
+            questionTagIndexService.questionChanged(id);
+            tagStatisticsService.questionChanged(id);
+            autocompleteService.tagsChanged(tagIds);
+            hotQuestionService.questionDeleted(id);
             return true;
         }
         return false;
     }
 
+    private static List<Long> tagIds(List<Tag> tags){
+        return tags.stream().map(Tag::getTagId).collect(Collectors.toList());
+    }
+
+    //resolves every author with one lookup instead of one per question
+    private List<QuestionDto> convertToDtos(List<Question> questions){
+        Map<Long, AuthorSummary> authors = userService.findAuthorSummaries(questions.stream()
+                .map(question -> question.getAuthor().getId())
+                .collect(Collectors.toSet()));
+        return questions.stream()
+                .map(question -> convertToDto(question, authors.get(question.getAuthor().getId())))
+                .collect(Collectors.toList());
+    }
+
     private QuestionDto convertToDto(Question question){
+        return convertToDto(question, userService.findAuthorSummary(question.getAuthor().getId()).orElse(null));
+    }
+
+    private QuestionDto convertToDto(Question question, AuthorSummary author){
         QuestionDto questionDto = new QuestionDto();
         questionDto.setQuestionId(question.getId());
         questionDto.setAuthorId(question.getAuthor().getId());
-        questionDto.setAuthorUsername(question.getAuthor().getUsername());
+        questionDto.setAuthorUsername(author != null ? author.username() : question.getAuthor().getUsername());
         questionDto.setTitle(question.getTitle());
         questionDto.setText(question.getText());
         questionDto.setImage(question.getImage());
         questionDto.setStatus(question.getStatus());
         questionDto.setCreatedAt(question.getCreatedAt());
+        questionDto.setUpvotes(question.getUpvoteCount());
+        questionDto.setDownvotes(question.getDownvoteCount());
+        questionDto.setAnswerCount(question.getAnswerCount());
+        questionDto.setAcceptedAnswerId(question.getAcceptedAnswerId());
+        questionDto.setTags(question.getTags().stream()
+                .map(tagService::convertToDto)
+                .collect(Collectors.toList()));
 
         return questionDto;
     }
 
+    /**
+     * Author ids of the given questions, keyed by question id; missing questions are absent
+     */
+    public Map<Long, Long> findAuthorIds(Collection<Long> questionIds) {
+        if (questionIds.isEmpty()) {
+            return Map.of();
+        }
+        return questionRepository.findAuthorIdsByIdIn(questionIds).stream()
+                .collect(Collectors.toMap(TargetAuthorView::getId, TargetAuthorView::getAuthorId));
+    }
+
+    public Question getQuestionReference(Long questionId) {
+        return questionRepository.getReferenceById(questionId);
+    }
+
     public Question findQuestionEntityById(Long questionId) {
         if (questionId == null) {
             return null;
@@ -0,0 +1,227 @@
+package com.example.main.service;
+
+import com.example.main.repository.QuestionRepository;
+import com.example.main.repository.QuestionTagView;
+import com.example.main.search.RoaringBitmap;
+import com.example.main.search.TagExpression;
+import com.example.main.utils.AfterCommit;
+import com.example.main.utils.ReindexQueue;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Tag id to question id bitmaps, mirroring the {@code question_tags} join table.
+ * <p>
+ * Tag expressions are evaluated with bitmap AND, OR and AND NOT, so a popular tag costs a
+ * few word operations per 65536 questions rather than loading its questions. Question ids
+ * are stored as ints. Because they are assigned in insertion order, walking a result from
+ * the highest id down gives newest-first order without reading any dates.
+ * <p>
+ * Question writes report their id after commit, and a single thread re-reads the tags of
+ * those questions, as for the search indexes.
+ */
+@Service
+public class QuestionTagIndexService {
+    private static final Logger log = LoggerFactory.getLogger(QuestionTagIndexService.class);
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Value("${tags.bitmap.enabled:true}")
+    private boolean enabled;
+
+    @Value("${tags.bitmap.batch-size:1000}")
+    private int batchSize;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, RoaringBitmap> byTag = new HashMap<>();
+    // Every indexed question, the universe NOT is taken against
+    private final RoaringBitmap all = new RoaringBitmap();
+    // The tags each question is filed under, so a retag can clear the old bitmaps
+    private final Map<Integer, long[]> tagsOfQuestion = new HashMap<>();
+    private final ReindexQueue pending = new ReindexQueue(this::drainPending);
+    private ExecutorService indexer;
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || indexer != null) {
+            return;
+        }
+        indexer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "tag-bitmap-indexer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        indexer.execute(this::build);
+    }
+
+    /**
+     * Newest-first ids of the questions matching a tag expression. Until the index is built,
+     * the tags are read from the database for each call instead.
+     * @param tagIds Ids of the tags the expression names; a missing name matches nothing
+     * @param beforeId Only ids below this one, for the following pages
+     * @param limit Maximum number of ids to return
+     */
+    public List<Long> findMatching(TagExpression parsed, Map<String, Long> tagIds, long beforeId, int limit) {
+        int below = (int) Math.min(beforeId, Integer.MAX_VALUE);
+        if (!ready) {
+            RoaringBitmap matching = parsed.evaluate(name -> tagIds.containsKey(name)
+                            ? toBitmap(questionRepository.findIdsByTagId(tagIds.get(name)))
+                            : new RoaringBitmap(),
+                    () -> toBitmap(questionRepository.findAllIds()));
+            return toIds(matching.descendingBelow(below, limit));
+        }
+        lock.readLock().lock();
+        try {
+            // A lone tag evaluates to the stored bitmap itself, so it is only read under the lock
+            RoaringBitmap matching = parsed.evaluate(name -> {
+                RoaringBitmap bitmap = tagIds.containsKey(name) ? byTag.get(tagIds.get(name)) : null;
+                return bitmap != null ? bitmap : new RoaringBitmap();
+            }, () -> all);
+            return toIds(matching.descendingBelow(below, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tag ids of an indexed question, or empty before the index is built or when the question
+     * is not in it yet.
+     */
+    public Optional<long[]> findTagIds(Long questionId) {
+        if (!ready || questionId == null || questionId > Integer.MAX_VALUE) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            // arrays are replaced on reindex, never written to, so handing one out is safe
+            return Optional.ofNullable(tagsOfQuestion.get(questionId.intValue()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void questionChanged(Long questionId) {
+        if (enabled && questionId != null) {
+            questionsChanged(List.of(questionId));
+        }
+    }
+
+    /**
+     * Schedules questions for re-reading once the current transaction commits.
+     */
+    public void questionsChanged(Collection<Long> questionIds) {
+        if (!enabled || questionIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(questionIds);
+        AfterCommit.run(() -> pending.add(ids));
+    }
+
+    @PreDestroy
+    void stop() {
+        if (indexer != null) {
+            indexer.shutdownNow();
+        }
+    }
+
+    private void build() {
+        long started = System.currentTimeMillis();
+        try {
+            long after = 0;
+            List<Long> ids;
+            while (!(ids = questionRepository.findIdsAfter(after, PageRequest.of(0, batchSize))).isEmpty()) {
+                reindex(ids);
+                after = ids.get(ids.size() - 1);
+            }
+        } catch (RuntimeException e) {
+            log.error("Tag bitmap index failed to build; tag queries fall back to the database", e);
+            return;
+        }
+        ready = true;
+        pending.open(indexer);
+        // Commits that landed while building were queued but not scheduled
+        drainPending();
+        log.info("Tag bitmap index ready with {} questions under {} tags in {} ms", all.cardinality(), byTag.size(),
+                System.currentTimeMillis() - started);
+    }
+
+    private void drainPending() {
+        try {
+            pending.drain(batchSize, this::reindex);
+        } catch (RuntimeException e) {
+            log.error("Failed to update the tag bitmap index, will retry", e);
+        }
+    }
+
+    private void reindex(List<Long> ids) {
+        Map<Long, List<Long>> tags = new HashMap<>();
+        for (QuestionTagView row : questionRepository.findTagIdsByIdIn(ids)) {
+            List<Long> questionTags = tags.computeIfAbsent(row.getQuestionId(), id -> new ArrayList<>());
+            if (row.getTagId() != null) {
+                questionTags.add(row.getTagId());
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            for (Long id : ids) {
+                int question = Math.toIntExact(id);
+                long[] previous = tagsOfQuestion.remove(question);
+                if (previous != null) {
+                    for (long tagId : previous) {
+                        RoaringBitmap bitmap = byTag.get(tagId);
+                        bitmap.remove(question);
+                        if (bitmap.isEmpty()) {
+                            byTag.remove(tagId);
+                        }
+                    }
+                }
+                List<Long> current = tags.get(id);
+                if (current == null) {
+                    // deleted
+                    all.remove(question);
+                    continue;
+                }
+                all.add(question);
+                for (Long tagId : current) {
+                    byTag.computeIfAbsent(tagId, t -> new RoaringBitmap()).add(question);
+                }
+                tagsOfQuestion.put(question, current.stream().mapToLong(Long::longValue).toArray());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static List<Long> toIds(int[] values) {
+        List<Long> ids = new ArrayList<>(values.length);
+        for (int value : values) {
+            ids.add((long) value);
+        }
+        return ids;
+    }
+
+    private static RoaringBitmap toBitmap(List<Long> ids) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        ids.forEach(id -> bitmap.add(Math.toIntExact(id)));
+        return bitmap;
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.main.service;
+
+import com.example.main.dto.AnswerDto;
+import com.example.main.dto.QuestionDto;
+import com.example.main.dto.QuestionThreadDto;
+import com.example.main.repository.ThreadVoteView;
+import com.example.main.repository.VoteRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Loads a question page in one go: the question with its tags, its answers with their vote
+ * tallies and the caller's own votes are read at the same time, each in its own read-only
+ * transaction, so the page takes as long as the slowest part rather than the sum of them.
+ * <p>
+ * Every part has {@code questions.thread.timeout-ms} to finish, which also bounds its
+ * queries. The question is required; answers or votes that fail or run late are left out
+ * and named in the result. Parts that are no longer needed are cancelled, which interrupts
+ * their thread; a query already running in the driver may not notice, but is still bounded
+ * by the transaction timeout.
+ */
+@Service
+public class QuestionThreadService {
+    private static final Logger log = LoggerFactory.getLogger(QuestionThreadService.class);
+
+    @Autowired
+    private QuestionService questionService;
+
+    @Autowired
+    private AnswerService answerService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private VoteRepository voteRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${questions.thread.timeout-ms:2000}")
+    private long timeoutMs;
+
+    @Value("${questions.thread.threads:32}")
+    private int threads;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private TransactionTemplate readOnly;
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void start() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeoutMs + 999)));
+        if (virtualThreads) {
+            executor = Executors.newVirtualThreadPerTaskExecutor();
+        } else {
+            AtomicInteger count = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(threads, r -> {
+                Thread thread = new Thread(r, "question-thread-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @param userId The caller, whose votes are included; null for none
+     * @return Empty if there is no such question
+     * @throws CompletionException if the question could not be loaded, caused by a
+     * {@link java.util.concurrent.TimeoutException} when it ran out of time
+     */
+    public Optional<QuestionThreadDto> getThread(Long questionId, Long userId) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        Future<Optional<QuestionDto>> question = fork(() -> questionService.getQuestionById(questionId));
+        Future<List<AnswerDto>> answers = fork(() -> answerService.getAnswersByQuestion(questionId));
+        Future<List<ThreadVoteView>> votes = userId == null
+                ? CompletableFuture.completedFuture(List.of())
+                : fork(() -> voteRepository.findThreadVotes(userId, questionId));
+
+        Optional<QuestionDto> found;
+        try {
+            found = question.get(remaining(deadline), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            cancel(question, answers, votes);
+            throw new CompletionException(e.getCause());
+        } catch (TimeoutException e) {
+            cancel(question, answers, votes);
+            throw new CompletionException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel(question, answers, votes);
+            throw new CompletionException(e);
+        }
+        if (found.isEmpty()) {
+            cancel(answers, votes);
+            return Optional.empty();
+        }
+
+        List<String> incomplete = new ArrayList<>();
+        List<AnswerDto> answerList = result(answers, "answers", deadline, incomplete);
+        List<ThreadVoteView> voteList = result(votes, "votes", deadline, incomplete);
+
+        // the converters have just put every author in the summary cache
+        Set<Long> authorIds = new HashSet<>();
+        authorIds.add(found.get().getAuthorId());
+        if (answerList != null) {
+            answerList.forEach(answer -> authorIds.add(answer.getAuthorId()));
+        }
+
+        String questionVote = null;
+        Map<Long, String> answerVotes = null;
+        if (voteList != null) {
+            answerVotes = new HashMap<>();
+            for (ThreadVoteView vote : voteList) {
+                if (vote.getAnswerId() != null) {
+                    answerVotes.put(vote.getAnswerId(), vote.getVoteType());
+                } else {
+                    questionVote = vote.getVoteType();
+                }
+            }
+        }
+        return Optional.of(new QuestionThreadDto(found.get(), answerList, userService.findAuthorSummaries(authorIds),
+                questionVote, answerVotes, incomplete));
+    }
+
+    // Submitted directly rather than through CompletableFuture, whose cancel never interrupts
+    private <T> Future<T> fork(Supplier<T> part) {
+        return executor.submit(() -> readOnly.execute(status -> part.get()));
+    }
+
+    private static long remaining(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    private static void cancel(Future<?>... parts) {
+        for (Future<?> part : parts) {
+            part.cancel(true);
+        }
+    }
+
+    // The part's value, or null after cancelling it and noting it as incomplete
+    private static <T> T result(Future<T> future, String part, long deadline, List<String> incomplete) {
+        try {
+            return future.get(remaining(deadline), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Question thread left out its {}: {}", part,
+                    String.valueOf(e instanceof ExecutionException ? e.getCause() : e));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        future.cancel(true);
+        incomplete.add(part);
+        return null;
+    }
+}
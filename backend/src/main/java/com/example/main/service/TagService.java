@@ -1,19 +1,68 @@
 package com.example.main.service;
 
+import com.example.main.dto.RelatedTagDto;
 import com.example.main.dto.TagDto;
+import com.example.main.dto.TagStatsDto;
+import com.example.main.dto.TrendingTagDto;
 import com.example.main.model.Tag;
+import com.example.main.repository.QuestionRepository;
+import com.example.main.repository.TagCountView;
+import com.example.main.repository.TagNameView;
 import com.example.main.repository.TagRepository;
+import com.example.main.search.RadixTrie;
+import com.example.main.stats.SlidingTopK;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
 public class TagService {
     @Autowired
     private TagRepository tagRepository;
+    @Autowired
+    private QuestionRepository questionRepository;
+    @Autowired
+    private QuestionSearchService questionSearchService;
+    @Autowired
+    private AutocompleteService autocompleteService;
+    @Autowired
+    private QuestionTagIndexService questionTagIndexService;
+    @Autowired
+    private TagStatisticsService tagStatisticsService;
+    @Autowired
+    private TagTrendService tagTrendService;
+
+    private static final int DEFAULT_SUGGESTIONS = 10;
+    private static final int MAX_SUGGESTIONS = 50;
+    private static final int DEFAULT_POPULAR = 20;
+    private static final int DEFAULT_RELATED = 10;
+    private static final int DEFAULT_TRENDING = 10;
+
+    // Lower-cased tag name -> id, matching the case-insensitive unique index on tags.name.
+    // Only decides whether an insert can be skipped, so a miss or a stale entry costs an
+    // extra statement but never a wrong tag.
+    private final Map<String, Long> tagIds = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadTagDictionary(){
+        for(TagNameView tag : tagRepository.findAllNames()){
+            tagIds.put(key(tag.getName()), tag.getId());
+        }
+    }
 
     public List<TagDto> getAllTags(){
         return tagRepository.findAll().stream()
@@ -29,44 +78,213 @@ public class TagService {
         return tagRepository.findByName(name).map(this::convertToDto);
     }
 
+    /**
+     * Tag names starting with a prefix, most used first
+     * @param limit Maximum number of suggestions, defaulted and capped like the feeds
+     */
+    public List<TagDto> autocompleteTags(String prefix, Integer limit){
+        int count = limit == null || limit <= 0 ? DEFAULT_SUGGESTIONS : Math.min(limit, MAX_SUGGESTIONS);
+        Optional<List<RadixTrie.Suggestion>> suggestions = autocompleteService.suggestTags(prefix, count);
+        if(suggestions.isPresent()){
+            return suggestions.get().stream()
+                    .map(suggestion -> {
+                        TagDto dto = new TagDto();
+                        dto.setTagId(suggestion.id());
+                        dto.setName(suggestion.text());
+                        return dto;
+                    })
+                    .collect(Collectors.toList());
+        }
+        // Still building: alphabetical matches straight from the table
+        return tagRepository.findByNamePrefix(prefix.trim(), PageRequest.of(0, count)).stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * The most used tags with their question and unanswered counts and last activity
+     * @param limit Maximum number of tags, capped at 100
+     */
+    public List<TagStatsDto> getPopularTags(Integer limit){
+        int count = limit == null || limit <= 0 ? DEFAULT_POPULAR : Math.min(limit, TagStatisticsService.POPULAR_KEPT);
+        return tagStatisticsService.popular(count).orElseGet(() ->
+                // Still building: counts straight from the join table
+                tagRepository.findAllWithQuestionCounts().stream()
+                        .filter(tag -> tag.getQuestionCount() > 0)
+                        .sorted(Comparator.comparingLong(TagCountView::getQuestionCount).reversed()
+                                .thenComparing(TagCountView::getId))
+                        .limit(count)
+                        .map(tag -> new TagStatsDto(tag.getId(), tag.getName(), tag.getQuestionCount().intValue(), 0, null))
+                        .collect(Collectors.toList()));
+    }
+
+    /**
+     * Tags that share the most questions with the named tag, or empty if there is no such tag
+     * @param limit Maximum number of tags, capped at 50
+     */
+    public Optional<List<RelatedTagDto>> getRelatedTags(String name, Integer limit){
+        int count = limit == null || limit <= 0 ? DEFAULT_RELATED : Math.min(limit, TagStatisticsService.RELATED_KEPT);
+        return findTagId(name).map(tagId -> tagStatisticsService.related(tagId, count).orElseGet(() ->
+                tagRepository.findRelated(tagId, PageRequest.of(0, count)).stream()
+                        .map(tag -> new RelatedTagDto(tag.getId(), tag.getName(), tag.getQuestionCount().intValue()))
+                        .collect(Collectors.toList())));
+    }
+
+    /**
+     * Tags with the most questions, answers and votes over the last 1h, 24h or 7d
+     * @param limit Maximum number of tags, capped at 50
+     * @throws IllegalArgumentException for any other window
+     */
+    public List<TrendingTagDto> getTrendingTags(String window, Integer limit){
+        int count = limit == null || limit <= 0 ? DEFAULT_TRENDING : Math.min(limit, TagTrendService.TRENDING_KEPT);
+        List<SlidingTopK.Count> top = tagTrendService.trending(window, count);
+        if(top.isEmpty()){
+            return List.of();
+        }
+        // Names are read fresh so renames show at once; deleted tags drop out
+        Map<Long, String> names = tagRepository.findNamesByIdIn(top.stream().map(SlidingTopK.Count::key).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(TagNameView::getId, TagNameView::getName));
+        return top.stream()
+                .filter(tag -> names.containsKey(tag.key()))
+                .map(tag -> new TrendingTagDto(tag.key(), names.get(tag.key()), tag.count()))
+                .collect(Collectors.toList());
+    }
+
     public TagDto createTag(String name){
         Tag tag = new Tag();
         tag.setName(name);
 
         Tag savedTag = tagRepository.save(tag);
+        tagIds.put(key(savedTag.getName()), savedTag.getTagId());
+        autocompleteService.tagsChanged(List.of(savedTag.getTagId()));
         return convertToDto(savedTag);
     }
 
     public Optional<TagDto> updateTag(Long id, String name){
         return tagRepository.findById(id)
                 .map(tag -> {
+                   tagIds.remove(key(tag.getName()), id);
                    tag.setName(name);
-                   return convertToDto(tagRepository.save(tag));
+                   TagDto dto = convertToDto(tagRepository.save(tag));
+                   tagIds.put(key(name), id);
+                   questionSearchService.questionsChanged(questionRepository.findIdsByTagId(id));
+                   autocompleteService.tagsChanged(List.of(id));
+                   tagStatisticsService.tagRenamed(id);
+                   return dto;
                 });
     }
 
     public boolean deleteTag(Long id){
         if(tagRepository.existsById(id)){
+            List<Long> taggedQuestions = questionRepository.findIdsByTagId(id);
             tagRepository.deleteById(id);
+            tagIds.values().remove(id);
+            questionSearchService.questionsChanged(taggedQuestions);
+            questionTagIndexService.questionsChanged(taggedQuestions);
+            tagStatisticsService.questionsChanged(taggedQuestions);
+            autocompleteService.tagsChanged(List.of(id));
             return true;
         }
         return false;
     }
 
      public Tag findOrCreateTag(String name){
-        return tagRepository.findByName(name)
-                .orElseGet(()->{
-                    Tag newTag = new Tag();
-                    newTag.setName(name);
-                    return tagRepository.save(newTag);
-                });
+        List<Tag> tags = resolveTags(List.of(name));
+        return tags.isEmpty() ? null : tags.get(0);
      }
 
+    /**
+     * Id of the tag with this name, case-insensitively, from the dictionary when possible
+     */
+    public Optional<Long> findTagId(String name){
+        Long id = tagIds.get(key(name));
+        if(id != null){
+            return Optional.of(id);
+        }
+        Optional<Tag> tag = tagRepository.findByName(name);
+        tag.ifPresent(found -> tagIds.put(key(found.getName()), found.getTagId()));
+        return tag.map(Tag::getTagId);
+    }
+
+    /**
+     * Looks up tags by name, creating the missing ones, in the order the names were given.
+     * Blank names and repeats are dropped. Names not yet in the dictionary are inserted in
+     * one batch that skips rows that already exist, so two requests adding the same new
+     * tag both succeed. Then every tag is read back with a single IN query.
+     * @throws IllegalStateException if a tag is still missing after it was inserted, for
+     * example because it was deleted again at the same moment
+     */
+    public List<Tag> resolveTags(Collection<String> names){
+        Map<String, String> wanted = new LinkedHashMap<>();
+        for(String name : names){
+            String trimmed = name == null ? "" : name.trim();
+            if(!trimmed.isEmpty()){
+                wanted.putIfAbsent(key(trimmed), trimmed);
+            }
+        }
+        if(wanted.isEmpty()){
+            return new ArrayList<>();
+        }
+
+        List<String> unknown = wanted.entrySet().stream()
+                .filter(entry -> !tagIds.containsKey(entry.getKey()))
+                .map(Map.Entry::getValue)
+                .collect(Collectors.toList());
+        insertMissing(unknown);
+        Map<String, Tag> found = findByNames(wanted.values());
+
+        if(found.size() < wanted.size()){
+            // The dictionary named a tag that has since been deleted, or another request
+            // inserted it after this transaction's snapshot
+            List<String> missing = missing(wanted, found);
+            missing.forEach(name -> tagIds.remove(key(name)));
+            insertMissing(missing);
+            for(Tag tag : tagRepository.findCommittedByNameIn(missing)){
+                found.put(key(tag.getName()), tag);
+                tagIds.put(key(tag.getName()), tag.getTagId());
+            }
+            if(found.size() < wanted.size()){
+                throw new IllegalStateException("Tags could not be created: " + missing(wanted, found));
+            }
+        }
+
+        return wanted.keySet().stream()
+                .map(found::get)
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> missing(Map<String, String> wanted, Map<String, Tag> found){
+        return wanted.entrySet().stream()
+                .filter(entry -> !found.containsKey(entry.getKey()))
+                .map(Map.Entry::getValue)
+                .collect(Collectors.toList());
+    }
+
+    private void insertMissing(List<String> names){
+        if(!names.isEmpty()){
+            tagRepository.insertIgnoringDuplicates(names);
+        }
+    }
+
+    private Map<String, Tag> findByNames(Collection<String> names){
+        Map<String, Tag> found = new HashMap<>();
+        for(Tag tag : tagRepository.findByNameIn(names)){
+            found.put(key(tag.getName()), tag);
+            tagIds.put(key(tag.getName()), tag.getTagId());
+        }
+        return found;
+    }
+
+    private static String key(String name){
+        return name.toLowerCase(Locale.ROOT);
+    }
+
      public Optional<Tag> findTagEntityByName(String name){
         return tagRepository.findByName(name);
      }
 
-    private TagDto convertToDto(Tag tag) {
+    TagDto convertToDto(Tag tag) {
         TagDto dto = new TagDto();
         dto.setTagId(tag.getTagId());
         dto.setName(tag.getName());
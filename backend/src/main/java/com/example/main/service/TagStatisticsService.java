@@ -0,0 +1,337 @@
+package com.example.main.service;
+
+import com.example.main.dto.RelatedTagDto;
+import com.example.main.dto.TagStatsDto;
+import com.example.main.repository.QuestionActivityView;
+import com.example.main.repository.QuestionRepository;
+import com.example.main.repository.QuestionTagView;
+import com.example.main.repository.TagNameView;
+import com.example.main.repository.TagRepository;
+import com.example.main.utils.AfterCommit;
+import com.example.main.utils.ReindexQueue;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-tag question counts, unanswered counts and last activity, plus a sparse matrix of
+ * how many questions each pair of tags shares.
+ * <p>
+ * The figures are kept per question as well, so a changed question first has its old
+ * contribution taken off and then its new one added. Writes report question ids after
+ * commit and a single thread applies them. Reads come from immutable lists republished
+ * after every batch: one for the most used tags, one per tag for its related tags.
+ * <p>
+ * The same thread rebuilds everything from the database on a fixed delay. That catches
+ * writes that bypass the services. It also lowers a tag's last activity after its newest
+ * question is deleted, which the incremental path never does.
+ */
+@Service
+public class TagStatisticsService {
+    private static final Logger log = LoggerFactory.getLogger(TagStatisticsService.class);
+
+    // How many entries the published lists keep; the endpoints cap their limits to these
+    static final int POPULAR_KEPT = 100;
+    static final int RELATED_KEPT = 50;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Value("${tags.stats.enabled:true}")
+    private boolean enabled;
+
+    @Value("${tags.stats.rebuild-interval-ms:3600000}")
+    private long rebuildIntervalMs;
+
+    @Value("${tags.stats.batch-size:1000}")
+    private int batchSize;
+
+    private final ReindexQueue pendingQuestions = new ReindexQueue(this::drainPending);
+    private final ReindexQueue pendingTags = new ReindexQueue(this::drainPending);
+    private final Map<Long, List<RelatedTagDto>> related = new ConcurrentHashMap<>();
+    private volatile List<TagStatsDto> popular = List.of();
+    private volatile boolean ready;
+
+    // Only touched on the indexer thread
+    private ScheduledExecutorService indexer;
+    private Statistics statistics = new Statistics();
+
+    private static final class TagCounts {
+        int questions;
+        int unanswered;
+        LocalDateTime lastActivity;
+    }
+
+    private record QuestionState(long[] tags, boolean answered, LocalDateTime lastActivity) {
+    }
+
+    private static final class Statistics {
+        final Map<Long, TagCounts> tags = new HashMap<>();
+        final Map<Long, Map<Long, Integer>> shared = new HashMap<>();
+        final Map<Long, QuestionState> questions = new HashMap<>();
+        final Map<Long, String> names = new HashMap<>();
+
+        // Replaces what a question contributes; null removes it. Returns the tags affected.
+        Set<Long> apply(Long questionId, QuestionState next) {
+            QuestionState previous = next == null ? questions.remove(questionId) : questions.put(questionId, next);
+            Set<Long> touched = new HashSet<>();
+            if (previous != null) {
+                add(previous, -1);
+                for (long tag : previous.tags()) {
+                    touched.add(tag);
+                }
+            }
+            if (next != null) {
+                add(next, 1);
+                for (long tag : next.tags()) {
+                    touched.add(tag);
+                }
+            }
+            return touched;
+        }
+
+        private void add(QuestionState question, int sign) {
+            for (long tag : question.tags()) {
+                TagCounts counts = tags.computeIfAbsent(tag, t -> new TagCounts());
+                counts.questions += sign;
+                if (!question.answered()) {
+                    counts.unanswered += sign;
+                }
+                if (sign > 0 && (counts.lastActivity == null || question.lastActivity().isAfter(counts.lastActivity))) {
+                    counts.lastActivity = question.lastActivity();
+                }
+                if (counts.questions <= 0) {
+                    tags.remove(tag);
+                }
+                for (long other : question.tags()) {
+                    if (other != tag) {
+                        Map<Long, Integer> row = shared.computeIfAbsent(tag, t -> new HashMap<>());
+                        if (row.merge(other, sign, Integer::sum) <= 0) {
+                            row.remove(other);
+                            if (row.isEmpty()) {
+                                shared.remove(tag);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || indexer != null) {
+            return;
+        }
+        indexer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "tag-statistics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        indexer.execute(this::rebuild);
+        indexer.scheduleWithFixedDelay(this::rebuild, rebuildIntervalMs, rebuildIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * The most used tags, or empty until the first build finishes.
+     */
+    public Optional<List<TagStatsDto>> popular(int limit) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        List<TagStatsDto> current = popular;
+        return Optional.of(current.subList(0, Math.min(limit, current.size())));
+    }
+
+    /**
+     * Tags sharing the most questions with a tag, or empty until the first build finishes.
+     */
+    public Optional<List<RelatedTagDto>> related(Long tagId, int limit) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        List<RelatedTagDto> current = related.getOrDefault(tagId, List.of());
+        return Optional.of(current.subList(0, Math.min(limit, current.size())));
+    }
+
+    public void questionChanged(Long questionId) {
+        if (enabled && questionId != null) {
+            questionsChanged(List.of(questionId));
+        }
+    }
+
+    /**
+     * Schedules questions for re-reading once the current transaction commits: new, retagged,
+     * answered or deleted questions.
+     */
+    public void questionsChanged(Collection<Long> questionIds) {
+        if (enabled && !questionIds.isEmpty()) {
+            List<Long> ids = List.copyOf(questionIds);
+            AfterCommit.run(() -> pendingQuestions.add(ids));
+        }
+    }
+
+    public void tagRenamed(Long tagId) {
+        if (enabled && tagId != null) {
+            AfterCommit.run(() -> pendingTags.add(tagId));
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (indexer != null) {
+            indexer.shutdownNow();
+        }
+    }
+
+    private void rebuild() {
+        long started = System.currentTimeMillis();
+        Statistics fresh = new Statistics();
+        try {
+            for (TagNameView tag : tagRepository.findAllNames()) {
+                fresh.names.put(tag.getId(), tag.getName());
+            }
+            long after = 0;
+            List<Long> ids;
+            while (!(ids = questionRepository.findIdsAfter(after, PageRequest.of(0, batchSize))).isEmpty()) {
+                load(ids).forEach(fresh::apply);
+                after = ids.get(ids.size() - 1);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to rebuild tag statistics", e);
+            return;
+        }
+
+        int drifted = ready ? countDrift(statistics, fresh) : 0;
+        statistics = fresh;
+        ready = true;
+        pendingQuestions.open(indexer);
+        pendingTags.open(indexer);
+        // Changes committed while rebuilding were queued; re-reading them again is harmless
+        drainPending();
+        publishPopular();
+        statistics.shared.keySet().forEach(this::publishRelated);
+        related.keySet().retainAll(statistics.shared.keySet());
+        log.info("Tag statistics rebuilt for {} tags in {} ms{}", statistics.tags.size(),
+                System.currentTimeMillis() - started, drifted > 0 ? " (" + drifted + " tags had drifted)" : "");
+    }
+
+    private void drainPending() {
+        List<Long> questionIds = pendingQuestions.take();
+        List<Long> tagIds = pendingTags.take();
+        if (questionIds.isEmpty() && tagIds.isEmpty()) {
+            return;
+        }
+        Set<Long> touched = new HashSet<>(tagIds);
+        try {
+            for (int from = 0; from < questionIds.size(); from += batchSize) {
+                List<Long> batch = questionIds.subList(from, Math.min(from + batchSize, questionIds.size()));
+                Map<Long, QuestionState> loaded = load(batch);
+                for (Long id : batch) {
+                    touched.addAll(statistics.apply(id, loaded.get(id)));
+                }
+            }
+            List<Long> unnamed = new ArrayList<>(tagIds);
+            touched.stream().filter(tag -> !statistics.names.containsKey(tag)).forEach(unnamed::add);
+            if (!unnamed.isEmpty()) {
+                for (TagNameView tag : tagRepository.findNamesByIdIn(unnamed)) {
+                    statistics.names.put(tag.getId(), tag.getName());
+                }
+            }
+        } catch (RuntimeException e) {
+            pendingQuestions.putBack(questionIds);
+            pendingTags.putBack(tagIds);
+            log.error("Failed to update tag statistics, will retry", e);
+            return;
+        }
+        publishPopular();
+        // A tag's related list only changes when one of its own questions changed
+        Set<Long> republish = new HashSet<>(touched);
+        for (Long tag : touched) {
+            republish.addAll(statistics.shared.getOrDefault(tag, Map.of()).keySet());
+        }
+        republish.forEach(this::publishRelated);
+    }
+
+    private Map<Long, QuestionState> load(List<Long> ids) {
+        Map<Long, List<Long>> tags = new HashMap<>();
+        for (QuestionTagView row : questionRepository.findTagIdsByIdIn(ids)) {
+            List<Long> questionTags = tags.computeIfAbsent(row.getQuestionId(), id -> new ArrayList<>());
+            if (row.getTagId() != null) {
+                questionTags.add(row.getTagId());
+            }
+        }
+        Map<Long, QuestionState> states = new HashMap<>();
+        for (QuestionActivityView question : questionRepository.findActivityByIdIn(ids)) {
+            LocalDateTime lastActivity = question.getLastAnswerAt() != null && question.getLastAnswerAt().isAfter(question.getCreatedAt())
+                    ? question.getLastAnswerAt() : question.getCreatedAt();
+            long[] questionTags = tags.getOrDefault(question.getId(), List.of()).stream().mapToLong(Long::longValue).toArray();
+            boolean answered = question.getAnswerCount() != null && question.getAnswerCount() > 0;
+            states.put(question.getId(), new QuestionState(questionTags, answered, lastActivity));
+        }
+        return states;
+    }
+
+    private void publishPopular() {
+        popular = statistics.tags.entrySet().stream()
+                .sorted(Comparator.comparingInt((Map.Entry<Long, TagCounts> entry) -> entry.getValue().questions).reversed()
+                        .thenComparing(Map.Entry::getKey))
+                .limit(POPULAR_KEPT)
+                .map(entry -> new TagStatsDto(entry.getKey(), statistics.names.get(entry.getKey()),
+                        entry.getValue().questions, entry.getValue().unanswered, entry.getValue().lastActivity))
+                .toList();
+    }
+
+    private void publishRelated(Long tagId) {
+        Map<Long, Integer> row = statistics.shared.get(tagId);
+        if (row == null) {
+            related.remove(tagId);
+            return;
+        }
+        related.put(tagId, row.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed().thenComparing(Map.Entry::getKey))
+                .limit(RELATED_KEPT)
+                .map(entry -> new RelatedTagDto(entry.getKey(), statistics.names.get(entry.getKey()), entry.getValue()))
+                .toList());
+    }
+
+    private static int countDrift(Statistics current, Statistics fresh) {
+        Set<Long> tags = new HashSet<>(current.tags.keySet());
+        tags.addAll(fresh.tags.keySet());
+        int drifted = 0;
+        for (Long tag : tags) {
+            TagCounts before = current.tags.get(tag);
+            TagCounts after = fresh.tags.get(tag);
+            if (before == null || after == null || before.questions != after.questions
+                    || before.unanswered != after.unanswered || !Objects.equals(before.lastActivity, after.lastActivity)) {
+                drifted++;
+            }
+        }
+        return drifted;
+    }
+}
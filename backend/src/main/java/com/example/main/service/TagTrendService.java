@@ -0,0 +1,233 @@
+package com.example.main.service;
+
+import com.example.main.repository.AnswerRepository;
+import com.example.main.repository.QuestionRepository;
+import com.example.main.repository.TagEventView;
+import com.example.main.repository.VoteRepository;
+import com.example.main.stats.SlidingTopK;
+import com.example.main.utils.AfterCommit;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * Tags with the most activity over the last hour, day or week.
+ * <p>
+ * Every new question, answer and vote adds a weight to each tag of the question it concerns.
+ * The weights go into one {@link SlidingTopK} per window, so memory depends on the sketch
+ * size and the window length, not on how many tags exist. Writes report after commit, and a
+ * single thread looks up the tags and records the activity. If that thread falls behind by
+ * more than the queue size, further events are dropped; the ranking is approximate anyway.
+ * <p>
+ * On startup the same thread replays the last week of questions, answers and votes from
+ * the database, so a restart does not empty the windows.
+ */
+@Service
+public class TagTrendService {
+    private static final Logger log = LoggerFactory.getLogger(TagTrendService.class);
+
+    // Most tags a window returns; twice as many candidates are tracked to steady the tail
+    static final int TRENDING_KEPT = 50;
+
+    // A new question says more about a tag than a single vote
+    private static final int ASKED = 3;
+    private static final int ANSWERED = 2;
+    private static final int VOTED = 1;
+
+    enum Window {
+        HOUR("1h", TimeUnit.MINUTES.toMillis(5), 12),
+        DAY("24h", TimeUnit.HOURS.toMillis(1), 24),
+        WEEK("7d", TimeUnit.HOURS.toMillis(6), 28);
+
+        final String label;
+        final long bucketMillis;
+        final int buckets;
+
+        Window(String label, long bucketMillis, int buckets) {
+            this.label = label;
+            this.bucketMillis = bucketMillis;
+            this.buckets = buckets;
+        }
+
+        /**
+         * @throws IllegalArgumentException if the label is not 1h, 24h or 7d
+         */
+        static Window parse(String label) {
+            for (Window window : values()) {
+                if (window.label.equalsIgnoreCase(label)) {
+                    return window;
+                }
+            }
+            throw new IllegalArgumentException("Unknown trending window: " + label);
+        }
+    }
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private AnswerRepository answerRepository;
+
+    @Autowired
+    private VoteRepository voteRepository;
+
+    @Autowired
+    private QuestionTagIndexService questionTagIndexService;
+
+    @Value("${tags.trending.enabled:true}")
+    private boolean enabled;
+
+    @Value("${tags.trending.sketch-width:2048}")
+    private int sketchWidth;
+
+    @Value("${tags.trending.sketch-depth:4}")
+    private int sketchDepth;
+
+    @Value("${tags.trending.queue-size:10000}")
+    private int queueSize;
+
+    private volatile Map<Window, SlidingTopK> windows;
+    private ThreadPoolExecutor recorder;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || recorder != null) {
+            return;
+        }
+        Map<Window, SlidingTopK> created = new EnumMap<>(Window.class);
+        for (Window window : Window.values()) {
+            created.put(window, new SlidingTopK(window.bucketMillis, window.buckets, sketchWidth, sketchDepth,
+                    2 * TRENDING_KEPT));
+        }
+        windows = created;
+        recorder = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize), r -> {
+            Thread thread = new Thread(r, "tag-trends");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+        recorder.execute(this::replay);
+    }
+
+    /**
+     * Tag ids with their activity over a window, busiest first; empty when disabled.
+     * @param window 1h, 24h or 7d
+     * @throws IllegalArgumentException for any other window
+     */
+    public List<SlidingTopK.Count> trending(String window, int limit) {
+        Window parsed = Window.parse(window);
+        Map<Window, SlidingTopK> current = windows;
+        if (current == null) {
+            return List.of();
+        }
+        return current.get(parsed).top(Math.min(limit, TRENDING_KEPT), System.currentTimeMillis());
+    }
+
+    public void questionAsked(Collection<Long> tagIds) {
+        if (enabled && !tagIds.isEmpty()) {
+            long[] tags = tagIds.stream().mapToLong(Long::longValue).toArray();
+            afterCommit(now -> record(tags, ASKED, now));
+        }
+    }
+
+    public void questionAnswered(Long questionId) {
+        if (enabled && questionId != null) {
+            afterCommit(now -> record(tagsOf(questionId), ANSWERED, now));
+        }
+    }
+
+    public void questionVoted(Long questionId) {
+        if (enabled && questionId != null) {
+            afterCommit(now -> record(tagsOf(questionId), VOTED, now));
+        }
+    }
+
+    public void answerVoted(Long answerId) {
+        if (enabled && answerId != null) {
+            afterCommit(now -> answerRepository.findQuestionIdById(answerId)
+                    .ifPresent(questionId -> record(tagsOf(questionId), VOTED, now)));
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (recorder != null) {
+            recorder.shutdownNow();
+        }
+    }
+
+    // Stamps the event when the transaction commits and hands it to the recorder thread
+    private void afterCommit(LongConsumer event) {
+        Runnable submit = () -> {
+            long now = System.currentTimeMillis();
+            ThreadPoolExecutor current = recorder;
+            if (current == null) {
+                return;
+            }
+            current.execute(() -> {
+                try {
+                    event.accept(now);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to record tag activity", e);
+                }
+            });
+        };
+        AfterCommit.run(submit);
+    }
+
+    private long[] tagsOf(Long questionId) {
+        return questionTagIndexService.findTagIds(questionId).orElseGet(() ->
+                questionRepository.findTagIdsById(questionId).stream().mapToLong(Long::longValue).toArray());
+    }
+
+    private void record(long[] tags, int weight, long timeMillis) {
+        for (SlidingTopK window : windows.values()) {
+            for (long tag : tags) {
+                window.add(tag, weight, timeMillis);
+            }
+        }
+    }
+
+    private void replay() {
+        long started = System.currentTimeMillis();
+        LocalDateTime since = LocalDateTime.now().minusDays(7);
+        int events = 0;
+        try {
+            events += replay(questionRepository.findTagEventsSince(since), ASKED);
+            events += replay(answerRepository.findTagEventsSince(since), ANSWERED);
+            events += replay(voteRepository.findQuestionVoteTagEventsSince(since), VOTED);
+            events += replay(voteRepository.findAnswerVoteTagEventsSince(since), VOTED);
+        } catch (RuntimeException e) {
+            log.error("Failed to replay recent tag activity; trends only cover activity since startup", e);
+            return;
+        }
+        log.info("Tag trends replayed {} tag events from the last week in {} ms", events,
+                System.currentTimeMillis() - started);
+    }
+
+    private int replay(List<TagEventView> events, int weight) {
+        ZoneId zone = ZoneId.systemDefault();
+        for (TagEventView event : events) {
+            long time = event.getCreatedAt().atZone(zone).toInstant().toEpochMilli();
+            for (SlidingTopK window : windows.values()) {
+                window.add(event.getTagId(), weight, time);
+            }
+        }
+        return events.size();
+    }
+}
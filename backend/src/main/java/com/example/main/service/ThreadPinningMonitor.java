@@ -0,0 +1,121 @@
+package com.example.main.service;
+
+import com.example.main.stats.LatencyHistogram;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Watches for virtual threads that block while pinned to their carrier thread, typically
+ * inside a {@code synchronized} block or a native frame, using the JDK's
+ * {@code jdk.VirtualThreadPinned} flight recorder event. Each pinning site, the first
+ * frame outside the JDK, is logged with its stack the first time it is seen and counted
+ * after that.
+ * <p>
+ * On by default when {@code spring.threads.virtual.enabled} is set, since nothing else
+ * pins a virtual thread.
+ */
+@Service
+public class ThreadPinningMonitor {
+    private static final Logger log = LoggerFactory.getLogger(ThreadPinningMonitor.class);
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+
+    @Value("${threads.pinning.enabled:${spring.threads.virtual.enabled:false}}")
+    private boolean enabled;
+
+    @Value("${threads.pinning.threshold-ms:20}")
+    private long thresholdMs;
+
+    private final LatencyHistogram pinnedTimes = new LatencyHistogram();
+    private final Map<String, LongAdder> sites = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled || stream != null) {
+            return;
+        }
+        try {
+            stream = new RecordingStream();
+            stream.enable(EVENT).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+            stream.onEvent(EVENT, this::pinned);
+            stream.startAsync();
+        } catch (RuntimeException e) {
+            // e.g. a JVM started with the flight recorder disabled
+            log.warn("Virtual thread pinning monitor not started: {}", e.getMessage());
+            stream = null;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    /**
+     * How long virtual threads stayed pinned, for pinnings past the threshold
+     */
+    public LatencyHistogram.Snapshot getPinnedTimes() {
+        return pinnedTimes.snapshot();
+    }
+
+    /**
+     * Pinning counts by site, most frequent first
+     */
+    public Map<String, Long> getSites(int limit) {
+        return sites.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().sum()))
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(limit)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    private void pinned(RecordedEvent event) {
+        pinnedTimes.record(event.getDuration().toNanos());
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace == null ? List.of() : stackTrace.getFrames();
+        String site = site(frames);
+        LongAdder count = sites.computeIfAbsent(site, key -> new LongAdder());
+        count.increment();
+        if (count.sum() == 1) {
+            log.warn("Virtual thread pinned for {} ms at {}:\n{}", event.getDuration().toMillis(), site,
+                    frames.stream().map(ThreadPinningMonitor::frame).collect(Collectors.joining("\n\tat ", "\tat ", "")));
+        }
+    }
+
+    // The first frame outside the JDK, which is where the lock or native call was entered
+    private static String site(List<RecordedFrame> frames) {
+        return frames.stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .map(ThreadPinningMonitor::frame)
+                .filter(frame -> !frame.startsWith("java.") && !frame.startsWith("jdk.") && !frame.startsWith("sun."))
+                .findFirst()
+                .orElse(frames.isEmpty() ? "unknown" : frame(frames.get(0)));
+    }
+
+    private static String frame(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
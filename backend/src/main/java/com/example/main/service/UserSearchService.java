@@ -0,0 +1,148 @@
+package com.example.main.service;
+
+import com.example.main.repository.UserRepository;
+import com.example.main.repository.UserSearchView;
+import com.example.main.search.TrigramIndex;
+import com.example.main.utils.AfterCommit;
+import com.example.main.utils.ReindexQueue;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps the {@link TrigramIndex} of user profiles in step with the users table.
+ * <p>
+ * The index is built from the database once the application is ready. Profile writes
+ * report the user they touched after commit, and a single thread re-reads those users.
+ * Score changes from votes go the same way: the committed score is read back rather than
+ * a delta applied, so a rolled-back vote leaves the index alone and a vote that lands
+ * while the index is building is not counted twice. Until the first build finishes,
+ * searches fall back to the LIKE query.
+ */
+@Service
+public class UserSearchService {
+    private static final Logger log = LoggerFactory.getLogger(UserSearchService.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${search.users.enabled:true}")
+    private boolean enabled;
+
+    @Value("${search.users.batch-size:1000}")
+    private int batchSize;
+
+    private final TrigramIndex index = new TrigramIndex();
+    private final ReindexQueue pending = new ReindexQueue(this::drainPending);
+    private ExecutorService indexer;
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || indexer != null) {
+            return;
+        }
+        indexer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "user-search-indexer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        indexer.execute(this::build);
+    }
+
+    /**
+     * Ranked user ids for a keyword, or empty while the index is still building.
+     */
+    public Optional<TrigramIndex.Result> search(String keyword, int offset, int limit) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        return Optional.of(index.search(keyword, offset, limit));
+    }
+
+    /**
+     * Schedules a user for re-indexing once the current transaction commits; a deleted
+     * user is dropped from the index the same way.
+     */
+    public void userChanged(Long userId) {
+        if (!enabled || userId == null) {
+            return;
+        }
+        AfterCommit.run(() -> pending.add(userId));
+    }
+
+    /**
+     * Re-reads a user's score once the current transaction commits.
+     */
+    public void scoreChanged(Long userId) {
+        userChanged(userId);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (indexer != null) {
+            indexer.shutdownNow();
+        }
+    }
+
+    private void build() {
+        long started = System.currentTimeMillis();
+        try {
+            long after = 0;
+            List<UserSearchView> users;
+            while (!(users = userRepository.findSearchViewsAfter(after, PageRequest.of(0, batchSize))).isEmpty()) {
+                for (UserSearchView user : users) {
+                    put(user);
+                    after = user.getId();
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("User search index failed to build; searches fall back to the database", e);
+            return;
+        }
+        ready = true;
+        pending.open(indexer);
+        // Profile changes committed during the build were queued but not scheduled
+        drainPending();
+        log.info("User search index ready with {} users in {} ms", index.size(), System.currentTimeMillis() - started);
+    }
+
+    private void drainPending() {
+        try {
+            pending.drain(batchSize, this::reindex);
+        } catch (RuntimeException e) {
+            log.error("Failed to update the user search index, will retry", e);
+        }
+    }
+
+    private void reindex(List<Long> ids) {
+        Set<Long> found = new HashSet<>();
+        for (UserSearchView user : userRepository.findSearchViewsByIdIn(ids)) {
+            put(user);
+            found.add(user.getId());
+        }
+        for (Long id : ids) {
+            if (!found.contains(id)) {
+                index.remove(id);
+            }
+        }
+    }
+
+    private void put(UserSearchView user) {
+        index.put(user.getId(), user.getUsername(), user.getEmail(), user.getLocation(), user.getBio(),
+                user.getScore() != null ? user.getScore() : 0f);
+    }
+}
@@ -3,14 +3,20 @@ package com.example.main.service;
 import com.example.main.dto.UserDto;
 import com.example.main.model.User;
 import com.example.main.repository.UserRepository;
+import com.example.main.search.TrigramIndex;
+import com.example.main.security.AccessPolicy;
+import com.example.main.security.TokenRevocationList;
 import com.example.main.utils.PasswordHashingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,6 +27,19 @@ public class UserService {
     private PasswordHashingService passwordHashingService;
     @Autowired
     private NotificationService notificationService;
+    @Autowired
+    private UserSearchService userSearchService;
+    @Autowired
+    private LeaderboardService leaderboardService;
+    @Autowired
+    private AuthorSummaryService authorSummaryService;
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+    @Autowired
+    private AccessPolicy accessPolicy;
+
+    private static final int DEFAULT_SEARCH_LIMIT = 20;
+    private static final int MAX_SEARCH_LIMIT = 100;
 
     public List<UserDto> getAllUsers(){
         return userRepository.findAll().stream()
@@ -34,14 +53,38 @@ public class UserService {
      * @return List of matching users
      */
     public List<UserDto> searchUsers(String keyword) {
+        return searchUsers(keyword, DEFAULT_SEARCH_LIMIT, 0);
+    }
+
+    /**
+     * Search for users by keyword, best matches first: username before email, location and bio,
+     * then by score. Served from the in-memory trigram index once it is built.
+     * @param limit Maximum number of users to return
+     * @param offset Number of ranked matches to skip
+     */
+    public List<UserDto> searchUsers(String keyword, int limit, int offset) {
         if (keyword == null || keyword.isEmpty()) {
             return new ArrayList<>();
         }
-        
-        // Use the repository method instead of manual filtering
-        List<User> users = userRepository.searchUsers(keyword);
-        
-        return users.stream()
+        int cappedLimit = Math.max(0, Math.min(limit, MAX_SEARCH_LIMIT));
+        int safeOffset = Math.max(offset, 0);
+
+        Optional<TrigramIndex.Result> result = userSearchService.search(keyword, safeOffset, cappedLimit);
+        if (result.isPresent()) {
+            List<Long> ids = result.get().hits().stream().map(TrigramIndex.Hit::userId).collect(Collectors.toList());
+            Map<Long, User> users = userRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(User::getId, user -> user));
+            return ids.stream()
+                    .map(users::get)
+                    .filter(Objects::nonNull)
+                    .map(this::convertToDto)
+                    .collect(Collectors.toList());
+        }
+
+        // Index still building: fall back to the repository scan
+        return userRepository.searchUsers(keyword).stream()
+                .skip(safeOffset)
+                .limit(cappedLimit)
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
@@ -72,6 +115,8 @@ public class UserService {
         user.setReputation(0);
 
         this.userRepository.save(user);
+        userSearchService.userChanged(user.getId());
+        leaderboardService.scoreChanged(user.getId());
         return convertToDto(user);
     }
 
@@ -87,7 +132,10 @@ public class UserService {
                     if (phoneNumber != null) {
                         user.setPhoneNumber(phoneNumber);
                     }
-                    return convertToDto(userRepository.save(user));
+                    User saved = userRepository.save(user);
+                    userSearchService.userChanged(id);
+                    authorSummaryService.invalidate(id);
+                    return convertToDto(saved);
                 });
     }
 
@@ -145,7 +193,10 @@ public class UserService {
                         banUser(id, isBanned, reason, moderatorId);
                     }
 
-                    return convertToDto(userRepository.save(user));
+                    User saved = userRepository.save(user);
+                    userSearchService.userChanged(id);
+                    authorSummaryService.invalidate(id);
+                    return convertToDto(saved);
                 });
     }
 
@@ -173,13 +224,13 @@ public class UserService {
         String newHashedPassword = passwordHashingService.hashPassword(newPassword);
         user.setPasswordHash(newHashedPassword);
         userRepository.save(user);
+        tokenRevocationList.revoke(id, TokenRevocationList.Reason.SESSIONS_ENDED);
         
         return true;
     }
 
     public Optional<UserDto> banUser(Long id, boolean banned, String reason, Long moderatorId){
-        Optional<User> moderatorOpt = userRepository.findById(moderatorId);
-        if(moderatorOpt.isEmpty() || !moderatorOpt.get().isModerator()){
+        if(!accessPolicy.isModerator(moderatorId)){
             return Optional.empty(); //you have to be a moderator to ban users
         }
 
@@ -201,30 +252,55 @@ public class UserService {
                         user.setBanReason(null);
                     }
 
-                    return convertToDto(userRepository.save(user));
+                    User saved = userRepository.save(user);
+                    authorSummaryService.invalidate(id);
+                    tokenRevocationList.revoke(id, TokenRevocationList.Reason.FLAGS_CHANGED);
+                    return convertToDto(saved);
                 });
     }
 
     public Optional<UserDto> setModerator(Long id, boolean isModerator, Long moderatorId){
-        boolean hasModerators = userRepository.findAll().stream().anyMatch(User::isModerator);
-        if(hasModerators) {
-            Optional<User> adminOpt = userRepository.findById(moderatorId);
-            if (adminOpt.isEmpty() || !adminOpt.get().isModerator()) {
-                return Optional.empty(); //you have to be a moderator to make other users moderators
-            }
+        // the first moderator can be appointed by anyone
+        if(!accessPolicy.isModerator(moderatorId) && userRepository.existsByIsModeratorTrue()) {
+            return Optional.empty(); //you have to be a moderator to make other users moderators
         }
         return userRepository.findById(id)
                 .map(user -> {
                     user.setModerator(isModerator);
-                    return convertToDto(userRepository.save(user));
+                    User saved = userRepository.save(user);
+                    authorSummaryService.invalidate(id);
+                    tokenRevocationList.revoke(id, TokenRevocationList.Reason.FLAGS_CHANGED);
+                    return convertToDto(saved);
                 });
     }
 
+    /**
+     * Atomically add to a user's score without loading the user
+     * @param id The user ID
+     * @param scoreChange The amount to add (positive or negative)
+     * @return true if the user exists
+     */
+    public boolean adjustScore(Long id, float scoreChange){
+        if(scoreChange == 0){
+            return true;
+        }
+        boolean updated = userRepository.incrementScore(id, scoreChange) == 1;
+        if(updated){
+            userSearchService.scoreChanged(id);
+            leaderboardService.scoreChanged(id);
+        }
+        return updated;
+    }
+
     public Optional<UserDto> updateScore(Long id, float scoreChange){
         return userRepository.findById(id)
                 .map(user -> {
+                    userRepository.incrementScore(id, scoreChange);
+                    userSearchService.scoreChanged(id);
+                    leaderboardService.scoreChanged(id);
+                    // mirror the increment for the response; the column itself is never written from the entity
                     user.setScore(user.getScore() + scoreChange);
-                    return convertToDto(userRepository.save(user));
+                    return convertToDto(user);
                 });
     }
 
@@ -237,24 +313,54 @@ public class UserService {
     public Optional<UserDto> updateReputation(Long id, int reputationChange) {
         return userRepository.findById(id)
                 .map(user -> {
+                    userRepository.incrementReputation(id, reputationChange);
                     Integer currentRep = user.getReputation() != null ? user.getReputation() : 0;
                     user.setReputation(currentRep + reputationChange);
-                    return convertToDto(userRepository.save(user));
+                    return convertToDto(user);
                 });
     }
 
     public boolean deleteUser(Long id, Long moderatorId){
-        Optional<User> moderatorOpt = this.userRepository.findById(moderatorId);
-        if(moderatorOpt.isEmpty() || !moderatorOpt.get().isModerator()){
+        if(!accessPolicy.isModerator(moderatorId)){
             return false; //you have to be a moderator to delete users
         }
         if(userRepository.existsById(id)){
             userRepository.deleteById(id);
+            userSearchService.userChanged(id);
+            leaderboardService.scoreChanged(id);
+            authorSummaryService.invalidate(id);
+            tokenRevocationList.revoke(id, TokenRevocationList.Reason.SESSIONS_ENDED);
             return true;
         }
         return false;
     }
 
+    /**
+     * Checks a login with a single user lookup. The password is verified on the hashing pool
+     * without holding the calling thread, and a hash made with an outdated cost is replaced
+     * once the password is known to match.
+     * @throws java.util.concurrent.RejectedExecutionException when the hashing pool is saturated
+     */
+    public CompletableFuture<LoginResult> login(String username, String password){
+        Optional<User> found = userRepository.findByUsername(username);
+        // unknown users get the same answer as banned ones, as they always have
+        if(found.isEmpty() || found.get().isBanned()){
+            return CompletableFuture.completedFuture(LoginResult.banned(found.map(User::getBanReason).orElse(null)));
+        }
+        User user = found.get();
+        return passwordHashingService.verifyPasswordAsync(password, user.getPasswordHash())
+                .thenApply(verification -> {
+                    if(!verification.matches()){
+                        return LoginResult.invalid();
+                    }
+                    if(verification.upgradedHash() != null){
+                        user.setPasswordHash(verification.upgradedHash());
+                        userRepository.save(user);
+                    }
+                    return LoginResult.authenticated(convertToDto(user));
+                });
+    }
+
     public boolean authenticate(String username, String password){
         User user = userRepository.findByUsername(username).orElse(null);
         if(user == null){
@@ -281,6 +387,29 @@ public class UserService {
                 .orElse(false);
     }
 
+    /**
+     * Whether the user exists and is a moderator, answered from the author summary cache
+     */
+    public boolean isModerator(Long id){
+        return authorSummaryService.find(id)
+                .map(AuthorSummary::moderator)
+                .orElse(false);
+    }
+
+    /**
+     * Id, username and flags of a user, served from a bounded cache instead of loading the user
+     */
+    public Optional<AuthorSummary> findAuthorSummary(Long id){
+        return authorSummaryService.find(id);
+    }
+
+    /**
+     * Summaries of many users at once; every cache miss is loaded with a single query
+     */
+    public Map<Long, AuthorSummary> findAuthorSummaries(Collection<Long> ids){
+        return ids.isEmpty() ? Map.of() : authorSummaryService.findAll(ids);
+    }
+
     private UserDto convertToDto(User user){
         UserDto dto = new UserDto();
         dto.setUserId(user.getId());
@@ -307,6 +436,17 @@ public class UserService {
         return dto;
     }
 
+    public List<Long> findExistingUserIds(Collection<Long> ids){
+        return ids.isEmpty() ? List.of() : userRepository.findExistingIds(ids);
+    }
+
+    /**
+     * A lazy reference for associating rows with a user whose existence is already known
+     */
+    public User getUserReference(Long id){
+        return userRepository.getReferenceById(id);
+    }
+
     public User findUserEntityById(Long id){
         if (id == null) {
             return null;
@@ -0,0 +1,209 @@
+package com.example.main.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal backing the write-behind vote pipeline.
+ * <p>
+ * Accepted clicks go to the active segment {@code votes-N.log}. Each flush rotates to a
+ * new segment and deletes the old ones once their votes are committed. Clicks are toggles,
+ * so replaying one that was already committed would undo the vote. To prevent that, each
+ * batch of a flush appends the votes it resolved to, as absolute states, to segment N
+ * before its transaction commits. On replay they override the clicks before them, and
+ * setting a vote that is already set changes nothing, so a crash between two batches, or
+ * before the segments are deleted, replays committed batches harmlessly.
+ * <p>
+ * If a flush fails part way, the votes it did not apply are written to
+ * {@code votes-N.retry}, which supersedes every file with a sequence number up to N.
+ */
+class VoteJournal {
+    private static final String LOG_SUFFIX = ".log";
+    private static final String RETRY_SUFFIX = ".retry";
+
+    private final Path directory;
+    private final boolean fsync;
+    private FileChannel active;
+    private long activeSequence;
+
+    VoteJournal(Path directory, boolean fsync) {
+        this.directory = directory;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Reads every pending segment, composing transitions per key in commit order,
+     * and opens a fresh active segment after them.
+     */
+    synchronized Map<VoteKey, VoteTransition> open() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> segments = listSegments();
+
+        long latestRetry = -1;
+        long latest = 0;
+        for (Path segment : segments) {
+            long sequence = sequenceOf(segment);
+            latest = Math.max(latest, sequence);
+            if (segment.toString().endsWith(RETRY_SUFFIX)) {
+                latestRetry = Math.max(latestRetry, sequence);
+            }
+        }
+
+        Map<VoteKey, VoteTransition> pending = new LinkedHashMap<>();
+        for (Path segment : segments) {
+            long sequence = sequenceOf(segment);
+            boolean retry = segment.toString().endsWith(RETRY_SUFFIX);
+            boolean superseded = retry ? sequence < latestRetry : sequence <= latestRetry;
+            if (!superseded) {
+                readInto(segment, pending);
+            }
+        }
+
+        activeSequence = latest + 1;
+        active = openSegment(activeSequence);
+        return pending;
+    }
+
+    synchronized void append(VoteKey key, VoteTransition click) {
+        try {
+            write(active, line(key, click));
+            if (fsync) {
+                active.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to journal vote", e);
+        }
+    }
+
+    /**
+     * Records what a batch taken from segment {@code sequence} and older resolved to, before
+     * it is committed. Forced to disk under fsync durability, like clicks.
+     */
+    synchronized void appendResolved(long sequence, Map<VoteKey, VoteTransition> resolved) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve(fileName(sequence, LOG_SUFFIX)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            StringBuilder lines = new StringBuilder();
+            resolved.forEach((key, transition) -> lines.append(line(key, transition)));
+            write(channel, lines.toString());
+            if (fsync) {
+                channel.force(false);
+            }
+        }
+    }
+
+    /**
+     * Closes the active segment and starts the next one.
+     * @return The sequence number of the segment that was closed
+     */
+    synchronized long rotate() throws IOException {
+        long closed = activeSequence;
+        active.force(false);
+        active.close();
+        activeSequence++;
+        active = openSegment(activeSequence);
+        return closed;
+    }
+
+    /**
+     * Records the transitions of a partly failed flush of segment {@code sequence},
+     * replacing everything up to and including that segment.
+     */
+    synchronized void writeRetry(long sequence, Map<VoteKey, VoteTransition> unapplied) throws IOException {
+        Path tmp = directory.resolve(fileName(sequence, RETRY_SUFFIX) + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Map.Entry<VoteKey, VoteTransition> entry : unapplied.entrySet()) {
+                write(channel, line(entry.getKey(), entry.getValue()));
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, directory.resolve(fileName(sequence, RETRY_SUFFIX)),
+                StandardCopyOption.ATOMIC_MOVE);
+        deleteSupersededBy(sequence);
+    }
+
+    /**
+     * Drops segments whose votes are now committed, or carried by a newer retry file.
+     */
+    synchronized void deleteSupersededBy(long sequence) throws IOException {
+        for (Path segment : listSegments()) {
+            long segmentSequence = sequenceOf(segment);
+            boolean retry = segment.toString().endsWith(RETRY_SUFFIX);
+            if (retry ? segmentSequence < sequence : segmentSequence <= sequence) {
+                Files.deleteIfExists(segment);
+            }
+        }
+    }
+
+    synchronized void close() throws IOException {
+        if (active != null) {
+            active.force(false);
+            active.close();
+        }
+    }
+
+    private FileChannel openSegment(long sequence) throws IOException {
+        return FileChannel.open(directory.resolve(fileName(sequence, LOG_SUFFIX)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(p -> p.getFileName().toString().startsWith("votes-"))
+                    .filter(p -> p.toString().endsWith(LOG_SUFFIX) || p.toString().endsWith(RETRY_SUFFIX))
+                    .sorted(Comparator.comparingLong(VoteJournal::sequenceOf))
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    private static void readInto(Path segment, Map<VoteKey, VoteTransition> pending) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(" ");
+                try {
+                    VoteKey key = new VoteKey(Long.parseLong(parts[1]), "A".equals(parts[0]), Long.parseLong(parts[2]));
+                    pending.merge(key, VoteTransition.decode(parts[3]), VoteTransition::then);
+                } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+                    // torn write at the tail of a segment that was being appended to when the process died
+                }
+            }
+        }
+    }
+
+    private static String line(VoteKey key, VoteTransition transition) {
+        return (key.onAnswer() ? "A" : "Q") + " " + key.userId() + " " + key.targetId() + " " + transition.encode() + "\n";
+    }
+
+    private static void write(FileChannel channel, String line) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static String fileName(long sequence, String suffix) {
+        return String.format("votes-%012d%s", sequence, suffix);
+    }
+
+    private static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring("votes-".length(), name.indexOf('.')));
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.main.service;
+
+/**
+ * Identifies one user's vote on one question or answer.
+ */
+record VoteKey(long userId, boolean onAnswer, long targetId) {
+}
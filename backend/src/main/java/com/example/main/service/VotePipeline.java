@@ -0,0 +1,275 @@
+package com.example.main.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Optional write-behind path for votes.
+ * <p>
+ * Clicks are acknowledged once they are folded into a per-(user, target) transition in
+ * memory, and flushed to the database in batches on a fixed delay. Repeated clicks on the
+ * same key collapse into one entry, so a hot question costs one row change per voter per
+ * flush. Durability is {@code none} (lost on crash), {@code journal} (written to the OS
+ * before acknowledging) or {@code fsync} (forced to disk before acknowledging).
+ */
+@Service
+@DependsOn("idAllocatorInitializer")
+public class VotePipeline {
+    private static final Logger log = LoggerFactory.getLogger(VotePipeline.class);
+
+    public enum Outcome { QUEUED, FULL }
+
+    @Autowired
+    private VoteService voteService;
+
+    @Value("${votes.pipeline.enabled:false}")
+    private boolean enabled;
+
+    @Value("${votes.pipeline.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${votes.pipeline.capacity:10000}")
+    private int capacity;
+
+    @Value("${votes.pipeline.batch-size:500}")
+    private int batchSize;
+
+    @Value("${votes.pipeline.durability:journal}")
+    private String durability;
+
+    @Value("${votes.pipeline.journal-dir:data/vote-journal}")
+    private String journalDir;
+
+    // Submitters hold the read lock while folding a click in; a flush takes the write lock
+    // only to swap the map and rotate the journal, so the two always agree on what was taken
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile ConcurrentHashMap<VoteKey, VoteTransition> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingKeys = new AtomicInteger();
+    private final Object flushLock = new Object();
+
+    private ScheduledExecutorService flusher;
+    private VoteJournal journal;
+    private volatile boolean accepting;
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        if (!"none".equalsIgnoreCase(durability)) {
+            journal = new VoteJournal(Paths.get(journalDir), "fsync".equalsIgnoreCase(durability));
+            Map<VoteKey, VoteTransition> recovered = journal.open();
+            pending.putAll(recovered);
+            pendingKeys.set(pending.size());
+            if (!recovered.isEmpty()) {
+                log.info("Recovered {} buffered votes from {}", recovered.size(), journalDir);
+            }
+        }
+
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "vote-pipeline-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        accepting = true;
+        log.info("Vote pipeline enabled: flush every {} ms, capacity {}, durability {}",
+                flushIntervalMs, capacity, durability);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Buffers one click. Returns {@link Outcome#FULL} when the buffer already holds
+     * {@code capacity} distinct keys, or while the pipeline is draining for shutdown.
+     * Further clicks on a key that is already buffered are always accepted.
+     */
+    public Outcome submit(Long userId, boolean onAnswer, Long targetId, String voteType) {
+        VoteKey key = new VoteKey(userId, onAnswer, targetId);
+        VoteTransition click = VoteTransition.click(voteType);
+        boolean[] full = {false};
+
+        swapLock.readLock().lock();
+        try {
+            if (!accepting) {
+                return Outcome.FULL;
+            }
+            pending.compute(key, (k, buffered) -> {
+                if (buffered == null && pendingKeys.incrementAndGet() > capacity) {
+                    pendingKeys.decrementAndGet();
+                    full[0] = true;
+                    return null;
+                }
+                try {
+                    journalAppend(k, click);
+                } catch (UncheckedIOException e) {
+                    if (buffered == null) {
+                        pendingKeys.decrementAndGet();
+                    }
+                    throw e;
+                }
+                return buffered == null ? click : buffered.then(click);
+            });
+        } finally {
+            swapLock.readLock().unlock();
+        }
+        return full[0] ? Outcome.FULL : Outcome.QUEUED;
+    }
+
+    /**
+     * Applies everything buffered so far. Batches that fail are put back in front of
+     * any clicks that arrived in the meantime, and kept in a retry file when journaling.
+     */
+    void flush() {
+        synchronized (flushLock) {
+            Map<VoteKey, VoteTransition> taken;
+            long segment = -1;
+            swapLock.writeLock().lock();
+            try {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                if (journal != null) {
+                    segment = journal.rotate();
+                }
+                taken = pending;
+                pending = new ConcurrentHashMap<>();
+                pendingKeys.set(0);
+            } catch (IOException e) {
+                log.error("Failed to rotate the vote journal", e);
+                return;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+
+            long flushed = segment;
+            List<Map.Entry<VoteKey, VoteTransition>> entries = new ArrayList<>(taken.entrySet());
+            int changed = 0;
+            for (int from = 0; from < entries.size(); from += batchSize) {
+                Map<VoteKey, VoteTransition> batch = toMap(entries.subList(from, Math.min(from + batchSize, entries.size())));
+                try {
+                    changed += voteService.applyBatch(batch, resolved -> journalResolved(flushed, resolved));
+                } catch (RuntimeException e) {
+                    Map<VoteKey, VoteTransition> unapplied = toMap(entries.subList(from, entries.size()));
+                    log.error("Vote flush failed, {} keys will be retried", unapplied.size(), e);
+                    keepForRetry(segment, unapplied);
+                    return;
+                }
+            }
+
+            try {
+                if (journal != null) {
+                    journal.deleteSupersededBy(segment);
+                }
+            } catch (IOException e) {
+                log.warn("Failed to delete flushed vote journal segments", e);
+            }
+            log.debug("Flushed {} buffered votes, {} stored votes changed", entries.size(), changed);
+        }
+    }
+
+    /**
+     * Stops accepting clicks and applies what is left before the data source closes.
+     */
+    @PreDestroy
+    void drain() {
+        if (!enabled) {
+            return;
+        }
+        swapLock.writeLock().lock();
+        try {
+            accepting = false;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        flush();
+        if (!pending.isEmpty()) {
+            log.warn("Shutting down with {} votes not applied{}", pending.size(),
+                    journal == null ? "; they are lost" : ", kept in " + journalDir);
+        }
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                log.warn("Failed to close the vote journal", e);
+            }
+        }
+    }
+
+    private void journalAppend(VoteKey key, VoteTransition click) {
+        if (journal != null) {
+            journal.append(key, click);
+        }
+    }
+
+    // Makes replaying the batch idempotent once it commits; see VoteJournal
+    private void journalResolved(long segment, Map<VoteKey, VoteTransition> resolved) {
+        if (journal != null) {
+            try {
+                journal.appendResolved(segment, resolved);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to journal resolved votes", e);
+            }
+        }
+    }
+
+    private void keepForRetry(long segment, Map<VoteKey, VoteTransition> unapplied) {
+        if (journal != null) {
+            try {
+                journal.writeRetry(segment, unapplied);
+            } catch (IOException e) {
+                log.error("Failed to write the vote retry file; a restart now replays them from the journal segments", e);
+            }
+        }
+        swapLock.readLock().lock();
+        try {
+            // Retried votes go back ahead of clicks that arrived during the flush, and may
+            // take the buffer over capacity rather than be dropped
+            unapplied.forEach((key, older) -> {
+                if (pending.merge(key, older, (newer, old) -> old.then(newer)) == older) {
+                    pendingKeys.incrementAndGet();
+                }
+            });
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private static Map<VoteKey, VoteTransition> toMap(List<Map.Entry<VoteKey, VoteTransition>> entries) {
+        Map<VoteKey, VoteTransition> map = new LinkedHashMap<>();
+        for (Map.Entry<VoteKey, VoteTransition> entry : entries) {
+            map.put(entry.getKey(), entry.getValue());
+        }
+        return map;
+    }
+}
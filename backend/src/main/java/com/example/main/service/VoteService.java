@@ -6,11 +6,20 @@ import com.example.main.model.Question;
 import com.example.main.model.User;
 import com.example.main.model.Vote;
 import com.example.main.repository.VoteRepository;
+import com.example.main.repository.VoteStateView;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,8 +35,8 @@ public class VoteService {
 
     private static final float QUESTION_UPVOTE_SCORE = 2.5f;
     private static final float QUESTION_DOWNVOTE_SCORE = -1.5f;
-    private static final float ANSWER_UPVOTE_SCORE = 5.0f;
-    private static final float ANSWER_DOWNVOTE_SCORE = -2.5f;
+    static final float ANSWER_UPVOTE_SCORE = 5.0f;
+    static final float ANSWER_DOWNVOTE_SCORE = -2.5f;
     private static final float DOWNVOTE_PENALTY = -1.5f;
 
     public List<VoteDto> getAllVotes() {
@@ -50,6 +59,7 @@ public class VoteService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional
     public VoteDto voteOnQuestion(Long userId, Long questionId, String voteType){
         User user = userService.findUserEntityById(userId);
         Question question = questionService.findQuestionEntityById(questionId);
@@ -69,12 +79,13 @@ public class VoteService {
                 //if same remove the vote
                 //revert score changes
                 if("upvote".equals(voteType)){
-                    userService.updateScore(question.getAuthor().getId(), -QUESTION_UPVOTE_SCORE);
+                    userService.adjustScore(question.getAuthor().getId(), -QUESTION_UPVOTE_SCORE);
                 } else {
-                    userService.updateScore(question.getAuthor().getId(), -QUESTION_DOWNVOTE_SCORE);
-                    userService.updateScore(user.getId(), -DOWNVOTE_PENALTY);
+                    userService.adjustScore(question.getAuthor().getId(), -QUESTION_DOWNVOTE_SCORE);
+                    userService.adjustScore(user.getId(), -DOWNVOTE_PENALTY);
                 }
 
+                adjustVoteCounts(question, null, voteType, null);
                 voteRepository.delete(vote);
                 return null;
             }else {
@@ -85,14 +96,15 @@ public class VoteService {
                 //update author score
                 if("upvote".equals(oldVoteType) && "downvote".equals(voteType)){
                     //changed from up to down
-                    userService.updateScore(question.getAuthor().getId(), -QUESTION_UPVOTE_SCORE + QUESTION_DOWNVOTE_SCORE);
-                    userService.updateScore(userId, DOWNVOTE_PENALTY);
+                    userService.adjustScore(question.getAuthor().getId(), -QUESTION_UPVOTE_SCORE + QUESTION_DOWNVOTE_SCORE);
+                    userService.adjustScore(userId, DOWNVOTE_PENALTY);
                 }else{
                     //change from down to up
-                    userService.updateScore(question.getAuthor().getId(), -QUESTION_DOWNVOTE_SCORE + QUESTION_UPVOTE_SCORE);
-                    userService.updateScore(userId, -DOWNVOTE_PENALTY);
+                    userService.adjustScore(question.getAuthor().getId(), -QUESTION_DOWNVOTE_SCORE + QUESTION_UPVOTE_SCORE);
+                    userService.adjustScore(userId, -DOWNVOTE_PENALTY);
                 }
 
+                adjustVoteCounts(question, null, oldVoteType, voteType);
                 return convertToDto(voteRepository.save(vote));
             }
         }else{
@@ -103,15 +115,17 @@ public class VoteService {
             vote.setVoteType(voteType);
 
             if("upvote".equals(voteType)) {
-                userService.updateScore(question.getAuthor().getId(), QUESTION_UPVOTE_SCORE);
+                userService.adjustScore(question.getAuthor().getId(), QUESTION_UPVOTE_SCORE);
             }else{
-                userService.updateScore(question.getAuthor().getId(), QUESTION_DOWNVOTE_SCORE);
-                userService.updateScore(user.getId(), DOWNVOTE_PENALTY);
+                userService.adjustScore(question.getAuthor().getId(), QUESTION_DOWNVOTE_SCORE);
+                userService.adjustScore(user.getId(), DOWNVOTE_PENALTY);
             }
+            adjustVoteCounts(question, null, null, voteType);
             return convertToDto(voteRepository.save(vote));
         }
     }
 
+    @Transactional
     public VoteDto voteOnAnswer(Long userId, Long answerId, String voteType) {
         User user = userService.findUserEntityById(userId);
         Answer answer = answerService.findAnswerEntityById(answerId);
@@ -134,12 +148,13 @@ public class VoteService {
             if (vote.getVoteType().equals(voteType)) {
                 // Revert score changes
                 if ("upvote".equals(voteType)) {
-                    userService.updateScore(answer.getAuthor().getId(), -ANSWER_UPVOTE_SCORE);
+                    userService.adjustScore(answer.getAuthor().getId(), -ANSWER_UPVOTE_SCORE);
                 } else {
-                    userService.updateScore(answer.getAuthor().getId(), -ANSWER_DOWNVOTE_SCORE);
-                    userService.updateScore(userId, -DOWNVOTE_PENALTY); // Refund the downvote penalty
+                    userService.adjustScore(answer.getAuthor().getId(), -ANSWER_DOWNVOTE_SCORE);
+                    userService.adjustScore(userId, -DOWNVOTE_PENALTY); // Refund the downvote penalty
                 }
 
+                adjustVoteCounts(null, answer, voteType, null);
                 voteRepository.delete(vote);
                 return null;
             } else {
@@ -150,14 +165,15 @@ public class VoteService {
                 // Update authors score
                 if ("upvote".equals(oldVoteType) && "downvote".equals(voteType)) {
                     // Changed from upvote to downvote
-                    userService.updateScore(answer.getAuthor().getId(), -ANSWER_UPVOTE_SCORE + ANSWER_DOWNVOTE_SCORE);
-                    userService.updateScore(userId, DOWNVOTE_PENALTY); // Apply downvote penalty
+                    userService.adjustScore(answer.getAuthor().getId(), -ANSWER_UPVOTE_SCORE + ANSWER_DOWNVOTE_SCORE);
+                    userService.adjustScore(userId, DOWNVOTE_PENALTY); // Apply downvote penalty
                 } else {
                     // Changed from downvote to upvote
-                    userService.updateScore(answer.getAuthor().getId(), -ANSWER_DOWNVOTE_SCORE + ANSWER_UPVOTE_SCORE);
-                    userService.updateScore(userId, -DOWNVOTE_PENALTY); // Refund the downvote penalty
+                    userService.adjustScore(answer.getAuthor().getId(), -ANSWER_DOWNVOTE_SCORE + ANSWER_UPVOTE_SCORE);
+                    userService.adjustScore(userId, -DOWNVOTE_PENALTY); // Refund the downvote penalty
                 }
 
+                adjustVoteCounts(null, answer, oldVoteType, voteType);
                 return convertToDto(voteRepository.save(vote));
             }
         } else {
@@ -170,16 +186,18 @@ public class VoteService {
 
             // Update scores
             if ("upvote".equals(voteType)) {
-                userService.updateScore(answer.getAuthor().getId(), ANSWER_UPVOTE_SCORE);
+                userService.adjustScore(answer.getAuthor().getId(), ANSWER_UPVOTE_SCORE);
             } else {
-                userService.updateScore(answer.getAuthor().getId(), ANSWER_DOWNVOTE_SCORE);
-                userService.updateScore(userId, DOWNVOTE_PENALTY); // Apply downvote penalty
+                userService.adjustScore(answer.getAuthor().getId(), ANSWER_DOWNVOTE_SCORE);
+                userService.adjustScore(userId, DOWNVOTE_PENALTY); // Apply downvote penalty
             }
 
+            adjustVoteCounts(null, answer, null, voteType);
             return convertToDto(voteRepository.save(vote));
         }
     }
 
+    @Transactional
     public boolean deleteVote(Long id) {
         Optional<Vote> voteOpt = voteRepository.findById(id);
         if (voteOpt.isPresent()) {
@@ -188,26 +206,178 @@ public class VoteService {
             // Revert score changes
             if (vote.getQuestion() != null) {
                 if ("upvote".equals(vote.getVoteType())) {
-                    userService.updateScore(vote.getQuestion().getAuthor().getId(), -QUESTION_UPVOTE_SCORE);
+                    userService.adjustScore(vote.getQuestion().getAuthor().getId(), -QUESTION_UPVOTE_SCORE);
                 } else {
-                    userService.updateScore(vote.getQuestion().getAuthor().getId(), -QUESTION_DOWNVOTE_SCORE);
-                    userService.updateScore(vote.getUser().getId(), -DOWNVOTE_PENALTY); // Refund the downvote penalty
+                    userService.adjustScore(vote.getQuestion().getAuthor().getId(), -QUESTION_DOWNVOTE_SCORE);
+                    userService.adjustScore(vote.getUser().getId(), -DOWNVOTE_PENALTY); // Refund the downvote penalty
                 }
             } else if (vote.getAnswer() != null) {
                 if ("upvote".equals(vote.getVoteType())) {
-                    userService.updateScore(vote.getAnswer().getAuthor().getId(), -ANSWER_UPVOTE_SCORE);
+                    userService.adjustScore(vote.getAnswer().getAuthor().getId(), -ANSWER_UPVOTE_SCORE);
                 } else {
-                    userService.updateScore(vote.getAnswer().getAuthor().getId(), -ANSWER_DOWNVOTE_SCORE);
-                    userService.updateScore(vote.getUser().getId(), -DOWNVOTE_PENALTY); // Refund the downvote penalty
+                    userService.adjustScore(vote.getAnswer().getAuthor().getId(), -ANSWER_DOWNVOTE_SCORE);
+                    userService.adjustScore(vote.getUser().getId(), -DOWNVOTE_PENALTY); // Refund the downvote penalty
                 }
             }
 
+            adjustVoteCounts(vote.getQuestion(), vote.getAnswer(), vote.getVoteType(), null);
             voteRepository.deleteById(id);
             return true;
         }
         return false;
     }
 
+    /**
+     * Applies a batch of buffered clicks from the {@link VotePipeline} in one transaction.
+     * Each transition is resolved against the vote stored for its key, so the outcome matches
+     * handling the clicks one by one. Clicks by missing users, on missing targets or on the
+     * voter's own post are dropped, as the synchronous path would reject them.
+     *
+     * @param resolved Given the vote each kept key ends at, inside the transaction and before
+     *                 anything is written; if it throws, nothing is applied
+     * @return the number of keys whose stored vote changed
+     */
+    @Transactional
+    int applyBatch(Map<VoteKey, VoteTransition> batch, Consumer<Map<VoteKey, VoteTransition>> resolved){
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> questionIds = new HashSet<>();
+        Set<Long> answerIds = new HashSet<>();
+        for(VoteKey key : batch.keySet()){
+            userIds.add(key.userId());
+            (key.onAnswer() ? answerIds : questionIds).add(key.targetId());
+        }
+
+        Set<Long> existingUsers = new HashSet<>(userService.findExistingUserIds(userIds));
+        Map<Long, Long> questionAuthors = questionService.findAuthorIds(questionIds);
+        Map<Long, Long> answerAuthors = answerService.findAuthorIds(answerIds);
+
+        Map<VoteKey, VoteStateView> stored = new HashMap<>();
+        if(!questionIds.isEmpty()){
+            for(VoteStateView view : voteRepository.findQuestionVoteStates(questionIds, userIds)){
+                stored.put(new VoteKey(view.getUserId(), false, view.getTargetId()), view);
+            }
+        }
+        if(!answerIds.isEmpty()){
+            for(VoteStateView view : voteRepository.findAnswerVoteStates(answerIds, userIds)){
+                stored.put(new VoteKey(view.getUserId(), true, view.getTargetId()), view);
+            }
+        }
+
+        List<Vote> inserts = new ArrayList<>();
+        List<Long> deletes = new ArrayList<>();
+        List<Long> toUpvote = new ArrayList<>();
+        List<Long> toDownvote = new ArrayList<>();
+        Map<Long, Float> scoreDeltas = new HashMap<>();
+        Map<Long, int[]> questionCounts = new HashMap<>();
+        Map<Long, int[]> answerCounts = new HashMap<>();
+
+        Map<VoteKey, VoteTransition> outcomes = new LinkedHashMap<>();
+        for(Map.Entry<VoteKey, VoteTransition> entry : batch.entrySet()){
+            VoteKey key = entry.getKey();
+            Long authorId = (key.onAnswer() ? answerAuthors : questionAuthors).get(key.targetId());
+            if(authorId == null || !existingUsers.contains(key.userId()) || authorId == key.userId()){
+                continue;
+            }
+
+            VoteStateView current = stored.get(key);
+            String oldType = current == null ? null : current.getVoteType();
+            String newType = entry.getValue().apply(oldType);
+            outcomes.put(key, VoteTransition.to(newType));
+            if(VoteTransition.stateOf(oldType) == VoteTransition.stateOf(newType)){
+                continue;
+            }
+
+            if(current == null){
+                inserts.add(newVote(key, newType));
+            } else if(newType == null){
+                deletes.add(current.getId());
+            } else {
+                (isUpvote(newType) ? toUpvote : toDownvote).add(current.getId());
+            }
+
+            scoreDeltas.merge(authorId, authorScore(key.onAnswer(), newType) - authorScore(key.onAnswer(), oldType), Float::sum);
+            scoreDeltas.merge(key.userId(), voterScore(newType) - voterScore(oldType), Float::sum);
+
+            int[] counts = (key.onAnswer() ? answerCounts : questionCounts).computeIfAbsent(key.targetId(), id -> new int[2]);
+            counts[0] += (isUpvote(newType) ? 1 : 0) - (isUpvote(oldType) ? 1 : 0);
+            counts[1] += (isDownvote(newType) ? 1 : 0) - (isDownvote(oldType) ? 1 : 0);
+        }
+
+        resolved.accept(outcomes);
+        if(!deletes.isEmpty()){
+            voteRepository.deleteAllByIdInBatch(deletes);
+        }
+        if(!toUpvote.isEmpty()){
+            voteRepository.updateVoteTypes(toUpvote, "upvote");
+        }
+        if(!toDownvote.isEmpty()){
+            voteRepository.updateVoteTypes(toDownvote, "downvote");
+        }
+        voteRepository.saveAll(inserts);
+
+        questionCounts.forEach((id, counts) -> questionService.adjustVoteCounts(id, counts[0], counts[1]));
+        answerCounts.forEach((id, counts) -> answerService.adjustVoteCounts(id, counts[0], counts[1]));
+        scoreDeltas.forEach((id, delta) -> {
+            if(delta != 0){
+                userService.adjustScore(id, delta);
+            }
+        });
+        return inserts.size() + deletes.size() + toUpvote.size() + toDownvote.size();
+    }
+
+    private Vote newVote(VoteKey key, String voteType){
+        Vote vote = new Vote();
+        vote.setUser(userService.getUserReference(key.userId()));
+        if(key.onAnswer()){
+            vote.setAnswer(answerService.getAnswerReference(key.targetId()));
+        } else {
+            vote.setQuestion(questionService.getQuestionReference(key.targetId()));
+        }
+        vote.setVoteType(voteType);
+        return vote;
+    }
+
+    //score the target's author holds from a vote of this type (null = no vote)
+    public static float authorScore(boolean onAnswer, String voteType){
+        if(voteType == null){
+            return 0;
+        }
+        if(onAnswer){
+            return isUpvote(voteType) ? ANSWER_UPVOTE_SCORE : ANSWER_DOWNVOTE_SCORE;
+        }
+        return isUpvote(voteType) ? QUESTION_UPVOTE_SCORE : QUESTION_DOWNVOTE_SCORE;
+    }
+
+    //score the voter holds from casting a vote of this type
+    public static float voterScore(String voteType){
+        return isDownvote(voteType) ? DOWNVOTE_PENALTY : 0;
+    }
+
+    //keeps the denormalized counters in step with a vote moving from oldType to newType (null = no vote)
+    private void adjustVoteCounts(Question question, Answer answer, String oldType, String newType){
+        int upvoteDelta = (isUpvote(newType) ? 1 : 0) - (isUpvote(oldType) ? 1 : 0);
+        int downvoteDelta = (isDownvote(newType) ? 1 : 0) - (isDownvote(oldType) ? 1 : 0);
+
+        if(question != null){
+            questionService.adjustVoteCounts(question.getId(), upvoteDelta, downvoteDelta);
+        } else if(answer != null){
+            answerService.adjustVoteCounts(answer.getId(), upvoteDelta, downvoteDelta);
+        }
+    }
+
+    public static boolean isVoteType(String voteType){
+        return "upvote".equals(voteType) || "downvote".equals(voteType);
+    }
+
+    private static boolean isUpvote(String voteType){
+        return "upvote".equals(voteType);
+    }
+
+    //anything that is not an upvote is scored as a downvote, so count it the same way
+    private static boolean isDownvote(String voteType){
+        return voteType != null && !isUpvote(voteType);
+    }
+
     private VoteDto convertToDto(Vote vote){
         VoteDto dto = new VoteDto();
         dto.setVoteId(vote.getId());
@@ -0,0 +1,98 @@
+package com.example.main.service;
+
+/**
+ * The net effect of a sequence of vote clicks by one user on one target.
+ * <p>
+ * A click toggles: clicking the current vote type removes the vote, clicking the other
+ * type replaces it. The result of a run of clicks therefore depends on the vote already
+ * stored, which the pipeline does not know when it accepts a click. Instead of the final
+ * state it keeps the composed function from stored state to final state, which is exact
+ * for any number of clicks and is resolved against the database at flush time.
+ */
+final class VoteTransition {
+    static final int NONE = 0;
+    static final int UP = 1;
+    static final int DOWN = 2;
+
+    private static final VoteTransition CLICK_UP = new VoteTransition(new byte[]{UP, NONE, UP});
+    private static final VoteTransition CLICK_DOWN = new VoteTransition(new byte[]{DOWN, DOWN, NONE});
+
+    // next[state] is the state reached from the stored state
+    private final byte[] next;
+
+    private VoteTransition(byte[] next) {
+        this.next = next;
+    }
+
+    /**
+     * @throws IllegalArgumentException for anything but "upvote" or "downvote"
+     */
+    static VoteTransition click(String voteType) {
+        return switch (String.valueOf(voteType)) {
+            case "upvote" -> CLICK_UP;
+            case "downvote" -> CLICK_DOWN;
+            default -> throw new IllegalArgumentException("Unknown vote type: " + voteType);
+        };
+    }
+
+    /**
+     * Leads to the given vote whatever is stored, so applying it twice changes nothing;
+     * a null type removes the vote.
+     */
+    static VoteTransition to(String voteType) {
+        byte state = (byte) stateOf(voteType);
+        return new VoteTransition(new byte[]{state, state, state});
+    }
+
+    /**
+     * Parses the three-digit form written by {@link #encode()}.
+     */
+    static VoteTransition decode(String encoded) {
+        if (encoded.length() != 3) {
+            throw new IllegalArgumentException("Malformed vote transition: " + encoded);
+        }
+        byte[] next = new byte[3];
+        for (int i = 0; i < 3; i++) {
+            int state = encoded.charAt(i) - '0';
+            if (state < NONE || state > DOWN) {
+                throw new IllegalArgumentException("Malformed vote transition: " + encoded);
+            }
+            next[i] = (byte) state;
+        }
+        return new VoteTransition(next);
+    }
+
+    String encode() {
+        return "" + next[NONE] + next[UP] + next[DOWN];
+    }
+
+    /**
+     * This transition followed by {@code later}.
+     */
+    VoteTransition then(VoteTransition later) {
+        return new VoteTransition(new byte[]{
+                later.next[next[NONE]],
+                later.next[next[UP]],
+                later.next[next[DOWN]]
+        });
+    }
+
+    String apply(String storedVoteType) {
+        return typeOf(next[stateOf(storedVoteType)]);
+    }
+
+    static int stateOf(String voteType) {
+        if (voteType == null) {
+            return NONE;
+        }
+        return "upvote".equals(voteType) ? UP : DOWN;
+    }
+
+    static String typeOf(int state) {
+        return switch (state) {
+            case UP -> "upvote";
+            case DOWN -> "downvote";
+            default -> null;
+        };
+    }
+}
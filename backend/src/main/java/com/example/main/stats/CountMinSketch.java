@@ -0,0 +1,90 @@
+package com.example.main.stats;
+
+import java.util.Arrays;
+
+/**
+ * Approximate counts for an unbounded set of long keys in fixed memory.
+ * <p>
+ * Each of {@code depth} rows hashes a key to one of {@code width} counters and adds to it.
+ * A key's estimate is the smallest of its counters. Collisions only ever add, so the estimate
+ * never falls below the true count. With probability 1 - 2^-depth it is at most
+ * {@code e / width} of the sketch's total above it.
+ * <p>
+ * Counters are plain sums, so two sketches with the same shape can be added or subtracted.
+ * That lets a window total be kept as a running sum of per-bucket sketches.
+ */
+public final class CountMinSketch {
+
+    private final int depth;
+    private final int mask;
+    private final int[] counters;
+    private long total;
+
+    /**
+     * @param width Counters per row, rounded up to a power of two
+     * @param depth Number of rows, each with its own hash
+     */
+    public CountMinSketch(int width, int depth) {
+        if (width <= 0 || depth <= 0) {
+            throw new IllegalArgumentException("Sketch width and depth must be positive");
+        }
+        int size = Integer.highestOneBit(width);
+        if (size < width) {
+            size <<= 1;
+        }
+        this.depth = depth;
+        this.mask = size - 1;
+        this.counters = new int[size * depth];
+    }
+
+    public void add(long key, int count) {
+        for (int row = 0; row < depth; row++) {
+            counters[index(key, row)] += count;
+        }
+        total += count;
+    }
+
+    public int estimate(long key) {
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters[index(key, row)]);
+        }
+        return Math.max(min, 0);
+    }
+
+    /**
+     * Sum of every count added, less any subtracted.
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * Adds each counter of a sketch of the same shape, with {@code sign} 1 or -1.
+     */
+    public void merge(CountMinSketch other, int sign) {
+        if (other.counters.length != counters.length || other.depth != depth) {
+            throw new IllegalArgumentException("Sketches differ in shape");
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += sign * other.counters[i];
+        }
+        total += sign * other.total;
+    }
+
+    public void clear() {
+        Arrays.fill(counters, 0);
+        total = 0;
+    }
+
+    private int index(long key, int row) {
+        // A different odd seed per row, then the murmur3 finaliser
+        long h = key * 0x9E3779B97F4A7C15L + (2L * row + 1) * 0xC2B2AE3D27D4EB4FL;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return row * (mask + 1) + ((int) h & mask);
+    }
+}
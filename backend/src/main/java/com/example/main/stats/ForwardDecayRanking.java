@@ -0,0 +1,134 @@
+package com.example.main.stats;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Ids ranked by a sum of weighted events that each decay exponentially with age.
+ * <p>
+ * Decaying every score on every tick would touch every id. Instead an event of weight
+ * {@code w} at time {@code t} adds {@code w * 2^((t - landmark) / halfLife)}. At any later
+ * time every score shrinks by the same factor, so stored scores keep their order and only
+ * the ids an event touches are moved. The scaled weights grow with time, so
+ * {@link #rebase} moves the landmark forward now and then, scales every score down by the
+ * same factor and drops ids whose score has faded to nothing.
+ * <p>
+ * Events update the skip list concurrently; a rebase holds the others off while it
+ * rewrites it.
+ */
+public final class ForwardDecayRanking {
+
+    public record Ranked(long id, double score) {
+    }
+
+    private static final Comparator<Ranked> ORDER = Comparator.comparingDouble(Ranked::score).reversed()
+            .thenComparing(Comparator.comparingLong(Ranked::id).reversed());
+
+    private final double lambda;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Double> scores = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Ranked> ranking = new ConcurrentSkipListSet<>(ORDER);
+    private long landmark;
+
+    public ForwardDecayRanking(long halfLifeMillis, long landmarkMillis) {
+        if (halfLifeMillis <= 0) {
+            throw new IllegalArgumentException("Half-life must be positive");
+        }
+        this.lambda = Math.log(2) / halfLifeMillis;
+        this.landmark = landmarkMillis;
+    }
+
+    /**
+     * Adds an event of the given weight, which may be negative, at the given time.
+     */
+    public void add(long id, double weight, long timeMillis) {
+        lock.readLock().lock();
+        try {
+            double contribution = weight * Math.exp(lambda * (timeMillis - landmark));
+            scores.compute(id, (key, old) -> {
+                if (old != null) {
+                    ranking.remove(new Ranked(id, old));
+                }
+                double next = (old == null ? 0 : old) + contribution;
+                ranking.add(new Ranked(id, next));
+                return next;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.readLock().lock();
+        try {
+            scores.computeIfPresent(id, (key, old) -> {
+                ranking.remove(new Ranked(id, old));
+                return null;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids from {@code offset} on in ranking order, with their score as of {@code nowMillis}.
+     */
+    public List<Ranked> top(int offset, int limit, long nowMillis) {
+        lock.readLock().lock();
+        try {
+            double decay = Math.exp(-lambda * (nowMillis - landmark));
+            List<Ranked> page = new ArrayList<>(limit);
+            Iterator<Ranked> it = ranking.iterator();
+            for (int skipped = 0; skipped < offset && it.hasNext(); skipped++) {
+                it.next();
+            }
+            while (page.size() < limit && it.hasNext()) {
+                Ranked ranked = it.next();
+                page.add(new Ranked(ranked.id(), ranked.score() * decay));
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Moves the landmark to {@code nowMillis} and drops ids whose score as of then is within
+     * {@code pruneBelow} of zero.
+     * @return the number of ids dropped
+     */
+    public int rebase(long nowMillis, double pruneBelow) {
+        lock.writeLock().lock();
+        try {
+            double decay = Math.exp(-lambda * (nowMillis - landmark));
+            landmark = nowMillis;
+            ranking.clear();
+            int pruned = 0;
+            Iterator<Map.Entry<Long, Double>> it = scores.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Long, Double> entry = it.next();
+                double score = entry.getValue() * decay;
+                if (Math.abs(score) < pruneBelow) {
+                    it.remove();
+                    pruned++;
+                } else {
+                    entry.setValue(score);
+                    ranking.add(new Ranked(entry.getKey(), score));
+                }
+            }
+            return pruned;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        return scores.size();
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.main.stats;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of durations, recorded from any number of threads without locking.
+ * <p>
+ * Durations are kept in microseconds in log-linear buckets: every power of two is split
+ * into eight equal buckets, so a reported percentile is within 12.5% of the true value.
+ * Percentiles report the upper edge of their bucket, capped at the largest value recorded.
+ */
+public final class LatencyHistogram {
+
+    /**
+     * Counts and times in milliseconds
+     */
+    public record Snapshot(long count, double meanMs, double p50Ms, double p90Ms, double p99Ms, double maxMs) {
+    }
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    // Powers of two above 2^40 us (about 12 days) share the last bucket
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = SUB_BUCKETS + (MAX_EXPONENT - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        counts.incrementAndGet(index(micros));
+        count.increment();
+        totalMicros.add(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        long max = maxMicros.get();
+        if (total == 0) {
+            return new Snapshot(0, 0, 0, 0, 0, 0);
+        }
+        return new Snapshot(total, millis(totalMicros.sum() / (double) count.sum()),
+                millis(percentile(copy, total, 0.50, max)), millis(percentile(copy, total, 0.90, max)),
+                millis(percentile(copy, total, 0.99, max)), millis(max));
+    }
+
+    private static long percentile(long[] buckets, long total, double fraction, long max) {
+        long rank = (long) Math.ceil(total * fraction);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return Math.min(upperEdge(i), max);
+            }
+        }
+        return max;
+    }
+
+    static int index(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = Math.min(63 - Long.numberOfLeadingZeros(micros), MAX_EXPONENT);
+        int sub = (int) (micros >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponent - SUB_BITS) * SUB_BUCKETS + sub;
+    }
+
+    static long upperEdge(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = (index - SUB_BUCKETS) / SUB_BUCKETS + SUB_BITS;
+        int sub = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BITS);
+        return (SUB_BUCKETS + sub) * width + width - 1;
+    }
+
+    private static double millis(double micros) {
+        return Math.round(micros) / 1000.0;
+    }
+}
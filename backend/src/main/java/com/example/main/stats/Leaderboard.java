@@ -0,0 +1,265 @@
+package com.example.main.stats;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Ids ordered by score, highest first with ties broken by the lower id, that can answer
+ * "what rank is this id" and "which id is at this rank" in O(log n).
+ * <p>
+ * The order is kept in a skip list whose forward links also record how many entries they
+ * jump over, as in Redis sorted sets. Summing those spans along a search path gives an
+ * entry's rank, and following them down from the top finds the entry at a rank. A score
+ * change is a delete and an insert. Reads share a read lock; writes take the write lock.
+ */
+public final class Leaderboard {
+
+    /**
+     * @param rank 1 for the highest score
+     */
+    public record Entry(long id, double score, int rank) {
+    }
+
+    private static final int MAX_LEVEL = 32;
+
+    private static final class Node {
+        final long id;
+        final double score;
+        final Node[] next;
+        final int[] span;
+
+        Node(long id, double score, int level) {
+            this.id = id;
+            this.score = score;
+            this.next = new Node[level];
+            this.span = new int[level];
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Double> scores = new HashMap<>();
+    private final Node head = new Node(0, 0, MAX_LEVEL);
+    private int level = 1;
+    private int length;
+
+    /**
+     * Sets an id's score, adding the id if it is new.
+     */
+    public void put(long id, double score) {
+        lock.writeLock().lock();
+        try {
+            Double old = scores.put(id, score);
+            if (old != null) {
+                if (old == score) {
+                    return;
+                }
+                delete(id, old);
+            }
+            insert(id, score);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds to an id's score, starting from 0 for a new id.
+     */
+    public void add(long id, double delta) {
+        lock.writeLock().lock();
+        try {
+            Double old = scores.get(id);
+            double score = (old == null ? 0 : old) + delta;
+            scores.put(id, score);
+            if (old != null) {
+                delete(id, old);
+            }
+            insert(id, score);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Double old = scores.remove(id);
+            if (old != null) {
+                delete(id, old);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The id's score and rank, or null if it is not on the board.
+     */
+    public Entry get(long id) {
+        lock.readLock().lock();
+        try {
+            Double score = scores.get(id);
+            return score == null ? null : new Entry(id, score, rankOf(id, score));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} entries starting after the first {@code offset}.
+     */
+    public List<Entry> range(int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            return collect(offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The id's entry with up to {@code radius} entries either side, or empty if the id is
+     * not on the board.
+     */
+    public List<Entry> around(long id, int radius) {
+        lock.readLock().lock();
+        try {
+            Double score = scores.get(id);
+            if (score == null) {
+                return List.of();
+            }
+            int rank = rankOf(id, score);
+            int from = Math.max(rank - 1 - radius, 0);
+            return collect(from, rank - from + radius);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return length;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Entry> collect(int offset, int limit) {
+        List<Entry> entries = new ArrayList<>(Math.max(Math.min(limit, length - offset), 0));
+        if (offset < 0 || offset >= length || limit <= 0) {
+            return entries;
+        }
+        Node x = nodeAt(offset + 1);
+        for (int rank = offset + 1; x != null && entries.size() < limit; rank++, x = x.next[0]) {
+            entries.add(new Entry(x.id, x.score, rank));
+        }
+        return entries;
+    }
+
+    // Whether a node sorts before (score, id)
+    private static boolean before(Node node, double score, long id) {
+        return node.score > score || (node.score == score && node.id < id);
+    }
+
+    private void insert(long id, double score) {
+        Node[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.next[i] != null && before(x.next[i], score, id)) {
+                rank[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        int nodeLevel = randomLevel();
+        if (nodeLevel > level) {
+            for (int i = level; i < nodeLevel; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                update[i].span[i] = length;
+            }
+            level = nodeLevel;
+        }
+        Node node = new Node(id, score, nodeLevel);
+        for (int i = 0; i < nodeLevel; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = rank[0] - rank[i] + 1;
+        }
+        for (int i = nodeLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+        length++;
+    }
+
+    private void delete(long id, double score) {
+        Node[] update = new Node[MAX_LEVEL];
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && before(x.next[i], score, id)) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        Node target = x.next[0];
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == target) {
+                update[i].span[i] += target.span[i] - 1;
+                update[i].next[i] = target.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        length--;
+    }
+
+    private int rankOf(long id, double score) {
+        int rank = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && (before(x.next[i], score, id) || x.next[i].id == id)) {
+                rank += x.span[i];
+                x = x.next[i];
+            }
+            if (x != head && x.id == id) {
+                return rank;
+            }
+        }
+        return rank;
+    }
+
+    // 1-based
+    private Node nodeAt(int rank) {
+        int traversed = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && traversed + x.span[i] <= rank) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+            if (traversed == rank) {
+                return x;
+            }
+        }
+        return null;
+    }
+
+    private static int randomLevel() {
+        int nodeLevel = 1;
+        // a quarter of the nodes at each level also appear on the next
+        while (nodeLevel < MAX_LEVEL && ThreadLocalRandom.current().nextInt(4) == 0) {
+            nodeLevel++;
+        }
+        return nodeLevel;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.main.stats;
+
+/**
+ * Sums of doubles keyed by long, without boxing either.
+ * <p>
+ * Open addressing with linear probing over parallel key and value arrays, resized to keep
+ * the table at most half full. Not thread-safe; build one per thread and {@link #merge}.
+ */
+public final class LongDoubleHashMap {
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, double value);
+    }
+
+    private long[] keys;
+    private double[] values;
+    private boolean[] used;
+    private int mask;
+    private int size;
+
+    public LongDoubleHashMap() {
+        this(16);
+    }
+
+    public LongDoubleHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Adds to a key's value, starting from 0 for a new key.
+     */
+    public void add(long key, double delta) {
+        int slot = slot(key);
+        if (!used[slot]) {
+            used[slot] = true;
+            keys[slot] = key;
+            if (++size * 2 > keys.length) {
+                values[slot] = delta;
+                grow();
+                return;
+            }
+        }
+        values[slot] += delta;
+    }
+
+    /**
+     * The key's value, or 0 if it was never added.
+     */
+    public double get(long key) {
+        int slot = slot(key);
+        return used[slot] ? values[slot] : 0;
+    }
+
+    public boolean containsKey(long key) {
+        return used[slot(key)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds every entry of another map into this one.
+     */
+    public void merge(LongDoubleHashMap other) {
+        other.forEach(this::add);
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    // The key's slot, or the empty slot it would go in
+    private int slot(long key) {
+        int slot = hash(key) & mask;
+        while (used[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new double[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        double[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(keys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int slot = slot(oldKeys[i]);
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        // murmur3 finaliser, so sequential ids spread over the table
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.main.stats;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The most frequent keys over a sliding time window, in memory that does not grow with the
+ * number of distinct keys.
+ * <p>
+ * The window is a ring of {@code buckets} count-min sketches, each covering
+ * {@code bucketMillis}. A further sketch holds their running sum, so a key's count over the
+ * whole window costs one lookup. As time moves into a new bucket, the oldest bucket is
+ * subtracted from the sum and reused. The window therefore spans between
+ * {@code buckets - 1} and {@code buckets} bucket lengths.
+ * <p>
+ * A sketch cannot list its keys, so a fixed number of candidates is kept next to it. After
+ * each add, the key replaces the weakest candidate if its window count is now larger.
+ * Candidate counts are re-read from the sketch whenever a bucket expires, and again when
+ * the top keys are asked for.
+ * <p>
+ * Times are passed in, in epoch milliseconds. Events may arrive late: one that still falls
+ * inside the window is added to its own bucket, and an older one is dropped.
+ */
+public final class SlidingTopK {
+
+    public record Count(long key, int count) {
+    }
+
+    private final long bucketMillis;
+    private final CountMinSketch[] ring;
+    private final CountMinSketch window;
+    private final int capacity;
+    private final Map<Long, Integer> candidates = new HashMap<>();
+    private int current;
+    private long currentBucket = Long.MIN_VALUE;
+
+    /**
+     * @param capacity Number of candidate keys kept, and so the most that {@link #top} returns
+     */
+    public SlidingTopK(long bucketMillis, int buckets, int width, int depth, int capacity) {
+        if (bucketMillis <= 0 || buckets <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Bucket length, bucket count and capacity must be positive");
+        }
+        this.bucketMillis = bucketMillis;
+        this.ring = new CountMinSketch[buckets];
+        for (int i = 0; i < buckets; i++) {
+            ring[i] = new CountMinSketch(width, depth);
+        }
+        this.window = new CountMinSketch(width, depth);
+        this.capacity = capacity;
+    }
+
+    public synchronized void add(long key, int count, long timeMillis) {
+        long bucket = Math.floorDiv(timeMillis, bucketMillis);
+        advance(bucket);
+        long age = currentBucket - bucket;
+        if (age >= ring.length) {
+            return;
+        }
+        int slot = (int) Math.floorMod(current - age, (long) ring.length);
+        ring[slot].add(key, count);
+        window.add(key, count);
+        offer(key, window.estimate(key));
+    }
+
+    /**
+     * Up to {@code k} keys with the highest estimated count over the window, highest first.
+     */
+    public synchronized List<Count> top(int k, long nowMillis) {
+        advance(Math.floorDiv(nowMillis, bucketMillis));
+        refresh();
+        List<Count> counts = new ArrayList<>(candidates.size());
+        candidates.forEach((key, count) -> counts.add(new Count(key, count)));
+        counts.sort(Comparator.comparingInt(Count::count).reversed().thenComparingLong(Count::key));
+        return counts.size() > k ? new ArrayList<>(counts.subList(0, k)) : counts;
+    }
+
+    /**
+     * Sum of all counts in the window.
+     */
+    public synchronized long total(long nowMillis) {
+        advance(Math.floorDiv(nowMillis, bucketMillis));
+        return window.total();
+    }
+
+    private void advance(long bucket) {
+        if (currentBucket == Long.MIN_VALUE) {
+            currentBucket = bucket;
+            return;
+        }
+        if (bucket <= currentBucket) {
+            return;
+        }
+        long steps = Math.min(bucket - currentBucket, ring.length);
+        for (long i = 0; i < steps; i++) {
+            current = (current + 1) % ring.length;
+            window.merge(ring[current], -1);
+            ring[current].clear();
+        }
+        currentBucket = bucket;
+        refresh();
+    }
+
+    private void offer(long key, int count) {
+        if (candidates.containsKey(key) || candidates.size() < capacity) {
+            candidates.put(key, count);
+            return;
+        }
+        Map.Entry<Long, Integer> weakest = null;
+        for (Map.Entry<Long, Integer> candidate : candidates.entrySet()) {
+            if (weakest == null || candidate.getValue() < weakest.getValue()) {
+                weakest = candidate;
+            }
+        }
+        if (count > weakest.getValue()) {
+            candidates.remove(weakest.getKey());
+            candidates.put(key, count);
+        }
+    }
+
+    private void refresh() {
+        Iterator<Map.Entry<Long, Integer>> it = candidates.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Integer> candidate = it.next();
+            int count = window.estimate(candidate.getKey());
+            if (count <= 0) {
+                it.remove();
+            } else {
+                candidate.setValue(count);
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.main.utils;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers work that reads or publishes committed state until the current transaction
+ * commits. A rolled-back transaction drops the work.
+ */
+public final class AfterCommit {
+    private AfterCommit() {
+    }
+
+    /**
+     * Runs the action once the current transaction commits, or right away outside a transaction.
+     */
+    public static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Runs the action now and, inside a transaction, again once it commits, for evictions that
+     * a reader between the two could otherwise undo by loading the old row.
+     */
+    public static void runNowAndAgain(Runnable action) {
+        action.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            run(action);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.main.utils;
+
+import com.example.main.dto.CursorPageDto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Opaque keyset cursor for feeds ordered by (createdAt DESC, id DESC).
+ * The token is the position of the last row of the previous page.
+ */
+public final class FeedCursor {
+    private final LocalDateTime createdAt;
+    private final Long id;
+
+    public FeedCursor(LocalDateTime createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static FeedCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new FeedCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+
+    /**
+     * Builds a page from a keyset query that fetched one row more than {@code pageSize};
+     * the extra row only signals that another page exists
+     * @param position The feed position of a row, encoded into the next cursor
+     */
+    public static <T> CursorPageDto<T> page(List<T> rows, int pageSize, Function<T, FeedCursor> position) {
+        if (rows.size() <= pageSize) {
+            return new CursorPageDto<>(rows, null);
+        }
+        List<T> items = rows.subList(0, pageSize);
+        return new CursorPageDto<>(items, position.apply(items.get(pageSize - 1)).encode());
+    }
+}
@@ -1,21 +1,152 @@
 package com.example.main.utils;
 
+import com.example.main.stats.LatencyHistogram;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * BCrypt hashing and verification, run on a small dedicated pool so a burst of logins
+ * cannot occupy every request thread. The pool's queue is bounded: once it is full, calls
+ * fail at once with {@link RejectedExecutionException} and callers should answer 429.
+ */
 public class PasswordHashingService {
+    private static final int BCRYPT_STRENGTH = 12;
+
+    /**
+     * @param upgradedHash A new hash at the configured cost when the stored one used another
+     *                     cost and the password matched; otherwise null
+     */
+    public record Verification(boolean matches, String upgradedHash) {
+    }
+
+    private final int strength;
     private final BCryptPasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
 
-    private static final int BCRYPT_STRENGTH = 12;
+    private final LatencyHistogram hashTimes = new LatencyHistogram();
+    private final LatencyHistogram verifyTimes = new LatencyHistogram();
+    private final LatencyHistogram queueTimes = new LatencyHistogram();
 
     public PasswordHashingService(){
-        this.passwordEncoder = new BCryptPasswordEncoder(BCRYPT_STRENGTH);
+        this(BCRYPT_STRENGTH, Runtime.getRuntime().availableProcessors(), 64);
+    }
+
+    public PasswordHashingService(int strength, int threads, int queueSize){
+        this.strength = strength;
+        this.passwordEncoder = new BCryptPasswordEncoder(strength);
+        AtomicInteger created = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), r -> {
+            Thread thread = new Thread(r, "password-hashing-" + created.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
     }
 
+    /**
+     * Hashes on the pool, waiting for the result
+     * @throws RejectedExecutionException when the pool's queue is full
+     */
     public String hashPassword(String password){
-        return passwordEncoder.encode(password);
+        return await(submit(() -> hash(password)));
     }
 
+    /**
+     * Verifies on the pool, waiting for the result
+     * @throws RejectedExecutionException when the pool's queue is full
+     */
     public boolean verifyPassword(String password, String hashedPassword){
-        return passwordEncoder.matches(password,hashedPassword);
+        return await(submit(() -> verify(password, hashedPassword)));
+    }
+
+    /**
+     * Verifies on the pool without waiting, rehashing the password in the same task when
+     * the stored hash was made with a different cost
+     * @throws RejectedExecutionException when the pool's queue is full
+     */
+    public CompletableFuture<Verification> verifyPasswordAsync(String password, String hashedPassword){
+        return submit(() -> {
+            boolean matches = verify(password, hashedPassword);
+            return new Verification(matches, matches && needsRehash(hashedPassword) ? hash(password) : null);
+        });
+    }
+
+    /**
+     * Whether the hash was made with a cost other than the configured one
+     */
+    public boolean needsRehash(String hashedPassword){
+        // $2a$12$...: the cost is the two digits after the second $
+        if (hashedPassword == null || hashedPassword.length() < 7 || hashedPassword.charAt(3) != '$') {
+            return false;
+        }
+        try {
+            return Integer.parseInt(hashedPassword.substring(4, 6)) != strength;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    public LatencyHistogram.Snapshot getHashTimes(){
+        return hashTimes.snapshot();
+    }
+
+    public LatencyHistogram.Snapshot getVerifyTimes(){
+        return verifyTimes.snapshot();
+    }
+
+    /**
+     * Time tasks spent waiting for a free hashing thread
+     */
+    public LatencyHistogram.Snapshot getQueueTimes(){
+        return queueTimes.snapshot();
+    }
+
+    public int getQueueDepth(){
+        return executor.getQueue().size();
+    }
+
+    public void shutdown(){
+        executor.shutdownNow();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task){
+        long queued = System.nanoTime();
+        return CompletableFuture.supplyAsync(() -> {
+            queueTimes.record(System.nanoTime() - queued);
+            return task.get();
+        }, executor);
+    }
+
+    private String hash(String password){
+        long started = System.nanoTime();
+        String hashed = passwordEncoder.encode(password);
+        hashTimes.record(System.nanoTime() - started);
+        return hashed;
+    }
+
+    private boolean verify(String password, String hashedPassword){
+        long started = System.nanoTime();
+        boolean matches = passwordEncoder.matches(password, hashedPassword);
+        verifyTimes.record(System.nanoTime() - started);
+        return matches;
+    }
+
+    private static <T> T await(CompletableFuture<T> future){
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
     }
 }
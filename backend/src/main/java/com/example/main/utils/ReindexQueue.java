@@ -0,0 +1,90 @@
+package com.example.main.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+/**
+ * Ids whose committed rows an in-memory index still has to re-read, and the scheduling of
+ * the drain that reads them on the index's single indexer thread.
+ * <p>
+ * Ids added before the queue is opened are only held, for the build to drain once it
+ * finishes. Ids are taken off before they are read, so a commit that lands during the read
+ * queues its id again.
+ */
+public final class ReindexQueue {
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final Runnable drain;
+    private volatile ExecutorService indexer;
+
+    /**
+     * @param drain The task that empties this queue; scheduled on the indexer after each add
+     */
+    public ReindexQueue(Runnable drain) {
+        this.drain = drain;
+    }
+
+    /**
+     * Schedules the drain on the indexer after every later add, once the index is built.
+     */
+    public void open(ExecutorService indexer) {
+        this.indexer = indexer;
+    }
+
+    public void add(Long id) {
+        add(List.of(id));
+    }
+
+    public void add(Collection<Long> ids) {
+        pending.addAll(ids);
+        ExecutorService current = indexer;
+        if (current != null && !current.isShutdown()) {
+            current.execute(drain);
+        }
+    }
+
+    /**
+     * Removes and returns every queued id.
+     */
+    public List<Long> take() {
+        List<Long> ids = new ArrayList<>(pending);
+        pending.removeAll(ids);
+        return ids;
+    }
+
+    /**
+     * Queues ids whose read failed again, without scheduling a drain: the next change or
+     * rebuild retries them.
+     */
+    public void putBack(Collection<Long> ids) {
+        pending.addAll(ids);
+    }
+
+    /**
+     * Takes every queued id and hands them to {@code reindex} in batches. If a batch fails,
+     * all of them are put back and the exception is rethrown.
+     */
+    public void drain(int batchSize, Consumer<List<Long>> reindex) {
+        List<Long> ids = take();
+        try {
+            for (int from = 0; from < ids.size(); from += batchSize) {
+                reindex.accept(ids.subList(from, Math.min(from + batchSize, ids.size())));
+            }
+        } catch (RuntimeException e) {
+            putBack(ids);
+            throw e;
+        }
+    }
+
+    /**
+     * A live, read-only view of the queued ids.
+     */
+    public Set<Long> ids() {
+        return Collections.unmodifiableSet(pending);
+    }
+}
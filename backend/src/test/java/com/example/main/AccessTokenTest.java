@@ -0,0 +1,138 @@
+package com.example.main;
+
+import com.example.main.security.AccessPolicy;
+import com.example.main.security.AccessToken;
+import com.example.main.security.AccessTokenService;
+import com.example.main.security.RequestIdentity;
+import com.example.main.security.TokenRevocationList;
+import com.example.main.service.AuthorSummary;
+import com.example.main.service.AuthorSummaryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class AccessTokenTest {
+    @Mock
+    private AuthorSummaryService authorSummaryService;
+
+    @InjectMocks
+    private AccessPolicy accessPolicy;
+
+    private final TokenRevocationList revocationList = new TokenRevocationList();
+    private final AccessTokenService accessTokenService = new AccessTokenService();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(revocationList, "ttlSeconds", 900L);
+        ReflectionTestUtils.setField(revocationList, "refreshWindowSeconds", 86400L);
+        ReflectionTestUtils.setField(accessTokenService, "revocationList", revocationList);
+        ReflectionTestUtils.setField(accessTokenService, "secret", "test-secret");
+        ReflectionTestUtils.setField(accessTokenService, "ttlSeconds", 900L);
+        ReflectionTestUtils.setField(accessTokenService, "refreshWindowSeconds", 86400L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestIdentity.restore(null);
+    }
+
+    private void bind(AccessToken token) {
+        RequestIdentity.bind(new RequestIdentity(token));
+    }
+
+    @Test
+    void verifiesSignedTokensAndRejectsTamperedOrRevokedOnes() {
+        String token = accessTokenService.issue(7L, true, false);
+
+        AccessToken claims = accessTokenService.verify(token).orElseThrow();
+        assertEquals(7L, claims.userId());
+        assertTrue(claims.moderator());
+        assertFalse(claims.banned());
+
+        // promoting yourself to another user id breaks the signature
+        assertTrue(accessTokenService.verify(token.replaceFirst("v1\\.7\\.", "v1.8.")).isEmpty());
+        assertTrue(accessTokenService.verify(token + "x").isEmpty());
+        assertTrue(accessTokenService.verify("garbage").isEmpty());
+
+        revocationList.revoke(7L, TokenRevocationList.Reason.FLAGS_CHANGED);
+        assertTrue(accessTokenService.verify(token).isEmpty());
+        // a revoked token can still be refreshed, since refreshing reads the user's flags again
+        assertTrue(accessTokenService.verifyForRefresh(token).isPresent());
+    }
+
+    @Test
+    void tokensFromBeforeAPasswordChangeCannotBeRefreshed() throws InterruptedException {
+        String stolen = accessTokenService.issue(7L, false, false);
+        revocationList.revoke(7L, TokenRevocationList.Reason.SESSIONS_ENDED);
+
+        assertTrue(accessTokenService.verify(stolen).isEmpty());
+        assertTrue(accessTokenService.verifyForRefresh(stolen).isEmpty());
+        // a later flag change does not bring it back
+        revocationList.revoke(7L, TokenRevocationList.Reason.FLAGS_CHANGED);
+        assertTrue(accessTokenService.verifyForRefresh(stolen).isEmpty());
+
+        // tokens from the next login are unaffected; issue times are in milliseconds
+        Thread.sleep(2);
+        String fresh = accessTokenService.issue(7L, false, false);
+        assertTrue(accessTokenService.verify(fresh).isPresent());
+        assertTrue(accessTokenService.verifyForRefresh(fresh).isPresent());
+    }
+
+    @Test
+    void expiredTokensAreOnlyAcceptedForRefresh() {
+        ReflectionTestUtils.setField(accessTokenService, "ttlSeconds", -1L);
+        String token = accessTokenService.issue(7L, false, false);
+
+        assertTrue(accessTokenService.verify(token).isEmpty());
+        assertTrue(accessTokenService.verifyForRefresh(token).isPresent());
+
+        ReflectionTestUtils.setField(accessTokenService, "refreshWindowSeconds", 0L);
+        assertTrue(accessTokenService.verifyForRefresh(token).isEmpty());
+    }
+
+    @Test
+    void decidesFromTheTokenWithoutLookingUpTheUser() {
+        bind(accessTokenService.verify(accessTokenService.issue(1L, true, false)).orElseThrow());
+        assertTrue(accessPolicy.isModerator(1L));
+        assertFalse(accessPolicy.isModerator(2L));
+        assertTrue(accessPolicy.isAuthorOrModerator(1L, () -> fail("moderators skip the author lookup")));
+
+        bind(accessTokenService.verify(accessTokenService.issue(2L, false, false)).orElseThrow());
+        assertFalse(accessPolicy.isModerator(2L));
+        assertTrue(accessPolicy.isAuthorOrModerator(2L, () -> Optional.of(2L)));
+        assertFalse(accessPolicy.isAuthorOrModerator(2L, () -> Optional.of(3L)));
+        assertFalse(accessPolicy.actsAs(1L));
+        verifyNoInteractions(authorSummaryService);
+    }
+
+    @Test
+    void looksUpATokenlessCallerOncePerRequest() {
+        when(authorSummaryService.find(1L)).thenReturn(Optional.of(new AuthorSummary(1L, "ana", true, false, 0)));
+        bind(null);
+
+        assertTrue(accessPolicy.isModerator(1L));
+        assertTrue(accessPolicy.actsAs(1L));
+        assertTrue(accessPolicy.isAuthorOrModerator(1L, Optional::empty));
+        verify(authorSummaryService, times(1)).find(1L);
+
+        // the next request looks the user up again
+        bind(null);
+        assertTrue(accessPolicy.isModerator(1L));
+        verify(authorSummaryService, times(2)).find(1L);
+
+        // without a token the old id-based checks apply unless tokens are required
+        ReflectionTestUtils.setField(accessPolicy, "tokensRequired", true);
+        assertFalse(accessPolicy.isModerator(1L));
+        assertFalse(accessPolicy.actsAs(1L));
+    }
+}
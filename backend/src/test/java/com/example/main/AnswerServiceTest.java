@@ -0,0 +1,128 @@
+package com.example.main;
+
+import com.example.main.dto.AnswerDto;
+import com.example.main.model.Answer;
+import com.example.main.model.Question;
+import com.example.main.model.User;
+import com.example.main.repository.AnswerRepository;
+import com.example.main.service.AnswerService;
+import com.example.main.service.QuestionService;
+import com.example.main.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class AnswerServiceTest {
+    @Mock
+    private AnswerRepository answerRepository;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private QuestionService questionService;
+
+    @InjectMocks
+    private AnswerService answerService;
+
+    private Question question;
+    private User author;
+
+    @BeforeEach
+    void setUp(){
+        MockitoAnnotations.openMocks(this);
+
+        author = new User();
+        author.setId(1L);
+        author.setUsername("author");
+
+        question = new Question();
+        question.setId(10L);
+        question.setAuthor(author);
+        question.setStatus("in progress");
+    }
+
+    @Test
+    void getAnswersByQuestionOrdersByStoredRank(){
+        List<Answer> answers = answers(3);
+        answers.get(0).setUpvoteCount(5);
+        answers.get(0).setDownvoteCount(1);
+        when(answerRepository.findPageByQuestionId(eq(10L), any(Pageable.class))).thenReturn(answers);
+
+        List<AnswerDto> result = answerService.getAnswersByQuestion(10L);
+
+        // the database orders the rows; they are returned as they come
+        assertEquals(List.of(100L, 101L, 102L), result.stream().map(AnswerDto::getId).toList());
+        assertEquals(5, result.get(0).getUpvotes());
+        assertEquals(1, result.get(0).getDownvotes());
+        assertEquals(0, result.get(2).getUpvotes());
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(answerRepository).findPageByQuestionId(eq(10L), pageable.capture());
+        assertTrue(pageable.getValue().isUnpaged());
+        assertEquals(Sort.by(Sort.Order.desc("rankScore"), Sort.Order.asc("id")), pageable.getValue().getSort());
+    }
+
+    @Test
+    void getAnswersByQuestionPagesInTheRequestedOrder(){
+        when(answerRepository.findPageByQuestionId(eq(10L), any(Pageable.class))).thenReturn(answers(2));
+        ReflectionTestUtils.setField(answerService, "maxPageSize", 100);
+
+        answerService.getAnswersByQuestion(10L, "newest", 1, 2);
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(answerRepository).findPageByQuestionId(eq(10L), pageable.capture());
+        assertEquals(2, pageable.getValue().getOffset());
+        assertEquals(2, pageable.getValue().getPageSize());
+        assertEquals(Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id")), pageable.getValue().getSort());
+        assertThrows(IllegalArgumentException.class, () -> answerService.getAnswersByQuestion(10L, "random", 0, 10));
+    }
+
+    @Test
+    void getAnswersByQuestionIssuesConstantQueryCount(){
+        assertEquals(1, repositoryCallsFor(3));
+        assertEquals(1, repositoryCallsFor(50));
+    }
+
+    private int repositoryCallsFor(int answerCount){
+        reset(answerRepository, questionService);
+        List<Answer> answers = answers(answerCount);
+        for (Answer answer : answers) {
+            answer.setUpvoteCount((int) (answer.getId() % 7));
+            answer.setDownvoteCount((int) (answer.getId() % 3));
+        }
+        when(answerRepository.findPageByQuestionId(eq(10L), any(Pageable.class))).thenReturn(answers);
+
+        assertEquals(answerCount, answerService.getAnswersByQuestion(10L).size());
+
+        // vote totals are read from the answer rows, never from the votes table
+        return mockingDetails(answerRepository).getInvocations().size();
+    }
+
+    private List<Answer> answers(int count){
+        List<Answer> answers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Answer answer = new Answer();
+            answer.setId(100L + i);
+            answer.setQuestion(question);
+            answer.setAuthor(author);
+            answer.setText("answer " + i);
+            answer.setCreatedAt(LocalDateTime.now());
+            answers.add(answer);
+        }
+        return answers;
+    }
+}
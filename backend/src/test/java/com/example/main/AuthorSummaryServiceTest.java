@@ -0,0 +1,89 @@
+package com.example.main;
+
+import com.example.main.repository.AuthorSummaryView;
+import com.example.main.repository.UserRepository;
+import com.example.main.service.AuthorSummary;
+import com.example.main.service.AuthorSummaryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class AuthorSummaryServiceTest {
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private AuthorSummaryService authorSummaryService;
+
+    private final Map<Long, String> names = new HashMap<>(Map.of(1L, "ana", 2L, "bob", 3L, "cy", 4L, "dee"));
+
+    private AuthorSummaryView row(long id) {
+        String name = names.get(id);
+        return new AuthorSummaryView() {
+            public Long getId() { return id; }
+            public String getUsername() { return name; }
+            public Boolean getModerator() { return id == 1; }
+            public Boolean getBanned() { return false; }
+            public Float getScore() { return 0f; }
+        };
+    }
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(authorSummaryService, "maxSize", 3);
+        when(userRepository.findSummariesByIdIn(anyCollection())).thenAnswer(inv ->
+                ((Collection<Long>) inv.getArgument(0)).stream()
+                        .filter(names::containsKey)
+                        .map(this::row)
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void loadsMissesInOneQueryAndServesHitsFromCache() {
+        Map<Long, AuthorSummary> found = authorSummaryService.findAll(List.of(1L, 2L, 2L, 99L));
+
+        assertEquals(Set.of(1L, 2L), found.keySet());
+        assertTrue(found.get(1L).moderator());
+        verify(userRepository).findSummariesByIdIn(argThat((Collection<Long> ids) -> ids.size() == 3));
+
+        authorSummaryService.findAll(List.of(1L, 2L));
+        assertEquals("bob", authorSummaryService.find(2L).get().username());
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedAndReloadsAfterInvalidation() {
+        authorSummaryService.findAll(List.of(1L, 2L, 3L));
+        // touch 1 so 2 is the least recently used
+        authorSummaryService.find(1L);
+        authorSummaryService.find(4L);
+        assertEquals(3, authorSummaryService.size());
+
+        clearInvocations(userRepository);
+        authorSummaryService.find(1L);
+        verifyNoInteractions(userRepository);
+        authorSummaryService.find(2L);
+        verify(userRepository).findSummariesByIdIn(Set.of(2L));
+
+        names.put(1L, "ana2");
+        authorSummaryService.invalidate(1L);
+        assertEquals("ana2", authorSummaryService.find(1L).get().username());
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.main;
+
+import com.example.main.stats.ForwardDecayRanking;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ForwardDecayRankingTest {
+
+    private static final long HOUR = 3_600_000;
+
+    private static List<Long> ids(List<ForwardDecayRanking.Ranked> ranked) {
+        return ranked.stream().map(ForwardDecayRanking.Ranked::id).collect(Collectors.toList());
+    }
+
+    @Test
+    void recentActivityOutranksOlderActivity() {
+        ForwardDecayRanking ranking = new ForwardDecayRanking(HOUR, 0);
+        ranking.add(1, 10, 0);
+        ranking.add(2, 4, 2 * HOUR);
+        // two half-lives on, 10 has decayed to 2.5
+        assertEquals(List.of(2L, 1L), ids(ranking.top(0, 10, 2 * HOUR)));
+        assertEquals(2.5, ranking.top(1, 1, 2 * HOUR).get(0).score(), 1e-9);
+
+        ranking.add(1, 2, 2 * HOUR);
+        assertEquals(List.of(1L, 2L), ids(ranking.top(0, 10, 3 * HOUR)));
+        assertEquals(List.of(2L), ids(ranking.top(1, 1, 3 * HOUR)));
+
+        ranking.add(1, -4, 3 * HOUR);
+        ranking.remove(2);
+        assertEquals(List.of(1L), ids(ranking.top(0, 10, 3 * HOUR)));
+    }
+
+    @Test
+    void rebaseKeepsOrderAndDropsFadedIds() {
+        ForwardDecayRanking ranking = new ForwardDecayRanking(HOUR, 0);
+        ranking.add(1, 1, 0);
+        ranking.add(2, 100, 0);
+        ranking.add(3, 50, 5 * HOUR);
+
+        assertEquals(1, ranking.rebase(10 * HOUR, 0.01));
+        assertEquals(List.of(3L, 2L), ids(ranking.top(0, 10, 10 * HOUR)));
+        assertEquals(100 / 1024.0, ranking.top(1, 1, 10 * HOUR).get(0).score(), 1e-9);
+
+        // scores after the rebase line up with events added before it
+        ranking.add(2, 50 / 32.0 - 100 / 1024.0, 10 * HOUR);
+        ranking.add(4, 1, 10 * HOUR);
+        assertEquals(List.of(3L, 2L, 4L), ids(ranking.top(0, 10, 10 * HOUR)));
+        assertEquals(ranking.top(0, 1, 11 * HOUR).get(0).score(), ranking.top(1, 1, 11 * HOUR).get(0).score(), 1e-9);
+    }
+}
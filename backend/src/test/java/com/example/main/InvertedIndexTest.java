@@ -0,0 +1,82 @@
+package com.example.main;
+
+import com.example.main.search.InvertedIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InvertedIndexTest {
+
+    private InvertedIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex();
+        index.put(1, "How do I sort a list in Java?", "I have a list of numbers and want them ordered.",
+                List.of("java"), List.of("Use Collections.sort or list.sort with a comparator."));
+        index.put(2, "Spring Boot startup is slow", "Sorting out the startup time of my application.",
+                List.of("spring-boot"), List.of());
+        index.put(3, "Null pointer when parsing JSON", "The parser throws on an empty list.",
+                List.of("java", "json"), List.of("Check for the empty list before parsing."));
+    }
+
+    private List<Long> ids(String query) {
+        return index.search(query, 0, 10).hits().stream().map(InvertedIndex.Hit::id).collect(Collectors.toList());
+    }
+
+    @Test
+    void ranksTitleMatchesAboveBodyMatchesAndStemsInflections() {
+        // "sorting" and "sort" share a stem; question 1 has it in the title
+        List<Long> hits = ids("sorting");
+        assertEquals(List.of(1L, 2L), hits);
+    }
+
+    @Test
+    void requiresEveryClauseAndMatchesPhrasesOnlyWhenAdjacent() {
+        assertEquals(List.of(3L), ids("java json"));
+        assertEquals(List.of(3L), ids("\"empty list\""));
+        assertTrue(ids("\"list empty\"").isEmpty());
+    }
+
+    @Test
+    void expandsPrefixesAndReflectsUpdatesAndRemovals() {
+        assertEquals(List.of(3L), ids("pars*"));
+
+        index.put(2, "Parsing YAML in Spring Boot", "Startup fails on a bad file.", List.of("spring-boot"), List.of());
+        assertEquals(2, ids("pars*").size());
+
+        index.remove(3);
+        assertEquals(List.of(2L), ids("pars*"));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void pagesResultsAndReportsTheTotal() {
+        InvertedIndex.Result page = index.search("list", 1, 1);
+        assertEquals(2, page.total());
+        assertEquals(1, page.hits().size());
+    }
+
+    @Test
+    void snapshotRoundTripKeepsSearchResults() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeTo(new DataOutputStream(bytes));
+
+        InvertedIndex restored = new InvertedIndex();
+        restored.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(index.size(), restored.size());
+        assertEquals(ids("list"), restored.search("list", 0, 10).hits().stream()
+                .map(InvertedIndex.Hit::id).collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.main;
+
+import com.example.main.stats.LatencyHistogram;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    void reportsPercentilesWithinABucketOfTheTrueValue() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        // 1..1000 ms
+        for (int ms = 1; ms <= 1000; ms++) {
+            histogram.record(ms * 1_000_000L);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.count());
+        assertEquals(500.5, snapshot.meanMs(), 0.01);
+        assertEquals(500, snapshot.p50Ms(), 500 * 0.125);
+        assertEquals(900, snapshot.p90Ms(), 900 * 0.125);
+        assertEquals(990, snapshot.p99Ms(), 990 * 0.125);
+        assertEquals(1000, snapshot.maxMs());
+        assertTrue(snapshot.p99Ms() <= snapshot.maxMs());
+    }
+
+    @Test
+    void emptyAndTinyDurations() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.snapshot().count());
+
+        histogram.record(3_000);
+        histogram.record(-5);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(2, snapshot.count());
+        assertEquals(0.003, snapshot.maxMs());
+        assertEquals(0.003, snapshot.p99Ms());
+    }
+}
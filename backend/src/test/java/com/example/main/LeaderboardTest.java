@@ -0,0 +1,82 @@
+package com.example.main;
+
+import com.example.main.stats.Leaderboard;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LeaderboardTest {
+
+    private static List<Long> ids(List<Leaderboard.Entry> entries) {
+        return entries.stream().map(Leaderboard.Entry::id).collect(Collectors.toList());
+    }
+
+    @Test
+    void ranksByScoreThenId() {
+        Leaderboard board = new Leaderboard();
+        board.put(1, 10);
+        board.put(2, 30);
+        board.put(3, 10);
+        board.add(4, 20);
+
+        assertEquals(List.of(2L, 4L, 1L, 3L), ids(board.range(0, 10)));
+        assertEquals(new Leaderboard.Entry(1, 10, 3), board.get(1));
+
+        board.add(3, 25);
+        assertEquals(1, board.get(3).rank());
+        assertEquals(List.of(4L, 1L), ids(board.range(2, 2)));
+        assertEquals(List.of(3L, 2L, 4L), ids(board.around(2, 1)));
+        assertEquals(List.of(3L, 2L, 4L, 1L), ids(board.around(3, 5)));
+
+        board.remove(2);
+        assertNull(board.get(2));
+        assertTrue(board.around(2, 1).isEmpty());
+        assertEquals(3, board.size());
+    }
+
+    @Test
+    void matchesASortedListUnderRandomUpdates() {
+        Leaderboard board = new Leaderboard();
+        Map<Long, Double> expected = new HashMap<>();
+        Random random = new Random(17);
+        for (int step = 0; step < 20000; step++) {
+            long id = random.nextInt(500);
+            int op = random.nextInt(10);
+            if (op == 0) {
+                board.remove(id);
+                expected.remove(id);
+            } else if (op < 5) {
+                double score = random.nextInt(50);
+                board.put(id, score);
+                expected.put(id, score);
+            } else {
+                double delta = random.nextInt(11) - 5;
+                board.add(id, delta);
+                expected.merge(id, delta, Double::sum);
+            }
+        }
+
+        List<Map.Entry<Long, Double>> sorted = new ArrayList<>(expected.entrySet());
+        sorted.sort(Comparator.comparing(Map.Entry<Long, Double>::getValue).reversed()
+                .thenComparing(Map.Entry::getKey));
+        List<Leaderboard.Entry> all = board.range(0, Integer.MAX_VALUE);
+        assertEquals(sorted.size(), board.size());
+        assertEquals(sorted.stream().map(Map.Entry::getKey).collect(Collectors.toList()), ids(all));
+        for (int i = 0; i < sorted.size(); i++) {
+            Leaderboard.Entry entry = board.get(sorted.get(i).getKey());
+            assertEquals(i + 1, entry.rank());
+            assertEquals(sorted.get(i).getValue(), entry.score());
+        }
+        assertEquals(ids(all.subList(100, 150)), ids(board.range(100, 50)));
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.main;
+
+import com.example.main.utils.PasswordHashingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHashingServiceTest {
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void rehashesOnlyMatchingPasswordsStoredWithAnotherCost() {
+        service = new PasswordHashingService(5, 1, 4);
+        String oldHash = new BCryptPasswordEncoder(4).encode("secret");
+
+        assertTrue(service.needsRehash(oldHash));
+        assertFalse(service.needsRehash(service.hashPassword("secret")));
+        assertNull(service.verifyPasswordAsync("wrong", oldHash).join().upgradedHash());
+
+        PasswordHashingService.Verification verification = service.verifyPasswordAsync("secret", oldHash).join();
+        assertTrue(verification.matches());
+        assertTrue(verification.upgradedHash().startsWith("$2a$05$"));
+        assertTrue(service.verifyPassword("secret", verification.upgradedHash()));
+
+        // one explicit hash and one rehash
+        assertEquals(2, service.getHashTimes().count());
+        assertEquals(3, service.getVerifyTimes().count());
+    }
+
+    @Test
+    void rejectsWorkOnceTheQueueIsFull() {
+        service = new PasswordHashingService(10, 1, 1);
+        String hash = new BCryptPasswordEncoder(10).encode("secret");
+
+        // one check running, one queued, the third has nowhere to go
+        CompletableFuture<PasswordHashingService.Verification> running = service.verifyPasswordAsync("secret", hash);
+        CompletableFuture<PasswordHashingService.Verification> queued = service.verifyPasswordAsync("secret", hash);
+        assertThrows(RejectedExecutionException.class, () -> service.verifyPasswordAsync("secret", hash));
+
+        assertTrue(running.join().matches());
+        assertTrue(queued.join().matches());
+        assertEquals(2, service.getQueueTimes().count());
+    }
+}
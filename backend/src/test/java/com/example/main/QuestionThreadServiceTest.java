@@ -0,0 +1,152 @@
+package com.example.main;
+
+import com.example.main.dto.AnswerDto;
+import com.example.main.dto.QuestionDto;
+import com.example.main.dto.QuestionThreadDto;
+import com.example.main.repository.ThreadVoteView;
+import com.example.main.repository.VoteRepository;
+import com.example.main.service.AnswerService;
+import com.example.main.service.AuthorSummary;
+import com.example.main.service.QuestionService;
+import com.example.main.service.QuestionThreadService;
+import com.example.main.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class QuestionThreadServiceTest {
+    @Mock
+    private QuestionService questionService;
+
+    @Mock
+    private AnswerService answerService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private VoteRepository voteRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private QuestionThreadService questionThreadService;
+
+    private static QuestionDto question(long authorId) {
+        QuestionDto question = new QuestionDto();
+        question.setQuestionId(5L);
+        question.setAuthorId(authorId);
+        return question;
+    }
+
+    private static AnswerDto answer(long id, long authorId) {
+        AnswerDto answer = new AnswerDto();
+        answer.setAnswerId(id);
+        answer.setAuthorId(authorId);
+        return answer;
+    }
+
+    private static ThreadVoteView vote(Long questionId, Long answerId, String voteType) {
+        return new ThreadVoteView() {
+            public Long getQuestionId() { return questionId; }
+            public Long getAnswerId() { return answerId; }
+            public String getVoteType() { return voteType; }
+        };
+    }
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(questionThreadService, "timeoutMs", 2000L);
+        ReflectionTestUtils.setField(questionThreadService, "threads", 4);
+        questionThreadService.start();
+        when(userService.findAuthorSummaries(anyCollection())).thenReturn(Map.of(
+                1L, new AuthorSummary(1L, "ana", false, false, 0)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        questionThreadService.stop();
+    }
+
+    @Test
+    void loadsThePartsAtTheSameTime() {
+        // each part waits for the other two, so a sequential load would time out
+        CyclicBarrier allStarted = new CyclicBarrier(3);
+        when(questionService.getQuestionById(5L)).thenAnswer(inv -> {
+            allStarted.await(1, TimeUnit.SECONDS);
+            return Optional.of(question(1L));
+        });
+        when(answerService.getAnswersByQuestion(5L)).thenAnswer(inv -> {
+            allStarted.await(1, TimeUnit.SECONDS);
+            return List.of(answer(10L, 2L), answer(11L, 3L));
+        });
+        when(voteRepository.findThreadVotes(7L, 5L)).thenAnswer(inv -> {
+            allStarted.await(1, TimeUnit.SECONDS);
+            return List.of(vote(5L, null, "upvote"), vote(null, 11L, "downvote"));
+        });
+
+        QuestionThreadDto thread = questionThreadService.getThread(5L, 7L).orElseThrow();
+
+        assertEquals(2, thread.getAnswers().size());
+        assertEquals("upvote", thread.getQuestionVote());
+        assertEquals(Map.of(11L, "downvote"), thread.getAnswerVotes());
+        assertEquals("ana", thread.getAuthors().get(1L).username());
+        assertTrue(thread.getIncomplete().isEmpty());
+        verify(userService).findAuthorSummaries(Set.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void leavesOutLatePartsButNotTheQuestion() throws Exception {
+        ReflectionTestUtils.setField(questionThreadService, "timeoutMs", 200L);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(questionService.getQuestionById(5L)).thenReturn(Optional.of(question(1L)));
+        when(answerService.getAnswersByQuestion(5L)).thenAnswer(inv -> {
+            try {
+                Thread.sleep(2000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return List.of();
+        });
+
+        QuestionThreadDto thread = questionThreadService.getThread(5L, null).orElseThrow();
+        assertNull(thread.getAnswers());
+        assertEquals(List.of("answers"), thread.getIncomplete());
+        assertEquals(Map.of(), thread.getAnswerVotes());
+        verifyNoInteractions(voteRepository);
+        // the late part is cancelled, not left running
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+
+        when(questionService.getQuestionById(6L)).thenAnswer(inv -> {
+            Thread.sleep(2000);
+            return Optional.empty();
+        });
+        CompletionException late = assertThrows(CompletionException.class, () -> questionThreadService.getThread(6L, null));
+        assertInstanceOf(TimeoutException.class, late.getCause());
+
+        when(questionService.getQuestionById(7L)).thenReturn(Optional.empty());
+        assertTrue(questionThreadService.getThread(7L, null).isEmpty());
+    }
+}
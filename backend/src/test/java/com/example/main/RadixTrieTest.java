@@ -0,0 +1,62 @@
+package com.example.main;
+
+import com.example.main.search.RadixTrie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RadixTrieTest {
+
+    private RadixTrie trie;
+
+    @BeforeEach
+    void setUp() {
+        trie = new RadixTrie();
+        trie.put("java", 1, "java", 120);
+        trie.put("javascript", 2, "javascript", 300);
+        trie.put("java-ee", 3, "java-ee", 15);
+        trie.put("jakarta", 4, "jakarta", 40);
+        trie.put("json", 5, "json", 80);
+    }
+
+    private List<Long> ids(String prefix, int k) {
+        return trie.top(prefix, k).stream().map(RadixTrie.Suggestion::id).collect(Collectors.toList());
+    }
+
+    @Test
+    void returnsTheHeaviestKeysUnderAPrefix() {
+        assertEquals(List.of(2L, 1L, 4L), ids("ja", 3));
+        assertEquals(List.of(2L, 1L, 3L), ids("JAV", 10));
+        // a prefix ending part way along an edge
+        assertEquals(List.of(2L), ids("javas", 10));
+        assertTrue(ids("jq", 10).isEmpty());
+    }
+
+    @Test
+    void reweightsAndRemovesEntries() {
+        trie.put("java-ee", 3, "java-ee", 500);
+        assertEquals(List.of(3L, 2L), ids("java", 2));
+
+        trie.remove("javascript", 2);
+        trie.remove("java", 1);
+        assertEquals(List.of(3L), ids("java", 10));
+        assertEquals(List.of(3L, 5L, 4L), ids("j", 10));
+        assertEquals(3, trie.size());
+    }
+
+    @Test
+    void returnsEachIdOnceWhenStoredUnderSeveralKeys() {
+        trie.put("sort a list in java", 10, "Sort a list in Java", 1000);
+        trie.put("list in java", 10, "Sort a list in Java", 1000);
+        trie.put("java", 10, "Sort a list in Java", 1000);
+
+        List<RadixTrie.Suggestion> top = trie.top("java", 2);
+        assertEquals(List.of(10L, 2L), top.stream().map(RadixTrie.Suggestion::id).collect(Collectors.toList()));
+        assertEquals("Sort a list in Java", top.get(0).text());
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.main;
+
+import com.example.main.dto.UserDto;
+import com.example.main.model.User;
+import com.example.main.repository.UserRepository;
+import com.example.main.security.AccessTokenService;
+import com.example.main.service.AuthorSummaryService;
+import com.example.main.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.main.RequestIdentityTest$UserQueries")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class RequestIdentityTest {
+
+    /**
+     * Records the queries against the users table issued by the test thread while recording.
+     */
+    public static class UserQueries implements StatementInspector {
+        private static final Pattern USERS = Pattern.compile("\\b(from|join) users\\b");
+        private static final ThreadLocal<List<String>> RECORDED = new ThreadLocal<>();
+
+        static List<String> start() {
+            RECORDED.set(new ArrayList<>());
+            return RECORDED.get();
+        }
+
+        static void stop() {
+            RECORDED.remove();
+        }
+
+        @Override
+        public String inspect(String sql) {
+            List<String> recorded = RECORDED.get();
+            String lower = sql.toLowerCase(Locale.ROOT);
+            if (recorded != null && lower.startsWith("select") && USERS.matcher(lower).find()) {
+                recorded.add(sql);
+            }
+            return sql;
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccessTokenService accessTokenService;
+
+    @Autowired
+    private AuthorSummaryService authorSummaryService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private UserDto moderator;
+    private UserDto member;
+
+    private UserDto createUser(String prefix) {
+        String suffix = prefix + System.nanoTime();
+        return userService.createUser(suffix, suffix + "@example.com", "password123", "1234567890");
+    }
+
+    @BeforeEach
+    public void setUp() {
+        moderator = createUser("moderator_");
+        member = createUser("member_");
+        User user = userRepository.findById(moderator.getId()).orElseThrow();
+        user.setModerator(true);
+        userRepository.save(user);
+        entityManagerFactory.getCache().evictAll();
+        authorSummaryService.invalidate(moderator.getId());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        UserQueries.stop();
+    }
+
+    @Test
+    public void testMutatingRequestWithTokenQueriesUsersOnce() throws Exception {
+        String token = accessTokenService.issue(moderator.getId(), true, false);
+
+        List<String> queries = UserQueries.start();
+        mockMvc.perform(put("/users/ban/" + member.getId())
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"banned\": true, \"reason\": \"spam\", \"moderatorId\": " + moderator.getId() + "}"))
+                .andExpect(status().isOk());
+
+        assertEquals(1, queries.size(), queries::toString);
+    }
+
+    @Test
+    public void testTokenlessCallerIsLookedUpOncePerRequest() throws Exception {
+        List<String> queries = UserQueries.start();
+        mockMvc.perform(put("/users/" + member.getId() + "/profile")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"isModerator\": false, \"isBanned\": true, \"banReason\": \"spam\", \"moderatorId\": "
+                                + moderator.getId() + "}"))
+                .andExpect(status().isOk());
+
+        // the caller, resolved once for both the moderator and the ban checks, and the member
+        assertEquals(2, queries.size(), queries::toString);
+    }
+}
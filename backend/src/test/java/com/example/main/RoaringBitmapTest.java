@@ -0,0 +1,89 @@
+package com.example.main;
+
+import com.example.main.search.RoaringBitmap;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RoaringBitmapTest {
+
+    // Dense values in the first chunk force a bitmap container; the rest stay sparse arrays
+    private static TreeSet<Integer> sample(Random random, int dense, int sparse) {
+        TreeSet<Integer> values = new TreeSet<>();
+        while (values.size() < dense) {
+            values.add(random.nextInt(65536));
+        }
+        while (values.size() < dense + sparse) {
+            values.add(65536 + random.nextInt(5_000_000));
+        }
+        return values;
+    }
+
+    private static RoaringBitmap bitmap(TreeSet<Integer> values) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        values.forEach(bitmap::add);
+        return bitmap;
+    }
+
+    private static int[] descending(TreeSet<Integer> values) {
+        return values.descendingSet().stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Test
+    void setOperationsMatchAReferenceSetAcrossContainerKinds() {
+        Random random = new Random(42);
+        TreeSet<Integer> a = sample(random, 20_000, 3_000);
+        TreeSet<Integer> b = sample(random, 30_000, 3_000);
+        RoaringBitmap left = bitmap(a);
+        RoaringBitmap right = bitmap(b);
+
+        TreeSet<Integer> and = new TreeSet<>(a);
+        and.retainAll(b);
+        TreeSet<Integer> or = new TreeSet<>(a);
+        or.addAll(b);
+        TreeSet<Integer> andNot = new TreeSet<>(a);
+        andNot.removeAll(b);
+
+        assertEquals(a.size(), left.cardinality());
+        assertArrayEquals(descending(and), RoaringBitmap.and(left, right).descendingBelow(Integer.MAX_VALUE, and.size()));
+        assertArrayEquals(descending(or), RoaringBitmap.or(left, right).descendingBelow(Integer.MAX_VALUE, or.size()));
+        assertArrayEquals(descending(andNot), RoaringBitmap.andNot(left, right).descendingBelow(Integer.MAX_VALUE, andNot.size()));
+    }
+
+    @Test
+    void pagesDownwardFromACursor() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int value : new int[]{3, 70_000, 65_535, 65_536, 200_000, 9}) {
+            bitmap.add(value);
+        }
+        assertArrayEquals(new int[]{200_000, 70_000}, bitmap.descendingBelow(Integer.MAX_VALUE, 2));
+        assertArrayEquals(new int[]{65_536, 65_535, 9}, bitmap.descendingBelow(70_000, 3));
+        assertArrayEquals(new int[]{3}, bitmap.descendingBelow(9, 10));
+        assertEquals(0, bitmap.descendingBelow(3, 10).length);
+    }
+
+    @Test
+    void removalsShrinkDenseContainersAndDropEmptyOnes() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int i = 0; i < 10_000; i++) {
+            bitmap.add(i);
+        }
+        bitmap.add(1_000_000);
+        for (int i = 0; i < 10_000; i += 2) {
+            bitmap.remove(i);
+        }
+        assertEquals(5_001, bitmap.cardinality());
+        assertTrue(bitmap.contains(9_999));
+        assertFalse(bitmap.contains(9_998));
+
+        bitmap.remove(1_000_000);
+        assertFalse(bitmap.contains(1_000_000));
+        assertArrayEquals(new int[]{9_999, 9_997}, bitmap.descendingBelow(Integer.MAX_VALUE, 2));
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.main;
+
+import com.example.main.job.ScoreReconciliationJob;
+import com.example.main.repository.UserRepository;
+import com.example.main.repository.UserScoreView;
+import com.example.main.repository.VoteRepository;
+import com.example.main.repository.VoteScoreView;
+import com.example.main.service.LeaderboardService;
+import com.example.main.service.UserSearchService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ScoreReconciliationJobTest {
+    @Mock
+    private VoteRepository voteRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserSearchService userSearchService;
+
+    @Mock
+    private LeaderboardService leaderboardService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private ScoreReconciliationJob job;
+
+    private final List<Long> voteIds = new ArrayList<>();
+    private final List<VoteScoreView> votes = new ArrayList<>();
+
+    private static VoteScoreView vote(long voterId, String voteType, Long questionAuthorId, Long answerAuthorId) {
+        return new VoteScoreView() {
+            public Long getVoterId() { return voterId; }
+            public String getVoteType() { return voteType; }
+            public Long getQuestionAuthorId() { return questionAuthorId; }
+            public Long getAnswerAuthorId() { return answerAuthorId; }
+        };
+    }
+
+    private static UserScoreView user(long id, float score) {
+        return new UserScoreView() {
+            public Long getId() { return id; }
+            public String getUsername() { return "user" + id; }
+            public Float getScore() { return score; }
+        };
+    }
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(job, "chunkSize", 10);
+        ReflectionTestUtils.setField(job, "parallelism", 2);
+
+        // user 1's answers get 20 upvotes from users 2 and 3: +100
+        for (long id = 1; id <= 20; id++) {
+            voteIds.add(id);
+            votes.add(vote(id % 2 == 0 ? 2 : 3, "upvote", null, 1L));
+        }
+        // user 1 downvotes a question by user 2: -1.5 each
+        voteIds.add(25L);
+        votes.add(vote(1, "downvote", 2L, null));
+
+        when(voteRepository.findMaxId()).thenReturn(25L);
+        when(voteRepository.findScoreRowsBetween(anyLong(), anyLong())).thenAnswer(inv -> {
+            long from = inv.getArgument(0);
+            long to = inv.getArgument(1);
+            List<VoteScoreView> chunk = new ArrayList<>();
+            for (int i = 0; i < voteIds.size(); i++) {
+                if (voteIds.get(i) >= from && voteIds.get(i) <= to) {
+                    chunk.add(votes.get(i));
+                }
+            }
+            return chunk;
+        });
+        when(userRepository.findMaxId()).thenReturn(3L);
+        when(userRepository.findScoresBetween(anyLong(), anyLong()))
+                .thenReturn(List.of(user(1, 98.5f), user(2, 0), user(3, 5)));
+    }
+
+    @Test
+    void dryRunReportsDriftWithoutWriting() {
+        ScoreReconciliationJob.Report report = job.reconcile(true);
+
+        assertEquals(21, report.votes());
+        assertEquals(3, report.users());
+        Map<Long, Double> drift = report.drifted().stream()
+                .collect(Collectors.toMap(ScoreReconciliationJob.Drift::userId, ScoreReconciliationJob.Drift::difference));
+        assertEquals(Map.of(2L, -1.5, 3L, -5.0), drift);
+        assertEquals(0, report.corrected());
+        // 25 ids in chunks of at most 10
+        verify(voteRepository, atLeast(3)).findScoreRowsBetween(anyLong(), anyLong());
+        verifyNoInteractions(jdbcTemplate, leaderboardService, userSearchService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void appliesCorrectionsInOneBatch() {
+        ScoreReconciliationJob.Report report = job.reconcile(false);
+
+        assertEquals(2, report.corrected());
+        ArgumentCaptor<Collection<ScoreReconciliationJob.Drift>> corrections = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), corrections.capture(), anyInt(), any());
+        assertEquals(2, corrections.getValue().size());
+        verify(userSearchService).scoreChanged(3L);
+        verify(leaderboardService).scoreChanged(2L);
+        verify(leaderboardService).scoreChanged(3L);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.main;
+
+import com.example.main.dto.TagDto;
+import com.example.main.dto.UserDto;
+import com.example.main.model.Tag;
+import com.example.main.model.User;
+import com.example.main.repository.TagRepository;
+import com.example.main.repository.UserRepository;
+import com.example.main.service.TagService;
+import com.example.main.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not transactional: each repository call runs in its own session, so only the
+// second-level cache can save it a round trip
+@SpringBootTest
+@ActiveProfiles("test")
+public class SecondLevelCacheTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private final List<Long> createdUsers = new ArrayList<>();
+    private final List<String> createdTags = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    // Nothing here runs in a rolled-back transaction, so remove what the test committed
+    @AfterEach
+    public void cleanUp() {
+        userRepository.deleteAllByIdInBatch(createdUsers);
+        createdTags.forEach(name -> tagService.findTagId(name).ifPresent(tagService::deleteTag));
+    }
+
+    private UserDto createUser(String prefix) {
+        String suffix = prefix + System.nanoTime();
+        UserDto user = userService.createUser(suffix, suffix + "@example.com", "password123", "1234567890");
+        createdUsers.add(user.getId());
+        return user;
+    }
+
+    private void resolveTag(String name) {
+        createdTags.add(name);
+        tagService.resolveTags(List.of(name));
+    }
+
+    // Rows read from the database with SQL, rather than from the cache
+    private long fetches(Class<?> entity) {
+        return statistics.getEntityStatistics(entity.getName()).getLoadCount()
+                + statistics.getNaturalIdStatistics(entity.getName()).getExecutionCount();
+    }
+
+    @Test
+    public void testRepeatUserLookupsRunNoSql() {
+        UserDto user = createUser("cached_");
+        userRepository.findById(user.getId());
+        userRepository.findByUsername(user.getUsername());
+
+        long fetches = fetches(User.class);
+        long hits = statistics.getDomainDataRegionStatistics("users").getHitCount();
+        assertEquals(user.getUsername(), userRepository.findById(user.getId()).get().getUsername());
+        assertEquals(user.getId(), userRepository.findByUsername(user.getUsername()).get().getId());
+
+        assertEquals(fetches, fetches(User.class));
+        assertTrue(statistics.getDomainDataRegionStatistics("users").getHitCount() >= hits + 2);
+        assertTrue(statistics.getDomainDataRegionStatistics("users-by-username").getHitCount() > 0);
+    }
+
+    @Test
+    public void testScoreIncrementEvictsOnlyThatUser() {
+        UserDto voted = createUser("voted_");
+        UserDto other = createUser("other_");
+        userRepository.findById(voted.getId());
+        userRepository.findById(other.getId());
+
+        long fetches = fetches(User.class);
+        assertTrue(userService.adjustScore(voted.getId(), 5));
+        assertEquals(5, userRepository.findById(voted.getId()).get().getScore());
+        assertEquals(fetches + 1, fetches(User.class));
+
+        assertTrue(userRepository.findById(other.getId()).isPresent());
+        assertEquals(fetches + 1, fetches(User.class));
+    }
+
+    @Test
+    public void testTagLookupsAreCachedUntilATagIsAdded() {
+        String name = "cached-tag-" + System.nanoTime();
+        resolveTag(name);
+        tagRepository.findByName(name);
+        tagService.getAllTags();
+
+        long fetches = fetches(Tag.class);
+        long queryMisses = statistics.getQueryRegionStatistics("tag-queries").getMissCount();
+        assertTrue(tagRepository.findByName(name).isPresent());
+        assertTrue(tagNames().contains(name));
+        assertEquals(fetches, fetches(Tag.class));
+        assertEquals(queryMisses, statistics.getQueryRegionStatistics("tag-queries").getMissCount());
+        assertTrue(statistics.getQueryRegionStatistics("tag-queries").getHitCount() > 0);
+
+        // the insert invalidates the cached tag list
+        String added = "added-tag-" + System.nanoTime();
+        resolveTag(added);
+        assertTrue(tagNames().contains(added));
+    }
+
+    private List<String> tagNames() {
+        return tagService.getAllTags().stream().map(TagDto::getName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.main;
+
+import com.example.main.stats.CountMinSketch;
+import com.example.main.stats.SlidingTopK;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SlidingTopKTest {
+
+    private static final long MINUTE = 60_000;
+
+    private static List<Long> keys(List<SlidingTopK.Count> counts) {
+        return counts.stream().map(SlidingTopK.Count::key).collect(Collectors.toList());
+    }
+
+    @Test
+    void sketchNeverUndercountsAndStaysCloseForHeavyKeys() {
+        CountMinSketch sketch = new CountMinSketch(256, 4);
+        for (long key = 0; key < 5000; key++) {
+            sketch.add(key, 1);
+        }
+        sketch.add(42, 500);
+        for (long key = 0; key < 5000; key++) {
+            assertTrue(sketch.estimate(key) >= (key == 42 ? 501 : 1));
+        }
+        // e / width of the 5500 total is about 58
+        assertTrue(sketch.estimate(42) <= 501 + 58);
+        assertEquals(5500, sketch.total());
+    }
+
+    @Test
+    void ranksHeavyKeysAmongManyLightOnes() {
+        SlidingTopK top = new SlidingTopK(MINUTE, 10, 1024, 4, 20);
+        long now = 100 * MINUTE;
+        for (long key = 1000; key < 11000; key++) {
+            top.add(key, 1, now);
+        }
+        top.add(7, 300, now);
+        top.add(8, 200, now);
+        top.add(9, 100, now);
+
+        assertEquals(List.of(7L, 8L, 9L), keys(top.top(3, now)));
+        assertEquals(10600, top.total(now));
+    }
+
+    @Test
+    void expiresBucketsAsTheWindowSlides() {
+        SlidingTopK top = new SlidingTopK(MINUTE, 10, 1024, 4, 20);
+        long start = 100 * MINUTE;
+        top.add(1, 50, start);
+        top.add(2, 20, start + 5 * MINUTE);
+        // late, but still inside the window
+        top.add(2, 40, start + 2 * MINUTE);
+        // older than the window by now
+        top.add(3, 90, start - 20 * MINUTE);
+
+        assertEquals(List.of(2L, 1L), keys(top.top(10, start + 5 * MINUTE)));
+        assertEquals(List.of(2L), keys(top.top(10, start + 10 * MINUTE)));
+        assertTrue(top.top(10, start + 30 * MINUTE).isEmpty());
+        assertEquals(0, top.total(start + 30 * MINUTE));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.main;
+
+import com.example.main.search.RoaringBitmap;
+import com.example.main.search.TagExpression;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TagExpressionTest {
+
+    private static final Map<String, List<Integer>> TAGGED = Map.of(
+            "java", List.of(1, 2, 3, 4),
+            "spring", List.of(2, 3, 5),
+            "hibernate", List.of(3),
+            "c++", List.of(6));
+
+    private static int[] evaluate(String expression) {
+        return TagExpression.parse(expression).evaluate(name -> {
+            RoaringBitmap bitmap = new RoaringBitmap();
+            TAGGED.getOrDefault(name, List.of()).forEach(bitmap::add);
+            return bitmap;
+        }, () -> {
+            RoaringBitmap all = new RoaringBitmap();
+            for (int i = 1; i <= 7; i++) {
+                all.add(i);
+            }
+            return all;
+        }).descendingBelow(Integer.MAX_VALUE, 10);
+    }
+
+    @Test
+    void evaluatesOperatorsWithPrecedenceAndImplicitAnd() {
+        assertArrayEquals(new int[]{2}, evaluate("java AND spring NOT hibernate"));
+        assertArrayEquals(new int[]{2}, evaluate("Java spring NOT hibernate"));
+        assertArrayEquals(new int[]{6, 5, 3, 2}, evaluate("spring or c++ and not java or hibernate"));
+        assertArrayEquals(new int[]{5, 3, 2}, evaluate("(java OR c++) AND spring OR spring"));
+        assertArrayEquals(new int[]{7, 6, 5}, evaluate("NOT java"));
+        assertArrayEquals(new int[0], evaluate("java AND unknown"));
+    }
+
+    @Test
+    void collectsNamesAndRejectsMalformedExpressions() {
+        assertEquals(Set.of("java", "c++"), TagExpression.parse("java OR (NOT C++)").tagNames());
+        assertThrows(IllegalArgumentException.class, () -> TagExpression.parse("  "));
+        assertThrows(IllegalArgumentException.class, () -> TagExpression.parse("java AND"));
+        assertThrows(IllegalArgumentException.class, () -> TagExpression.parse("(java OR spring"));
+        assertThrows(IllegalArgumentException.class, () -> TagExpression.parse("java)"));
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.main;
+
+import com.example.main.model.Tag;
+import com.example.main.repository.TagRepository;
+import com.example.main.service.TagService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class TagRepositoryTest {
+    private static final int THREADS = 8;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<String> created = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        created.forEach(name -> tagService.findTagId(name).ifPresent(tagService::deleteTag));
+    }
+
+    private int rows(String name) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tags WHERE name = ?", Integer.class, name);
+    }
+
+    @Test
+    void insertIgnoringDuplicatesSkipsExistingNames() {
+        String suffix = "_" + System.nanoTime();
+        created.addAll(List.of("first" + suffix, "second" + suffix, "third" + suffix));
+        tagRepository.insertIgnoringDuplicates(List.of("first" + suffix, "second" + suffix));
+        Long first = tagRepository.findByName("first" + suffix).orElseThrow().getTagId();
+
+        tagRepository.insertIgnoringDuplicates(List.of("first" + suffix, "third" + suffix));
+
+        assertEquals(first, tagRepository.findByName("first" + suffix).orElseThrow().getTagId());
+        assertEquals(1, rows("first" + suffix));
+        assertEquals(1, rows("second" + suffix));
+        assertEquals(1, rows("third" + suffix));
+    }
+
+    @Test
+    void concurrentRequestsCreatingTheSameTagAllGetIt() throws Exception {
+        String name = "concurrent_" + System.nanoTime();
+        created.addAll(List.of(name, "shared_" + name));
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<List<Tag>>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                results.add(pool.submit(() -> {
+                    go.await();
+                    return tagService.resolveTags(List.of(name, "shared_" + name));
+                }));
+            }
+            go.countDown();
+            Set<Long> ids = new HashSet<>();
+            for (Future<List<Tag>> result : results) {
+                List<Tag> tags = result.get();
+                assertEquals(2, tags.size());
+                ids.add(tags.get(0).getTagId());
+            }
+            assertEquals(1, ids.size());
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(1, rows(name));
+        assertEquals(1, rows("shared_" + name));
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.main;
+
+import com.example.main.model.Tag;
+import com.example.main.repository.TagRepository;
+import com.example.main.service.TagService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tag resolution against a stand-in for the tags table that, like MySQL's default
+ * collation, compares names case-insensitively.
+ */
+public class TagServiceTest {
+    @Mock
+    private TagRepository tagRepository;
+
+    @InjectMocks
+    private TagService tagService;
+
+    private final Map<String, Tag> table = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    // names whose rows the cached query cannot see yet, as if committed after the snapshot
+    private final Map<String, Boolean> invisible = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        doAnswer(inv -> {
+            for (String name : (Collection<String>) inv.getArgument(0)) {
+                table.computeIfAbsent(key(name), k -> {
+                    Tag tag = new Tag();
+                    tag.setTagId(nextId.getAndIncrement());
+                    tag.setName(name);
+                    return tag;
+                });
+            }
+            return null;
+        }).when(tagRepository).insertIgnoringDuplicates(anyCollection());
+        when(tagRepository.findByNameIn(anyCollection())).thenAnswer(inv -> ((Collection<String>) inv.getArgument(0)).stream()
+                .filter(name -> !invisible.containsKey(key(name)))
+                .map(name -> table.get(key(name)))
+                .filter(tag -> tag != null)
+                .toList());
+        when(tagRepository.findCommittedByNameIn(anyCollection())).thenAnswer(inv -> ((Collection<String>) inv.getArgument(0)).stream()
+                .map(name -> table.get(key(name)))
+                .filter(tag -> tag != null)
+                .toList());
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static List<String> names(List<Tag> tags) {
+        return tags.stream().map(Tag::getName).toList();
+    }
+
+    @Test
+    void namesMatchCaseInsensitivelyAndKeepTheirOrder() {
+        List<Tag> first = tagService.resolveTags(List.of("Java", " spring ", "", "JAVA"));
+        assertEquals(List.of("Java", "spring"), names(first));
+
+        List<Tag> second = tagService.resolveTags(List.of("SPRING", "java", "Kotlin"));
+        assertEquals(List.of("spring", "Java", "Kotlin"), names(second));
+        assertEquals(first.get(1).getTagId(), second.get(0).getTagId());
+        assertEquals(first.get(0).getTagId(), second.get(1).getTagId());
+        assertEquals(3, table.size());
+        // known tags, in any case, skip the insert
+        verify(tagRepository).insertIgnoringDuplicates(List.of("Kotlin"));
+        assertEquals(first.get(0).getTagId(), tagService.findTagId("jAvA").orElseThrow());
+    }
+
+    @Test
+    void staleDictionaryEntryIsRecreated() {
+        Long deleted = tagService.resolveTags(List.of("java")).get(0).getTagId();
+        // deleted behind the dictionary's back
+        table.remove("java");
+
+        Tag recreated = tagService.resolveTags(List.of("java", "spring")).get(0);
+        assertNotEquals(deleted, recreated.getTagId());
+        assertEquals(recreated.getTagId(), tagService.findTagId("java").orElseThrow());
+        // once when first created, once more when the dictionary turned out to be stale
+        verify(tagRepository, times(2)).insertIgnoringDuplicates(List.of("java"));
+    }
+
+    @Test
+    void tagCommittedByAnotherRequestIsReadWithALockingRead() {
+        // another request inserts the same new tag first; this one's snapshot misses it
+        table.put("kotlin", tag(42L, "Kotlin"));
+        invisible.put("kotlin", true);
+
+        List<Tag> tags = tagService.resolveTags(List.of("kotlin"));
+        assertEquals(42L, tags.get(0).getTagId());
+    }
+
+    @Test
+    void unresolvableTagsFailInsteadOfBeingDropped() {
+        when(tagRepository.findCommittedByNameIn(anyCollection())).thenReturn(List.of());
+        invisible.put("ghost", true);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> tagService.resolveTags(List.of("java", "ghost")));
+        assertTrue(e.getMessage().contains("ghost"));
+    }
+
+    private static Tag tag(long id, String name) {
+        Tag tag = new Tag();
+        tag.setTagId(id);
+        tag.setName(name);
+        return tag;
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.main;
+
+import com.example.main.dto.RelatedTagDto;
+import com.example.main.dto.TagStatsDto;
+import com.example.main.repository.QuestionActivityView;
+import com.example.main.repository.QuestionRepository;
+import com.example.main.repository.QuestionTagView;
+import com.example.main.repository.TagNameView;
+import com.example.main.repository.TagRepository;
+import com.example.main.service.TagStatisticsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Applies creates, retags, answers and deletes incrementally and checks after each one
+ * that the published figures match a full rebuild of the same data.
+ */
+public class TagStatisticsServiceTest {
+    private static final long JAVA = 1L;
+    private static final long SPRING = 2L;
+    private static final long KOTLIN = 3L;
+    private static final long SOLO = 4L;
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    @Mock
+    private QuestionRepository questionRepository;
+
+    @Mock
+    private TagRepository tagRepository;
+
+    // the questions table, with its tags, answer count, creation and last answer time
+    private record Row(List<Long> tags, int answers, LocalDateTime createdAt, LocalDateTime lastAnswerAt) {
+    }
+
+    private final Map<Long, Row> questions = new ConcurrentSkipListMap<>();
+    private final Map<Long, String> tagNames = Map.of(JAVA, "java", SPRING, "spring", KOTLIN, "kotlin", SOLO, "solo");
+    private final List<TagStatisticsService> services = new ArrayList<>();
+    private TagStatisticsService incremental;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        when(tagRepository.findAllNames()).thenAnswer(inv -> tagNames.entrySet().stream().map(TagStatisticsServiceTest::name).toList());
+        when(tagRepository.findNamesByIdIn(anyCollection())).thenAnswer(inv -> ((Collection<?>) inv.getArgument(0)).stream()
+                .filter(tagNames::containsKey)
+                .map(id -> name(Map.entry((Long) id, tagNames.get(id))))
+                .toList());
+        when(questionRepository.findIdsAfter(anyLong(), any(Pageable.class))).thenAnswer(inv -> questions.keySet().stream()
+                .filter(id -> id > (long) inv.getArgument(0))
+                .limit(((Pageable) inv.getArgument(1)).getPageSize())
+                .toList());
+        when(questionRepository.findTagIdsByIdIn(anyCollection())).thenAnswer(inv -> {
+            List<QuestionTagView> rows = new ArrayList<>();
+            for (Object id : (Collection<?>) inv.getArgument(0)) {
+                Row row = questions.get(id);
+                if (row != null) {
+                    if (row.tags().isEmpty()) {
+                        rows.add(tag((Long) id, null));
+                    }
+                    row.tags().forEach(tagId -> rows.add(tag((Long) id, tagId)));
+                }
+            }
+            return rows;
+        });
+        when(questionRepository.findActivityByIdIn(anyCollection())).thenAnswer(inv -> ((Collection<?>) inv.getArgument(0)).stream()
+                .filter(questions::containsKey)
+                .map(id -> activity((Long) id, questions.get(id)))
+                .toList());
+
+        // q10 and q11 are older than anything created later, so deleting them never
+        // lowers a tag's last activity, which only a rebuild does
+        questions.put(10L, new Row(List.of(JAVA), 1, T0, T0.plusHours(1)));
+        questions.put(11L, new Row(List.of(JAVA, SPRING), 0, T0.plusHours(2), null));
+        questions.put(12L, new Row(List.of(), 0, T0.plusHours(3), null));
+        incremental = start();
+        assertMatchesRebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        services.forEach(service -> ReflectionTestUtils.invokeMethod(service, "stop"));
+    }
+
+    private TagStatisticsService start() throws Exception {
+        TagStatisticsService service = new TagStatisticsService();
+        ReflectionTestUtils.setField(service, "questionRepository", questionRepository);
+        ReflectionTestUtils.setField(service, "tagRepository", tagRepository);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "rebuildIntervalMs", 3_600_000L);
+        // small batches, so building pages through the questions
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        service.start();
+        services.add(service);
+        await(service);
+        return service;
+    }
+
+    // Waits for everything queued on the service's single statistics thread
+    private static void await(TagStatisticsService service) throws Exception {
+        ((ExecutorService) ReflectionTestUtils.getField(service, "indexer")).submit(() -> { }).get();
+    }
+
+    private void changed(Long... questionIds) throws Exception {
+        incremental.questionsChanged(List.of(questionIds));
+        await(incremental);
+        assertMatchesRebuild();
+    }
+
+    private void assertMatchesRebuild() throws Exception {
+        TagStatisticsService rebuilt = start();
+        assertEquals(snapshot(rebuilt), snapshot(incremental));
+    }
+
+    private List<String> snapshot(TagStatisticsService service) {
+        List<String> lines = new ArrayList<>();
+        for (TagStatsDto tag : service.popular(100).orElseThrow()) {
+            lines.add(tag.getTagId() + " " + tag.getName() + " questions=" + tag.getQuestionCount()
+                    + " unanswered=" + tag.getUnansweredCount() + " last=" + tag.getLastActivity());
+        }
+        for (Long tagId : new TreeMap<>(tagNames).keySet()) {
+            for (RelatedTagDto other : service.related(tagId, 50).orElseThrow()) {
+                lines.add(tagId + " ~ " + other.getTagId() + " " + other.getName() + " shared=" + other.getSharedQuestions());
+            }
+        }
+        return lines;
+    }
+
+    private TagStatsDto stats(long tagId) {
+        return incremental.popular(100).orElseThrow().stream()
+                .filter(tag -> tag.getTagId() == tagId)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static List<Long> relatedIds(TagStatisticsService service, long tagId) {
+        return service.related(tagId, 50).orElseThrow().stream().map(RelatedTagDto::getTagId).toList();
+    }
+
+    @Test
+    void createRetagAnswerAndDeleteMatchARebuild() throws Exception {
+        assertEquals(2, stats(JAVA).getQuestionCount());
+        assertEquals(1, stats(JAVA).getUnansweredCount());
+
+        // create
+        questions.put(13L, new Row(List.of(JAVA, KOTLIN), 0, T0.plusHours(4), null));
+        changed(13L);
+        assertEquals(3, stats(JAVA).getQuestionCount());
+        assertEquals(2, stats(JAVA).getUnansweredCount());
+        assertEquals(List.of(SPRING, KOTLIN), relatedIds(incremental, JAVA));
+
+        // retag: q11 leaves java for kotlin, and an untagged question gets a tag
+        questions.put(11L, new Row(List.of(SPRING, KOTLIN), 0, T0.plusHours(2), null));
+        questions.put(12L, new Row(List.of(SPRING), 0, T0.plusHours(3), null));
+        changed(11L, 12L);
+        assertEquals(2, stats(JAVA).getQuestionCount());
+        assertEquals(List.of(KOTLIN), relatedIds(incremental, JAVA));
+        assertEquals(2, stats(SPRING).getQuestionCount());
+
+        // answer
+        questions.put(13L, new Row(List.of(JAVA, KOTLIN), 1, T0.plusHours(4), T0.plusHours(6)));
+        changed(13L);
+        assertEquals(0, stats(JAVA).getUnansweredCount());
+        assertEquals(T0.plusHours(6), stats(KOTLIN).getLastActivity());
+
+        // delete
+        questions.remove(10L);
+        changed(10L);
+        assertEquals(1, stats(JAVA).getQuestionCount());
+    }
+
+    @Test
+    void tagIsDroppedWhenItsLastQuestionGoes() throws Exception {
+        // older than the rest, see setUp
+        questions.put(20L, new Row(List.of(SOLO, JAVA), 0, T0.minusHours(1), null));
+        changed(20L);
+        assertEquals(1, stats(SOLO).getQuestionCount());
+        assertEquals(List.of(JAVA), relatedIds(incremental, SOLO));
+        assertTrue(relatedIds(incremental, JAVA).contains(SOLO));
+
+        // retagged away from solo, then deleted
+        questions.put(20L, new Row(List.of(JAVA), 0, T0.minusHours(1), null));
+        changed(20L);
+        assertNull(stats(SOLO));
+        assertEquals(List.of(), relatedIds(incremental, SOLO));
+        assertFalse(relatedIds(incremental, JAVA).contains(SOLO));
+
+        questions.remove(20L);
+        changed(20L);
+        questions.remove(10L);
+        questions.remove(11L);
+        changed(10L, 11L);
+        assertNull(stats(JAVA));
+        assertNull(stats(SPRING));
+        assertEquals(List.of(), incremental.popular(100).orElseThrow());
+    }
+
+    private static TagNameView name(Map.Entry<Long, String> entry) {
+        return new TagNameView() {
+            public Long getId() { return entry.getKey(); }
+            public String getName() { return entry.getValue(); }
+        };
+    }
+
+    private static QuestionTagView tag(Long questionId, Long tagId) {
+        return new QuestionTagView() {
+            public Long getQuestionId() { return questionId; }
+            public Long getTagId() { return tagId; }
+        };
+    }
+
+    private static QuestionActivityView activity(Long id, Row row) {
+        return new QuestionActivityView() {
+            public Long getId() { return id; }
+            public Integer getAnswerCount() { return row.answers(); }
+            public LocalDateTime getCreatedAt() { return row.createdAt(); }
+            public LocalDateTime getLastAnswerAt() { return row.lastAnswerAt(); }
+        };
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.main;
+
+import com.example.main.dto.QuestionDto;
+import com.example.main.dto.UserDto;
+import com.example.main.repository.UserRepository;
+import com.example.main.service.QuestionService;
+import com.example.main.service.UserService;
+import com.example.main.stats.LatencyHistogram;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Sends bursts of 1k to 10k concurrent {@code GET /questions/find/{id}} requests over HTTP
+ * to the application on a random port, backed by the configured database: once on Tomcat's
+ * platform threads and once with {@code spring.threads.virtual.enabled}, each in its own
+ * application context. Every client waits for its response on a virtual thread of its own.
+ * Run with {@code -Dbenchmark=true}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.threads.virtual.enabled=false")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class ThreadModeBenchmarkTest {
+    private static final int[] CLIENTS = {1_000, 5_000, 10_000};
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private QuestionService questionService;
+    @Autowired
+    private UserRepository userRepository;
+
+    @LocalServerPort
+    private int port;
+
+    private Long authorId;
+    private Long questionId;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = "bench_threads_" + System.currentTimeMillis();
+        UserDto author = userService.createUser(suffix, suffix + "@example.com", "password123", null);
+        authorId = author.getUserId();
+        QuestionDto question = questionService.createQuestion(authorId, "Benchmark question", "Benchmark body", null, null);
+        questionId = question.getQuestionId();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        if (questionId != null) {
+            questionService.deleteQuestion(questionId);
+        }
+        if (authorId != null) {
+            userRepository.deleteById(authorId);
+        }
+    }
+
+    @Test
+    void platformThreads() throws Exception {
+        load("platform", port);
+    }
+
+    @Nested
+    @TestPropertySource(properties = "spring.threads.virtual.enabled=true")
+    class VirtualThreads {
+        @LocalServerPort
+        private int port;
+
+        @Test
+        void virtualThreads() throws Exception {
+            load("virtual", port);
+        }
+    }
+
+    private void load(String label, int serverPort) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + serverPort + "/questions/find/" + questionId))
+                .GET()
+                .build();
+        try (HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+            // warm up Tomcat, the connection pool and the JIT
+            burst(label, client, request, 1_000, false);
+            for (int clients : CLIENTS) {
+                burst(label, client, request, clients, true);
+            }
+        }
+    }
+
+    private void burst(String label, HttpClient client, HttpRequest request, int clients, boolean print) throws Exception {
+        LatencyHistogram latencies = new LatencyHistogram();
+        List<Future<Integer>> responses = new ArrayList<>(clients);
+        long start = System.nanoTime();
+        try (ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                responses.add(senders.submit(() -> {
+                    long sent = System.nanoTime();
+                    int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    latencies.record(System.nanoTime() - sent);
+                    return status;
+                }));
+            }
+            for (Future<Integer> response : responses) {
+                assertEquals(200, response.get());
+            }
+        }
+        if (print) {
+            double seconds = (System.nanoTime() - start) / 1e9;
+            LatencyHistogram.Snapshot snapshot = latencies.snapshot();
+            System.out.printf("%-9s %,6d clients in %6.2f s (%,8.0f req/s)  p50 %8.1f ms  p99 %8.1f ms  max %8.1f ms%n",
+                    label, clients, seconds, clients / seconds, snapshot.p50Ms(), snapshot.p99Ms(), snapshot.maxMs());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.main;
+
+import com.example.main.service.ThreadPinningMonitor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ThreadPinningMonitorTest {
+    private final ThreadPinningMonitor monitor = new ThreadPinningMonitor();
+
+    @AfterEach
+    void tearDown() {
+        monitor.stop();
+    }
+
+    @Test
+    void reportsBlockingInsideSynchronizedOnAVirtualThread() throws Exception {
+        ReflectionTestUtils.setField(monitor, "enabled", true);
+        ReflectionTestUtils.setField(monitor, "thresholdMs", 10L);
+        monitor.start();
+        assertTrue(monitor.isRunning());
+
+        Object lock = new Object();
+        Thread.ofVirtual().start(() -> {
+            synchronized (lock) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }).join();
+
+        // events reach the stream when the recorder flushes, about once a second
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (monitor.getPinnedTimes().count() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertEquals(1, monitor.getPinnedTimes().count());
+        assertTrue(monitor.getPinnedTimes().maxMs() >= 10, () -> monitor.getPinnedTimes().toString());
+        String site = monitor.getSites(1).keySet().iterator().next();
+        assertTrue(site.startsWith(ThreadPinningMonitorTest.class.getName()), site);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.main;
+
+import com.example.main.search.TrigramIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TrigramIndexTest {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex();
+        index.put(1, "alice", "alice@example.com", "Berlin", "Java developer", 10f);
+        index.put(2, "malice", "m@example.com", "Paris", "Security", 50f);
+        index.put(3, "bob", "bob@work.org", "Alicante", "Likes alice in wonderland", 99f);
+        index.put(4, "carol", "carol@example.com", null, null, 5f);
+    }
+
+    private List<Long> ids(String keyword) {
+        return index.search(keyword, 0, 10).hits().stream().map(TrigramIndex.Hit::userId).collect(Collectors.toList());
+    }
+
+    @Test
+    void ranksUsernameMatchesAboveOtherFieldsThenByScore() {
+        // exact username, then a username containing it, then location, then bio
+        assertEquals(List.of(1L, 2L, 3L), ids("alice"));
+        assertEquals(TrigramIndex.Match.USERNAME_EXACT, index.search("ALICE", 0, 1).hits().get(0).match());
+    }
+
+    @Test
+    void shortKeywordsMatchFieldPrefixes() {
+        assertEquals(List.of(1L, 3L), ids("al"));
+        assertEquals(List.of(3L, 1L), ids("b"));
+    }
+
+    @Test
+    void requiresTheWholeKeywordNotJustItsTrigrams() {
+        // both trigrams of "abcd" are in the username, but not next to each other
+        index.put(5, "abcxbcd", null, null, null, 0f);
+        assertTrue(ids("abcd").isEmpty());
+        assertEquals(List.of(5L), ids("xbcd"));
+        assertEquals(List.of(2L, 1L, 4L), ids("example.com"));
+    }
+
+    @Test
+    void reflectsUpdatesRemovalsAndScoreChanges() {
+        index.put(4, "carol", "carol@example.com", "Berlin", null, 5f);
+        assertEquals(List.of(1L, 4L), ids("berlin"));
+
+        index.adjustScore(4, 100f);
+        assertEquals(List.of(4L, 1L), ids("berlin"));
+
+        index.remove(1);
+        assertEquals(List.of(4L), ids("berlin"));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void pagesResultsAndReportsTheTotal() {
+        TrigramIndex.Result page = index.search("example", 1, 1);
+        assertEquals(3, page.total());
+        assertEquals(1, page.hits().size());
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.main;
+
+import com.example.main.repository.UserRepository;
+import com.example.main.repository.UserSearchView;
+import com.example.main.search.TrigramIndex;
+import com.example.main.service.UserSearchService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class UserSearchServiceTest {
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private UserSearchService userSearchService;
+
+    // the users table
+    private final Map<Long, Float> scores = new ConcurrentHashMap<>(Map.of(1L, 10f, 2L, 20f));
+
+    private UserSearchView view(long id) {
+        float score = scores.get(id);
+        return new UserSearchView() {
+            public Long getId() { return id; }
+            public String getUsername() { return "searcher" + id; }
+            public String getEmail() { return "searcher" + id + "@example.com"; }
+            public String getLocation() { return null; }
+            public String getBio() { return null; }
+            public Float getScore() { return score; }
+        };
+    }
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(userSearchService, "enabled", true);
+        ReflectionTestUtils.setField(userSearchService, "batchSize", 100);
+        when(userRepository.findSearchViewsAfter(eq(0L), any())).thenAnswer(inv -> List.of(view(1), view(2)));
+        when(userRepository.findSearchViewsByIdIn(anyCollection())).thenAnswer(inv ->
+                ((java.util.Collection<Long>) inv.getArgument(0)).stream().map(this::view).toList());
+        userSearchService.start();
+        for (int i = 0; i < 500 && userSearchService.search("searcher", 0, 10).isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        ReflectionTestUtils.invokeMethod(userSearchService, "stop");
+    }
+
+    private Map<Long, Float> indexedScores() {
+        return userSearchService.search("searcher", 0, 10).orElseThrow().hits().stream()
+                .collect(Collectors.toMap(TrigramIndex.Hit::userId, TrigramIndex.Hit::score));
+    }
+
+    // Runs the callbacks registered during a transaction the way the transaction manager would
+    private void complete(boolean committed) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        for (TransactionSynchronization synchronization : synchronizations) {
+            if (committed) {
+                synchronization.afterCommit();
+            }
+            synchronization.afterCompletion(committed
+                    ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+    }
+
+    @Test
+    void scoreChangesAreReadBackOnlyOnceCommitted() throws Exception {
+        assertEquals(Map.of(1L, 10f, 2L, 20f), indexedScores());
+
+        TransactionSynchronizationManager.initSynchronization();
+        scores.put(1L, 12.5f);
+        userSearchService.scoreChanged(1L);
+        scores.put(1L, 10f);
+        complete(false);
+        verify(userRepository, after(200).never()).findSearchViewsByIdIn(anyCollection());
+        assertEquals(Map.of(1L, 10f, 2L, 20f), indexedScores());
+
+        TransactionSynchronizationManager.initSynchronization();
+        scores.put(2L, 25f);
+        userSearchService.scoreChanged(2L);
+        // a second change in the same transaction does not add up with the first
+        userSearchService.scoreChanged(2L);
+        complete(true);
+        for (int i = 0; i < 500 && indexedScores().get(2L) != 25f; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(Map.of(1L, 10f, 2L, 25f), indexedScores());
+    }
+}
@@ -3,7 +3,13 @@ package com.example.main;
 import com.example.main.dto.UserDto;
 import com.example.main.model.User;
 import com.example.main.repository.UserRepository;
+import com.example.main.security.AccessPolicy;
+import com.example.main.security.TokenRevocationList;
+import com.example.main.service.AuthorSummaryService;
+import com.example.main.service.LeaderboardService;
+import com.example.main.service.LoginResult;
 import com.example.main.service.NotificationService;
+import com.example.main.service.UserSearchService;
 import com.example.main.service.UserService;
 import com.example.main.utils.PasswordHashingService;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,10 +22,13 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -33,6 +42,21 @@ public class UserServiceTest {
     @Mock
     private NotificationService notificationService;
 
+    @Mock
+    private UserSearchService userSearchService;
+
+    @Mock
+    private LeaderboardService leaderboardService;
+
+    @Mock
+    private AuthorSummaryService authorSummaryService;
+
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+
+    @Mock
+    private AccessPolicy accessPolicy;
+
     @InjectMocks
     private UserService userService;
 
@@ -99,11 +123,7 @@ public class UserServiceTest {
 
     @Test
     void banUser() {
-        User moderator = new User();
-        moderator.setId(2L);
-        moderator.setModerator(true);
-
-        when(userRepository.findById(2L)).thenReturn(Optional.of(moderator));
+        when(accessPolicy.isModerator(2L)).thenReturn(true);
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         when(userRepository.save(any(User.class))).thenReturn(user);
 
@@ -123,4 +143,18 @@ public class UserServiceTest {
 
         assertTrue(result);
     }
+
+    @Test
+    void loginLooksUpTheUserOnceAndStoresAnUpgradedHash() {
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(passwordHashingService.verifyPasswordAsync("password", "hashedpassword"))
+                .thenReturn(CompletableFuture.completedFuture(new PasswordHashingService.Verification(true, "rehashed")));
+
+        LoginResult result = userService.login("testuser", "password").join();
+
+        assertEquals(LoginResult.Status.AUTHENTICATED, result.status());
+        assertEquals("testuser", result.user().getUsername());
+        verify(userRepository, times(1)).findByUsername("testuser");
+        verify(userRepository).save(argThat(saved -> "rehashed".equals(saved.getPasswordHash())));
+    }
 }
@@ -0,0 +1,63 @@
+package com.example.main;
+
+import com.example.main.controller.VoteController;
+import com.example.main.security.AccessPolicy;
+import com.example.main.service.VotePipeline;
+import com.example.main.service.VoteService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class VoteControllerTest {
+    @Mock
+    private VoteService voteService;
+
+    @Mock
+    private VotePipeline votePipeline;
+
+    @Mock
+    private AccessPolicy accessPolicy;
+
+    @InjectMocks
+    private VoteController voteController;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(accessPolicy.actsAs(anyLong())).thenReturn(true);
+        when(votePipeline.isEnabled()).thenReturn(true);
+    }
+
+    @Test
+    void unknownVoteTypesAreRejectedBeforeReachingEitherPath() {
+        assertEquals(HttpStatus.BAD_REQUEST, voteController.voteOnQuestion(
+                Map.of("userId", 1, "questionId", 2, "voteType", "sideways")).getStatusCode());
+        when(votePipeline.isEnabled()).thenReturn(false);
+        assertEquals(HttpStatus.BAD_REQUEST, voteController.voteOnAnswer(
+                Map.of("userId", 1, "answerId", 3, "voteType", "UPVOTE")).getStatusCode());
+
+        verify(votePipeline, never()).submit(any(), anyBoolean(), any(), any());
+        verify(voteService, never()).voteOnQuestion(any(), any(), any());
+        verify(voteService, never()).voteOnAnswer(any(), any(), any());
+    }
+
+    @Test
+    void pipelineOutcomesMapToAcceptedOrTooManyRequests() {
+        when(votePipeline.submit(1L, false, 2L, "upvote")).thenReturn(VotePipeline.Outcome.QUEUED);
+        when(votePipeline.submit(1L, true, 3L, "downvote")).thenReturn(VotePipeline.Outcome.FULL);
+
+        assertEquals(HttpStatus.ACCEPTED, voteController.voteOnQuestion(
+                Map.of("userId", 1, "questionId", 2, "voteType", "upvote")).getStatusCode());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, voteController.voteOnAnswer(
+                Map.of("userId", 1, "answerId", 3, "voteType", "downvote")).getStatusCode());
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.main;
+
+import com.example.main.dto.QuestionDto;
+import com.example.main.dto.UserDto;
+import com.example.main.model.Vote;
+import com.example.main.repository.QuestionRepository;
+import com.example.main.repository.UserRepository;
+import com.example.main.repository.VoteRepository;
+import com.example.main.service.QuestionService;
+import com.example.main.service.UserService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Inserts 100k votes the way Hibernate does for the old IDENTITY mapping, one INSERT per
+ * row reading back its generated key, and then through {@link Vote} with pooled ids,
+ * row at a time and in JDBC batches of 50. Run with {@code -Dbenchmark=true}.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class VoteInsertBenchmarkTest {
+    private static final int VOTES = 100_000;
+    private static final int CHUNK = 1_000;
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private QuestionService questionService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private QuestionRepository questionRepository;
+    @Autowired
+    private VoteRepository voteRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManager entityManager;
+
+    private Long voterId;
+    private Long authorId;
+    private Long questionId;
+    private boolean identityTable;
+
+    @Test
+    void compareRowAtATimeWithBatchedInserts() {
+        long suffix = System.currentTimeMillis();
+        UserDto author = userService.createUser("bench_author_" + suffix, "bench_author_" + suffix + "@example.com", "password123", null);
+        UserDto voter = userService.createUser("bench_voter_" + suffix, "bench_voter_" + suffix + "@example.com", "password123", null);
+        authorId = author.getUserId();
+        voterId = voter.getUserId();
+        QuestionDto question = questionService.createQuestion(authorId, "Benchmark question", "Benchmark body", null, null);
+        questionId = question.getQuestionId();
+        long before = voteRepository.count();
+        // created here rather than mapped, so the table exists only while the benchmark runs;
+        // one left by the old mapped entity is replaced
+        jdbcTemplate.execute("DROP TABLE IF EXISTS identity_votes");
+        jdbcTemplate.execute("CREATE TABLE identity_votes (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "user_id BIGINT NOT NULL, question_id BIGINT, vote_type VARCHAR(255) NOT NULL, "
+                + "created_at DATETIME(6) NOT NULL)");
+        identityTable = true;
+
+        // the first round warms up the JIT and the connection pool for all three
+        for (int round = 1; round <= 2; round++) {
+            long start = System.nanoTime();
+            insertIdentityVotes();
+            report(round, "IDENTITY ids", start);
+
+            start = System.nanoTime();
+            insertVotes(1);
+            report(round, "pooled ids, unbatched", start);
+
+            start = System.nanoTime();
+            insertVotes(50);
+            report(round, "pooled ids, batched", start);
+        }
+
+        assertEquals(before + 4L * VOTES, voteRepository.count());
+        assertEquals(2 * VOTES, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM identity_votes WHERE question_id = ?", Integer.class, questionId));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        if (identityTable) {
+            jdbcTemplate.execute("DROP TABLE identity_votes");
+        }
+        if (questionId != null) {
+            jdbcTemplate.update("DELETE FROM votes WHERE question_id = ?", questionId);
+            questionService.deleteQuestion(questionId);
+        }
+        if (voterId != null) {
+            userRepository.deleteById(voterId);
+        }
+        if (authorId != null) {
+            userRepository.deleteById(authorId);
+        }
+    }
+
+    private Vote vote() {
+        Vote vote = new Vote();
+        vote.setUser(userRepository.getReferenceById(voterId));
+        vote.setQuestion(questionRepository.getReferenceById(questionId));
+        vote.setVoteType("upvote");
+        return vote;
+    }
+
+    // IDENTITY ids are only known after each INSERT runs, so Hibernate ignores the batch size
+    // for them and executes every row on its own, as here
+    private void insertIdentityVotes() {
+        for (int from = 0; from < VOTES; from += CHUNK) {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i < CHUNK; i++) {
+                    jdbcTemplate.update(connection -> {
+                        PreparedStatement insert = connection.prepareStatement(
+                                "INSERT INTO identity_votes (user_id, question_id, vote_type, created_at) VALUES (?, ?, ?, ?)",
+                                Statement.RETURN_GENERATED_KEYS);
+                        insert.setLong(1, voterId);
+                        insert.setLong(2, questionId);
+                        insert.setString(3, "upvote");
+                        insert.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
+                        return insert;
+                    }, new GeneratedKeyHolder());
+                }
+            });
+        }
+    }
+
+    private void insertVotes(int jdbcBatchSize) {
+        for (int from = 0; from < VOTES; from += CHUNK) {
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+                for (int i = 0; i < CHUNK; i++) {
+                    entityManager.persist(vote());
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+    }
+
+    private static void report(int round, String label, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.printf("round %d: %-22s %,d votes in %.2f s (%,.0f inserts/s)%n", round, label, VOTES, seconds, VOTES / seconds);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.main;
+
+import com.example.main.model.User;
+import com.example.main.repository.UserRepository;
+import com.example.main.service.AnswerService;
+import com.example.main.service.QuestionService;
+import com.example.main.service.VoteService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fires concurrent votes at one author's question and answer through the real vote path
+ * and reads the resulting scores back from the users table, so a read-modify-write of a
+ * score anywhere between the service and the database would show up as a wrong total.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class VoteScoreConcurrencyTest {
+    private static final int UPVOTERS = 1000;
+    private static final int DOWNVOTERS = 500;
+    // below the connection pool size: a vote that exhausts its block of table ids borrows a
+    // second connection to allocate the next one
+    private static final int THREADS = 8;
+
+    @Autowired
+    private VoteService voteService;
+
+    @Autowired
+    private QuestionService questionService;
+
+    @Autowired
+    private AnswerService answerService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long authorId;
+    private Long questionId;
+    private Long answerId;
+    private final List<Long> voterIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        String prefix = "concurrency_" + System.nanoTime();
+        authorId = user(prefix + "_author");
+        for (int i = 0; i < UPVOTERS + DOWNVOTERS; i++) {
+            voterIds.add(user(prefix + "_" + i));
+        }
+        questionId = questionService.createQuestion(authorId, "Concurrent votes", "Body", null, null).getQuestionId();
+        answerId = answerService.createAnswer(questionId, authorId, "Answer", null).getAnswerId();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        if (questionId != null) {
+            jdbcTemplate.update("DELETE FROM votes WHERE question_id = ? OR answer_id = ?", questionId, answerId);
+            questionService.deleteQuestion(questionId);
+        }
+        List<Long> userIds = new ArrayList<>(voterIds);
+        if (authorId != null) {
+            userIds.add(authorId);
+        }
+        // one bulk delete, which also clears the cached users
+        userRepository.deleteAllByIdInBatch(userIds);
+    }
+
+    // Saved directly: hashing thousands of passwords would dominate the test
+    private long user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPasswordHash("not-a-hash");
+        user.setCreatedAt(LocalDateTime.now());
+        return userRepository.save(user).getId();
+    }
+
+    @Test
+    void concurrentVotesKeepExactScoresInTheDatabase() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < voterIds.size(); i++) {
+                long voterId = voterIds.get(i);
+                String voteType = i < UPVOTERS ? "upvote" : "downvote";
+                results.add(pool.submit(() -> voteService.voteOnQuestion(voterId, questionId, voteType)));
+                results.add(pool.submit(() -> voteService.voteOnAnswer(voterId, answerId, voteType)));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(UPVOTERS * (2.5f + 5.0f) + DOWNVOTERS * (-1.5f - 2.5f), score(authorId));
+        assertEquals(0f, score(voterIds.get(0)));
+        // a downvoter pays the penalty on both the question and the answer
+        assertEquals(-3.0f, score(voterIds.get(UPVOTERS)));
+        assertEquals(UPVOTERS, jdbcTemplate.queryForObject(
+                "SELECT upvote_count FROM questions WHERE id = ?", Integer.class, questionId));
+        assertEquals(DOWNVOTERS, jdbcTemplate.queryForObject(
+                "SELECT downvote_count FROM answer WHERE id = ?", Integer.class, answerId));
+    }
+
+    private float score(long userId) {
+        return jdbcTemplate.queryForObject("SELECT score FROM users WHERE id = ?", Float.class, userId);
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.main.service;
+
+import com.example.main.model.Answer;
+import com.example.main.model.Question;
+import com.example.main.repository.AnswerRepository;
+import com.example.main.repository.QuestionRepository;
+import com.example.main.repository.UserRepository;
+import com.example.main.repository.VoteRepository;
+import com.example.main.repository.VoteStateView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Plays the same clicks through the synchronous vote path on one set of users and posts,
+ * and through {@link VoteService#applyBatch} on an identical second set, and compares the
+ * stored votes, counters and scores.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class VoteBatchParityTest {
+    private static final int VOTERS = 4;
+
+    @Autowired
+    private VoteService voteService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private QuestionService questionService;
+    @Autowired
+    private AnswerService answerService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private QuestionRepository questionRepository;
+    @Autowired
+    private AnswerRepository answerRepository;
+    @Autowired
+    private VoteRepository voteRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private record World(long author, List<Long> voters, long question, long answer) {
+    }
+
+    private final List<World> worlds = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        for (World world : worlds) {
+            jdbcTemplate.update("DELETE FROM votes WHERE question_id = ? OR answer_id = ?", world.question(), world.answer());
+            questionService.deleteQuestion(world.question());
+            List<Long> users = new ArrayList<>(world.voters());
+            users.add(world.author());
+            userRepository.deleteAllByIdInBatch(users);
+        }
+    }
+
+    private World createWorld(String prefix) {
+        String suffix = prefix + System.nanoTime();
+        long author = userService.createUser(suffix, suffix + "@example.com", "password123", null).getUserId();
+        List<Long> voters = new ArrayList<>();
+        for (int i = 0; i < VOTERS; i++) {
+            voters.add(userService.createUser(suffix + "_" + i, suffix + "_" + i + "@example.com", "password123", null).getUserId());
+        }
+        long question = questionService.createQuestion(author, "Parity question", "Body", null, null).getQuestionId();
+        long answer = answerService.createAnswer(question, author, "Parity answer", null).getAnswerId();
+        World world = new World(author, voters, question, answer);
+        worlds.add(world);
+        return world;
+    }
+
+    @Test
+    void batchedClicksEndWhereClickingOneByOneDoes() {
+        World sync = createWorld("parity_sync_");
+        World batched = createWorld("parity_batch_");
+        // stored votes to start from, so transitions are resolved against all three states
+        voteService.voteOnQuestion(sync.voters().get(0), sync.question(), "upvote");
+        voteService.voteOnQuestion(batched.voters().get(0), batched.question(), "upvote");
+        voteService.voteOnAnswer(sync.voters().get(1), sync.answer(), "downvote");
+        voteService.voteOnAnswer(batched.voters().get(1), batched.answer(), "downvote");
+
+        Random random = new Random(42);
+        Map<VoteKey, VoteTransition> batch = new LinkedHashMap<>();
+        for (int i = 0; i < VOTERS; i++) {
+            for (boolean onAnswer : new boolean[]{false, true}) {
+                int clicks = 1 + random.nextInt(4);
+                for (int c = 0; c < clicks; c++) {
+                    String type = random.nextBoolean() ? "upvote" : "downvote";
+                    if (onAnswer) {
+                        voteService.voteOnAnswer(sync.voters().get(i), sync.answer(), type);
+                    } else {
+                        voteService.voteOnQuestion(sync.voters().get(i), sync.question(), type);
+                    }
+                    batch.merge(new VoteKey(batched.voters().get(i), onAnswer, onAnswer ? batched.answer() : batched.question()),
+                            VoteTransition.click(type), VoteTransition::then);
+                }
+            }
+        }
+        // the author's own click is dropped by both paths
+        voteService.voteOnQuestion(sync.author(), sync.question(), "upvote");
+        batch.put(new VoteKey(batched.author(), false, batched.question()), VoteTransition.click("upvote"));
+
+        Map<VoteKey, VoteTransition> resolved = new HashMap<>();
+        voteService.applyBatch(batch, resolved::putAll);
+        assertEquals(2 * VOTERS, resolved.size());
+
+        assertEquals(votes(sync), votes(batched));
+        Question syncQuestion = questionRepository.findById(sync.question()).orElseThrow();
+        Question batchedQuestion = questionRepository.findById(batched.question()).orElseThrow();
+        assertEquals(syncQuestion.getUpvoteCount(), batchedQuestion.getUpvoteCount());
+        assertEquals(syncQuestion.getDownvoteCount(), batchedQuestion.getDownvoteCount());
+        Answer syncAnswer = answerRepository.findById(sync.answer()).orElseThrow();
+        Answer batchedAnswer = answerRepository.findById(batched.answer()).orElseThrow();
+        assertEquals(syncAnswer.getUpvoteCount(), batchedAnswer.getUpvoteCount());
+        assertEquals(syncAnswer.getDownvoteCount(), batchedAnswer.getDownvoteCount());
+        assertEquals(score(sync.author()), score(batched.author()));
+        for (int i = 0; i < VOTERS; i++) {
+            assertEquals(score(sync.voters().get(i)), score(batched.voters().get(i)), "voter " + i);
+        }
+    }
+
+    // Stored vote types by voter position, question votes first
+    private List<String> votes(World world) {
+        List<String> votes = new ArrayList<>();
+        Map<Long, String> onQuestion = new HashMap<>();
+        for (VoteStateView view : voteRepository.findQuestionVoteStates(List.of(world.question()), world.voters())) {
+            onQuestion.put(view.getUserId(), view.getVoteType());
+        }
+        Map<Long, String> onAnswer = new HashMap<>();
+        for (VoteStateView view : voteRepository.findAnswerVoteStates(List.of(world.answer()), world.voters())) {
+            onAnswer.put(view.getUserId(), view.getVoteType());
+        }
+        world.voters().forEach(voter -> votes.add(onQuestion.get(voter)));
+        world.voters().forEach(voter -> votes.add(onAnswer.get(voter)));
+        return votes;
+    }
+
+    private float score(long userId) {
+        userRepository.evictCached(userId);
+        return userRepository.findById(userId).orElseThrow().getScore();
+    }
+}
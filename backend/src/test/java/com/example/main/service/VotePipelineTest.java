@@ -0,0 +1,196 @@
+package com.example.main.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the pipeline against a mocked {@link VoteService} that keeps votes in a map,
+ * resolving each batch the way the database does.
+ */
+public class VotePipelineTest {
+    private static final VoteKey FIRST = new VoteKey(1L, false, 10L);
+    private static final VoteKey SECOND = new VoteKey(2L, true, 20L);
+
+    @Mock
+    private VoteService voteService;
+
+    @TempDir
+    Path journalDir;
+
+    private final Map<VoteKey, String> stored = new HashMap<>();
+    private final List<VotePipeline> pipelines = new ArrayList<>();
+    // what the next applyBatch calls do, in order; an empty list applies normally
+    private final List<Runnable> failures = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(voteService.applyBatch(any(), any())).thenAnswer(invocation -> {
+            Map<VoteKey, VoteTransition> batch = invocation.getArgument(0);
+            Consumer<Map<VoteKey, VoteTransition>> resolved = invocation.getArgument(1);
+            if (!failures.isEmpty()) {
+                failures.remove(0).run();
+            }
+            Map<VoteKey, String> outcomes = new LinkedHashMap<>();
+            Map<VoteKey, VoteTransition> absolute = new LinkedHashMap<>();
+            batch.forEach((key, transition) -> {
+                String newType = transition.apply(stored.get(key));
+                outcomes.put(key, newType);
+                absolute.put(key, VoteTransition.to(newType));
+            });
+            resolved.accept(absolute);
+            // "commit"
+            outcomes.forEach((key, newType) -> {
+                if (newType == null) {
+                    stored.remove(key);
+                } else {
+                    stored.put(key, newType);
+                }
+            });
+            return outcomes.size();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (VotePipeline pipeline : pipelines) {
+            ((ExecutorService) ReflectionTestUtils.getField(pipeline, "flusher")).shutdownNow();
+        }
+    }
+
+    private VotePipeline start(String durability, int capacity, int batchSize) throws Exception {
+        VotePipeline pipeline = new VotePipeline();
+        ReflectionTestUtils.setField(pipeline, "voteService", voteService);
+        ReflectionTestUtils.setField(pipeline, "enabled", true);
+        // flushed by hand
+        ReflectionTestUtils.setField(pipeline, "flushIntervalMs", 3_600_000L);
+        ReflectionTestUtils.setField(pipeline, "capacity", capacity);
+        ReflectionTestUtils.setField(pipeline, "batchSize", batchSize);
+        ReflectionTestUtils.setField(pipeline, "durability", durability);
+        ReflectionTestUtils.setField(pipeline, "journalDir", journalDir.toString());
+        pipeline.start();
+        pipelines.add(pipeline);
+        return pipeline;
+    }
+
+    // What a restart would recover now
+    private Map<VoteKey, VoteTransition> journaled() throws Exception {
+        VoteJournal journal = new VoteJournal(journalDir, false);
+        Map<VoteKey, VoteTransition> recovered = journal.open();
+        journal.close();
+        return recovered;
+    }
+
+    private void submit(VotePipeline pipeline, VoteKey key, String voteType) {
+        assertEquals(VotePipeline.Outcome.QUEUED, pipeline.submit(key.userId(), key.onAnswer(), key.targetId(), voteType));
+    }
+
+    @Test
+    void fullBufferRefusesNewKeysButNotRepeatClicks() throws Exception {
+        VotePipeline pipeline = start("none", 1, 500);
+
+        submit(pipeline, FIRST, "upvote");
+        assertEquals(VotePipeline.Outcome.FULL, pipeline.submit(SECOND.userId(), SECOND.onAnswer(), SECOND.targetId(), "upvote"));
+        submit(pipeline, FIRST, "downvote");
+        submit(pipeline, FIRST, "downvote");
+
+        pipeline.flush();
+        assertEquals(Map.of(), stored);
+        // the flush made room again
+        submit(pipeline, SECOND, "upvote");
+    }
+
+    @Test
+    void failedBatchIsRetriedAheadOfNewerClicks() throws Exception {
+        VotePipeline pipeline = start("journal", 10, 500);
+        failures.add(() -> {
+            throw new IllegalStateException("database unavailable");
+        });
+
+        submit(pipeline, FIRST, "upvote");
+        pipeline.flush();
+        assertEquals(Map.of(), stored);
+        submit(pipeline, FIRST, "downvote");
+        pipeline.flush();
+
+        // up then down is a downvote; the other order would have left an upvote
+        assertEquals(Map.of(FIRST, "downvote"), stored);
+    }
+
+    @Test
+    void restartAfterACrashMidFlushDoesNotReapplyCommittedBatches() throws Exception {
+        stored.put(FIRST, "upvote");
+        VotePipeline pipeline = start("journal", 10, 1);
+        submit(pipeline, FIRST, "downvote");
+        submit(pipeline, SECOND, "upvote");
+        // the process dies after the first batch commits, before the second starts
+        failures.add(() -> {
+        });
+        failures.add(() -> {
+            throw new OutOfMemoryError("crash");
+        });
+        assertThrows(OutOfMemoryError.class, pipeline::flush);
+        assertEquals(Map.of(FIRST, "downvote"), stored);
+
+        VotePipeline restarted = start("journal", 10, 1);
+        restarted.flush();
+        // replaying the downvote click on top of the committed downvote would have removed it
+        assertEquals(Map.of(FIRST, "downvote", SECOND, "upvote"), stored);
+
+        // and the journal no longer holds anything once the flush went through
+        assertEquals(Map.of(), journaled());
+    }
+
+    @Test
+    void retryFileSupersedesTheSegmentsItCameFrom() throws Exception {
+        VotePipeline pipeline = start("journal", 10, 1);
+        submit(pipeline, FIRST, "upvote");
+        submit(pipeline, SECOND, "downvote");
+        failures.add(() -> {
+        });
+        failures.add(() -> {
+            throw new IllegalStateException("deadlock");
+        });
+        pipeline.flush();
+        assertEquals(Map.of(FIRST, "upvote"), stored);
+
+        // restart before the retry is flushed: only the second vote is still pending
+        VotePipeline restarted = start("journal", 10, 1);
+        verify(voteService, times(2)).applyBatch(any(), any());
+        restarted.flush();
+        assertEquals(Map.of(FIRST, "upvote", SECOND, "downvote"), stored);
+        verify(voteService, times(3)).applyBatch(any(), any());
+    }
+
+    @Test
+    void drainAppliesWhatIsBufferedAndStopsAccepting() throws Exception {
+        VotePipeline pipeline = start("journal", 10, 500);
+        submit(pipeline, FIRST, "upvote");
+        submit(pipeline, SECOND, "downvote");
+
+        pipeline.drain();
+
+        assertEquals(Map.of(FIRST, "upvote", SECOND, "downvote"), stored);
+        assertEquals(VotePipeline.Outcome.FULL, pipeline.submit(FIRST.userId(), FIRST.onAnswer(), FIRST.targetId(), "upvote"));
+        assertEquals(Map.of(), journaled());
+    }
+}
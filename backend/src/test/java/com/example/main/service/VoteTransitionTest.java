@@ -0,0 +1,73 @@
+package com.example.main.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VoteTransitionTest {
+    private static final String[] STORED = {null, "upvote", "downvote"};
+
+    // One click the way the synchronous path handles it
+    private static String toggle(String stored, String click) {
+        return click.equals(stored) ? null : click;
+    }
+
+    private static List<List<String>> sequences(int maxLength) {
+        List<List<String>> sequences = new ArrayList<>();
+        sequences.add(List.of());
+        for (int i = 0; i < sequences.size(); i++) {
+            List<String> sequence = sequences.get(i);
+            if (sequence.size() < maxLength) {
+                for (String click : List.of("upvote", "downvote")) {
+                    List<String> longer = new ArrayList<>(sequence);
+                    longer.add(click);
+                    sequences.add(longer);
+                }
+            }
+        }
+        return sequences.subList(1, sequences.size());
+    }
+
+    @Test
+    void composedClicksMatchApplyingThemOneByOne() {
+        for (List<String> clicks : sequences(5)) {
+            VoteTransition composed = VoteTransition.click(clicks.get(0));
+            for (String click : clicks.subList(1, clicks.size())) {
+                composed = composed.then(VoteTransition.click(click));
+            }
+            for (String stored : STORED) {
+                String expected = stored;
+                for (String click : clicks) {
+                    expected = toggle(expected, click);
+                }
+                assertEquals(expected, composed.apply(stored), clicks + " from " + stored);
+                assertEquals(expected, VoteTransition.decode(composed.encode()).apply(stored));
+            }
+        }
+        // up, up, down: the second up removes the vote, so down is a fresh downvote from any state
+        VoteTransition upUpDown = VoteTransition.click("upvote").then(VoteTransition.click("upvote"))
+                .then(VoteTransition.click("downvote"));
+        assertEquals(Arrays.asList("downvote", "downvote", "downvote"),
+                Arrays.stream(STORED).map(upUpDown::apply).toList());
+    }
+
+    @Test
+    void resolvedStatesAreIdempotentAndUnknownTypesRejected() {
+        for (String target : STORED) {
+            VoteTransition resolved = VoteTransition.to(target);
+            for (String stored : STORED) {
+                assertEquals(target, resolved.apply(stored));
+                assertEquals(target, resolved.then(resolved).apply(stored));
+            }
+            // clicks after a resolved state act on that state
+            assertEquals(toggle(target, "upvote"), resolved.then(VoteTransition.click("upvote")).apply("downvote"));
+        }
+        assertThrows(IllegalArgumentException.class, () -> VoteTransition.click("sideways"));
+        assertThrows(IllegalArgumentException.class, () -> VoteTransition.click(null));
+        assertThrows(IllegalArgumentException.class, () -> VoteTransition.decode("13"));
+    }
+}